@@ -0,0 +1,83 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo;
+
+import org.neo4j.graphalgo.core.utils.AdmissionController;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.procedure.Description;
+import org.neo4j.procedure.Procedure;
+
+import java.util.stream.Stream;
+
+public class AdmissionProc {
+
+    @Procedure("algo.admission.list")
+    @Description("CALL algo.admission.list - lists the threads and memory reserved by running algorithms")
+    public Stream<ReservationResult> list() {
+        long now = System.currentTimeMillis();
+        return AdmissionController.GLOBAL.reservations().stream()
+                .map(reservation -> new ReservationResult(reservation, now));
+    }
+
+    @Procedure("algo.admission.status")
+    @Description("CALL algo.admission.status - the thread and memory budget of the admission control and how much of it is reserved; " +
+            "both budgets are 0 unless admission control has been enabled with the system properties " +
+            "neo4j.graphalgo.admission.threads or neo4j.graphalgo.admission.memory")
+    public Stream<StatusResult> status() {
+        return Stream.of(new StatusResult(AdmissionController.GLOBAL));
+    }
+
+    public static class ReservationResult {
+        public long id;
+        public String job;
+        public long concurrency;
+        public long estimatedBytes;
+        public long trackedBytes;
+        public String reserved;
+        public long runningMillis;
+
+        public ReservationResult(AdmissionController.Reservation reservation, long now) {
+            this.id = reservation.id();
+            this.job = reservation.job();
+            this.concurrency = reservation.concurrency();
+            this.estimatedBytes = reservation.estimatedBytes();
+            this.trackedBytes = reservation.trackedBytes();
+            this.reserved = AllocationTracker.humanReadable(reservation.reservedBytes());
+            this.runningMillis = now - reservation.startMillis();
+        }
+    }
+
+    public static class StatusResult {
+        public long threadBudget;
+        public long reservedThreads;
+        public long memoryBudget;
+        public long reservedBytes;
+        public long runningJobs;
+        public long waitingJobs;
+
+        public StatusResult(AdmissionController controller) {
+            this.threadBudget = controller.isLimited() ? controller.threadBudget() : 0L;
+            this.reservedThreads = controller.reservedThreads();
+            this.memoryBudget = controller.isLimited() ? controller.memoryBudget() : 0L;
+            this.reservedBytes = controller.reservedBytes();
+            this.runningJobs = controller.reservations().size();
+            this.waitingJobs = controller.waitingJobs();
+        }
+    }
+}
@@ -27,6 +27,9 @@ import org.neo4j.graphalgo.core.utils.Pools;
 import org.neo4j.graphalgo.core.utils.ProgressLogger;
 import org.neo4j.graphalgo.core.utils.ProgressTimer;
 import org.neo4j.graphalgo.core.utils.TerminationFlag;
+import org.neo4j.graphalgo.core.utils.metrics.JobMetrics;
+import org.neo4j.graphalgo.core.utils.metrics.MetricsRegistry;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
 import org.neo4j.graphalgo.core.write.Exporter;
 import org.neo4j.graphalgo.core.write.Translators;
 import org.neo4j.graphalgo.impl.LabelPropagation;
@@ -67,7 +70,7 @@ public final class LabelPropagationProc {
     @Procedure(name = "algo.labelPropagation", mode = Mode.WRITE)
     @Description("CALL algo.labelPropagation(" +
             "label:String, relationship:String, direction:String, " +
-            "{iterations:1, weightProperty:'weight', partitionProperty:'partition', write:true, concurrency:4}) " +
+            "{iterations:1, weightProperty:'weight', partitionProperty:'partition', write:true, concurrency:4, maxRuntime:0}) " +
             "YIELD nodes, iterations, didConverge, loadMillis, computeMillis, writeMillis, write, weightProperty, partitionProperty - " +
             "simple label propagation kernel")
     public Stream<LabelPropagationStats> labelPropagation(
@@ -101,19 +104,22 @@ public final class LabelPropagationProc {
             graphLoader.withDirection(direction);
         }
 
-        HeavyGraph graph = load(graphLoader, configuration, stats);
+        try (JobMetrics metrics = MetricsRegistry.GLOBAL.start("algo.labelPropagation", AllocationTracker.EMPTY)) {
+            stats.withMetrics(metrics);
+            HeavyGraph graph = load(graphLoader, configuration, stats, metrics);
 
-        if(graph.nodeCount() == 0) {
-            graph.release();
-            return Stream.of(stats.build());
-        }
+            if (graph.nodeCount() == 0) {
+                graph.release();
+                return Stream.of(stats.build());
+            }
 
-        int[] labels = compute(direction, iterations, batchSize, concurrency, graph, stats);
-        if (configuration.isWriteFlag(DEFAULT_WRITE) && partitionProperty != null) {
-            write(concurrency, partitionProperty, graph, labels, stats);
-        }
+            int[] labels = compute(direction, iterations, configuration.getMaxRuntime(), batchSize, concurrency, graph, stats, metrics);
+            if (configuration.isWriteFlag(DEFAULT_WRITE) && partitionProperty != null) {
+                write(concurrency, partitionProperty, graph, labels, stats);
+            }
 
-        return Stream.of(stats.build());
+            return Stream.of(stats.build());
+        }
     }
 
     @Procedure(value = "algo.labelPropagation.stream")
@@ -145,16 +151,20 @@ public final class LabelPropagationProc {
             graphLoader.withDirection(direction);
         }
         LabelPropagationStats.Builder stats = new LabelPropagationStats.Builder();
-        HeavyGraph graph = load(graphLoader, configuration, stats);
-
-
-        if(graph.nodeCount() == 0) {
-            graph.release();
-            return Stream.empty();
+        final HeavyGraph graph;
+        final int[] result;
+        try (JobMetrics metrics = MetricsRegistry.GLOBAL.start("algo.labelPropagation.stream", AllocationTracker.EMPTY)) {
+            stats.withMetrics(metrics);
+            graph = load(graphLoader, configuration, stats, metrics);
+
+            if (graph.nodeCount() == 0) {
+                graph.release();
+                return Stream.empty();
+            }
+
+            result = compute(direction, iterations, configuration.getMaxRuntime(), batchSize, concurrency, graph, stats, metrics, propertyMappings);
         }
 
-        int[] result = compute(direction, iterations, batchSize, concurrency, graph, stats, propertyMappings);
-
         graph.release();
 
         return IntStream.range(0, result.length)
@@ -168,11 +178,17 @@ public final class LabelPropagationProc {
             };
     }
 
-    private HeavyGraph load(GraphLoader graphLoader, ProcedureConfiguration config, LabelPropagationStats.Builder stats) {
+    private HeavyGraph load(
+            GraphLoader graphLoader,
+            ProcedureConfiguration config,
+            LabelPropagationStats.Builder stats,
+            JobMetrics metrics) {
         Class<? extends GraphFactory> graphImpl = config.getGraphImpl(
                 HeavyGraph.TYPE, HeavyGraph.TYPE, HeavyCypherGraphFactory.TYPE);
         try (ProgressTimer timer = stats.timeLoad()) {
-            return (HeavyGraph) graphLoader.load(graphImpl);
+            HeavyGraph graph = (HeavyGraph) graphLoader.load(graphImpl);
+            metrics.graph(graph.nodeCount(), graph.relationshipCount());
+            return graph;
         }
     }
 
@@ -188,10 +204,12 @@ public final class LabelPropagationProc {
     private int[] compute(
             Direction direction,
             int iterations,
+            long maxRuntime,
             int batchSize,
             int concurrency,
             HeavyGraph graph,
             LabelPropagationStats.Builder stats,
+            JobMetrics metrics,
             PropertyMapping... propertyMappings) {
         try (ProgressTimer timer = stats.timeEval()) {
             ExecutorService pool = batchSize > 0 ? Pools.DEFAULT : null;
@@ -199,9 +217,15 @@ public final class LabelPropagationProc {
             final LabelPropagation labelPropagation = new LabelPropagation(graph, batchSize, concurrency, pool);
             labelPropagation
                     .withProgressLogger(ProgressLogger.wrap(log, "LabelPropagation"))
-                    .withTerminationFlag(TerminationFlag.wrap(transaction))
+                    .withTerminationFlag(TerminationFlag.wrap(transaction, maxRuntime))
+                    .withMetrics(metrics)
                     .compute(direction, iterations);
             final int[] result = labelPropagation.labels();
+            if (labelPropagation.deadlineExceeded()) {
+                log.warn("LabelPropagation: maxRuntime of %d ms exceeded, returning labels after %d iterations",
+                        maxRuntime,
+                        labelPropagation.ranIterations());
+            }
 
             stats.iterations(labelPropagation.ranIterations());
             stats.didConverge(labelPropagation.didConverge());
@@ -20,9 +20,12 @@ package org.neo4j.graphalgo;
 
 import org.neo4j.graphalgo.api.Graph;
 import org.neo4j.graphalgo.api.GraphFactory;
+import org.neo4j.graphalgo.api.HugeGraph;
 import org.neo4j.graphalgo.core.GraphLoader;
 import org.neo4j.graphalgo.core.ProcedureConfiguration;
 import org.neo4j.graphalgo.core.ProcedureConstants;
+import org.neo4j.graphalgo.core.huge.HugeDeltaGraph;
+import org.neo4j.graphalgo.core.huge.HugeGraphSnapshot;
 import org.neo4j.graphalgo.core.loading.LoadGraphFactory;
 import org.neo4j.graphalgo.core.utils.Pools;
 import org.neo4j.graphalgo.core.utils.ProgressTimer;
@@ -30,10 +33,15 @@ import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
 import org.neo4j.graphalgo.impl.LabelPropagation;
 import org.neo4j.graphdb.Direction;
 import org.neo4j.kernel.api.KernelTransaction;
+import org.neo4j.kernel.configuration.Config;
 import org.neo4j.kernel.internal.GraphDatabaseAPI;
 import org.neo4j.logging.Log;
 import org.neo4j.procedure.*;
 
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.stream.Stream;
 
@@ -51,7 +59,7 @@ public final class LoadGraphProc {
     @Procedure(name = "algo.graph.load")
     @Description("CALL algo.graph.load(" +
             "name:String, label:String, relationship:String" +
-            "{direction:'OUT/IN/BOTH', undirected:true/false, sorted:true/false, nodeProperty:'value', nodeWeight:'weight', relationshipWeight: 'weight', graph:'heavy/huge/cypher'}) " +
+            "{direction:'OUT/IN/BOTH', undirected:true/false, sorted:true/false, nodeProperty:'value', nodeWeight:'weight', relationshipWeight: 'weight', inlineWeights:true/false, skipIndex:true/false, adjacencyStorage:'heap/direct/mapped', adjacencyStorageDir:'/path', splitRelationshipTypes:true/false, nodeProperties:['key'] or {name:'key'}, incremental:true/false, compactionThreshold:100000, nodeOrder:'none/degree/bfs/community', relationshipAggregation:'none/sum/min/max/count', transposeIncoming:true/false, adjacencyCodec:'varlong/pfor', graph:'heavy/huge/cypher/huge-cypher'}) " +
             "YIELD nodes, relationships, loadMillis, computeMillis, writeMillis, write, nodeProperty, nodeWeight, relationshipWeight - " +
             "load named graph")
     public Stream<LoadGraphStats> load(
@@ -89,36 +97,47 @@ public final class LoadGraphProc {
 
         try (ProgressTimer timer = ProgressTimer.start()) {
             Class<? extends GraphFactory> graphImpl = configuration.getGraphImpl();
+            AllocationTracker tracker = new AllocationTracker();
 
             Graph graph = new GraphLoader(dbAPI, Pools.DEFAULT)
                     .init(log, configuration.getNodeLabelOrQuery(),
                             configuration.getRelationshipOrQuery(), configuration)
                     .withName(name)
-                    .withAllocationTracker(new AllocationTracker())
+                    .withAllocationTracker(tracker)
                     .withOptionalRelationshipWeightsFromProperty(relationshipWeight, 1.0d)
                     .withOptionalNodeProperty(nodeProperty, 0.0d)
                     .withOptionalNodeWeightsFromProperty(nodeWeight, 1.0d)
-                    .withOptionalNodeProperties(
-                            PropertyMapping.of(LabelPropagation.PARTITION_TYPE, nodeProperty, 0.0d),
-                            PropertyMapping.of(LabelPropagation.WEIGHT_TYPE, nodeWeight, 1.0d)
-                    )
+                    .withOptionalNodeProperties(nodePropertyMappings(configuration, nodeProperty, nodeWeight))
                     .withDirection(direction)
                     .withSort(stats.sorted)
                     .asUndirected(stats.undirected)
                     .load(graphImpl);
             stats.nodes=graph.nodeCount();
+            stats.bytes = tracker.tracked();
             stats.loadMillis = timer.stop().getDuration();
-            LoadGraphFactory.set(name, graph);
+            LoadGraphFactory.set(name, graph, stats.bytes);
         }
 
         return Stream.of(stats);
     }
 
+    private static PropertyMapping[] nodePropertyMappings(
+            ProcedureConfiguration configuration,
+            String nodeProperty,
+            String nodeWeight) {
+        PropertyMapping[] additional = configuration.getNodePropertyMappings();
+        PropertyMapping[] mappings = new PropertyMapping[2 + additional.length];
+        mappings[0] = PropertyMapping.of(LabelPropagation.PARTITION_TYPE, nodeProperty, 0.0d);
+        mappings[1] = PropertyMapping.of(LabelPropagation.WEIGHT_TYPE, nodeWeight, 1.0d);
+        System.arraycopy(additional, 0, mappings, 2, additional.length);
+        return mappings;
+    }
+
     public static class LoadGraphStats {
         public String name, graph, direction;
         public boolean undirected;
         public boolean sorted;
-        public long nodes, loadMillis;
+        public long nodes, bytes, loadMillis;
         public boolean alreadyLoaded;
         public String nodeWeight, relationshipWeight, nodeProperty, loadNodes, loadRelationships;
     }
@@ -128,10 +147,9 @@ public final class LoadGraphProc {
     public Stream<GraphInfo> remove(@Name("name") String name) {
         GraphInfo info = new GraphInfo(name);
 
-        Graph graph = LoadGraphFactory.get(name);
-        if (graph != null) {
-            info.type = graph.getType();
-            info.nodes = graph.nodeCount();
+        LoadGraphFactory.Entry entry = LoadGraphFactory.entry(name);
+        if (entry != null) {
+            info.fill(entry);
             info.exists = LoadGraphFactory.remove(name);
             info.removed = true;
         }
@@ -139,27 +157,167 @@ public final class LoadGraphProc {
     }
 
     @Procedure(name = "algo.graph.info")
-    @Description("CALL algo.graph.info(name:String")
+    @Description("CALL algo.graph.info(name:String) " +
+            "YIELD name, type, exists, nodes, relationships, bytes, loadedAt, lastAccess, hits, pendingChanges")
     public Stream<GraphInfo> info(@Name("name") String name) {
         GraphInfo info = new GraphInfo(name);
-        Graph graph = LoadGraphFactory.get(name);
-        if (graph != null) {
-            info.type = graph.getType();
-            info.nodes = graph.nodeCount();
-            info.exists = true;
+        LoadGraphFactory.Entry entry = LoadGraphFactory.entry(name);
+        if (entry != null) {
+            info.fill(entry);
         }
         return Stream.of(info);
     }
 
+    @Procedure(name = "algo.graph.compact")
+    @Description("CALL algo.graph.compact(name:String) " +
+            "YIELD name, type, exists, nodes, relationships, bytes, loadedAt, lastAccess, hits, pendingChanges - " +
+            "merge the pending changes of an incremental graph into its adjacency")
+    public Stream<GraphInfo> compact(@Name("name") String name) {
+        GraphInfo info = new GraphInfo(name);
+        LoadGraphFactory.Entry entry = LoadGraphFactory.entry(name);
+        if (entry != null) {
+            if (!(entry.graph instanceof HugeDeltaGraph)) {
+                throw new IllegalArgumentException("Graph " + name + " has not been loaded with incremental:true");
+            }
+            ((HugeDeltaGraph) entry.graph).compact();
+            info.fill(entry);
+        }
+        return Stream.of(info);
+    }
+
+    @Procedure(name = "algo.graph.list")
+    @Description("CALL algo.graph.list() " +
+            "YIELD name, type, exists, nodes, relationships, bytes, loadedAt, lastAccess, hits, pendingChanges - " +
+            "list all named graphs, least recently used first")
+    public Stream<GraphInfo> list() {
+        return LoadGraphFactory.entries().stream().map(entry -> {
+            GraphInfo info = new GraphInfo(entry.name);
+            info.fill(entry);
+            return info;
+        });
+    }
+
+    @Procedure(name = "algo.graph.budget")
+    @Description("CALL algo.graph.budget(bytes:Number) " +
+            "YIELD budget, used, graphs, evicted - " +
+            "set the memory budget of the named graphs, evicting least recently used graphs that exceed it; " +
+            "a negative value keeps the current budget, 0 removes the limit")
+    public Stream<MemoryBudget> budget(@Name(value = "bytes", defaultValue = "-1") long bytes) {
+        MemoryBudget budget = new MemoryBudget();
+        if (bytes >= 0L) {
+            budget.evicted = LoadGraphFactory.setMemoryBudget(bytes == 0L ? LoadGraphFactory.UNLIMITED : bytes);
+        }
+        budget.budget = LoadGraphFactory.memoryBudget() == LoadGraphFactory.UNLIMITED ? 0L : LoadGraphFactory.memoryBudget();
+        budget.used = LoadGraphFactory.memoryUsage();
+        budget.graphs = LoadGraphFactory.entries().size();
+        return Stream.of(budget);
+    }
+
+    @Procedure(name = "algo.graph.save")
+    @Description("CALL algo.graph.save(name:String, file:String) " +
+            "YIELD name, file, nodes, bytes, millis - " +
+            "save a named huge graph to a snapshot file, relative to the directory of the " + HugeGraphSnapshot.DIRECTORY_SETTING + " setting")
+    public Stream<GraphSnapshotStats> save(
+            @Name("name") String name,
+            @Name("file") String file) {
+        Graph graph = LoadGraphFactory.get(name);
+        if (graph == null) {
+            throw new IllegalArgumentException("Graph " + name + " is not loaded");
+        }
+        if (!(graph instanceof HugeGraph)) {
+            throw new IllegalArgumentException("Only graphs of type " + HugeGraph.TYPE + " can be saved, but " + name + " is of type " + graph.getType());
+        }
+
+        Path path = snapshotFile(file);
+        GraphSnapshotStats stats = new GraphSnapshotStats(name, file);
+        try (ProgressTimer timer = ProgressTimer.start()) {
+            stats.bytes = HugeGraphSnapshot.write((HugeGraph) graph, path);
+            stats.nodes = graph.nodeCount();
+            stats.millis = timer.stop().getDuration();
+        }
+        return Stream.of(stats);
+    }
+
+    @Procedure(name = "algo.graph.restore")
+    @Description("CALL algo.graph.restore(name:String, file:String) " +
+            "YIELD name, file, nodes, bytes, millis - " +
+            "restore a named graph from a snapshot file that was created with algo.graph.save, " +
+            "relative to the directory of the " + HugeGraphSnapshot.DIRECTORY_SETTING + " setting")
+    public Stream<GraphSnapshotStats> restore(
+            @Name("name") String name,
+            @Name("file") String file) {
+        if (LoadGraphFactory.check(name)) {
+            throw new IllegalArgumentException("Graph " + name + " is already loaded");
+        }
+
+        Path path = snapshotFile(file);
+        GraphSnapshotStats stats = new GraphSnapshotStats(name, file);
+        try (ProgressTimer timer = ProgressTimer.start()) {
+            AllocationTracker tracker = new AllocationTracker();
+            HugeGraph graph = HugeGraphSnapshot.read(path, tracker);
+            LoadGraphFactory.set(name, graph, tracker.tracked());
+            stats.bytes = path.toFile().length();
+            stats.nodes = graph.nodeCount();
+            stats.millis = timer.stop().getDuration();
+        }
+        return Stream.of(stats);
+    }
+
+    private Path snapshotFile(String file) {
+        Path directory = dbAPI.getDependencyResolver()
+                .resolveDependency(Config.class)
+                .getRaw(HugeGraphSnapshot.DIRECTORY_SETTING)
+                .map(Paths::get)
+                .orElse(null);
+        return HugeGraphSnapshot.resolve(directory, file);
+    }
+
+    public static class GraphSnapshotStats {
+        public final String name, file;
+        public long nodes, bytes, millis;
+
+        public GraphSnapshotStats(String name, String file) {
+            this.name = name;
+            this.file = file;
+        }
+    }
+
     public static class GraphInfo {
         public final String name;
         public String type;
         public boolean exists;
         public boolean removed;
         public long nodes;
+        public long relationships;
+        public long bytes;
+        public long loadedAt;
+        public long lastAccess;
+        public long hits;
+        public long pendingChanges;
 
         public GraphInfo(String name) {
             this.name = name;
         }
+
+        void fill(LoadGraphFactory.Entry entry) {
+            type = entry.graph.getType();
+            nodes = entry.graph.nodeCount();
+            relationships = entry.relationships;
+            bytes = entry.bytes;
+            loadedAt = entry.loadedAt;
+            lastAccess = entry.lastAccess();
+            hits = entry.hits();
+            exists = true;
+            if (entry.graph instanceof HugeDeltaGraph) {
+                // incremental graphs change after loading
+                relationships = entry.graph.relationshipCount();
+                pendingChanges = ((HugeDeltaGraph) entry.graph).pendingChanges();
+            }
+        }
+    }
+
+    public static class MemoryBudget {
+        public long budget, used, graphs;
+        public List<String> evicted = Collections.emptyList();
     }
 }
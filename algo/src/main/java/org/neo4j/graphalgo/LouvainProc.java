@@ -58,7 +58,7 @@ public class LouvainProc {
 
     @Procedure(value = "algo.louvain", mode = Mode.WRITE)
     @Description("CALL algo.louvain(label:String, relationship:String, " +
-            "{weightProperty:'weight', defaultValue:1.0, write: true, writeProperty:'community', concurrency:4}) " +
+            "{weightProperty:'weight', defaultValue:1.0, write: true, writeProperty:'community', concurrency:4, maxRuntime:0}) " +
             "YIELD nodes, communityCount, iterations, loadMillis, computeMillis, writeMillis")
     public Stream<LouvainResult> louvain(
             @Name(value = "label", defaultValue = "") String label,
@@ -85,11 +85,12 @@ public class LouvainProc {
 
         final Louvain louvain = new Louvain(graph, Pools.DEFAULT, configuration.getConcurrency(), AllocationTracker.create())
                 .withProgressLogger(ProgressLogger.wrap(log, "Louvain"))
-                .withTerminationFlag(TerminationFlag.wrap(transaction));
+                .withTerminationFlag(TerminationFlag.wrap(transaction, configuration.getMaxRuntime()));
 
         // evaluation
         try (ProgressTimer timer = builder.timeEval()) {
             louvain.compute(configuration.getIterations(10), configuration.get("innerIterations", 10));
+            warnIfDeadlineExceeded(louvain, configuration);
             builder.withIterations(louvain.getLevel()).withCommunityCount(louvain.getCommunityCount());
         }
 
@@ -102,7 +103,7 @@ public class LouvainProc {
 
     @Procedure(value = "algo.louvain.stream")
     @Description("CALL algo.louvain.stream(label:String, relationship:String, " +
-            "{weightProperty:'propertyName', defaultValue:1.0, concurrency:4) " +
+            "{weightProperty:'propertyName', defaultValue:1.0, concurrency:4, maxRuntime:0) " +
             "YIELD nodeId, community - yields a setId to each node id")
     public Stream<Louvain.StreamingResult> louvainStream(
             @Name(value = "label", defaultValue = "") String label,
@@ -118,8 +119,9 @@ public class LouvainProc {
         // evaluation
         final Louvain louvain = new Louvain(graph, Pools.DEFAULT, configuration.getConcurrency(), AllocationTracker.create())
                 .withProgressLogger(ProgressLogger.wrap(log, "Louvain"))
-                .withTerminationFlag(TerminationFlag.wrap(transaction))
+                .withTerminationFlag(TerminationFlag.wrap(transaction, configuration.getMaxRuntime()))
                 .compute(configuration.getIterations(10), configuration.get("innerIterations", 10));
+        warnIfDeadlineExceeded(louvain, configuration);
 
         if (graph.nodeCount() == 0) {
             graph.release();
@@ -139,6 +141,14 @@ public class LouvainProc {
                 .load(config.getGraphImpl());
     }
 
+    private void warnIfDeadlineExceeded(Louvain louvain, ProcedureConfiguration configuration) {
+        if (louvain.deadlineExceeded()) {
+            log.warn("Louvain: maxRuntime of %d ms exceeded, returning communities after %d levels",
+                    configuration.getMaxRuntime(),
+                    louvain.getLevel());
+        }
+    }
+
     private void write(Graph graph, int[][] allCommunities, int[] finalCommunities, ProcedureConfiguration configuration) {
         log.debug("Writing results");
         boolean includeIntermediateCommunities = configuration.get(INCLUDE_INTERMEDIATE_COMMUNITIES, false);
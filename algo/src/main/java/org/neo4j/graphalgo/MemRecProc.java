@@ -0,0 +1,135 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo;
+
+import org.neo4j.graphalgo.api.GraphFactory;
+import org.neo4j.graphalgo.core.GraphLoader;
+import org.neo4j.graphalgo.core.ProcedureConfiguration;
+import org.neo4j.graphalgo.core.huge.HugeCypherGraphFactory;
+import org.neo4j.graphalgo.core.huge.HugeGraphFactory;
+import org.neo4j.graphalgo.core.utils.Pools;
+import org.neo4j.graphalgo.core.utils.mem.MemoryEstimation;
+import org.neo4j.graphalgo.core.utils.mem.MemoryTree;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.impl.LabelPropagation;
+import org.neo4j.graphalgo.impl.UnionFindAlgo;
+import org.neo4j.graphalgo.impl.louvain.Louvain;
+import org.neo4j.graphalgo.impl.pagerank.PageRankAlgorithm;
+import org.neo4j.graphdb.Direction;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+import org.neo4j.logging.Log;
+import org.neo4j.procedure.Context;
+import org.neo4j.procedure.Description;
+import org.neo4j.procedure.Name;
+import org.neo4j.procedure.Procedure;
+
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Estimates the memory that loading a graph and running an algorithm on it would need,
+ * without loading the graph. The estimation is computed from the node and relationship counts
+ * of the store, buffers that only exist during the import are not included.
+ */
+public class MemRecProc {
+
+    @Context
+    public GraphDatabaseAPI api;
+
+    @Context
+    public Log log;
+
+    @Procedure("algo.memrec")
+    @Description("CALL algo.memrec(label:String, relationship:String, algo:String, " +
+            "{weightProperty:'weight', concurrency:4, graph:'heavy', direction:'OUTGOING'}) " +
+            "YIELD requiredMemory, treeView, bytesMin, bytesMax, nodeCount, relationshipCount - " +
+            "estimates the memory for loading the graph and running the algorithm " +
+            "(pageRank, unionFind, unionFind.shared, louvain, labelPropagation or empty for the graph only)")
+    public Stream<MemRecResult> memrec(
+            @Name(value = "label", defaultValue = "") String label,
+            @Name(value = "relationship", defaultValue = "") String relationship,
+            @Name(value = "algo", defaultValue = "") String algo,
+            @Name(value = "config", defaultValue = "{}") Map<String, Object> config) {
+        ProcedureConfiguration configuration = ProcedureConfiguration.create(config);
+        Class<? extends GraphFactory> graphImpl = configuration.getGraphImpl();
+        MemoryEstimation algoEstimation = algoEstimation(algo, configuration, graphImpl);
+
+        GraphLoader loader = new GraphLoader(api, Pools.DEFAULT)
+                .init(log, label, relationship, configuration)
+                .withAllocationTracker(AllocationTracker.EMPTY)
+                .withOptionalRelationshipWeightsFromProperty(
+                        configuration.getWeightProperty(),
+                        configuration.getWeightPropertyDefaultValue(1.0));
+        Direction direction = configuration.getDirection(Direction.OUTGOING);
+        if (direction == Direction.BOTH) {
+            loader.asUndirected(true);
+        } else {
+            loader.withDirection(direction);
+        }
+        GraphFactory factory = loader.build(graphImpl);
+
+        MemoryTree tree = factory.estimateMemoryUsage(
+                algo.isEmpty() ? "graph" : algo,
+                algoEstimation,
+                configuration.getConcurrency());
+        return Stream.of(new MemRecResult(tree, factory.dimensions().hugeNodeCount(), factory.dimensions().maxRelCount()));
+    }
+
+    private static MemoryEstimation algoEstimation(
+            String algo,
+            ProcedureConfiguration configuration,
+            Class<? extends GraphFactory> graphImpl) {
+        boolean huge = graphImpl == HugeGraphFactory.class || graphImpl == HugeCypherGraphFactory.class;
+        switch (algo) {
+            case "":
+                return null;
+            case "pageRank":
+                return PageRankAlgorithm.memoryEstimation();
+            case "unionFind":
+                UnionFindAlgo unionFind = configuration.getConcurrency() > 1 ? UnionFindAlgo.QUEUE : UnionFindAlgo.SEQ;
+                return unionFind.memoryEstimation(huge);
+            case "unionFind.shared":
+                return UnionFindAlgo.SHARED.memoryEstimation(huge);
+            case "louvain":
+                return Louvain.memoryEstimation(configuration.getIterations(10));
+            case "labelPropagation":
+                return LabelPropagation.memoryEstimation();
+            default:
+                throw new IllegalArgumentException("Memory estimation is not supported for algorithm '" + algo + "'");
+        }
+    }
+
+    public static class MemRecResult {
+        public String requiredMemory;
+        public String treeView;
+        public long bytesMin;
+        public long bytesMax;
+        public long nodeCount;
+        public long relationshipCount;
+
+        public MemRecResult(MemoryTree tree, long nodeCount, long relationshipCount) {
+            this.requiredMemory = tree.memoryUsage().toString();
+            this.treeView = tree.render();
+            this.bytesMin = tree.memoryUsage().min();
+            this.bytesMax = tree.memoryUsage().max();
+            this.nodeCount = nodeCount;
+            this.relationshipCount = relationshipCount;
+        }
+    }
+}
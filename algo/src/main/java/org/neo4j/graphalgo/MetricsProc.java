@@ -0,0 +1,129 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo;
+
+import org.neo4j.graphalgo.core.utils.metrics.JobMetrics;
+import org.neo4j.graphalgo.core.utils.metrics.JobStats;
+import org.neo4j.graphalgo.core.utils.metrics.MetricsRegistry;
+import org.neo4j.procedure.Description;
+import org.neo4j.procedure.Procedure;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+public class MetricsProc {
+
+    @Procedure("algo.metrics")
+    @Description("CALL algo.metrics - aggregated load, compute and write metrics of every algorithm procedure, " +
+            "the same values are exposed as JMX MBeans in the " + MetricsRegistry.JMX_DOMAIN + " domain")
+    public Stream<JobResult> metrics() {
+        return MetricsRegistry.GLOBAL.stats().stream().map(JobResult::new);
+    }
+
+    @Procedure("algo.metrics.runs")
+    @Description("CALL algo.metrics.runs - the metrics of the running and the most recently finished algorithm calls")
+    public Stream<RunResult> runs() {
+        List<JobMetrics> runs = new ArrayList<>(MetricsRegistry.GLOBAL.history());
+        runs.addAll(MetricsRegistry.GLOBAL.running());
+        return runs.stream().map(RunResult::new);
+    }
+
+    public static class JobResult {
+        public String job;
+        public long runs;
+        public long lastLoadMillis;
+        public long lastComputeMillis;
+        public long lastWriteMillis;
+        public long totalLoadMillis;
+        public long totalComputeMillis;
+        public long totalWriteMillis;
+        public long maxComputeMillis;
+        public double lastLoadEdgesPerSecond;
+        public double lastComputeEdgesPerSecond;
+        public long lastIterations;
+        public double lastMeanIterationMillis;
+        public double lastMaxIterationMillis;
+        public long lastPeakBytes;
+        public long maxPeakBytes;
+        public long lastThreads;
+        public long lastMinThreadMillis;
+        public long lastMaxThreadMillis;
+
+        public JobResult(JobStats stats) {
+            this.job = stats.getJob();
+            this.runs = stats.getRuns();
+            this.lastLoadMillis = stats.getLastLoadMillis();
+            this.lastComputeMillis = stats.getLastComputeMillis();
+            this.lastWriteMillis = stats.getLastWriteMillis();
+            this.totalLoadMillis = stats.getTotalLoadMillis();
+            this.totalComputeMillis = stats.getTotalComputeMillis();
+            this.totalWriteMillis = stats.getTotalWriteMillis();
+            this.maxComputeMillis = stats.getMaxComputeMillis();
+            this.lastLoadEdgesPerSecond = stats.getLastLoadEdgesPerSecond();
+            this.lastComputeEdgesPerSecond = stats.getLastComputeEdgesPerSecond();
+            this.lastIterations = stats.getLastIterations();
+            this.lastMeanIterationMillis = stats.getLastMeanIterationMillis();
+            this.lastMaxIterationMillis = stats.getLastMaxIterationMillis();
+            this.lastPeakBytes = stats.getLastPeakBytes();
+            this.maxPeakBytes = stats.getMaxPeakBytes();
+            this.lastThreads = stats.getLastThreads();
+            this.lastMinThreadMillis = stats.getLastMinThreadMillis();
+            this.lastMaxThreadMillis = stats.getLastMaxThreadMillis();
+        }
+    }
+
+    public static class RunResult {
+        public long id;
+        public String job;
+        public boolean running;
+        public long startMillis;
+        public long endMillis;
+        public long nodeCount;
+        public long relationshipCount;
+        public Map<String, Object> phases;
+        public double loadEdgesPerSecond;
+        public double computeEdgesPerSecond;
+        public List<Double> iterationMillis;
+        public long peakBytes;
+        public Map<String, Object> threadMillis;
+
+        public RunResult(JobMetrics metrics) {
+            this.id = metrics.id();
+            this.job = metrics.job();
+            this.running = metrics.isRunning();
+            this.startMillis = metrics.startMillis();
+            this.endMillis = metrics.endMillis();
+            this.nodeCount = metrics.nodeCount();
+            this.relationshipCount = metrics.relationshipCount();
+            this.phases = new LinkedHashMap<>(metrics.phases());
+            this.loadEdgesPerSecond = metrics.edgesPerSecond(JobMetrics.LOAD);
+            this.computeEdgesPerSecond = metrics.edgesPerSecond(JobMetrics.COMPUTE);
+            this.iterationMillis = new ArrayList<>();
+            for (double millis : metrics.iterationMillis()) {
+                iterationMillis.add(millis);
+            }
+            this.peakBytes = metrics.peakBytes();
+            this.threadMillis = new LinkedHashMap<>();
+            metrics.threads().forEach((thread, times) -> threadMillis.put(thread, times.millis()));
+        }
+    }
+}
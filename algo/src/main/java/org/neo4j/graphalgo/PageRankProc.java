@@ -23,9 +23,12 @@ import org.neo4j.graphalgo.api.GraphFactory;
 import org.neo4j.graphalgo.api.HugeGraph;
 import org.neo4j.graphalgo.core.GraphLoader;
 import org.neo4j.graphalgo.core.ProcedureConfiguration;
+import org.neo4j.graphalgo.core.utils.AdmissionController;
 import org.neo4j.graphalgo.core.utils.Pools;
 import org.neo4j.graphalgo.core.utils.ProgressTimer;
 import org.neo4j.graphalgo.core.utils.TerminationFlag;
+import org.neo4j.graphalgo.core.utils.metrics.JobMetrics;
+import org.neo4j.graphalgo.core.utils.metrics.MetricsRegistry;
 import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
 import org.neo4j.graphalgo.core.write.Exporter;
 import org.neo4j.graphalgo.impl.pagerank.PageRankResult;
@@ -71,7 +74,7 @@ public final class PageRankProc {
 
     @Procedure(value = "algo.pageRank", mode = Mode.WRITE)
     @Description("CALL algo.pageRank(label:String, relationship:String, " +
-            "{iterations:5, dampingFactor:0.85, weightProperty: null, write: true, writeProperty:'pagerank', concurrency:4}) " +
+            "{iterations:5, dampingFactor:0.85, weightProperty: null, write: true, writeProperty:'pagerank', concurrency:4, maxRuntime:0}) " +
             "YIELD nodes, iterations, loadMillis, computeMillis, writeMillis, dampingFactor, write, writeProperty" +
             " - calculates page rank and potentially writes back")
     public Stream<PageRankScore.Stats> pageRank(
@@ -85,26 +88,32 @@ public final class PageRankProc {
 
         PageRankScore.Stats.Builder statsBuilder = new PageRankScore.Stats.Builder();
         AllocationTracker tracker = AllocationTracker.create();
-        final Graph graph = load(label, relationship, tracker, configuration.getGraphImpl(), statsBuilder, configuration, weightPropertyKey);
+        TerminationFlag terminationFlag = TerminationFlag.wrap(transaction);
+        GraphLoader graphLoader = newLoader(label, relationship, tracker, configuration, weightPropertyKey);
 
-        if(graph.nodeCount() == 0) {
-            graph.release();
-            return Stream.of(statsBuilder.build());
-        }
+        try (JobMetrics metrics = MetricsRegistry.GLOBAL.start("algo.pageRank", tracker);
+             AdmissionController.Reservation ignored = admit("algo.pageRank", graphLoader, tracker, terminationFlag, configuration)) {
+            statsBuilder.withMetrics(metrics);
+            final Graph graph = load(graphLoader, configuration.getGraphImpl(), statsBuilder, metrics);
 
-        TerminationFlag terminationFlag = TerminationFlag.wrap(transaction);
-        PageRankResult scores = evaluate(graph, tracker, terminationFlag, configuration, statsBuilder, weightPropertyKey);
+            if(graph.nodeCount() == 0) {
+                graph.release();
+                return Stream.of(statsBuilder.build());
+            }
 
-        log.info("PageRank: overall memory usage: %s", tracker.getUsageString());
+            PageRankResult scores = evaluate(graph, tracker, terminationFlag, configuration, statsBuilder, weightPropertyKey, metrics);
+
+            log.info("PageRank: overall memory usage: %s", tracker.getUsageString());
 
-        write(graph, terminationFlag, scores, configuration, statsBuilder);
+            write(graph, terminationFlag, scores, configuration, statsBuilder);
 
-        return Stream.of(statsBuilder.build());
+            return Stream.of(statsBuilder.build());
+        }
     }
 
     @Procedure(value = "algo.pageRank.stream", mode = Mode.READ)
     @Description("CALL algo.pageRank.stream(label:String, relationship:String, " +
-            "{iterations:20, dampingFactor:0.85, weightProperty: null, concurrency:4}) " +
+            "{iterations:20, dampingFactor:0.85, weightProperty: null, concurrency:4, maxRuntime:0}) " +
             "YIELD node, score - calculates page rank and streams results")
     public Stream<PageRankScore> pageRankStream(
             @Name(value = "label", defaultValue = "") String label,
@@ -117,16 +126,29 @@ public final class PageRankProc {
 
         PageRankScore.Stats.Builder statsBuilder = new PageRankScore.Stats.Builder();
         AllocationTracker tracker = AllocationTracker.create();
-        final Graph graph = load(label, relationship, tracker, configuration.getGraphImpl(), statsBuilder, configuration, weightPropertyKey);
+        TerminationFlag terminationFlag = TerminationFlag.wrap(transaction);
+        GraphLoader graphLoader = newLoader(label, relationship, tracker, configuration, weightPropertyKey);
+
+        // the scores are held until the stream is consumed, the reservation is released when it is closed
+        AdmissionController.Reservation reservation = admit("algo.pageRank.stream", graphLoader, tracker, terminationFlag, configuration);
+        final Graph graph;
+        final PageRankResult scores;
+        try (JobMetrics metrics = MetricsRegistry.GLOBAL.start("algo.pageRank.stream", tracker)) {
+            statsBuilder.withMetrics(metrics);
+            graph = load(graphLoader, configuration.getGraphImpl(), statsBuilder, metrics);
+
+            if(graph.nodeCount() == 0) {
+                graph.release();
+                reservation.close();
+                return Stream.empty();
+            }
 
-        if(graph.nodeCount() == 0) {
-            graph.release();
-            return Stream.empty();
+            scores = evaluate(graph, tracker, terminationFlag, configuration, statsBuilder, weightPropertyKey, metrics);
+        } catch (RuntimeException | Error e) {
+            reservation.close();
+            throw e;
         }
 
-        TerminationFlag terminationFlag = TerminationFlag.wrap(transaction);
-        PageRankResult scores = evaluate(graph, tracker, terminationFlag, configuration, statsBuilder, weightPropertyKey);
-
         log.info("PageRank: overall memory usage: %s", tracker.getUsageString());
 
         if (graph instanceof HugeGraph) {
@@ -138,7 +160,8 @@ public final class PageRankProc {
                                 nodeId,
                                 scores.score(i)
                         );
-                    });
+                    })
+                    .onClose(reservation::close);
         }
 
         return IntStream.range(0, Math.toIntExact(graph.nodeCount()))
@@ -148,15 +171,39 @@ public final class PageRankProc {
                             nodeId,
                             scores.score(i)
                     );
-                });
+                })
+                .onClose(reservation::close);
     }
 
-    private Graph load(
+    private AdmissionController.Reservation admit(
+            String job,
+            GraphLoader graphLoader,
+            AllocationTracker tracker,
+            TerminationFlag terminationFlag,
+            ProcedureConfiguration configuration) {
+        int concurrency = configuration.getConcurrency(Pools.getNoThreadsInDefaultPool());
+        // a graph from the catalog is already loaded, its factory estimates nothing
+        long estimatedBytes = graphLoader
+                .build(configuration.getGraphImpl())
+                .estimateMemoryUsage(job, PageRankAlgorithm.memoryEstimation(), concurrency)
+                .memoryUsage()
+                .max();
+        AdmissionController.Reservation reservation = AdmissionController.GLOBAL.reserve(
+                job,
+                concurrency,
+                estimatedBytes,
+                tracker,
+                configuration.getAdmissionTimeout(),
+                terminationFlag);
+        configuration.overrideConcurrency(reservation.concurrency());
+        graphLoader.withConcurrency(reservation.concurrency());
+        return reservation;
+    }
+
+    private GraphLoader newLoader(
             String label,
             String relationship,
             AllocationTracker tracker,
-            Class<? extends GraphFactory> graphFactory,
-            PageRankScore.Stats.Builder statsBuilder,
             ProcedureConfiguration configuration,
             String weightPropertyKey) {
         GraphLoader graphLoader = new GraphLoader(api, Pools.DEFAULT)
@@ -170,11 +217,18 @@ public final class PageRankProc {
         } else {
             graphLoader.withDirection(direction);
         }
+        return graphLoader;
+    }
 
-
+    private Graph load(
+            GraphLoader graphLoader,
+            Class<? extends GraphFactory> graphFactory,
+            PageRankScore.Stats.Builder statsBuilder,
+            JobMetrics metrics) {
         try (ProgressTimer timer = statsBuilder.timeLoad()) {
             Graph graph = graphLoader.load(graphFactory);
             statsBuilder.withNodes(graph.nodeCount());
+            metrics.graph(graph.nodeCount(), graph.relationshipCount());
             return graph;
         }
     }
@@ -185,7 +239,8 @@ public final class PageRankProc {
             TerminationFlag terminationFlag,
             ProcedureConfiguration configuration,
             PageRankScore.Stats.Builder statsBuilder,
-            String weightPropertyKey) {
+            String weightPropertyKey,
+            JobMetrics metrics) {
 
         double dampingFactor = configuration.get(CONFIG_DAMPING, DEFAULT_DAMPING);
         int iterations = configuration.getIterations(DEFAULT_ITERATIONS);
@@ -221,16 +276,22 @@ public final class PageRankProc {
         }
 
 
+        // the budget only covers the computation, the scores are always written completely
+        long maxRuntime = configuration.getMaxRuntime();
         Algorithm<?> algo = prAlgo
                 .algorithm()
                 .withLog(log)
-                .withTerminationFlag(terminationFlag);
+                .withTerminationFlag(maxRuntime > 0 ? TerminationFlag.wrap(transaction, maxRuntime) : terminationFlag)
+                .withMetrics(metrics);
 
 
         statsBuilder.timeEval(() -> prAlgo.compute(iterations));
+        if (algo.deadlineExceeded()) {
+            log.warn("PageRank: maxRuntime of %d ms exceeded, returning the scores of the last iteration", maxRuntime);
+        }
 
         statsBuilder
-                .withIterations(iterations)
+                .withIterations(prAlgo.ranIterations())
                 .withDampingFactor(dampingFactor);
 
         final PageRankResult pageRank = prAlgo.result();
@@ -73,7 +73,7 @@ public class ShortestPathProc {
      */
     @Procedure("algo.shortestPath.stream")
     @Description("CALL algo.shortestPath.stream(startNode:Node, endNode:Node, weightProperty:String" +
-            "{nodeQuery:'labelName', relationshipQuery:'relationshipName', direction:'BOTH', defaultValue:1.0}) " +
+            "{nodeQuery:'labelName', relationshipQuery:'relationshipName', direction:'BOTH', defaultValue:1.0, radixHeap:false, multiplier:100000}) " +
             "YIELD nodeId, cost - yields a stream of {nodeId, cost} from start to end (inclusive)")
     public Stream<ShortestPathDijkstra.Result> dijkstraStream(
             @Name("startNode") Node startNode,
@@ -107,16 +107,14 @@ public class ShortestPathProc {
             return Stream.empty();
         }
 
-        return new ShortestPathDijkstra(graph)
-                .withProgressLogger(ProgressLogger.wrap(log, "ShortestPath(Dijkstra)"))
-                .withTerminationFlag(TerminationFlag.wrap(transaction))
+        return newDijkstra(graph, configuration)
                 .compute(startNode.getId(), endNode.getId(), direction)
                 .resultStream();
     }
 
     @Procedure(value = "algo.shortestPath", mode = Mode.WRITE)
     @Description("CALL algo.shortestPath(startNode:Node, endNode:Node, weightProperty:String" +
-            "{nodeQuery:'labelName', relationshipQuery:'relationshipName', direction:'BOTH', defaultValue:1.0, write:'true', writeProperty:'sssp'}) " +
+            "{nodeQuery:'labelName', relationshipQuery:'relationshipName', direction:'BOTH', defaultValue:1.0, radixHeap:false, multiplier:100000, write:'true', writeProperty:'sssp'}) " +
             "YIELD nodeId, cost, loadMillis, evalMillis, writeMillis - yields nodeCount, totalCost, loadMillis, evalMillis, writeMillis")
     public Stream<DijkstraResult> dijkstra(
             @Name("startNode") Node startNode,
@@ -158,9 +156,7 @@ public class ShortestPathProc {
         }
 
         try (ProgressTimer timer = builder.timeEval()) {
-            dijkstra = new ShortestPathDijkstra(graph)
-                    .withProgressLogger(ProgressLogger.wrap(log, "ShortestPath(Dijkstra)"))
-                    .withTerminationFlag(TerminationFlag.wrap(transaction))
+            dijkstra = newDijkstra(graph, configuration)
                     .compute(startNode.getId(), endNode.getId(), direction);
             builder.withNodeCount(dijkstra.getPathLength())
                     .withTotalCosts(dijkstra.getTotalCost());
@@ -228,6 +224,16 @@ public class ShortestPathProc {
     				.resultStream();
     }
 
+    private ShortestPathDijkstra newDijkstra(Graph graph, ProcedureConfiguration configuration) {
+        ShortestPathDijkstra dijkstra = new ShortestPathDijkstra(graph)
+                .withProgressLogger(ProgressLogger.wrap(log, "ShortestPath(Dijkstra)"))
+                .withTerminationFlag(TerminationFlag.wrap(transaction));
+        if (configuration.isRadixHeap()) {
+            dijkstra.withRadixHeap(configuration.getMultiplier());
+        }
+        return dijkstra;
+    }
+
     private static final class DequeMapping implements IdMapping {
         private final IdMapping mapping;
         private final int[] data;
@@ -59,7 +59,7 @@ public class ShortestPathsProc {
 
     @Procedure("algo.shortestPaths.stream")
     @Description("CALL algo.shortestPaths.stream(startNode:Node, weightProperty:String" +
-            "{nodeQuery:'labelName', relationshipQuery:'relationshipName', defaultValue:1.0}) " +
+            "{nodeQuery:'labelName', relationshipQuery:'relationshipName', defaultValue:1.0, radixHeap:false, multiplier:100000}) " +
             "YIELD nodeId, distance - yields a stream of {nodeId, cost} from start to end (inclusive)")
     public Stream<ShortestPaths.Result> dijkstraStream(
             @Name("startNode") Node startNode,
@@ -84,15 +84,18 @@ public class ShortestPathsProc {
 
         final ShortestPaths algo = new ShortestPaths(graph)
                 .withProgressLogger(ProgressLogger.wrap(log, "ShortestPaths"))
-                .withTerminationFlag(TerminationFlag.wrap(transaction))
-                .compute(startNode.getId());
+                .withTerminationFlag(TerminationFlag.wrap(transaction));
+        if (configuration.isRadixHeap()) {
+            algo.withRadixHeap(configuration.getMultiplier());
+        }
+        algo.compute(startNode.getId());
         graph.release();
         return algo.resultStream();
     }
 
     @Procedure(value = "algo.shortestPaths", mode = Mode.WRITE)
     @Description("CALL algo.shortestPaths(startNode:Node, weightProperty:String" +
-            "{write:true, targetProperty:'path', nodeQuery:'labelName', relationshipQuery:'relationshipName', defaultValue:1.0}) " +
+            "{write:true, targetProperty:'path', nodeQuery:'labelName', relationshipQuery:'relationshipName', defaultValue:1.0, radixHeap:false, multiplier:100000}) " +
             "YIELD loadDuration, evalDuration, writeDuration, nodeCount, targetProperty - yields nodeCount, totalCost, loadDuration, evalDuration")
     public Stream<ShortestPathResult> dijkstra(
             @Name("startNode") Node startNode,
@@ -123,6 +126,9 @@ public class ShortestPathsProc {
         final ShortestPaths algorithm = new ShortestPaths(graph)
                 .withProgressLogger(ProgressLogger.wrap(log, "ShortestPaths"))
                 .withTerminationFlag(terminationFlag);
+        if (configuration.isRadixHeap()) {
+            algorithm.withRadixHeap(configuration.getMultiplier());
+        }
 
         builder.timeEval(() -> algorithm.compute(startNode.getId()));
 
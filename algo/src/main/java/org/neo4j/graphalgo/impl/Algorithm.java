@@ -20,6 +20,7 @@ package org.neo4j.graphalgo.impl;
 
 import org.neo4j.graphalgo.core.utils.ProgressLogger;
 import org.neo4j.graphalgo.core.utils.TerminationFlag;
+import org.neo4j.graphalgo.core.utils.metrics.JobMetrics;
 import org.neo4j.logging.Log;
 
 /**
@@ -31,6 +32,8 @@ public abstract class Algorithm<ME extends Algorithm<ME>> implements Termination
 
     private TerminationFlag terminationFlag = TerminationFlag.RUNNING_TRUE;
 
+    private JobMetrics metrics = JobMetrics.NULL;
+
     public abstract ME me();
 
     public abstract ME release();
@@ -49,6 +52,14 @@ public abstract class Algorithm<ME extends Algorithm<ME>> implements Termination
         return me();
     }
 
+    /**
+     * Record the iterations and task times of the algorithm in the metrics of the calling job.
+     */
+    public ME withMetrics(JobMetrics metrics) {
+        this.metrics = metrics;
+        return me();
+    }
+
     public TerminationFlag getTerminationFlag() {
         return terminationFlag;
     }
@@ -57,8 +68,17 @@ public abstract class Algorithm<ME extends Algorithm<ME>> implements Termination
         return progressLogger;
     }
 
+    public JobMetrics getMetrics() {
+        return metrics;
+    }
+
     @Override
     public boolean running() {
         return terminationFlag.running();
     }
+
+    @Override
+    public boolean deadlineExceeded() {
+        return terminationFlag.deadlineExceeded();
+    }
 }
@@ -25,23 +25,24 @@ import org.neo4j.graphalgo.api.HugeNodeIterator;
 import org.neo4j.graphalgo.api.IdMapping;
 import org.neo4j.graphalgo.api.NodeIterator;
 import org.neo4j.graphalgo.core.utils.dss.DisjointSetStruct;
-import org.neo4j.graphalgo.core.utils.paged.PagedDisjointSetStruct;
+import org.neo4j.graphalgo.core.utils.paged.HugeDisjointSetStruct;
 
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 public final class DSSResult {
     public final DisjointSetStruct struct;
-    public final PagedDisjointSetStruct hugeStruct;
+    public final HugeDisjointSetStruct hugeStruct;
 
     public DSSResult(final DisjointSetStruct struct) {
         this(struct, null);
     }
 
-    public DSSResult(final PagedDisjointSetStruct hugeStruct) {
+    public DSSResult(final HugeDisjointSetStruct hugeStruct) {
         this(null, hugeStruct);
     }
 
-    private DSSResult(DisjointSetStruct struct, PagedDisjointSetStruct hugeStruct) {
+    private DSSResult(DisjointSetStruct struct, HugeDisjointSetStruct hugeStruct) {
         assert (struct != null && hugeStruct == null) || (struct == null && hugeStruct != null);
         this.struct = struct;
         this.hugeStruct = hugeStruct;
@@ -54,7 +55,12 @@ public final class DSSResult {
     public Stream<DisjointSetStruct.Result> resultStream(IdMapping idMapping) {
         return struct != null
                 ? struct.resultStream(idMapping)
-                : hugeStruct.resultStream(((HugeIdMapping) idMapping));
+                : idMapping instanceof HugeIdMapping
+                ? hugeStruct.resultStream(((HugeIdMapping) idMapping))
+                : IntStream.range(0, Math.toIntExact(idMapping.nodeCount()))
+                .mapToObj(mappedId -> new DisjointSetStruct.Result(
+                        idMapping.toOriginalNodeId(mappedId),
+                        hugeStruct.find(mappedId)));
     }
 
     public void forEach(NodeIterator nodes, IntIntPredicate consumer) {
@@ -20,6 +20,7 @@ package org.neo4j.graphalgo.impl;
 
 import org.neo4j.graphalgo.api.HugeGraph;
 import org.neo4j.graphalgo.api.HugeRelationshipIterator;
+import org.neo4j.graphalgo.core.utils.DegreePartitions;
 import org.neo4j.graphalgo.core.utils.ParallelUtil;
 import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
 import org.neo4j.graphalgo.core.utils.paged.PagedDisjointSetStruct;
@@ -49,8 +50,7 @@ public class HugeParallelUnionFindQueue extends GraphUnionFindAlgo<HugeGraph, Pa
 
     private final ExecutorService executor;
     private final long nodeCount;
-    private final long batchSize;
-    private final int stepSize;
+    private final DegreePartitions partitions;
     private final AllocationTracker tracker;
 
     /**
@@ -66,7 +66,7 @@ public class HugeParallelUnionFindQueue extends GraphUnionFindAlgo<HugeGraph, Pa
         this.executor = executor;
         nodeCount = graph.nodeCount();
         this.tracker = tracker;
-        this.batchSize = ParallelUtil.adjustBatchSize(
+        long batchSize = ParallelUtil.adjustBatchSize(
                 nodeCount,
                 concurrency,
                 minBatchSize,
@@ -80,18 +80,29 @@ public class HugeParallelUnionFindQueue extends GraphUnionFindAlgo<HugeGraph, Pa
                     concurrency,
                     batchSize));
         }
-        stepSize = (int) targetSteps;
+        // the same number of steps as with batches of batchSize nodes, but balanced by their relationships
+        this.partitions = ParallelUtil.hugeDegreePartitions(
+                nodeCount,
+                graph,
+                Direction.OUTGOING,
+                (int) targetSteps,
+                false);
     }
 
     @Override
     public PagedDisjointSetStruct compute() {
-        final List<Future<?>> futures = new ArrayList<>(stepSize);
-        final BlockingQueue<PagedDisjointSetStruct> queue = new ArrayBlockingQueue<>(stepSize);
-
-        int steps = 0;
-        for (long i = 0L; i < nodeCount; i += batchSize) {
-            futures.add(executor.submit(new HugeUnionFindTask(queue, i)));
-            ++steps;
+        final int steps = partitions.size();
+        if (steps == 0) {
+            return new PagedDisjointSetStruct(nodeCount, tracker).reset();
+        }
+        final List<Future<?>> futures = new ArrayList<>(2 * steps);
+        final BlockingQueue<PagedDisjointSetStruct> queue = new ArrayBlockingQueue<>(steps);
+
+        for (int partition = 0; partition < steps; partition++) {
+            futures.add(executor.submit(getMetrics().timed(new HugeUnionFindTask(
+                    queue,
+                    partitions.start(partition),
+                    partitions.end(partition)))));
         }
 
         for (int i = 1; i < steps; ++i) {
@@ -135,11 +146,11 @@ public class HugeParallelUnionFindQueue extends GraphUnionFindAlgo<HugeGraph, Pa
         private final long offset;
         private final long end;
 
-        HugeUnionFindTask(BlockingQueue<PagedDisjointSetStruct> queue, long offset) {
+        HugeUnionFindTask(BlockingQueue<PagedDisjointSetStruct> queue, long offset, long end) {
             this.rels = graph.concurrentCopy();
             this.queue = queue;
             this.offset = offset;
-            this.end = Math.min(offset + batchSize, nodeCount);
+            this.end = end;
         }
 
         @Override
@@ -30,8 +30,15 @@ import org.neo4j.graphalgo.PropertyMapping;
 import org.neo4j.graphalgo.api.RelationshipConsumer;
 import org.neo4j.graphalgo.api.WeightMapping;
 import org.neo4j.graphalgo.core.heavyweight.HeavyGraph;
+import org.neo4j.graphalgo.core.utils.DegreePartitions;
 import org.neo4j.graphalgo.core.utils.ParallelUtil;
 import org.neo4j.graphalgo.core.utils.ProgressLogger;
+import org.neo4j.graphalgo.core.utils.TerminationFlag;
+import org.neo4j.graphalgo.core.utils.mem.MemoryEstimation;
+import org.neo4j.graphalgo.core.utils.metrics.JobMetrics;
+import org.neo4j.graphalgo.core.utils.mem.MemoryEstimations;
+import org.neo4j.graphalgo.core.utils.mem.MemoryRange;
+import org.neo4j.graphalgo.core.utils.paged.MemoryUsage;
 import org.neo4j.graphdb.Direction;
 
 import java.util.Arrays;
@@ -60,6 +67,28 @@ public final class LabelPropagation extends Algorithm<LabelPropagation> {
     private long ranIterations;
     private boolean didConverge;
 
+    /**
+     * Every compute step counts the votes of a node in a map that grows to the
+     * number of distinct labels of its neighbours, at most the degree of the node.
+     */
+    public static MemoryEstimation memoryEstimation() {
+        return MemoryEstimations.builder(LabelPropagation.class)
+                .perNode("labels", nodeCount -> MemoryUsage.sizeOfIntArray(Math.toIntExact(nodeCount)))
+                .copies("compute steps", MemoryEstimations.builder("compute step")
+                        .perGraphDimension("votes", dimensions -> {
+                            long minVotes = MemoryUsage.sizeOfOpenHashContainer(
+                                    4L, 0.75, Integer.BYTES, Double.BYTES);
+                            long averageDegree = dimensions.hugeNodeCount() == 0L
+                                    ? 0L
+                                    : (dimensions.maxRelCount() + dimensions.hugeNodeCount() - 1L) / dimensions.hugeNodeCount();
+                            long maxVotes = MemoryUsage.sizeOfOpenHashContainer(
+                                    averageDegree, 0.75, Integer.BYTES, Double.BYTES);
+                            return MemoryRange.of(minVotes, Math.max(minVotes, maxVotes));
+                        })
+                        .build(), 1, concurrency -> concurrency)
+                .build();
+    }
+
     public static class StreamResult {
         public final long nodeId;
         public final long label;
@@ -105,16 +134,23 @@ public final class LabelPropagation extends Algorithm<LabelPropagation> {
         ranIterations = 0;
         didConverge = false;
 
+        // as many batches as with batches of batchSize nodes, but balanced by their relationships
+        final DegreePartitions partitions = ParallelUtil.degreePartitions(
+                nodeCount,
+                graph,
+                direction,
+                ParallelUtil.threadSize(batchSize, nodeCount),
+                false);
         final List<Runnable> computeSteps = ParallelUtil.readParallel(
                 concurrency,
-                batchSize,
-                graph,
+                partitions,
                 (offset, nodes) -> new InitStep(
                         graph,
                         labels,
                         direction,
                         randomizeOrder,
                         getProgressLogger(),
+                        getTerminationFlag(),
                         nodes,
                         this.nodeProperties
                 ),
@@ -124,8 +160,11 @@ public final class LabelPropagation extends Algorithm<LabelPropagation> {
             computeSteps.set(i, ((InitStep) computeSteps.get(i)).computeStep(this.nodeWeights));
         }
 
-        for (long i = 0L; i < maxIterations; i++) {
-            ParallelUtil.runWithConcurrency(concurrency, computeSteps, executor);
+        JobMetrics metrics = getMetrics();
+        for (long i = 0L; i < maxIterations && running(); i++) {
+            long start = System.nanoTime();
+            ParallelUtil.runWithConcurrency(concurrency, metrics.timed(computeSteps), executor);
+            metrics.iteration(System.nanoTime() - start);
         }
 
         long maxIteration = 0;
@@ -194,6 +233,7 @@ public final class LabelPropagation extends Algorithm<LabelPropagation> {
         private final Direction direction;
         private final boolean randomizeOrder;
         private final ProgressLogger progressLogger;
+        private final TerminationFlag terminationFlag;
         private final PrimitiveIntIterable nodes;
         private final WeightMapping nodeProperties;
 
@@ -203,12 +243,14 @@ public final class LabelPropagation extends Algorithm<LabelPropagation> {
                 Direction direction,
                 boolean randomizeOrder,
                 ProgressLogger progressLogger,
+                TerminationFlag terminationFlag,
                 PrimitiveIntIterable nodes, WeightMapping nodeProperties) {
             this.graph = graph;
             this.existingLabels = existingLabels;
             this.direction = direction;
             this.randomizeOrder = randomizeOrder;
             this.progressLogger = progressLogger;
+            this.terminationFlag = terminationFlag;
             this.nodes = nodes;
             this.nodeProperties = nodeProperties;
         }
@@ -234,6 +276,7 @@ public final class LabelPropagation extends Algorithm<LabelPropagation> {
                     direction,
                     randomizeOrder,
                     progressLogger,
+                    terminationFlag,
                     nodes,
                     nodeWeights);
         }
@@ -245,6 +288,7 @@ public final class LabelPropagation extends Algorithm<LabelPropagation> {
         private final int[] existingLabels;
         private final Direction direction;
         private final ProgressLogger progressLogger;
+        private final TerminationFlag terminationFlag;
         private final PrimitiveIntIterable nodes;
         private final int maxNode;
         private final IntDoubleHashMap votes;
@@ -259,12 +303,14 @@ public final class LabelPropagation extends Algorithm<LabelPropagation> {
                 Direction direction,
                 boolean randomizeOrder,
                 ProgressLogger progressLogger,
+                TerminationFlag terminationFlag,
                 PrimitiveIntIterable nodes,
                 WeightMapping nodeWeights) {
             this.graph = graph;
             this.existingLabels = existingLabels;
             this.direction = direction;
             this.progressLogger = progressLogger;
+            this.terminationFlag = terminationFlag;
             this.nodes = RandomlySwitchingIterable.of(randomizeOrder, nodes);
             this.maxNode = (int) (graph.nodeCount() - 1L);
             this.votes = new IntDoubleScatterMap();
@@ -277,7 +323,13 @@ public final class LabelPropagation extends Algorithm<LabelPropagation> {
                 iteration++;
                 PrimitiveIntIterator iterator = nodes.iterator();
                 boolean didChange = false;
+                int processed = 0;
                 while (iterator.hasNext()) {
+                    // a partially updated batch still holds valid labels, report it as changed
+                    if (++processed % TerminationFlag.RUN_CHECK_NODE_COUNT == 0 && !terminationFlag.running()) {
+                        didChange = true;
+                        break;
+                    }
                     didChange = compute(iterator.next(), didChange);
                 }
                 this.didChange = didChange;
@@ -74,7 +74,7 @@ public class ParallelUnionFindQueue extends GraphUnionFindAlgo<Graph, DisjointSe
         Phaser phaser = new Phaser();
         int steps = 0;
         for (int i = 0; i < nodeCount; i += batchSize) {
-            futures.add(executor.submit(new UnionFindTask(queue, i, phaser)));
+            futures.add(executor.submit(getMetrics().timed(new UnionFindTask(queue, i, phaser))));
             ++steps;
         }
         phaser.awaitAdvance(phaser.getPhase());
@@ -0,0 +1,165 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.impl;
+
+import org.neo4j.graphalgo.api.Graph;
+import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.core.utils.DegreePartitions;
+import org.neo4j.graphalgo.core.utils.ParallelUtil;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.PagedAtomicDisjointSetStruct;
+import org.neo4j.graphdb.Direction;
+
+import java.util.Collection;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * parallel UnionFind on a single shared, lock-free {@link PagedAtomicDisjointSetStruct}.
+ * <p>
+ * In contrast to the queue, fork-join and merge variants there are no per-thread structures
+ * that need to be merged afterwards, all threads union their relationships directly into
+ * the shared structure. The nodes are split into partitions of roughly the same number of
+ * relationships that are claimed by the threads as they go.
+ * <p>
+ * Runs on heavy and huge graphs, the set id of a component is its smallest node id.
+ */
+public class ParallelUnionFindShared extends GraphUnionFindAlgo<Graph, PagedAtomicDisjointSetStruct, ParallelUnionFindShared> {
+
+    private final ExecutorService executor;
+    private final int concurrency;
+    private final long nodeCount;
+    private final AllocationTracker tracker;
+    private final AtomicLong visitedNodes = new AtomicLong();
+
+    private DegreePartitions partitions;
+
+    public ParallelUnionFindShared(
+            Graph graph,
+            ExecutorService executor,
+            int concurrency,
+            AllocationTracker tracker) {
+        super(graph);
+        this.executor = executor;
+        this.concurrency = concurrency;
+        this.nodeCount = graph.nodeCount();
+        this.tracker = tracker;
+    }
+
+    @Override
+    public PagedAtomicDisjointSetStruct compute() {
+        return compute(Double.NaN);
+    }
+
+    /**
+     * compute unions if the relationship weight is at least the threshold
+     *
+     * @param threshold the minimum threshold, NaN to union all relationships
+     */
+    @Override
+    public PagedAtomicDisjointSetStruct compute(double threshold) {
+        final PagedAtomicDisjointSetStruct struct = new PagedAtomicDisjointSetStruct(nodeCount, tracker);
+        visitedNodes.set(0L);
+        partitions = graph instanceof HugeGraph
+                ? ParallelUtil.hugeDegreePartitions(nodeCount, (HugeGraph) graph, Direction.OUTGOING, concurrency, true)
+                : ParallelUtil.degreePartitions(Math.toIntExact(nodeCount), graph, Direction.OUTGOING, concurrency, true);
+        final Collection<Runnable> tasks = graph instanceof HugeGraph
+                ? ParallelUtil.tasks(concurrency, () -> new HugeUnionTask((HugeGraph) graph, struct, threshold))
+                : ParallelUtil.tasks(concurrency, () -> new UnionTask(struct, threshold));
+        ParallelUtil.run(getMetrics().timed(tasks), executor);
+        return struct;
+    }
+
+    private void logPartition(int partition) {
+        long visited = partitions.end(partition) - partitions.start(partition);
+        getProgressLogger().logProgress(visitedNodes.addAndGet(visited), nodeCount);
+    }
+
+    private final class HugeUnionTask implements Runnable {
+
+        private final HugeGraph rels;
+        private final PagedAtomicDisjointSetStruct struct;
+        private final double threshold;
+
+        private HugeUnionTask(HugeGraph hugeGraph, PagedAtomicDisjointSetStruct struct, double threshold) {
+            this.rels = (HugeGraph) hugeGraph.concurrentCopy();
+            this.struct = struct;
+            this.threshold = threshold;
+        }
+
+        @Override
+        public void run() {
+            int partition;
+            while ((partition = partitions.claim()) != -1 && running()) {
+                long end = partitions.end(partition);
+                for (long node = partitions.start(partition); node < end; node++) {
+                    if (Double.isNaN(threshold)) {
+                        rels.forEachRelationship(node, Direction.OUTGOING, (source, target) -> {
+                            struct.union(source, target);
+                            return true;
+                        });
+                    } else {
+                        rels.forEachRelationship(node, Direction.OUTGOING, (source, target, weight) -> {
+                            if (weight >= threshold) {
+                                struct.union(source, target);
+                            }
+                            return true;
+                        });
+                    }
+                }
+                logPartition(partition);
+            }
+        }
+    }
+
+    private final class UnionTask implements Runnable {
+
+        private final PagedAtomicDisjointSetStruct struct;
+        private final double threshold;
+
+        private UnionTask(PagedAtomicDisjointSetStruct struct, double threshold) {
+            this.struct = struct;
+            this.threshold = threshold;
+        }
+
+        @Override
+        public void run() {
+            int partition;
+            while ((partition = partitions.claim()) != -1 && running()) {
+                int end = (int) partitions.end(partition);
+                for (int node = (int) partitions.start(partition); node < end; node++) {
+                    if (Double.isNaN(threshold)) {
+                        graph.forEachRelationship(node, Direction.OUTGOING, (source, target, relationId) -> {
+                            struct.union(source, target);
+                            return true;
+                        });
+                    } else {
+                        graph.forEachRelationship(node, Direction.OUTGOING, (source, target, relationId, weight) -> {
+                            if (weight >= threshold) {
+                                struct.union(source, target);
+                            }
+                            return true;
+                        });
+                    }
+                }
+                logPartition(partition);
+            }
+        }
+    }
+}
@@ -22,6 +22,7 @@ import com.carrotsearch.hppc.*;
 import org.neo4j.graphalgo.api.*;
 import org.neo4j.graphalgo.core.utils.ProgressLogger;
 import org.neo4j.graphalgo.core.utils.queue.IntPriorityQueue;
+import org.neo4j.graphalgo.core.utils.queue.RadixHeap;
 import org.neo4j.graphalgo.core.utils.queue.SharedIntPriorityQueue;
 import org.neo4j.graphdb.Direction;
 
@@ -34,6 +35,9 @@ import java.util.stream.StreamSupport;
  * The algorithm computes a (there might be more then one) shortest path
  * between a given start and target-NodeId. It returns result tuples of
  * [nodeId, distance] of each node in the path.
+ * <p>
+ * With {@link #withRadixHeap(int)} the weights are scaled to longs and
+ * the nodes are ordered by a monotone {@link RadixHeap} instead of a binary heap.
  */
 public class ShortestPathDijkstra extends Algorithm<ShortestPathDijkstra> {
 
@@ -47,6 +51,11 @@ public class ShortestPathDijkstra extends Algorithm<ShortestPathDijkstra> {
     private IntDoubleMap costs;
     // next node priority queue
     private IntPriorityQueue queue;
+    // scaled costs and queue of the radix heap variant, null for the binary heap
+    private IntLongMap scaledCosts;
+    private RadixHeap radixHeap;
+    // multiplier used to scale double weights to longs
+    private double multiplier;
     // auxiliary path map
     private IntIntMap path;
     // path map (stores the resulting shortest path)
@@ -74,6 +83,23 @@ public class ShortestPathDijkstra extends Algorithm<ShortestPathDijkstra> {
         progressLogger = getProgressLogger();
     }
 
+    /**
+     * use a radix heap on weights that are scaled by the multiplier and rounded to longs.
+     * Weights must not be negative.
+     *
+     * @param multiplier the multiplier
+     * @return itself
+     */
+    public ShortestPathDijkstra withRadixHeap(int multiplier) {
+        if (multiplier < 1) {
+            throw new IllegalArgumentException("multiplier must be >= 1");
+        }
+        this.multiplier = multiplier;
+        scaledCosts = new IntLongScatterMap();
+        radixHeap = new RadixHeap();
+        return this;
+    }
+
     /**
      * compute shortest path between startNode and goalNode
      *
@@ -89,8 +115,14 @@ public class ShortestPathDijkstra extends Algorithm<ShortestPathDijkstra> {
         int node = graph.toMappedNodeId(startNode);
         int goal = graph.toMappedNodeId(goalNode);
         costs.put(node, 0.0);
-        queue.add(node, 0.0);
-        run(goal, direction);
+        if (radixHeap != null) {
+            scaledCosts.put(node, 0L);
+            radixHeap.add(node, 0L);
+            runRadix(goal, direction);
+        } else {
+            queue.add(node, 0.0);
+            run(goal, direction);
+        }
         if (!path.containsKey(goal)) {
             return this;
         }
@@ -105,6 +137,9 @@ public class ShortestPathDijkstra extends Algorithm<ShortestPathDijkstra> {
         // since clear never downsizes the buffer array
         costs.release();
         path.release();
+        if (scaledCosts != null) {
+            scaledCosts.release();
+        }
         return this;
     }
 
@@ -160,6 +195,38 @@ public class ShortestPathDijkstra extends Algorithm<ShortestPathDijkstra> {
         }
     }
 
+    private void runRadix(int goal, Direction direction) {
+        while (!radixHeap.isEmpty() && running()) {
+            long costs = radixHeap.topKey();
+            int node = radixHeap.pop();
+            // nodes are popped again for every superseded cost
+            if (visited.get(node)) {
+                continue;
+            }
+            if (node == goal) {
+                return;
+            }
+
+            visited.set(node);
+            graph.forEachRelationship(
+                    node,
+                    direction, (source, target, relId, weight) -> {
+                        updateScaledCosts(source, target, costs + Math.round(weight * multiplier));
+                        return true;
+                    });
+            progressLogger.logProgress((double) node / (nodeCount - 1));
+        }
+    }
+
+    private void updateScaledCosts(int source, int target, long newCosts) {
+        if (newCosts < scaledCosts.getOrDefault(target, Long.MAX_VALUE)) {
+            scaledCosts.put(target, newCosts);
+            costs.put(target, newCosts / multiplier);
+            path.put(target, source);
+            radixHeap.add(target, newCosts);
+        }
+    }
+
     private void updateCosts(int source, int target, double newCosts) {
 
         if (costs.containsKey(target)) {
@@ -187,6 +254,8 @@ public class ShortestPathDijkstra extends Algorithm<ShortestPathDijkstra> {
         graph = null;
         costs = null;
         queue = null;
+        scaledCosts = null;
+        radixHeap = null;
         path = null;
         finalPath = null;
         visited = null;
@@ -197,6 +266,10 @@ public class ShortestPathDijkstra extends Algorithm<ShortestPathDijkstra> {
         visited.clear();
         queue.clear();
         costs.clear();
+        if (radixHeap != null) {
+            radixHeap.clear();
+            scaledCosts.clear();
+        }
         path.clear();
         finalPath.clear();
         totalCost = NO_PATH_FOUND;
@@ -22,8 +22,10 @@ import com.carrotsearch.hppc.*;
 import org.neo4j.graphalgo.api.Graph;
 import org.neo4j.graphalgo.core.utils.ProgressLogger;
 import org.neo4j.graphalgo.core.utils.queue.IntPriorityQueue;
+import org.neo4j.graphalgo.core.utils.queue.RadixHeap;
 import org.neo4j.graphdb.Direction;
 
+import java.util.Arrays;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
@@ -33,6 +35,9 @@ import java.util.stream.StreamSupport;
  * Calculates the minimum distance from a startNode to every other
  * node in the graph. {@link Double#POSITIVE_INFINITY} is returned
  * if no path exists between those nodes.
+ * <p>
+ * With {@link #withRadixHeap(int)} the weights are scaled to longs and
+ * the nodes are ordered by a monotone {@link RadixHeap} instead of a binary heap.
  *
  * @author mknblch
  */
@@ -41,6 +46,11 @@ public class ShortestPaths extends Algorithm<ShortestPaths> {
     private Graph graph;
     private IntDoubleMap costs;
     private IntPriorityQueue queue;
+    // scaled distances and queue of the radix heap variant, null for the binary heap
+    private long[] distances;
+    private RadixHeap radixHeap;
+    // multiplier used to scale double weights to longs
+    private double multiplier;
     private final int nodeCount;
     private ProgressLogger progressLogger;
 
@@ -52,6 +62,23 @@ public class ShortestPaths extends Algorithm<ShortestPaths> {
         progressLogger = getProgressLogger();
     }
 
+    /**
+     * use a radix heap on weights that are scaled by the multiplier and rounded to longs.
+     * Weights must not be negative.
+     *
+     * @param multiplier the multiplier
+     * @return itself
+     */
+    public ShortestPaths withRadixHeap(int multiplier) {
+        if (multiplier < 1) {
+            throw new IllegalArgumentException("multiplier must be >= 1");
+        }
+        this.multiplier = multiplier;
+        distances = new long[nodeCount];
+        radixHeap = new RadixHeap();
+        return this;
+    }
+
     /**
      * compute the shortest paths from startNode
      *
@@ -65,8 +92,16 @@ public class ShortestPaths extends Algorithm<ShortestPaths> {
         });
         final int nodeId = graph.toMappedNodeId(startNode);
         costs.put(nodeId, 0d);
-        queue.add(nodeId, 0d);
-        run();
+        if (radixHeap != null) {
+            Arrays.fill(distances, Long.MAX_VALUE);
+            distances[nodeId] = 0L;
+            radixHeap.clear();
+            radixHeap.add(nodeId, 0L);
+            runRadix();
+        } else {
+            queue.add(nodeId, 0d);
+            run();
+        }
         return this;
     }
 
@@ -107,6 +142,31 @@ public class ShortestPaths extends Algorithm<ShortestPaths> {
         }
     }
 
+    private void runRadix() {
+        while (!radixHeap.isEmpty() && running()) {
+            final long sourceDistance = radixHeap.topKey();
+            final int node = radixHeap.pop();
+            // skip entries that have been superseded by a shorter distance
+            if (sourceDistance > distances[node]) {
+                continue;
+            }
+            costs.put(node, sourceDistance / multiplier);
+            graph.forEachRelationship(
+                    node,
+                    Direction.OUTGOING,
+                    (source, target, relId, weight) -> {
+                        // relax
+                        final long targetDistance = sourceDistance + Math.round(weight * multiplier);
+                        if (targetDistance < distances[target]) {
+                            distances[target] = targetDistance;
+                            radixHeap.add(target, targetDistance);
+                        }
+                        return true;
+                    });
+            progressLogger.logProgress((double) node / (nodeCount - 1));
+        }
+    }
+
     @Override
     public ShortestPaths me() {
         return this;
@@ -117,6 +177,8 @@ public class ShortestPaths extends Algorithm<ShortestPaths> {
         graph = null;
         costs = null;
         queue = null;
+        distances = null;
+        radixHeap = null;
         return this;
     }
 
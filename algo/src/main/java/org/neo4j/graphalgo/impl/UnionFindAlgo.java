@@ -21,7 +21,10 @@ package org.neo4j.graphalgo.impl;
 import org.neo4j.graphalgo.api.Graph;
 import org.neo4j.graphalgo.api.HugeGraph;
 import org.neo4j.graphalgo.core.utils.dss.DisjointSetStruct;
+import org.neo4j.graphalgo.core.utils.mem.MemoryEstimation;
+import org.neo4j.graphalgo.core.utils.mem.MemoryEstimations;
 import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.PagedAtomicDisjointSetStruct;
 import org.neo4j.graphalgo.core.utils.paged.PagedDisjointSetStruct;
 
 import java.util.concurrent.ExecutorService;
@@ -162,6 +165,50 @@ public enum UnionFindAlgo {
             return new DSSResult(struct);
         }
     },
+    SHARED {
+        @Override
+        DSSResult run(
+                Graph graph,
+                ExecutorService executor,
+                int minBatchSize,
+                int concurrency,
+                double threshold,
+                BiConsumer<String, Algorithm<?>> prepare) {
+            return run(graph, executor, AllocationTracker.EMPTY, concurrency, threshold, prepare);
+        }
+
+        @Override
+        DSSResult run(
+                HugeGraph hugeGraph,
+                ExecutorService executor,
+                AllocationTracker tracker,
+                int minBatchSize,
+                int concurrency,
+                double threshold,
+                BiConsumer<String, Algorithm<?>> prepare) {
+            return run(hugeGraph, executor, tracker, concurrency, threshold, prepare);
+        }
+
+        private DSSResult run(
+                Graph graph,
+                ExecutorService executor,
+                AllocationTracker tracker,
+                int concurrency,
+                double threshold,
+                BiConsumer<String, Algorithm<?>> prepare) {
+            ParallelUnionFindShared algo = new ParallelUnionFindShared(
+                    graph,
+                    executor,
+                    concurrency,
+                    tracker);
+            prepare.accept("CC(ParallelUnionFindShared)", algo);
+            PagedAtomicDisjointSetStruct struct = Double.isFinite(threshold)
+                    ? algo.compute(threshold)
+                    : algo.compute();
+            algo.release();
+            return new DSSResult(struct);
+        }
+    },
     SEQ {
         @Override
         DSSResult run(
@@ -201,6 +248,28 @@ public enum UnionFindAlgo {
         }
     };
 
+    /**
+     * The parallel variants union the relationships of every batch into a structure of their own
+     * and merge them, up to one structure per thread and the merged result exist at the same time.
+     *
+     * {@link #SHARED} uses a single structure for all threads, regardless of the graph.
+     *
+     * @param huge true if the algorithm runs on a {@link HugeGraph}
+     */
+    public MemoryEstimation memoryEstimation(boolean huge) {
+        if (this == SHARED) {
+            return MemoryEstimations.builder("UnionFind(" + name() + ")")
+                    .add(PagedAtomicDisjointSetStruct.memoryEstimation())
+                    .build();
+        }
+        MemoryEstimation struct = huge
+                ? PagedDisjointSetStruct.memoryEstimation()
+                : DisjointSetStruct.memoryEstimation();
+        return MemoryEstimations.builder("UnionFind(" + name() + ")")
+                .copies("disjoint set structs", struct, 1, this == SEQ ? c -> 1 : c -> c + 1)
+                .build();
+    }
+
     public static BiConsumer<String, Algorithm<?>> NOTHING = (s, a) -> {
     };
 
@@ -19,15 +19,22 @@
 package org.neo4j.graphalgo.impl;
 
 import org.neo4j.graphalgo.api.Graph;
+import org.neo4j.graphalgo.api.GraphFactory;
 import org.neo4j.graphalgo.core.GraphLoader;
 import org.neo4j.graphalgo.core.ProcedureConfiguration;
+import org.neo4j.graphalgo.core.heavyweight.HeavyCypherGraphFactory;
+import org.neo4j.graphalgo.core.heavyweight.HeavyGraphFactory;
+import org.neo4j.graphalgo.core.neo4jview.GraphViewFactory;
+import org.neo4j.graphalgo.core.utils.AdmissionController;
 import org.neo4j.graphalgo.core.utils.Pools;
 import org.neo4j.graphalgo.core.utils.ProgressLogger;
 import org.neo4j.graphalgo.core.utils.ProgressTimer;
 import org.neo4j.graphalgo.core.utils.TerminationFlag;
 import org.neo4j.graphalgo.core.utils.dss.DisjointSetStruct;
+import org.neo4j.graphalgo.core.utils.metrics.JobMetrics;
+import org.neo4j.graphalgo.core.utils.metrics.MetricsRegistry;
 import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
-import org.neo4j.graphalgo.core.utils.paged.PagedDisjointSetStruct;
+import org.neo4j.graphalgo.core.utils.paged.HugeDisjointSetStruct;
 import org.neo4j.graphalgo.core.write.Exporter;
 import org.neo4j.graphalgo.results.UnionFindResult;
 import org.neo4j.graphdb.Direction;
@@ -52,6 +59,7 @@ public final class UnionFindProcExec implements BiConsumer<String, Algorithm<?>>
     private final KernelTransaction transaction;
     private final UnionFindAlgo sequential;
     private final UnionFindAlgo parallel;
+    private JobMetrics metrics = JobMetrics.NULL;
 
     public static Stream<UnionFindResult> run(
             Map<String, Object> config,
@@ -68,31 +76,37 @@ public final class UnionFindProcExec implements BiConsumer<String, Algorithm<?>>
 
         UnionFindProcExec uf = unionFind.get();
 
-        final Graph graph = uf.load(builder::timeLoad, configuration, tracker);
+        try (JobMetrics metrics = MetricsRegistry.GLOBAL.start("algo.unionFind", tracker);
+             AdmissionController.Reservation ignored = uf.admit("algo.unionFind", configuration, tracker)) {
+            uf.metrics = metrics;
+            builder.withMetrics(metrics);
+            final Graph graph = uf.load(builder::timeLoad, configuration, tracker);
+            metrics.graph(graph.nodeCount(), graph.relationshipCount());
 
-        if (graph.nodeCount() == 0) {
+            if (graph.nodeCount() == 0) {
+                graph.release();
+                return Stream.of(builder
+                        .withNodeCount(graph.nodeCount())
+                        .withSetCount(0)
+                        .build());
+            }
+
+            DSSResult dssResult = uf.evaluate(
+                    builder::timeEval,
+                    graph,
+                    configuration,
+                    tracker);
             graph.release();
+
+            if (configuration.isWriteFlag()) {
+                uf.write(builder::timeWrite, graph, dssResult, configuration);
+            }
+
             return Stream.of(builder
                     .withNodeCount(graph.nodeCount())
-                    .withSetCount(0)
+                    .withSetCount(dssResult.getSetCount())
                     .build());
         }
-
-        DSSResult dssResult = uf.evaluate(
-                builder::timeEval,
-                graph,
-                configuration,
-                tracker);
-        graph.release();
-
-        if (configuration.isWriteFlag()) {
-            uf.write(builder::timeWrite, graph, dssResult, configuration);
-        }
-
-        return Stream.of(builder
-                .withNodeCount(graph.nodeCount())
-                .withSetCount(dssResult.getSetCount())
-                .build());
     }
 
     public static Stream<DisjointSetStruct.Result> stream(
@@ -108,16 +122,26 @@ public final class UnionFindProcExec implements BiConsumer<String, Algorithm<?>>
         AllocationTracker tracker = AllocationTracker.create();
         UnionFindProcExec uf = unionFind.get();
 
-        final Graph graph = uf.load(configuration, tracker);
+        // the sets are held until the stream is consumed, the reservation is released when it is closed
+        AdmissionController.Reservation reservation = uf.admit("algo.unionFind.stream", configuration, tracker);
+        try (JobMetrics metrics = MetricsRegistry.GLOBAL.start("algo.unionFind.stream", tracker)) {
+            uf.metrics = metrics;
+            final Graph graph = uf.load(() -> metrics.timePhase(JobMetrics.LOAD), configuration, tracker);
+            metrics.graph(graph.nodeCount(), graph.relationshipCount());
 
-        if (graph.nodeCount() == 0) {
+            if (graph.nodeCount() == 0) {
+                graph.release();
+                reservation.close();
+                return Stream.empty();
+            }
+
+            DSSResult result = uf.evaluate(() -> metrics.timePhase(JobMetrics.COMPUTE), graph, configuration, tracker);
             graph.release();
-            return Stream.empty();
+            return result.resultStream(graph).onClose(reservation::close);
+        } catch (RuntimeException | Error e) {
+            reservation.close();
+            throw e;
         }
-
-        DSSResult result = uf.evaluate(graph, configuration, tracker);
-        graph.release();
-        return result.resultStream(graph);
     }
 
     public UnionFindProcExec(
@@ -145,14 +169,49 @@ public final class UnionFindProcExec implements BiConsumer<String, Algorithm<?>>
     public Graph load(
             ProcedureConfiguration config,
             AllocationTracker tracker) {
+        return newLoader(config, tracker).load(config.getGraphImpl());
+    }
+
+    /**
+     * Reserve threads and memory for the job and reduce the concurrency of the
+     * configuration to the granted threads.
+     */
+    public AdmissionController.Reservation admit(
+            String job,
+            ProcedureConfiguration config,
+            AllocationTracker tracker) {
+        GraphFactory factory = newLoader(config, tracker).build(config.getGraphImpl());
+        // the graph of a named graph is not known yet, the huge struct is the larger estimate
+        boolean huge = !(factory instanceof HeavyGraphFactory ||
+                factory instanceof HeavyCypherGraphFactory ||
+                factory instanceof GraphViewFactory);
+        UnionFindAlgo uf = config.getConcurrency() > 1 ? parallel : sequential;
+        // a graph from the catalog is already loaded, its factory estimates nothing
+        long estimatedBytes = factory
+                .estimateMemoryUsage(job, uf.memoryEstimation(huge), config.getConcurrency())
+                .memoryUsage()
+                .max();
+        AdmissionController.Reservation reservation = AdmissionController.GLOBAL.reserve(
+                job,
+                config.getConcurrency(),
+                estimatedBytes,
+                tracker,
+                config.getAdmissionTimeout(),
+                TerminationFlag.wrap(transaction));
+        config.overrideConcurrency(reservation.concurrency());
+        return reservation;
+    }
+
+    private GraphLoader newLoader(
+            ProcedureConfiguration config,
+            AllocationTracker tracker) {
         return new GraphLoader(api, Pools.DEFAULT)
                 .init(log, config.getNodeLabelOrQuery(), config.getRelationshipOrQuery(), config)
                 .withOptionalRelationshipWeightsFromProperty(
                         config.getWeightProperty(),
                         config.getWeightPropertyDefaultValue(1.0))
                 .withDirection(Direction.OUTGOING)
-                .withAllocationTracker(tracker)
-                .load(config.getGraphImpl());
+                .withAllocationTracker(tracker);
     }
 
     private DSSResult evaluate(
@@ -215,7 +274,8 @@ public final class UnionFindProcExec implements BiConsumer<String, Algorithm<?>>
     @Override
     public void accept(final String name, final Algorithm<?> algorithm) {
         algorithm.withProgressLogger(ProgressLogger.wrap(log, name))
-                .withTerminationFlag(TerminationFlag.wrap(transaction));
+                .withTerminationFlag(TerminationFlag.wrap(transaction))
+                .withMetrics(metrics);
     }
 
     private void write(
@@ -232,14 +292,14 @@ public final class UnionFindProcExec implements BiConsumer<String, Algorithm<?>>
 
     private void write(
             Exporter exporter,
-            PagedDisjointSetStruct struct,
+            HugeDisjointSetStruct struct,
             ProcedureConfiguration configuration) {
         exporter.write(
                 configuration.get(
                         CONFIG_CLUSTER_PROPERTY,
                         DEFAULT_CLUSTER_PROPERTY),
                 struct,
-                PagedDisjointSetStruct.Translator.INSTANCE);
+                HugeDisjointSetStruct.Translator.INSTANCE);
     }
 
 }
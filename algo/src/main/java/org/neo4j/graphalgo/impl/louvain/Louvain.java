@@ -26,7 +26,11 @@ import org.neo4j.graphalgo.api.Graph;
 import org.neo4j.graphalgo.core.utils.ProgressLogger;
 import org.neo4j.graphalgo.core.utils.RawValues;
 import org.neo4j.graphalgo.core.utils.TerminationFlag;
+import org.neo4j.graphalgo.core.utils.mem.MemoryEstimation;
+import org.neo4j.graphalgo.core.utils.mem.MemoryEstimations;
+import org.neo4j.graphalgo.core.utils.mem.MemoryRange;
 import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.MemoryUsage;
 import org.neo4j.graphalgo.impl.Algorithm;
 
 import java.util.ArrayList;
@@ -56,13 +60,48 @@ public class Louvain extends Algorithm<Louvain> {
     private final int concurrency;
     private final AllocationTracker tracker;
     private ProgressLogger progressLogger;
-    private TerminationFlag terminationFlag;
+    private TerminationFlag terminationFlag = TerminationFlag.RUNNING_TRUE;
     private int[] communities;
     private int[][] dendrogram;
     private double[] nodeWeights;
     private Graph root;
     private int communityCount = 0;
 
+    /**
+     * The first level optimizes the modularity on the loaded graph. Every further level
+     * works on a graph of the communities of the previous level, which is at most as large
+     * as the loaded graph and only exists while the next level is optimized.
+     *
+     * @param maxLevel the maximum number of levels
+     */
+    public static MemoryEstimation memoryEstimation(int maxLevel) {
+        return MemoryEstimations.builder(Louvain.class)
+                .perNode("communities", nodeCount -> MemoryUsage.sizeOfIntArray(Math.toIntExact(nodeCount)))
+                .perNode("node weights", nodeCount -> MemoryUsage.sizeOfDoubleArray(Math.toIntExact(nodeCount)))
+                .perGraphDimension("dendrogram", dimensions -> {
+                    long level = MemoryUsage.sizeOfIntArray(dimensions.nodeCount());
+                    return MemoryRange.of(level, level * Math.max(1, maxLevel));
+                })
+                .add(MemoryEstimations.builder(ModularityOptimization.class)
+                        .perNode("ki", nodeCount -> MemoryUsage.sizeOfDoubleArray(Math.toIntExact(nodeCount)))
+                        .perNode("communities", nodeCount -> MemoryUsage.sizeOfIntArray(Math.toIntExact(nodeCount)))
+                        .perThread("task", nodeCount -> {
+                            int nodes = Math.toIntExact(nodeCount);
+                            return (MemoryUsage.sizeOfDoubleArray(nodes) << 1) + MemoryUsage.sizeOfIntArray(nodes);
+                        })
+                        .build())
+                .perGraphDimension("community graph", dimensions -> {
+                    // every relationship is added in both directions
+                    long relationships = dimensions.maxRelCount() << 1;
+                    long max = MemoryUsage.sizeOfOpenHashContainer(
+                            dimensions.nodeCount(), 0.75, Integer.BYTES, Integer.BYTES) +
+                            MemoryUsage.sizeOfOpenHashContainer(relationships, 0.75, Integer.BYTES, 0) +
+                            MemoryUsage.sizeOfOpenHashContainer(relationships, 0.75, Long.BYTES, Double.BYTES);
+                    return MemoryRange.of(0L, maxLevel > 1 ? max : 0L);
+                })
+                .build();
+    }
+
     public Louvain(Graph graph,
                    ExecutorService pool,
                    int concurrency,
@@ -110,6 +149,11 @@ public class Louvain extends Algorithm<Louvain> {
             }
             nodeCount = communityCount;
             dendrogram[level] = rebuildCommunityStructure(communityIds);
+            if (!running()) {
+                // keep the communities of this level as the partial result
+                level++;
+                break;
+            }
             graph = rebuildGraph(graph, communityIds, communityCount);
         }
         dendrogram = Arrays.copyOf(dendrogram, level);
@@ -244,6 +288,7 @@ public class Louvain extends Algorithm<Louvain> {
 
     @Override
     public Louvain withTerminationFlag(TerminationFlag terminationFlag) {
+        super.withTerminationFlag(terminationFlag);
         this.terminationFlag = terminationFlag;
         return this;
     }
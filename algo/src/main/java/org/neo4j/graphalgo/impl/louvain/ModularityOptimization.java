@@ -29,6 +29,7 @@ import org.neo4j.graphalgo.core.sources.ShuffledNodeIterator;
 import org.neo4j.graphalgo.core.utils.ParallelUtil;
 import org.neo4j.graphalgo.core.utils.Pointer;
 import org.neo4j.graphalgo.core.utils.ProgressLogger;
+import org.neo4j.graphalgo.core.utils.TerminationFlag;
 import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
 import org.neo4j.graphalgo.impl.Algorithm;
 import org.neo4j.graphdb.Direction;
@@ -203,8 +204,8 @@ public class ModularityOptimization extends Algorithm<ModularityOptimization> {
         }
         // (2x double + 1x int) * N * threads
         tracker.add(20 * nodeCount * concurrency);
-        // as long as maxIterations is not reached
-        for (iterations = 0; iterations < maxIterations; iterations++) {
+        // as long as maxIterations is not reached and the budget is not used up
+        for (iterations = 0; iterations < maxIterations && running(); iterations++) {
             // reset node counter (for logging)
             counter.set(0);
             // run all tasks
@@ -294,6 +295,7 @@ public class ModularityOptimization extends Algorithm<ModularityOptimization> {
         double bestGain, bestWeight, q = MINIMUM_MODULARITY;
         int bestCommunity;
         boolean improvement = false;
+        int processed;
 
         /**
          * at creation the task copies the community-structure
@@ -327,6 +329,10 @@ public class ModularityOptimization extends Algorithm<ModularityOptimization> {
             nodeIterator.forEachNode(node -> {
                 final boolean move = move(node);
                 improvement |= move;
+                // stop the round early, the moves so far still form a valid community structure
+                if (++processed % TerminationFlag.RUN_CHECK_NODE_COUNT == 0 && !running()) {
+                    return false;
+                }
                 progressLogger.logProgress(
                         counter.getAndIncrement(),
                         denominator,
@@ -19,6 +19,8 @@
 package org.neo4j.graphalgo.impl.msbfs;
 
 import org.neo4j.graphalgo.api.HugeIdMapping;
+import org.neo4j.graphalgo.api.HugeNeighbourCursor;
+import org.neo4j.graphalgo.api.HugeRelationshipBatchIterator;
 import org.neo4j.graphalgo.api.HugeRelationshipIterator;
 import org.neo4j.graphalgo.core.utils.ParallelUtil;
 import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
@@ -79,6 +81,8 @@ public final class HugeMultiSourceBFS implements Runnable, MsBFSAlgo {
 
     // how many sources can be traversed simultaneously
     static final int OMEGA = 64;
+    // number of neighbours that are read at once, if the relationships can be read in batches
+    private static final int BATCH_SIZE = 256;
 
     private final ThreadLocal<HugeLongArray> visits;
     private final ThreadLocal<HugeLongArray> nexts;
@@ -86,6 +90,8 @@ public final class HugeMultiSourceBFS implements Runnable, MsBFSAlgo {
 
     private final HugeIdMapping nodeIds;
     private final HugeRelationshipIterator relationships;
+    private final HugeRelationshipBatchIterator batchRelationships;
+    private final long[] targets;
     private final Direction direction;
     private final HugeBfsConsumer perNodeAction;
     private final long[] startNodes;
@@ -102,6 +108,10 @@ public final class HugeMultiSourceBFS implements Runnable, MsBFSAlgo {
             long... startNodes) {
         this.nodeIds = nodeIds;
         this.relationships = relationships;
+        this.batchRelationships = relationships instanceof HugeRelationshipBatchIterator
+                ? (HugeRelationshipBatchIterator) relationships
+                : null;
+        this.targets = batchRelationships != null ? new long[BATCH_SIZE] : null;
         this.direction = direction;
         this.perNodeAction = perNodeAction;
         this.startNodes = (startNodes != null && startNodes.length > 0) ? startNodes : null;
@@ -127,6 +137,10 @@ public final class HugeMultiSourceBFS implements Runnable, MsBFSAlgo {
         assert startNodes != null && startNodes.length > 0;
         this.nodeIds = nodeIds;
         this.relationships = relationships;
+        this.batchRelationships = relationships instanceof HugeRelationshipBatchIterator
+                ? (HugeRelationshipBatchIterator) relationships
+                : null;
+        this.targets = batchRelationships != null ? new long[BATCH_SIZE] : null;
         this.direction = direction;
         this.perNodeAction = perNodeAction;
         this.startNodes = startNodes;
@@ -149,6 +163,10 @@ public final class HugeMultiSourceBFS implements Runnable, MsBFSAlgo {
             ThreadLocal<HugeLongArray> seens) {
         this.nodeIds = nodeIds;
         this.relationships = relationships;
+        this.batchRelationships = relationships instanceof HugeRelationshipBatchIterator
+                ? (HugeRelationshipBatchIterator) relationships
+                : null;
+        this.targets = batchRelationships != null ? new long[BATCH_SIZE] : null;
         this.direction = direction;
         this.perNodeAction = perNodeAction;
         this.startNodes = null;
@@ -292,6 +310,17 @@ public final class HugeMultiSourceBFS implements Runnable, MsBFSAlgo {
     }
 
     private void prepareNextVisit(long nodeVisit, long nodeId, HugeLongArray nextSet) {
+        if (batchRelationships != null) {
+            HugeNeighbourCursor cursor = batchRelationships.neighbours(nodeId, direction);
+            long[] targets = this.targets;
+            int batch;
+            while ((batch = cursor.nextBatch(targets)) > 0) {
+                for (int i = 0; i < batch; ++i) {
+                    nextSet.or(targets[i], nodeVisit);
+                }
+            }
+            return;
+        }
         relationships.forEachRelationship(
                 nodeId,
                 direction,
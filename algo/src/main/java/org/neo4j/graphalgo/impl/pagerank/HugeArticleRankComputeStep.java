@@ -44,7 +44,11 @@ final class HugeArticleRankComputeStep extends HugeBaseComputeStep implements Hu
                 int degree = degrees.degree(nodeId, Direction.OUTGOING);
                 if (degree > 0) {
                     srcRankDelta = (int) (100_000 * (delta / (degree + averageDegree)));
-                    rels.forEachRelationship(nodeId, Direction.OUTGOING, this);
+                    if (batchIterator == null) {
+                        rels.forEachRelationship(nodeId, Direction.OUTGOING, this);
+                    } else if (srcRankDelta != 0) {
+                        addToTargets(nodeId, srcRankDelta);
+                    }
                 }
             }
         }
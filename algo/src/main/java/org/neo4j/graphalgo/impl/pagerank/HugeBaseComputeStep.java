@@ -1,6 +1,8 @@
 package org.neo4j.graphalgo.impl.pagerank;
 
 import org.neo4j.graphalgo.api.HugeDegrees;
+import org.neo4j.graphalgo.api.HugeNeighbourCursor;
+import org.neo4j.graphalgo.api.HugeRelationshipBatchIterator;
 import org.neo4j.graphalgo.api.HugeRelationshipIterator;
 import org.neo4j.graphalgo.api.HugeRelationshipWeights;
 import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
@@ -17,6 +19,7 @@ public abstract class HugeBaseComputeStep implements HugeComputeStep {
     private static final int S_INIT = 0;
     private static final int S_CALC = 1;
     private static final int S_SYNC = 2;
+    static final int BATCH_SIZE = 256;
 
     private int state;
 
@@ -24,6 +27,9 @@ public abstract class HugeBaseComputeStep implements HugeComputeStep {
     private int[] lengths;
     private long[] sourceNodeIds;
     final HugeRelationshipIterator relationshipIterator;
+    // reads the targets in batches instead of one callback per relationship, null if not supported
+    final HugeRelationshipBatchIterator batchIterator;
+    final long[] targets;
     final HugeDegrees degrees;
     private final AllocationTracker tracker;
 
@@ -51,6 +57,10 @@ public abstract class HugeBaseComputeStep implements HugeComputeStep {
         this.alpha = 1.0 - dampingFactor;
         this.sourceNodeIds = sourceNodeIds;
         this.relationshipIterator = relationshipIterator.concurrentCopy();
+        this.batchIterator = this.relationshipIterator instanceof HugeRelationshipBatchIterator
+                ? (HugeRelationshipBatchIterator) this.relationshipIterator
+                : null;
+        this.targets = batchIterator != null ? new long[BATCH_SIZE] : null;
         this.degrees = degrees;
         this.tracker = tracker;
         this.partitionSize = partitionSize;
@@ -109,6 +119,25 @@ public abstract class HugeBaseComputeStep implements HugeComputeStep {
 
     abstract void singleIteration();
 
+    /**
+     * Add {@code srcRankDelta} to the next score of every outgoing target of {@code nodeId}.
+     * Must only be called if there is a {@link #batchIterator}.
+     */
+    final void addToTargets(long nodeId, int srcRankDelta) {
+        HugeNeighbourCursor cursor = batchIterator.neighbours(nodeId, Direction.OUTGOING);
+        long[] targets = this.targets;
+        long[] starts = this.starts;
+        int[][] nextScores = this.nextScores;
+        int batch;
+        while ((batch = cursor.nextBatch(targets)) > 0) {
+            for (int i = 0; i < batch; ++i) {
+                long target = targets[i];
+                int idx = binaryLookup(target, starts);
+                nextScores[idx][(int) (target - starts[idx])] += srcRankDelta;
+            }
+        }
+    }
+
     public void prepareNextIteration(int[][] prevScores) {
         this.prevScores = prevScores;
     }
@@ -37,7 +37,11 @@ public class HugeNonWeightedComputeStep extends HugeBaseComputeStep implements H
                 int degree = degrees.degree(nodeId, Direction.OUTGOING);
                 if (degree > 0) {
                     srcRankDelta = (int) (100_000 * (delta / degree));
-                    rels.forEachRelationship(nodeId, Direction.OUTGOING, this);
+                    if (batchIterator == null) {
+                        rels.forEachRelationship(nodeId, Direction.OUTGOING, this);
+                    } else if (srcRankDelta != 0) {
+                        addToTargets(nodeId, srcRankDelta);
+                    }
                 }
             }
         }
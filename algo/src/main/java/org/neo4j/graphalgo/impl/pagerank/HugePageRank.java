@@ -23,6 +23,7 @@ import com.carrotsearch.hppc.LongArrayList;
 import org.neo4j.collection.primitive.PrimitiveLongIterator;
 import org.neo4j.graphalgo.api.*;
 import org.neo4j.graphalgo.core.utils.ParallelUtil;
+import org.neo4j.graphalgo.core.utils.metrics.JobMetrics;
 import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
 import org.neo4j.graphalgo.core.write.Exporter;
 import org.neo4j.graphalgo.core.write.PropertyTranslator;
@@ -112,6 +113,7 @@ public class HugePageRank extends Algorithm<HugePageRank> implements PageRankAlg
 
     private Log log;
     private ComputeSteps computeSteps;
+    private int ranIterations;
 
     /**
      * Forces sequential use. If you want parallelism, prefer
@@ -179,6 +181,11 @@ public class HugePageRank extends Algorithm<HugePageRank> implements PageRankAlg
         return computeSteps.getPageRank();
     }
 
+    @Override
+    public int ranIterations() {
+        return ranIterations;
+    }
+
     @Override
     public Algorithm<?> algorithm() {
         return this;
@@ -497,14 +504,19 @@ public class HugePageRank extends Algorithm<HugePageRank> implements PageRankAlg
             int op = 0;
             ParallelUtil.runWithConcurrency(concurrency, steps, pool);
             getProgressLogger().logProgress(++op, operations, tracker);
+            ranIterations = 0;
+            JobMetrics metrics = getMetrics();
             for (int i = 0; i < iterations && running(); i++) {
+                long start = System.nanoTime();
                 // calculate scores
-                ParallelUtil.runWithConcurrency(concurrency, steps, pool);
+                ParallelUtil.runWithConcurrency(concurrency, metrics.timed(steps), pool);
                 getProgressLogger().logProgress(++op, operations, tracker);
                 synchronizeScores();
                 // sync scores
-                ParallelUtil.runWithConcurrency(concurrency, steps, pool);
+                ParallelUtil.runWithConcurrency(concurrency, metrics.timed(steps), pool);
                 getProgressLogger().logProgress(++op, operations, tracker);
+                metrics.iteration(System.nanoTime() - start);
+                ranIterations = i + 1;
             }
         }
 
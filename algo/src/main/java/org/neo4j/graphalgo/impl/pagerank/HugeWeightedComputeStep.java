@@ -1,17 +1,22 @@
 package org.neo4j.graphalgo.impl.pagerank;
 
 import org.neo4j.graphalgo.api.HugeDegrees;
+import org.neo4j.graphalgo.api.HugeNeighbourCursor;
 import org.neo4j.graphalgo.api.HugeRelationshipConsumer;
 import org.neo4j.graphalgo.api.HugeRelationshipIterator;
 import org.neo4j.graphalgo.api.HugeRelationshipWeights;
+import org.neo4j.graphalgo.api.HugeWeightedRelationshipConsumer;
+import org.neo4j.graphalgo.api.HugeWeightedRelationshipIterator;
 import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
 import org.neo4j.graphdb.Direction;
 
 import static org.neo4j.graphalgo.core.utils.ArrayUtil.binaryLookup;
 
-public class HugeWeightedComputeStep extends HugeBaseComputeStep implements HugeRelationshipConsumer {
+public class HugeWeightedComputeStep extends HugeBaseComputeStep implements HugeRelationshipConsumer, HugeWeightedRelationshipConsumer {
     private final HugeRelationshipWeights relationshipWeights;
+    private final HugeWeightedRelationshipIterator weightedRelationshipIterator;
     private final double[] aggregatedDegrees;
+    private final double[] weights;
     private double sumOfWeights;
     private double delta;
 
@@ -34,19 +39,55 @@ public class HugeWeightedComputeStep extends HugeBaseComputeStep implements Huge
                 startNode);
         this.relationshipWeights = relationshipWeights;
         this.aggregatedDegrees = degreeCache.aggregatedDegrees();
+        // read weights together with the targets instead of looking up every single one
+        this.weightedRelationshipIterator = this.relationshipIterator instanceof HugeWeightedRelationshipIterator
+                ? (HugeWeightedRelationshipIterator) this.relationshipIterator
+                : null;
+        this.weights = batchIterator != null ? new double[BATCH_SIZE] : null;
     }
 
     void singleIteration() {
         long startNode = this.startNode;
         long endNode = this.endNode;
         HugeRelationshipIterator rels = this.relationshipIterator;
+        HugeWeightedRelationshipIterator weightedRels = this.weightedRelationshipIterator;
         for (long nodeId = startNode; nodeId < endNode; ++nodeId) {
             delta = deltas[(int) (nodeId - startNode)];
             if (delta > 0) {
                 int degree = degrees.degree(nodeId, Direction.OUTGOING);
                 if (degree > 0) {
                     sumOfWeights = aggregatedDegrees[(int) nodeId];
-                    rels.forEachRelationship(nodeId, Direction.OUTGOING, this);
+                    if (batchIterator != null) {
+                        addToTargets(nodeId);
+                    } else if (weightedRels != null) {
+                        weightedRels.forEachRelationship(nodeId, Direction.OUTGOING, (HugeWeightedRelationshipConsumer) this);
+                    } else {
+                        rels.forEachRelationship(nodeId, Direction.OUTGOING, (HugeRelationshipConsumer) this);
+                    }
+                }
+            }
+        }
+    }
+
+    private void addToTargets(long nodeId) {
+        HugeNeighbourCursor cursor = batchIterator.neighbours(nodeId, Direction.OUTGOING);
+        long[] targets = this.targets;
+        double[] weights = this.weights;
+        long[] starts = this.starts;
+        int[][] nextScores = this.nextScores;
+        double delta = this.delta;
+        double sumOfWeights = this.sumOfWeights;
+        int batch;
+        while ((batch = cursor.nextBatch(targets, weights)) > 0) {
+            for (int i = 0; i < batch; ++i) {
+                double weight = weights[i];
+                if (weight > 0) {
+                    int srcRankDelta = (int) (100_000 * (delta * (weight / sumOfWeights)));
+                    if (srcRankDelta != 0) {
+                        long target = targets[i];
+                        int idx = binaryLookup(target, starts);
+                        nextScores[idx][(int) (target - starts[idx])] += srcRankDelta;
+                    }
                 }
             }
         }
@@ -54,8 +95,11 @@ public class HugeWeightedComputeStep extends HugeBaseComputeStep implements Huge
 
     @Override
     public boolean accept(long sourceNodeId, long targetNodeId) {
-        double weight = relationshipWeights.weightOf(sourceNodeId, targetNodeId);
+        return accept(sourceNodeId, targetNodeId, relationshipWeights.weightOf(sourceNodeId, targetNodeId));
+    }
 
+    @Override
+    public boolean accept(long sourceNodeId, long targetNodeId, double weight) {
         if (weight > 0) {
             double proportion = weight / sumOfWeights;
             int srcRankDelta = (int) (100_000 * (delta * proportion));
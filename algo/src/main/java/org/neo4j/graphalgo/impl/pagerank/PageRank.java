@@ -23,6 +23,7 @@ import org.neo4j.collection.primitive.PrimitiveIntIterator;
 import org.neo4j.graphalgo.api.*;
 import org.neo4j.graphalgo.core.utils.ParallelUtil;
 import org.neo4j.graphalgo.core.utils.Pools;
+import org.neo4j.graphalgo.core.utils.metrics.JobMetrics;
 import org.neo4j.graphalgo.core.write.Exporter;
 import org.neo4j.graphalgo.core.write.PropertyTranslator;
 import org.neo4j.graphalgo.core.write.Translators;
@@ -90,6 +91,7 @@ import static org.neo4j.graphalgo.core.utils.ArrayUtil.binaryLookup;
 public class PageRank extends Algorithm<PageRank> implements PageRankAlgorithm {
 
     private final ComputeSteps computeSteps;
+    private int ranIterations;
 
     /**
      * Forces sequential use. If you want parallelism, prefer
@@ -165,6 +167,11 @@ public class PageRank extends Algorithm<PageRank> implements PageRankAlgorithm {
         return computeSteps.getPageRank();
     }
 
+    @Override
+    public int ranIterations() {
+        return ranIterations;
+    }
+
     @Override
     public Algorithm<?> algorithm() {
         return this;
@@ -350,12 +357,17 @@ public class PageRank extends Algorithm<PageRank> implements PageRankAlgorithm {
         private void run(int iterations) {
             // initialize data structures
             ParallelUtil.runWithConcurrency(concurrency, steps, pool);
+            ranIterations = 0;
+            JobMetrics metrics = getMetrics();
             for (int i = 0; i < iterations && running(); i++) {
+                long start = System.nanoTime();
                 // calculate scores
-                ParallelUtil.runWithConcurrency(concurrency, steps, pool);
+                ParallelUtil.runWithConcurrency(concurrency, metrics.timed(steps), pool);
                 synchronizeScores();
                 // sync scores
-                ParallelUtil.runWithConcurrency(concurrency, steps, pool);
+                ParallelUtil.runWithConcurrency(concurrency, metrics.timed(steps), pool);
+                metrics.iteration(System.nanoTime() - start);
+                ranIterations = i + 1;
             }
         }
 
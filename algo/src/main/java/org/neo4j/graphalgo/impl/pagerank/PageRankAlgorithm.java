@@ -20,6 +20,8 @@ package org.neo4j.graphalgo.impl.pagerank;
 
 import org.neo4j.graphalgo.api.Graph;
 import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.core.utils.mem.MemoryEstimation;
+import org.neo4j.graphalgo.core.utils.mem.MemoryEstimations;
 import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
 import org.neo4j.graphalgo.impl.Algorithm;
 
@@ -32,8 +34,24 @@ public interface PageRankAlgorithm {
 
     PageRankResult result();
 
+    /**
+     * @return the number of completed iterations, fewer than requested if the algorithm was terminated early
+     */
+    int ranIterations();
+
     Algorithm<?> algorithm();
 
+    /**
+     * The ranks and deltas are partitioned over the compute steps, every step keeps
+     * the scores it sends to the nodes of all partitions.
+     */
+    static MemoryEstimation memoryEstimation() {
+        return MemoryEstimations.builder("PageRank")
+                .perNode("ranks and deltas", nodeCount -> nodeCount * (Double.BYTES << 1))
+                .perThread("next scores", nodeCount -> nodeCount * Integer.BYTES)
+                .build();
+    }
+
     static PageRankAlgorithm weightedOf(
             Graph graph,
             double dampingFactor,
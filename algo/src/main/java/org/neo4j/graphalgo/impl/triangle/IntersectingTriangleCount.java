@@ -19,8 +19,12 @@
 package org.neo4j.graphalgo.impl.triangle;
 
 import org.neo4j.graphalgo.api.Graph;
+import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.api.HugeNeighbourCursor;
+import org.neo4j.graphalgo.api.HugeRelationshipBatchIterator;
 import org.neo4j.graphalgo.api.RelationshipIntersect;
 import org.neo4j.graphalgo.api.IntersectionConsumer;
+import org.neo4j.graphalgo.core.utils.DegreePartitions;
 import org.neo4j.graphalgo.core.utils.ParallelUtil;
 import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
 import org.neo4j.graphalgo.core.utils.paged.DoubleArray;
@@ -28,6 +32,7 @@ import org.neo4j.graphalgo.core.utils.paged.PagedAtomicIntegerArray;
 import org.neo4j.graphalgo.impl.Algorithm;
 import org.neo4j.graphdb.Direction;
 
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.atomic.AtomicLong;
@@ -37,19 +42,24 @@ import java.util.stream.Stream;
 
 /**
  * TriangleCount counts the number of triangles in the Graph as well
- * as the number of triangles that passes through a node
+ * as the number of triangles that passes through a node.
+ * <p>
+ * Huge graphs are intersected on neighbours that are read in batches, other graphs
+ * use their {@link RelationshipIntersect}.
  *
  * @author mknblch
  */
 public class IntersectingTriangleCount extends Algorithm<IntersectingTriangleCount> implements TriangleCountAlgorithm {
 
+    private static final int BATCH_SIZE = 256;
+
     private Graph graph;
     private ExecutorService executorService;
     private final int concurrency;
     private final long nodeCount;
     private final AllocationTracker tracker;
     private final LongAdder triangleCount;
-    private final AtomicLong queue;
+    private DegreePartitions partitions;
     private final AtomicLong visitedNodes;
     private PagedAtomicIntegerArray triangles;
     private double averageClusteringCoefficient;
@@ -63,7 +73,6 @@ public class IntersectingTriangleCount extends Algorithm<IntersectingTriangleCou
         visitedNodes = new AtomicLong();
         triangles = PagedAtomicIntegerArray.newArray(nodeCount, tracker);
         triangleCount = new LongAdder();
-        queue = new AtomicLong();
     }
 
     @Override
@@ -118,16 +127,33 @@ public class IntersectingTriangleCount extends Algorithm<IntersectingTriangleCou
     @Override
     public IntersectingTriangleCount compute() {
         visitedNodes.set(0);
-        queue.set(0);
         triangleCount.reset();
+        // the hubs are split from their neighbourhood, the tail is handed out in small pieces
+        partitions = graph instanceof HugeGraph
+                ? ParallelUtil.hugeDegreePartitions(nodeCount, (HugeGraph) graph, Direction.OUTGOING, concurrency, true)
+                : ParallelUtil.degreePartitions(Math.toIntExact(nodeCount), graph, Direction.OUTGOING, concurrency, true);
         averageClusteringCoefficient = 0.0;
         // create tasks
-        final Collection<? extends Runnable> tasks = ParallelUtil.tasks(concurrency, () -> new IntersectTask(graph));
+        final Collection<? extends Runnable> tasks = graph instanceof HugeGraph
+                ? ParallelUtil.tasks(concurrency, () -> new BatchIntersectTask((HugeGraph) graph))
+                : ParallelUtil.tasks(concurrency, () -> new IntersectTask(graph));
         // run
         ParallelUtil.run(tasks, executorService);
         return this;
     }
 
+    private void logPartition(int partition) {
+        long visited = partitions.end(partition) - partitions.start(partition);
+        getProgressLogger().logProgress(visitedNodes.addAndGet(visited), nodeCount);
+    }
+
+    private void addTriangle(long nodeA, long nodeB, long nodeC) {
+        triangles.add((int) nodeA, 1);
+        triangles.add((int) nodeB, 1);
+        triangles.add((int) nodeC, 1);
+        triangleCount.increment();
+    }
+
     private class IntersectTask implements Runnable, IntersectionConsumer {
 
         private RelationshipIntersect intersect;
@@ -138,10 +164,13 @@ public class IntersectingTriangleCount extends Algorithm<IntersectingTriangleCou
 
         @Override
         public void run() {
-            long node;
-            while ((node = queue.getAndIncrement()) < nodeCount && running()) {
-                intersect.intersectAll(node, this);
-                getProgressLogger().logProgress(visitedNodes.incrementAndGet(), nodeCount);
+            int partition;
+            while ((partition = partitions.claim()) != -1 && running()) {
+                long end = partitions.end(partition);
+                for (long node = partitions.start(partition); node < end; node++) {
+                    intersect.intersectAll(node, this);
+                }
+                logPartition(partition);
             }
         }
 
@@ -149,11 +178,92 @@ public class IntersectingTriangleCount extends Algorithm<IntersectingTriangleCou
         public void accept(final long nodeA, final long nodeB, final long nodeC) {
             // only use this triangle where the id's are in order, not the other 5
             if  (nodeA < nodeB) { //  && nodeB < nodeC
-                triangles.add((int) nodeA, 1);
-                triangles.add((int) nodeB, 1);
-                triangles.add((int) nodeC, 1);
-                triangleCount.increment();
+                addTriangle(nodeA, nodeB, nodeC);
+            }
+        }
+    }
+
+    /**
+     * Intersects the sorted neighbours of two nodes in plain array loops.
+     * Every triangle {@code a < b < c} is found exactly once, from {@code a}.
+     */
+    private class BatchIntersectTask implements Runnable {
+
+        private final HugeRelationshipBatchIterator relationships;
+        private final long[] batch = new long[BATCH_SIZE];
+        private final Neighbours neighboursA = new Neighbours();
+        private final Neighbours neighboursB = new Neighbours();
+
+        BatchIntersectTask(HugeGraph graph) {
+            relationships = (HugeRelationshipBatchIterator) graph.concurrentCopy();
+        }
+
+        @Override
+        public void run() {
+            int partition;
+            while ((partition = partitions.claim()) != -1 && running()) {
+                long end = partitions.end(partition);
+                for (long node = partitions.start(partition); node < end; node++) {
+                    intersectAll(node);
+                }
+                logPartition(partition);
+            }
+        }
+
+        private void intersectAll(long nodeA) {
+            int lengthA = neighboursA.readGreaterThan(relationships, nodeA, batch);
+            long[] idsA = neighboursA.ids;
+            for (int i = 0; i < lengthA; ++i) {
+                long nodeB = idsA[i];
+                int lengthB = neighboursB.readGreaterThan(relationships, nodeB, batch);
+                long[] idsB = neighboursB.ids;
+                // the neighbours of a after b are the candidates for c > b
+                int j = i + 1, k = 0;
+                while (j < lengthA && k < lengthB) {
+                    long c = idsA[j];
+                    long d = idsB[k];
+                    if (c < d) {
+                        ++j;
+                    } else if (c > d) {
+                        ++k;
+                    } else {
+                        addTriangle(nodeA, nodeB, c);
+                        ++j;
+                        ++k;
+                    }
+                }
+            }
+        }
+    }
+
+    private static final class Neighbours {
+        private long[] ids = new long[BATCH_SIZE];
+
+        /**
+         * Read the distinct outgoing neighbours of {@code node} that are larger than {@code node} into {@link #ids}.
+         *
+         * @return the number of neighbours
+         */
+        int readGreaterThan(HugeRelationshipBatchIterator relationships, long node, long[] batch) {
+            HugeNeighbourCursor cursor = relationships.neighbours(node, Direction.OUTGOING);
+            long[] ids = this.ids;
+            long last = node;
+            int length = 0;
+            int size;
+            while ((size = cursor.nextBatch(batch)) > 0) {
+                if (length + size > ids.length) {
+                    ids = Arrays.copyOf(ids, Math.max(length + size, ids.length << 1));
+                }
+                for (int i = 0; i < size; ++i) {
+                    long id = batch[i];
+                    if (id > last) {
+                        ids[length++] = id;
+                        last = id;
+                    }
+                }
             }
+            this.ids = ids;
+            return length;
         }
     }
 }
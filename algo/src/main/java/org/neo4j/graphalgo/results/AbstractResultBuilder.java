@@ -19,6 +19,7 @@
 package org.neo4j.graphalgo.results;
 
 import org.neo4j.graphalgo.core.utils.ProgressTimer;
+import org.neo4j.graphalgo.core.utils.metrics.JobMetrics;
 
 /**
  * @author mknblch
@@ -28,6 +29,7 @@ public abstract class AbstractResultBuilder<R> {
     protected long loadDuration = -1;
     protected long evalDuration = -1;
     protected long writeDuration = -1;
+    protected JobMetrics metrics = JobMetrics.NULL;
 
     public AbstractResultBuilder withLoadDuration(long loadDuration) {
         this.loadDuration = loadDuration;
@@ -44,16 +46,33 @@ public abstract class AbstractResultBuilder<R> {
         return this;
     }
 
+    /**
+     * Also record the durations of the phases in the metrics of the job.
+     */
+    public AbstractResultBuilder withMetrics(JobMetrics metrics) {
+        this.metrics = metrics;
+        return this;
+    }
+
     public ProgressTimer timeLoad() {
-        return ProgressTimer.start(this::withLoadDuration);
+        return ProgressTimer.start(duration -> {
+            withLoadDuration(duration);
+            metrics.phase(JobMetrics.LOAD, duration);
+        });
     }
 
     public ProgressTimer timeEval() {
-        return ProgressTimer.start(this::withEvalDuration);
+        return ProgressTimer.start(duration -> {
+            withEvalDuration(duration);
+            metrics.phase(JobMetrics.COMPUTE, duration);
+        });
     }
 
     public ProgressTimer timeWrite() {
-        return ProgressTimer.start(this::withWriteDuration);
+        return ProgressTimer.start(duration -> {
+            withWriteDuration(duration);
+            metrics.phase(JobMetrics.WRITE, duration);
+        });
     }
 
     public void timeLoad(Runnable runnable) {
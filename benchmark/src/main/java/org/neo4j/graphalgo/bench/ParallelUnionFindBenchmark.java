@@ -24,11 +24,13 @@ import org.neo4j.graphalgo.core.heavyweight.HeavyGraphFactory;
 import org.neo4j.graphalgo.core.utils.ParallelUtil;
 import org.neo4j.graphalgo.core.utils.Pools;
 import org.neo4j.graphalgo.core.utils.ProgressTimer;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
 import org.neo4j.graphalgo.impl.GraphUnionFind;
 import org.neo4j.graphalgo.impl.MSColoring;
 import org.neo4j.graphalgo.impl.ParallelUnionFindFJMerge;
 import org.neo4j.graphalgo.impl.ParallelUnionFindForkJoin;
 import org.neo4j.graphalgo.impl.ParallelUnionFindQueue;
+import org.neo4j.graphalgo.impl.ParallelUnionFindShared;
 import org.neo4j.graphdb.Direction;
 import org.neo4j.graphdb.RelationshipType;
 import org.neo4j.graphdb.Transaction;
@@ -215,6 +217,12 @@ public class ParallelUnionFindBenchmark {
                 .compute();
     }
 
+    @Benchmark
+    public Object parallelUnionFindShared() {
+        return new ParallelUnionFindShared(graph, Pools.DEFAULT, 8, AllocationTracker.EMPTY)
+                .compute();
+    }
+
     // TODO: not a benchmark, it's eirther extremely slow or does not terminate rn
     public Object multiSourceColoring() {
         return new MSColoring(graph, Pools.DEFAULT, 8)
@@ -0,0 +1,127 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.bench;
+
+import org.neo4j.graphalgo.api.Graph;
+import org.neo4j.graphalgo.core.GraphLoader;
+import org.neo4j.graphalgo.core.heavyweight.HeavyGraphFactory;
+import org.neo4j.graphalgo.helper.graphbuilder.GraphBuilder;
+import org.neo4j.graphalgo.helper.graphbuilder.GridBuilder;
+import org.neo4j.graphalgo.impl.ShortestPathDijkstra;
+import org.neo4j.graphalgo.impl.ShortestPaths;
+import org.neo4j.graphdb.Direction;
+import org.neo4j.graphdb.Node;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+import org.neo4j.test.TestGraphDatabaseFactory;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the binary heap and the radix heap of the Dijkstra implementations
+ * on road-network-like grids with integer lengths.
+ */
+@Threads(1)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class RadixHeapShortestPathBenchmark {
+
+    private static final String LABEL = "Node";
+    private static final String RELATIONSHIP = "ROAD";
+    private static final String PROPERTY = "length";
+
+    @Param({"100", "300"})
+    int gridSize;
+
+    private GraphDatabaseAPI db;
+    private Graph graph;
+    private long head;
+    private long tail;
+
+    @Setup
+    public void setup() {
+        db = (GraphDatabaseAPI)
+                new TestGraphDatabaseFactory()
+                        .newImpermanentDatabaseBuilder()
+                        .newGraphDatabase();
+
+        Random random = new Random(42L);
+        GridBuilder gridBuilder = GraphBuilder.create(db)
+                .setLabel(LABEL)
+                .setRelationship(RELATIONSHIP)
+                .newGridBuilder()
+                .createGrid(gridSize, gridSize)
+                .forEachRelInTx(rel -> rel.setProperty(PROPERTY, 1 + random.nextInt(100)));
+
+        List<List<Node>> lines = gridBuilder.getLineNodes();
+        head = lines.get(0).get(0).getId();
+        List<Node> lastLine = lines.get(lines.size() - 1);
+        tail = lastLine.get(lastLine.size() - 1).getId();
+
+        graph = new GraphLoader(db)
+                .withLabel(LABEL)
+                .withRelationshipType(RELATIONSHIP)
+                .withRelationshipWeightsFromProperty(PROPERTY, 1.0)
+                .withDirection(Direction.OUTGOING)
+                .asUndirected(true)
+                .load(HeavyGraphFactory.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        graph.release();
+        db.shutdown();
+    }
+
+    @Benchmark
+    public Object _01_singleSource_binaryHeap() {
+        return new ShortestPaths(graph)
+                .compute(head)
+                .getShortestPaths();
+    }
+
+    @Benchmark
+    public Object _02_singleSource_radixHeap() {
+        return new ShortestPaths(graph)
+                .withRadixHeap(1)
+                .compute(head)
+                .getShortestPaths();
+    }
+
+    @Benchmark
+    public double _03_singlePair_binaryHeap() {
+        return new ShortestPathDijkstra(graph)
+                .compute(head, tail, Direction.OUTGOING)
+                .getTotalCost();
+    }
+
+    @Benchmark
+    public double _04_singlePair_radixHeap() {
+        return new ShortestPathDijkstra(graph)
+                .withRadixHeap(1)
+                .compute(head, tail, Direction.OUTGOING)
+                .getTotalCost();
+    }
+}
@@ -0,0 +1,122 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.huge;
+
+import org.neo4j.graphalgo.api.AdjacencyCodec;
+import org.neo4j.graphalgo.api.AdjacencyStorage;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decode throughput of the adjacency codecs: every benchmark decodes all targets of all nodes once.
+ * {@code maxGap} controls the differences between consecutive targets and thereby the bits per target.
+ */
+@Threads(1)
+@Fork(value = 1, jvmArgs = {"-Xms4g", "-Xmx4g"})
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class AdjacencyCodecBenchmark {
+
+    private static final int NODES = 100_000;
+
+    @Param({"VARLONG", "PFOR"})
+    public AdjacencyCodec codec;
+
+    @Param({"16", "64", "512"})
+    public int degree;
+
+    @Param({"100", "100000"})
+    public int maxGap;
+
+    private HugeAdjacencyList adjacency;
+    private long[] offsets;
+    private HugeAdjacencyList.Cursor cursor;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Random random = new Random(42L);
+        HugeAdjacencyBuilder builder = new HugeAdjacencyBuilder(
+                AllocationTracker.EMPTY,
+                false,
+                false,
+                AdjacencyStorage.HEAP,
+                null,
+                codec);
+        HugeAdjacencyBuilder local = builder.threadLocalCopy();
+        local.prepare();
+        offsets = new long[NODES];
+        long[] targets = new long[degree];
+        for (int node = 0; node < NODES; node++) {
+            long target = random.nextInt(maxGap);
+            for (int i = 0; i < degree; i++) {
+                target += 1 + random.nextInt(maxGap);
+                targets[i] = target;
+            }
+            offsets[node] = local.applyVariableDeltaEncoding(targets, degree);
+        }
+        local.flush();
+        adjacency = builder.build();
+        cursor = adjacency.newCursor();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        adjacency.release();
+    }
+
+    @Benchmark
+    public long decodeAll() {
+        long sum = 0L;
+        for (long offset : offsets) {
+            HugeAdjacencyList.Cursor targets = adjacency.deltaCursor(cursor, offset);
+            while (targets.hasNextVLong()) {
+                sum += targets.nextVLong();
+            }
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long advanceToLast() {
+        long sum = 0L;
+        for (long offset : offsets) {
+            sum += adjacency.deltaCursor(cursor, offset).advance(Long.MAX_VALUE);
+        }
+        return sum;
+    }
+}
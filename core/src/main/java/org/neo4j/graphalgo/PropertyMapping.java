@@ -22,16 +22,25 @@ public class PropertyMapping {
     public final String type;
     public final String propertyKey;
     public final double defaultValue;
+    // store the values as longs instead of doubles (huge graph only)
+    public final boolean longValues;
 
     public PropertyMapping(String type, String propertyKey, double defaultValue) {
+        this(type, propertyKey, defaultValue, false);
+    }
+
+    public PropertyMapping(String type, String propertyKey, double defaultValue, boolean longValues) {
         this.type = type;
         this.propertyKey = propertyKey;
         this.defaultValue = defaultValue;
+        this.longValues = longValues;
     }
 
     public static PropertyMapping of(String type, String propertyKey, double defaultValue) {
         return new PropertyMapping(type, propertyKey, defaultValue);
     }
 
-
+    public static PropertyMapping ofLong(String type, String propertyKey, long defaultValue) {
+        return new PropertyMapping(type, propertyKey, (double) defaultValue, true);
+    }
 }
@@ -0,0 +1,51 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.api;
+
+import java.util.Locale;
+
+/**
+ * Defines how the sorted target ids of the compressed adjacency lists of a {@link HugeGraph} are encoded.
+ * Both encodings store the differences between consecutive targets.
+ */
+public enum AdjacencyCodec {
+
+    /**
+     * Every difference is stored as a variable length integer of 7 bit groups. This is the default.
+     */
+    VARLONG,
+
+    /**
+     * Every block of 64 differences is bit packed at a fixed width, differences that need more bits
+     * are stored as patched exceptions (PFor). Whole blocks are decoded in tight loops without
+     * a branch per byte, at the cost of slightly larger adjacency lists for some degree distributions.
+     */
+    PFOR;
+
+    public static AdjacencyCodec parse(String name) {
+        if (name == null) {
+            return VARLONG;
+        }
+        try {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown adjacency codec: " + name);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.api;
+
+import java.util.Locale;
+
+/**
+ * Defines where the compressed adjacency lists of a {@link HugeGraph} are stored.
+ */
+public enum AdjacencyStorage {
+
+    /**
+     * {@code byte[]} pages on the Java heap. This is the default.
+     */
+    HEAP,
+
+    /**
+     * Direct byte buffers outside of the Java heap.
+     * The total size is limited by {@code -XX:MaxDirectMemorySize}.
+     */
+    DIRECT,
+
+    /**
+     * A memory mapped temporary file, which is paged in and out by the operating system
+     * and may exceed the physical memory.
+     */
+    MAPPED;
+
+    public static AdjacencyStorage parse(String name) {
+        if (name == null) {
+            return HEAP;
+        }
+        try {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown adjacency storage: " + name);
+        }
+    }
+}
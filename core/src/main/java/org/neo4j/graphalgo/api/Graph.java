@@ -26,6 +26,8 @@ package org.neo4j.graphalgo.api;
  */
 public interface Graph extends IdMapping, Degrees, NodeIterator, BatchNodeIterable, RelationshipWeights, RelationshipIterator, RelationshipPredicate, WeightedRelationshipIterator, RelationshipAccess {
 
+    long RELATIONSHIP_COUNT_NOT_SUPPORTED = -1L;
+
     /**
      * release resources which are not part of the result or IdMapping
      */
@@ -33,6 +35,16 @@ public interface Graph extends IdMapping, Degrees, NodeIterator, BatchNodeIterab
 
     String getType();
 
+    /**
+     * Count of relationships in the outgoing direction, or the incoming direction if only that one has been loaded.
+     * Undirected graphs count every relationship twice. Can take O(n) time.
+     *
+     * @return the count or {@link #RELATIONSHIP_COUNT_NOT_SUPPORTED} if the graph can't tell
+     */
+    default long relationshipCount() {
+        return RELATIONSHIP_COUNT_NOT_SUPPORTED;
+    }
+
     void canRelease(boolean canRelease);
 
     RelationshipIntersect intersection();
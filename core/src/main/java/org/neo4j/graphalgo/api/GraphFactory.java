@@ -19,6 +19,7 @@
 package org.neo4j.graphalgo.api;
 
 import org.neo4j.graphalgo.core.GraphDimensions;
+import org.neo4j.graphalgo.core.HugeNodePropertyStore;
 import org.neo4j.graphalgo.core.HugeNullWeightMap;
 import org.neo4j.graphalgo.core.HugeWeightMap;
 import org.neo4j.graphalgo.core.IdMap;
@@ -27,10 +28,15 @@ import org.neo4j.graphalgo.core.NullWeightMap;
 import org.neo4j.graphalgo.core.WeightMap;
 import org.neo4j.graphalgo.core.huge.HugeIdMap;
 import org.neo4j.graphalgo.core.huge.HugeNodeImporter;
+import org.neo4j.graphalgo.core.huge.HugeParallelNodeImporter;
 import org.neo4j.graphalgo.core.utils.ApproximatedImportProgress;
 import org.neo4j.graphalgo.core.utils.ImportProgress;
+import org.neo4j.graphalgo.core.utils.ParallelUtil;
 import org.neo4j.graphalgo.core.utils.ProgressLogger;
 import org.neo4j.graphalgo.core.utils.ProgressLoggerAdapter;
+import org.neo4j.graphalgo.core.utils.mem.MemoryEstimation;
+import org.neo4j.graphalgo.core.utils.mem.MemoryEstimations;
+import org.neo4j.graphalgo.core.utils.mem.MemoryTree;
 import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
 import org.neo4j.kernel.api.StatementConstants;
 import org.neo4j.kernel.internal.GraphDatabaseAPI;
@@ -69,6 +75,36 @@ public abstract class GraphFactory {
 
     public abstract Graph build();
 
+    /**
+     * Estimates the memory usage of the graph that {@link #build()} would load, from the
+     * {@link #dimensions() dimensions} of the store and without loading anything.
+     * Buffers that only exist during the import are not included.
+     */
+    public MemoryEstimation memoryEstimation() {
+        throw new UnsupportedOperationException(
+                "Memory estimation is not supported by " + getClass().getSimpleName());
+    }
+
+    /**
+     * Estimates loading the graph with this factory and running an algorithm on it.
+     *
+     * @param algorithm the estimation of the algorithm, or null to estimate the graph only
+     */
+    public MemoryTree estimateMemoryUsage(String description, MemoryEstimation algorithm, int concurrency) {
+        MemoryEstimations.Builder estimation = MemoryEstimations.builder(description).add(memoryEstimation());
+        if (algorithm != null) {
+            estimation.add(algorithm);
+        }
+        return estimation.build().apply(dimensions, concurrency);
+    }
+
+    /**
+     * @return the node and relationship counts of the store for the graph to load
+     */
+    public GraphDimensions dimensions() {
+        return dimensions;
+    }
+
     protected ImportProgress importProgress(
             ProgressLogger progressLogger,
             GraphDimensions dimensions,
@@ -99,13 +135,40 @@ public abstract class GraphFactory {
     }
 
     protected HugeIdMap loadHugeIdMap(AllocationTracker tracker) {
+        return loadHugeIdMap(tracker, HugeNodePropertyStore.EMPTY);
+    }
+
+    /**
+     * Scans the nodes in parallel if the setup has an executor and a concurrency of more than one
+     * and the label is not selective, see {@link HugeParallelNodeImporter#canRunInParallel(long, long, int)}.
+     */
+    protected HugeIdMap loadHugeIdMap(AllocationTracker tracker, HugeNodePropertyStore nodeProperties) {
+        int concurrency = setup.concurrency();
+        if (concurrency > 1 &&
+                ParallelUtil.canRunInParallel(threadPool) &&
+                HugeParallelNodeImporter.canRunInParallel(
+                        dimensions.hugeNodeCount(),
+                        dimensions.allNodesCount(),
+                        dimensions.labelId())) {
+            return new HugeParallelNodeImporter(
+                    api,
+                    threadPool,
+                    concurrency,
+                    tracker,
+                    progress,
+                    dimensions.hugeNodeCount(),
+                    dimensions.allNodesCount(),
+                    dimensions.labelId(),
+                    nodeProperties).call();
+        }
         final HugeNodeImporter nodeImporter = new HugeNodeImporter(
                 api,
                 tracker,
                 progress,
                 dimensions.hugeNodeCount(),
                 dimensions.allNodesCount(),
-                dimensions.labelId());
+                dimensions.labelId(),
+                nodeProperties);
         return nodeImporter.call();
     }
 
@@ -25,6 +25,8 @@ import org.neo4j.graphdb.Direction;
 import org.neo4j.logging.Log;
 import org.neo4j.logging.NullLog;
 
+import java.nio.file.Path;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Map;
 import java.util.concurrent.ExecutorService;
@@ -85,6 +87,37 @@ public class GraphSetup {
 
     public final PropertyMapping[] nodePropertyMappings;
 
+    // store relationship weights inline with the adjacency instead of in a separate map (huge graph only)
+    public final boolean inlineRelationshipWeights;
+
+    // build a skip index over the compressed adjacency lists for fast exists / getTarget lookups (huge graph only)
+    public final boolean adjacencySkipIndex;
+
+    // where the compressed adjacency lists are stored (huge graph only)
+    public final AdjacencyStorage adjacencyStorage;
+    // directory for the temporary file of the mapped adjacency storage. null means the default temp directory.
+    public final Path adjacencyStorageDirectory;
+
+    // load one adjacency per relationship type of a 'TYPE1|TYPE2' relationship selector (huge graph only)
+    public final boolean splitRelationshipTypes;
+
+    // keep the graph up to date with committed transactions (huge graph only)
+    public final boolean incremental;
+    // number of pending changes after which an incremental graph is compacted, 0 for no automatic compaction
+    public final long compactionThreshold;
+
+    // how the mapped node ids are assigned after the import (huge graph only)
+    public final NodeOrder nodeOrder;
+
+    // how the weights of parallel relationships are combined (huge graph only)
+    public final RelationshipAggregation relationshipAggregation;
+
+    // build the incoming adjacency from the outgoing one instead of reading it from the store (huge graph only)
+    public final boolean transposeIncoming;
+
+    // how the target ids of the compressed adjacency lists are encoded (huge graph only)
+    public final AdjacencyCodec adjacencyCodec;
+
     /**
      * main ctor
      *
@@ -104,6 +137,17 @@ public class GraphSetup {
      * @param batchSize                  batch size for parallel loading
      * @param accumulateWeights          true if relationship-weights should be summed within the loader
      * @param sort                       true if relationships should stored in sorted ascending order
+     * @param inlineRelationshipWeights  true if relationship weights should be stored next to the target ids
+     * @param adjacencySkipIndex         true if a skip index should be built for every adjacency list
+     * @param adjacencyStorage           where the compressed adjacency lists should be stored
+     * @param adjacencyStorageDirectory  directory for the mapped adjacency storage, null for the default temp directory
+     * @param splitRelationshipTypes     true if every relationship type should be loaded into its own adjacency
+     * @param incremental                true if committed changes should be applied to the loaded graph
+     * @param compactionThreshold        pending changes after which an incremental graph is compacted, 0 to disable
+     * @param nodeOrder                  how the mapped node ids are assigned after the import
+     * @param relationshipAggregation    how the weights of parallel relationships are combined
+     * @param transposeIncoming          true if the incoming adjacency should be built by transposing the outgoing one
+     * @param adjacencyCodec             how the target ids of the compressed adjacency lists are encoded
      */
     public GraphSetup(
             String startLabel,
@@ -127,7 +171,18 @@ public class GraphSetup {
             boolean loadAsUndirected,
             AllocationTracker tracker,
             String name,
-            PropertyMapping[] nodePropertyMappings) {
+            PropertyMapping[] nodePropertyMappings,
+            boolean inlineRelationshipWeights,
+            boolean adjacencySkipIndex,
+            AdjacencyStorage adjacencyStorage,
+            Path adjacencyStorageDirectory,
+            boolean splitRelationshipTypes,
+            boolean incremental,
+            long compactionThreshold,
+            NodeOrder nodeOrder,
+            RelationshipAggregation relationshipAggregation,
+            boolean transposeIncoming,
+            AdjacencyCodec adjacencyCodec) {
 
         this.startLabel = startLabel;
         this.endLabel = endLabel;
@@ -152,6 +207,17 @@ public class GraphSetup {
         this.tracker = tracker;
         this.name = name;
         this.nodePropertyMappings = nodePropertyMappings;
+        this.inlineRelationshipWeights = inlineRelationshipWeights;
+        this.adjacencySkipIndex = adjacencySkipIndex;
+        this.adjacencyStorage = adjacencyStorage;
+        this.adjacencyStorageDirectory = adjacencyStorageDirectory;
+        this.splitRelationshipTypes = splitRelationshipTypes;
+        this.incremental = incremental;
+        this.compactionThreshold = compactionThreshold;
+        this.nodeOrder = nodeOrder;
+        this.relationshipAggregation = relationshipAggregation;
+        this.transposeIncoming = transposeIncoming;
+        this.adjacencyCodec = adjacencyCodec;
     }
 
     /**
@@ -199,7 +265,18 @@ public class GraphSetup {
                 false,
                 AllocationTracker.EMPTY,
                 null,
-                new PropertyMapping[0]
+                new PropertyMapping[0],
+                false,
+                false,
+                AdjacencyStorage.HEAP,
+                null,
+                false,
+                false,
+                0L,
+                NodeOrder.NONE,
+                RelationshipAggregation.NONE,
+                false,
+                AdjacencyCodec.VARLONG
         );
     }
 
@@ -233,4 +310,22 @@ public class GraphSetup {
     public boolean loadAnyRelationshipType() {
         return relationshipType == null;
     }
+
+    /**
+     * @return the relationship types of a {@code TYPE1|TYPE2} relationship selector, in the given order
+     */
+    public String[] relationshipTypes() {
+        return relationshipTypes(relationshipType);
+    }
+
+    public static String[] relationshipTypes(String relationshipType) {
+        if (relationshipType == null) {
+            return new String[0];
+        }
+        return Arrays.stream(relationshipType.split("\\|"))
+                .map(String::trim)
+                .filter(type -> !type.isEmpty())
+                .distinct()
+                .toArray(String[]::new);
+    }
 }
@@ -19,12 +19,17 @@
 package org.neo4j.graphalgo.api;
 
 
+import com.carrotsearch.hppc.DoubleArrayList;
+import com.carrotsearch.hppc.LongArrayList;
+import com.carrotsearch.hppc.sorting.IndirectSort;
 import org.neo4j.collection.primitive.PrimitiveIntIterable;
 import org.neo4j.collection.primitive.PrimitiveIntIterator;
 import org.neo4j.collection.primitive.PrimitiveLongIterator;
+import org.neo4j.graphalgo.core.HugeNodePropertyStore;
 import org.neo4j.graphdb.Direction;
 
 import java.util.Collection;
+import java.util.Set;
 import java.util.function.IntPredicate;
 import java.util.function.LongPredicate;
 import java.util.stream.Collectors;
@@ -34,7 +39,7 @@ import java.util.stream.Collectors;
  *
  * @author mknblch
  */
-public interface HugeGraph extends HugeIdMapping, HugeDegrees, HugeNodeIterator, HugeBatchNodeIterable, HugeRelationshipIterator, HugeRelationshipWeights, HugeRelationshipPredicate, HugeRelationshipAccess, Graph {
+public interface HugeGraph extends HugeIdMapping, HugeDegrees, HugeNodeIterator, HugeBatchNodeIterable, HugeRelationshipIterator, HugeWeightedRelationshipIterator, HugeRelationshipBatchIterator, HugeRelationshipWeights, HugeRelationshipPredicate, HugeRelationshipAccess, Graph, NodeProperties {
 
     String TYPE = "huge";
 
@@ -49,6 +54,32 @@ public interface HugeGraph extends HugeIdMapping, HugeDegrees, HugeNodeIterator,
         return TYPE;
     }
 
+    /**
+     * the columnar node properties that were loaded with this graph
+     */
+    default HugeNodePropertyStore nodePropertyStore() {
+        return HugeNodePropertyStore.EMPTY;
+    }
+
+    /**
+     * Collects all neighbours of the node into a new cursor.
+     * Graphs that can decode their adjacency in batches should override this.
+     */
+    @Override
+    default HugeNeighbourCursor neighbours(long nodeId, Direction direction) {
+        return new CollectedNeighbours(this, nodeId, direction);
+    }
+
+    @Override
+    default WeightMapping nodeProperties(String type) {
+        return nodePropertyStore().nodeProperties(type);
+    }
+
+    @Override
+    default Set<String> availableNodeProperties() {
+        return nodePropertyStore().availableNodeProperties();
+    }
+
     @Override
     default Collection<PrimitiveIntIterable> batchIterables(int batchSize) {
         return hugeBatchIterables(batchSize)
@@ -90,6 +121,64 @@ public interface HugeGraph extends HugeIdMapping, HugeDegrees, HugeNodeIterator,
     }
 
 
+    final class CollectedNeighbours implements HugeNeighbourCursor {
+        private final long[] targets;
+        private final double[] weights;
+        private int pos;
+
+        public CollectedNeighbours(HugeGraph graph, long nodeId, Direction direction) {
+            int degree = graph.degree(nodeId, direction);
+            LongArrayList collected = new LongArrayList(degree);
+            DoubleArrayList collectedWeights = new DoubleArrayList(degree);
+            // the weights are collected with the targets, parallel relationships may differ in weight
+            HugeWeightedRelationshipConsumer collect = (s, t, w) -> {
+                collected.add(t);
+                collectedWeights.add(w);
+                return true;
+            };
+            int outgoing = 0;
+            if (direction != Direction.INCOMING) {
+                graph.forEachRelationship(nodeId, Direction.OUTGOING, collect);
+                outgoing = collected.size();
+            }
+            if (direction != Direction.OUTGOING) {
+                graph.forEachRelationship(nodeId, Direction.INCOMING, collect);
+            }
+            this.targets = new long[collected.size()];
+            this.weights = new double[collected.size()];
+            sortInto(collected, collectedWeights, 0, outgoing);
+            sortInto(collected, collectedWeights, outgoing, collected.size() - outgoing);
+        }
+
+        private void sortInto(LongArrayList collected, DoubleArrayList collectedWeights, int start, int length) {
+            long[] values = collected.buffer;
+            int[] order = IndirectSort.mergesort(
+                    start,
+                    length,
+                    (a, b) -> Long.compare(values[a], values[b]));
+            for (int i = 0; i < length; i++) {
+                targets[start + i] = values[order[i]];
+                weights[start + i] = collectedWeights.get(order[i]);
+            }
+        }
+
+        @Override
+        public int nextBatch(long[] targets) {
+            int batch = Math.min(targets.length, this.targets.length - pos);
+            System.arraycopy(this.targets, pos, targets, 0, batch);
+            pos += batch;
+            return batch;
+        }
+
+        @Override
+        public int nextBatch(long[] targets, double[] weights) {
+            int start = pos;
+            int batch = nextBatch(targets);
+            System.arraycopy(this.weights, start, weights, 0, batch);
+            return batch;
+        }
+    }
+
     final class LongToIntIterator implements PrimitiveIntIterator {
         private final PrimitiveLongIterator iter;
 
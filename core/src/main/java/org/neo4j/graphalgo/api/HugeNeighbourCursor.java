@@ -0,0 +1,46 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.api;
+
+/**
+ * Reads the neighbours of a single node in batches into buffers that are supplied by the caller.
+ * Algorithms can process every batch in a plain array loop instead of receiving one
+ * {@link HugeRelationshipConsumer#accept(long, long) callback} per relationship.
+ * <p>
+ * The targets of one direction are returned in ascending order, for {@link org.neo4j.graphdb.Direction#BOTH}
+ * all outgoing targets are returned before the incoming ones.
+ *
+ * @see HugeRelationshipBatchIterator#neighbours(long, org.neo4j.graphdb.Direction)
+ */
+public interface HugeNeighbourCursor {
+
+    /**
+     * Fill {@code targets} with the next neighbours, at most {@code targets.length} of them.
+     *
+     * @return the number of targets that have been written to the start of the buffer,
+     *         {@code 0} if all neighbours have been read
+     */
+    int nextBatch(long[] targets);
+
+    /**
+     * Like {@link #nextBatch(long[])}, but also fills {@code weights} with the weight of every target.
+     * The {@code weights} buffer must be at least as large as the {@code targets} buffer.
+     */
+    int nextBatch(long[] targets, double[] weights);
+}
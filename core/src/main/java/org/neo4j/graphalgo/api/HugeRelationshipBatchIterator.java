@@ -0,0 +1,34 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.api;
+
+import org.neo4j.graphdb.Direction;
+
+/**
+ * Bulk access to the relationships of a node, see {@link HugeNeighbourCursor}.
+ */
+public interface HugeRelationshipBatchIterator {
+
+    /**
+     * Start reading the neighbours of {@code nodeId} in the given direction.
+     * The returned cursor may be reused by the next call to this method, it must not be shared between threads.
+     * Use a {@link HugeRelationshipIterator#concurrentCopy() concurrent copy} for every thread.
+     */
+    HugeNeighbourCursor neighbours(long nodeId, Direction direction);
+}
@@ -0,0 +1,62 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.api;
+
+import java.util.Locale;
+
+/**
+ * Defines how the mapped node ids of a {@link HugeGraph} are assigned after the import.
+ * Algorithms that walk the neighbours of a node touch fewer pages and cache lines
+ * if adjacent nodes are close to each other in the id space.
+ */
+public enum NodeOrder {
+
+    /**
+     * Keep the order of the node scan. This is the default.
+     */
+    NONE,
+
+    /**
+     * Sort the nodes by descending degree, so that the hubs share the first pages
+     * of the adjacency offsets, node properties and algorithm results.
+     */
+    DEGREE,
+
+    /**
+     * Number the nodes in breadth first order, starting from the node with the
+     * highest degree of every connected component.
+     */
+    BFS,
+
+    /**
+     * Number the nodes of densely connected communities consecutively, similar to Rabbit Order.
+     */
+    COMMUNITY;
+
+    public static NodeOrder parse(String name) {
+        if (name == null) {
+            return NONE;
+        }
+        try {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown node order: " + name);
+        }
+    }
+}
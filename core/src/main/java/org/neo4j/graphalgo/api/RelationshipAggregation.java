@@ -0,0 +1,108 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.api;
+
+import java.util.Locale;
+
+/**
+ * Defines how the weights of parallel relationships, relationships with the same source and target node,
+ * are combined when they are collapsed into a single relationship of a {@link HugeGraph}.
+ */
+public enum RelationshipAggregation {
+
+    /**
+     * Keep the weight of any one of the parallel relationships. This is the default.
+     */
+    NONE {
+        @Override
+        public double merge(double aggregate, double weight) {
+            return aggregate;
+        }
+    },
+
+    /**
+     * Sum up the weights.
+     */
+    SUM {
+        @Override
+        public double merge(double aggregate, double weight) {
+            return aggregate + weight;
+        }
+    },
+
+    /**
+     * Keep the smallest weight.
+     */
+    MIN {
+        @Override
+        public double merge(double aggregate, double weight) {
+            return Math.min(aggregate, weight);
+        }
+    },
+
+    /**
+     * Keep the largest weight.
+     */
+    MAX {
+        @Override
+        public double merge(double aggregate, double weight) {
+            return Math.max(aggregate, weight);
+        }
+    },
+
+    /**
+     * Use the number of parallel relationships as weight, the weight property is not read.
+     */
+    COUNT {
+        @Override
+        public double initialValue(double weight) {
+            return 1.0;
+        }
+
+        @Override
+        public double merge(double aggregate, double weight) {
+            return aggregate + weight;
+        }
+    };
+
+    /**
+     * @return the aggregate of a single relationship with the given weight
+     */
+    public double initialValue(double weight) {
+        return weight;
+    }
+
+    /**
+     * @param aggregate the aggregate of the relationships seen so far
+     * @param weight    the {@link #initialValue(double) initial value} of the next relationship
+     * @return the aggregate including the next relationship
+     */
+    public abstract double merge(double aggregate, double weight);
+
+    public static RelationshipAggregation parse(String name) {
+        if (name == null) {
+            return NONE;
+        }
+        try {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown relationship aggregation: " + name);
+        }
+    }
+}
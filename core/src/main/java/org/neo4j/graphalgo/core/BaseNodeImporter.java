@@ -40,10 +40,15 @@ public abstract class BaseNodeImporter<T> extends StatementFunction<T> {
     @Override
     public final T apply(final KernelTransaction transaction) {
         final T mapping = newNodeMap(nodeCount);
-        ReadHelper.readNodes(transaction.cursors(), transaction.dataRead(), labelId, (nodeId) -> {
-            addNodeId(mapping, nodeId);
-            progress.nodeImported();
-        });
+        open(transaction);
+        try {
+            ReadHelper.readNodes(transaction.cursors(), transaction.dataRead(), labelId, (nodeId) -> {
+                addNodeId(mapping, nodeId);
+                progress.nodeImported();
+            });
+        } finally {
+            close();
+        }
         finish(mapping);
         return mapping;
     }
@@ -58,4 +63,16 @@ public abstract class BaseNodeImporter<T> extends StatementFunction<T> {
     protected abstract void addNodeId(T map, long nodeId);
 
     protected abstract void finish(T map);
+
+    /**
+     * called before the node scan, to allocate additional cursors
+     */
+    protected void open(KernelTransaction transaction) {
+    }
+
+    /**
+     * called after the node scan, also if it failed
+     */
+    protected void close() {
+    }
 }
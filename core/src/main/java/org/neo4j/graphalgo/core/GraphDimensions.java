@@ -35,6 +35,7 @@ public final class GraphDimensions extends StatementFunction<GraphDimensions> {
     private long maxRelCount;
     private int labelId;
     private int[] relationId;
+    private int[][] splitRelationIds;
     private int relWeightId;
 
     private int nodeWeightId;
@@ -72,6 +73,14 @@ public final class GraphDimensions extends StatementFunction<GraphDimensions> {
         return relationId;
     }
 
+    /**
+     * @return one relationship type selector per type of {@link GraphSetup#relationshipTypes()},
+     * only available if the relationship types are {@link GraphSetup#splitRelationshipTypes split}.
+     */
+    public int[][] splitRelationshipTypeIds() {
+        return splitRelationIds;
+    }
+
     public int relWeightId() {
         return relWeightId;
     }
@@ -118,6 +127,14 @@ public final class GraphDimensions extends StatementFunction<GraphDimensions> {
                 relationId = new int[]{relId};
             }
         }
+        if (setup.splitRelationshipTypes) {
+            String[] types = setup.relationshipTypes();
+            splitRelationIds = new int[types.length][];
+            for (int i = 0; i < types.length; i++) {
+                // unknown types are kept as NO_TOKEN, so that they select no relationships instead of all of them
+                splitRelationIds[i] = new int[]{tokenRead.relationshipType(types[i])};
+            }
+        }
         relWeightId = propertyKey(tokenRead, setup.shouldLoadRelationshipWeight(), setup.relationWeightPropertyName);
 
         if(setup.nodePropertyMappings.length > 0) {
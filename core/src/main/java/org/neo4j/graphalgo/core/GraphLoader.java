@@ -19,9 +19,13 @@
 package org.neo4j.graphalgo.core;
 
 import org.neo4j.graphalgo.PropertyMapping;
+import org.neo4j.graphalgo.api.AdjacencyCodec;
+import org.neo4j.graphalgo.api.AdjacencyStorage;
 import org.neo4j.graphalgo.api.Graph;
 import org.neo4j.graphalgo.api.GraphFactory;
 import org.neo4j.graphalgo.api.GraphSetup;
+import org.neo4j.graphalgo.api.NodeOrder;
+import org.neo4j.graphalgo.api.RelationshipAggregation;
 import org.neo4j.graphalgo.core.utils.ParallelUtil;
 import org.neo4j.graphalgo.core.utils.Pools;
 import org.neo4j.graphalgo.core.utils.ProgressLoggerAdapter;
@@ -37,6 +41,7 @@ import org.neo4j.logging.NullLog;
 import java.lang.invoke.MethodHandle;
 import java.lang.invoke.MethodHandles;
 import java.lang.invoke.MethodType;
+import java.nio.file.Path;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
@@ -84,6 +89,17 @@ public class GraphLoader {
     private boolean sort = false;
     private boolean loadAsUndirected = false;
     private PropertyMapping[] nodePropertyMappings = new PropertyMapping[0];
+    private boolean inlineRelationshipWeights = false;
+    private boolean adjacencySkipIndex = false;
+    private AdjacencyStorage adjacencyStorage = AdjacencyStorage.HEAP;
+    private Path adjacencyStorageDirectory = null;
+    private boolean splitRelationshipTypes = false;
+    private boolean incremental = false;
+    private long compactionThreshold = 0L;
+    private NodeOrder nodeOrder = NodeOrder.NONE;
+    private RelationshipAggregation relationshipAggregation = RelationshipAggregation.NONE;
+    private boolean transposeIncoming = false;
+    private AdjacencyCodec adjacencyCodec = AdjacencyCodec.VARLONG;
 
     /**
      * Creates a new serial GraphLoader.
@@ -477,8 +493,18 @@ public class GraphLoader {
      * @return the freshly loaded graph
      */
     public Graph load(Class<? extends GraphFactory> factoryType) {
+        return build(factoryType).build();
+    }
+
+    /**
+     * Creates the GraphFactory for the current configuration without loading the graph,
+     * e.g. to estimate its {@link GraphFactory#memoryEstimation() memory usage}.
+     *
+     * @return the factory that {@link #load(Class)} would use
+     */
+    public GraphFactory build(Class<? extends GraphFactory> factoryType) {
         final MethodHandle constructor = findConstructor(factoryType);
-        return invokeConstructor(constructor).build();
+        return invokeConstructor(constructor);
     }
 
     private MethodHandle findConstructor(Class<?> factoryType) {
@@ -489,9 +515,29 @@ public class GraphLoader {
         }
     }
 
+    /**
+     * Counts the nodes and relationships that {@link #load(Class)} would load with the
+     * current configuration, without loading them.
+     *
+     * @return the dimensions of the graph
+     */
+    public GraphDimensions dimensions() {
+        return new GraphDimensions(api, toSetup()).call();
+    }
+
     private GraphFactory invokeConstructor(MethodHandle constructor) {
+        final GraphSetup setup = toSetup();
+        try {
+            return (GraphFactory) constructor.invoke(api, setup);
+        } catch (Throwable throwable) {
+            throw Exceptions.launderedException(
+                    throwable.getMessage(),
+                    throwable);
+        }
+    }
 
-        final GraphSetup setup = new GraphSetup(
+    private GraphSetup toSetup() {
+        return new GraphSetup(
                 label,
                 null,
                 relation,
@@ -513,15 +559,18 @@ public class GraphLoader {
                 loadAsUndirected,
                 tracker,
                 name,
-                nodePropertyMappings);
-
-        try {
-            return (GraphFactory) constructor.invoke(api, setup);
-        } catch (Throwable throwable) {
-            throw Exceptions.launderedException(
-                    throwable.getMessage(),
-                    throwable);
-        }
+                nodePropertyMappings,
+                inlineRelationshipWeights,
+                adjacencySkipIndex,
+                adjacencyStorage,
+                adjacencyStorageDirectory,
+                splitRelationshipTypes,
+                incremental,
+                compactionThreshold,
+                nodeOrder,
+                relationshipAggregation,
+                transposeIncoming,
+                adjacencyCodec);
     }
 
     /**
@@ -566,15 +615,161 @@ public class GraphLoader {
         return this;
     }
 
+    /**
+     * Store relationship weights inline with the compressed adjacency lists
+     * instead of in a separate hash map. Weighted iterations read weights sequentially
+     * alongside the targets, while {@link org.neo4j.graphalgo.api.RelationshipWeights#weightOf(int, int)}
+     * has to search the adjacency of the source node.
+     * Only supported by the {@link org.neo4j.graphalgo.core.huge.HugeGraphFactory}.
+     */
+    public GraphLoader withInlineRelationshipWeights(boolean inlineRelationshipWeights) {
+        this.inlineRelationshipWeights = inlineRelationshipWeights;
+        return this;
+    }
+
+    /**
+     * Build a skip index over the compressed adjacency lists during load, which allows
+     * {@link org.neo4j.graphalgo.api.HugeGraph#exists(long, long, Direction)} to binary search
+     * and {@link org.neo4j.graphalgo.api.HugeGraph#getTarget(long, long, Direction)} to jump
+     * to the target instead of decoding the whole adjacency.
+     * Only supported by the {@link org.neo4j.graphalgo.core.huge.HugeGraphFactory}.
+     */
+    public GraphLoader withAdjacencySkipIndex(boolean adjacencySkipIndex) {
+        this.adjacencySkipIndex = adjacencySkipIndex;
+        return this;
+    }
+
+    /**
+     * Store the compressed adjacency lists outside of the Java heap.
+     * Only supported by the {@link org.neo4j.graphalgo.core.huge.HugeGraphFactory}.
+     *
+     * @param adjacencyStorage where the adjacency lists should be stored
+     * @return itself to enable fluent interface
+     */
+    public GraphLoader withAdjacencyStorage(AdjacencyStorage adjacencyStorage) {
+        return withAdjacencyStorage(adjacencyStorage, null);
+    }
+
+    /**
+     * Store the compressed adjacency lists outside of the Java heap.
+     * Only supported by the {@link org.neo4j.graphalgo.core.huge.HugeGraphFactory}.
+     *
+     * @param adjacencyStorage where the adjacency lists should be stored
+     * @param directory        the directory of the temporary file for {@link AdjacencyStorage#MAPPED},
+     *                         {@code null} to use the default temp directory
+     * @return itself to enable fluent interface
+     */
+    public GraphLoader withAdjacencyStorage(AdjacencyStorage adjacencyStorage, Path directory) {
+        this.adjacencyStorage = Objects.requireNonNull(adjacencyStorage);
+        this.adjacencyStorageDirectory = directory;
+        return this;
+    }
+
+    /**
+     * Load every relationship type of a {@code TYPE1|TYPE2} relationship selector into its own adjacency.
+     * All adjacencies share one id mapping and are loaded in a single pass over the nodes.
+     * Algorithms can select a subset of the types with the relationship selector of a named graph.
+     * Only supported by the {@link org.neo4j.graphalgo.core.huge.HugeGraphFactory}.
+     */
+    public GraphLoader withSplitRelationshipTypes(boolean splitRelationshipTypes) {
+        this.splitRelationshipTypes = splitRelationshipTypes;
+        return this;
+    }
+
+    /**
+     * Keep the loaded graph up to date with committed transactions.
+     * Changes are collected in an overlay over the loaded adjacency, which is merged into a new adjacency
+     * once it holds more than {@code compactionThreshold} changes or when
+     * {@link org.neo4j.graphalgo.core.huge.HugeDeltaGraph#compact()} is called.
+     * Only supported by the {@link org.neo4j.graphalgo.core.huge.HugeGraphFactory}.
+     *
+     * @param compactionThreshold pending changes that trigger a compaction, 0 to only compact on demand
+     */
+    public GraphLoader withIncrementalUpdates(boolean incremental, long compactionThreshold) {
+        this.incremental = incremental;
+        this.compactionThreshold = compactionThreshold;
+        return this;
+    }
+
+    /**
+     * Renumber the nodes after the import to improve the memory locality of algorithms
+     * that walk the neighbours of a node. The adjacency, weights and node properties are rebuilt
+     * for the new ids, the original node ids are not affected.
+     * Only supported by the {@link org.neo4j.graphalgo.core.huge.HugeGraphFactory}.
+     *
+     * @param nodeOrder how the mapped node ids should be assigned
+     * @return itself to enable fluent interface
+     */
+    public GraphLoader withNodeOrder(NodeOrder nodeOrder) {
+        this.nodeOrder = Objects.requireNonNull(nodeOrder);
+        return this;
+    }
+
+    /**
+     * Combine the weights of parallel relationships with the given aggregation.
+     * The {@link org.neo4j.graphalgo.core.huge.HugeGraphFactory} always collapses parallel
+     * relationships into one, by default it keeps the weight of any one of them.
+     * {@link #withAccumulateWeights(boolean)} is the same as {@link RelationshipAggregation#SUM} for huge graphs.
+     *
+     * @param relationshipAggregation how the weights of parallel relationships should be combined
+     * @return itself to enable fluent interface
+     */
+    public GraphLoader withRelationshipAggregation(RelationshipAggregation relationshipAggregation) {
+        this.relationshipAggregation = Objects.requireNonNull(relationshipAggregation);
+        return this;
+    }
+
+    /**
+     * Build the incoming adjacency by transposing the outgoing adjacency in memory instead of reading
+     * all relationships from the store a second time. The transposition needs a temporary buffer
+     * of 8 bytes per relationship, 16 bytes with inline weights.
+     * Only supported by the {@link org.neo4j.graphalgo.core.huge.HugeGraphFactory} for directed graphs.
+     *
+     * @param transposeIncoming true if the incoming adjacency should be transposed
+     * @return itself to enable fluent interface
+     */
+    public GraphLoader withTransposedIncoming(boolean transposeIncoming) {
+        this.transposeIncoming = transposeIncoming;
+        return this;
+    }
+
+    /**
+     * Encode the target ids of the compressed adjacency lists with the given codec.
+     * {@link AdjacencyCodec#PFOR} bit packs blocks of target ids, which are decoded faster than
+     * variable length integers at the cost of slightly more memory for some graphs.
+     * Only supported by the {@link org.neo4j.graphalgo.core.huge.HugeGraphFactory}.
+     *
+     * @param adjacencyCodec how the target ids should be encoded
+     * @return itself to enable fluent interface
+     */
+    public GraphLoader withAdjacencyCodec(AdjacencyCodec adjacencyCodec) {
+        this.adjacencyCodec = Objects.requireNonNull(adjacencyCodec);
+        return this;
+    }
+
     public GraphLoader init(Log log, String label, String relationship, ProcedureConfiguration config) {
         return withLog(log)
                 .withName(config.getGraphName(null))
                 .withOptionalLabel(label).withOptionalRelationshipType(relationship)
                 .withConcurrency(config.getConcurrency())
                 .withBatchSize(config.getBatchSize())
+                .withInlineRelationshipWeights(config.isInlineWeights())
+                .withAdjacencySkipIndex(config.isSkipIndex())
+                .withAdjacencyStorage(config.getAdjacencyStorage(), config.getAdjacencyStorageDirectory())
+                .withSplitRelationshipTypes(config.isSplitRelationshipTypes())
+                .withIncrementalUpdates(config.isIncremental(), config.getCompactionThreshold())
+                .withNodeOrder(config.getNodeOrder())
+                .withRelationshipAggregation(config.getRelationshipAggregation())
+                .withTransposedIncoming(config.isTransposeIncoming())
+                .withAdjacencyCodec(config.getAdjacencyCodec())
                 .withParams(config.getParams());
     }
 
+    /**
+     * Load additional node properties, accessible by the type of their mapping.
+     * The {@link org.neo4j.graphalgo.core.huge.HugeGraphFactory} loads them into dense columns
+     * of a {@link HugeNodePropertyStore} during the node scan.
+     */
     public GraphLoader withOptionalNodeProperties(PropertyMapping... nodePropertyMappings) {
         this.nodePropertyMappings = nodePropertyMappings;
         return this;
@@ -0,0 +1,425 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core;
+
+import com.carrotsearch.hppc.DoubleArrayList;
+import com.carrotsearch.hppc.LongArrayList;
+import org.neo4j.graphalgo.PropertyMapping;
+import org.neo4j.graphalgo.api.NodeProperties;
+import org.neo4j.graphalgo.api.WeightMapping;
+import org.neo4j.graphalgo.core.loading.ReadHelper;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.DoubleArray;
+import org.neo4j.graphalgo.core.utils.paged.HugeLongArray;
+import org.neo4j.internal.kernel.api.CursorFactory;
+import org.neo4j.internal.kernel.api.NodeCursor;
+import org.neo4j.internal.kernel.api.PropertyCursor;
+import org.neo4j.internal.kernel.api.Read;
+import org.neo4j.kernel.api.StatementConstants;
+import org.neo4j.values.storable.Value;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Columnar store for the node properties of a huge graph.
+ * <p>
+ * Every loaded property is kept in its own dense paged {@code double} or
+ * {@code long} column that is indexed by the mapped node id, so reading a
+ * value is an array access instead of a property cursor or hash lookup.
+ * Properties that don't exist in the database get no column and always
+ * return their default value.
+ */
+public final class HugeNodePropertyStore implements NodeProperties {
+
+    public static final HugeNodePropertyStore EMPTY = new HugeNodePropertyStore(
+            new String[0],
+            new int[0],
+            new double[0],
+            new DoubleArray[0],
+            new HugeLongArray[0],
+            0L);
+
+    private final String[] types;
+    private final int[] propertyKeyIds;
+    private final double[] defaultValues;
+    private final DoubleArray[] doubles;
+    private final HugeLongArray[] longs;
+    private final long nodeCount;
+
+    private HugeNodePropertyStore(
+            String[] types,
+            int[] propertyKeyIds,
+            double[] defaultValues,
+            DoubleArray[] doubles,
+            HugeLongArray[] longs,
+            long nodeCount) {
+        this.types = types;
+        this.propertyKeyIds = propertyKeyIds;
+        this.defaultValues = defaultValues;
+        this.doubles = doubles;
+        this.longs = longs;
+        this.nodeCount = nodeCount;
+    }
+
+    /**
+     * create columns for all mappings, prefilled with their default values
+     *
+     * @param mappings       the properties to load
+     * @param propertyKeyIds the property key token for every mapping
+     * @param nodeCount      the number of nodes, i.e. the size of every column
+     */
+    public static HugeNodePropertyStore of(
+            PropertyMapping[] mappings,
+            int[] propertyKeyIds,
+            long nodeCount,
+            AllocationTracker tracker) {
+        if (mappings.length == 0) {
+            return EMPTY;
+        }
+        int size = mappings.length;
+        String[] types = new String[size];
+        double[] defaultValues = new double[size];
+        DoubleArray[] doubles = new DoubleArray[size];
+        HugeLongArray[] longs = new HugeLongArray[size];
+        for (int i = 0; i < size; i++) {
+            PropertyMapping mapping = mappings[i];
+            types[i] = mapping.type;
+            defaultValues[i] = mapping.defaultValue;
+            if (propertyKeyIds[i] == StatementConstants.NO_SUCH_PROPERTY_KEY) {
+                continue;
+            }
+            if (mapping.longValues) {
+                longs[i] = HugeLongArray.newArray(nodeCount, tracker);
+                longs[i].fill((long) mapping.defaultValue);
+            } else {
+                doubles[i] = DoubleArray.newArray(nodeCount, tracker);
+                doubles[i].fill(mapping.defaultValue);
+            }
+        }
+        return new HugeNodePropertyStore(
+                types,
+                Arrays.copyOf(propertyKeyIds, size),
+                defaultValues,
+                doubles,
+                longs,
+                nodeCount);
+    }
+
+    /**
+     * @return true if at least one property has to be read from the database
+     */
+    public boolean hasColumns() {
+        for (int i = 0; i < types.length; i++) {
+            if (doubles[i] != null || longs[i] != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the double column for the type or null if the type was not
+     * loaded, doesn't exist in the database, or is stored as longs
+     */
+    public DoubleArray doubleColumn(String type) {
+        int index = indexOf(type);
+        return index == -1 ? null : doubles[index];
+    }
+
+    /**
+     * @return the long column for the type or null if the type was not
+     * loaded, doesn't exist in the database, or is stored as doubles
+     */
+    public HugeLongArray longColumn(String type) {
+        int index = indexOf(type);
+        return index == -1 ? null : longs[index];
+    }
+
+    /**
+     * @return the value of the property for the mapped node id
+     * @throws IllegalArgumentException if the type was not loaded
+     */
+    public double doubleValue(String type, long nodeId) {
+        int index = indexOf(type);
+        if (index == -1) {
+            throw new IllegalArgumentException(String.format(
+                    "Node property %s has not been loaded, available properties are %s",
+                    type,
+                    Arrays.toString(types)));
+        }
+        return valueOf(index, nodeId);
+    }
+
+    @Override
+    public WeightMapping nodeProperties(String type) {
+        int index = indexOf(type);
+        if (index == -1) {
+            return null;
+        }
+        if (doubles[index] == null && longs[index] == null) {
+            return new NullWeightMap(defaultValues[index]);
+        }
+        return new ColumnWeightMapping(index);
+    }
+
+    @Override
+    public Set<String> availableNodeProperties() {
+        return new LinkedHashSet<>(Arrays.asList(types));
+    }
+
+    /**
+     * Copy the columns for a new id mapping, e.g. after nodes have been added or removed.
+     *
+     * @param oldIds the previous mapped id for every new mapped id or -1 for new nodes, which get the default value
+     */
+    public HugeNodePropertyStore remap(long nodeCount, HugeLongArray oldIds, AllocationTracker tracker) {
+        if (types.length == 0) {
+            return this;
+        }
+        int size = types.length;
+        DoubleArray[] newDoubles = new DoubleArray[size];
+        HugeLongArray[] newLongs = new HugeLongArray[size];
+        for (int i = 0; i < size; i++) {
+            if (doubles[i] != null) {
+                DoubleArray column = DoubleArray.newArray(nodeCount, tracker);
+                for (long node = 0L; node < nodeCount; node++) {
+                    long oldId = oldIds.get(node);
+                    column.set(node, oldId == -1L ? defaultValues[i] : doubles[i].get(oldId));
+                }
+                newDoubles[i] = column;
+            } else if (longs[i] != null) {
+                HugeLongArray column = HugeLongArray.newArray(nodeCount, tracker);
+                for (long node = 0L; node < nodeCount; node++) {
+                    long oldId = oldIds.get(node);
+                    column.set(node, oldId == -1L ? (long) defaultValues[i] : longs[i].get(oldId));
+                }
+                newLongs[i] = column;
+            }
+        }
+        return new HugeNodePropertyStore(types, propertyKeyIds, defaultValues, newDoubles, newLongs, nodeCount);
+    }
+
+    /**
+     * release all columns and return an estimate how many bytes were freed.
+     */
+    public long release() {
+        long freed = 0L;
+        for (int i = 0; i < types.length; i++) {
+            if (doubles[i] != null) {
+                freed += doubles[i].release();
+                doubles[i] = null;
+            }
+            if (longs[i] != null) {
+                freed += longs[i].release();
+                longs[i] = null;
+            }
+        }
+        return freed;
+    }
+
+    /**
+     * @return a buffer for the values of nodes whose mapped ids are not known yet, e.g. during a parallel node scan
+     */
+    public Buffer newBuffer() {
+        return new Buffer();
+    }
+
+    /**
+     * @return a reader to fill the columns, one per importing thread
+     */
+    public Reader newReader(CursorFactory cursors, Read read) {
+        return new Reader(cursors, read);
+    }
+
+    private int indexOf(String type) {
+        for (int i = 0; i < types.length; i++) {
+            if (types[i].equals(type)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private double valueOf(int index, long nodeId) {
+        if (doubles[index] != null) {
+            return doubles[index].get(nodeId);
+        }
+        if (longs[index] != null) {
+            return (double) longs[index].get(nodeId);
+        }
+        return defaultValues[index];
+    }
+
+    public final class Reader implements AutoCloseable {
+        private final Read read;
+        private final NodeCursor nodeCursor;
+        private final PropertyCursor propertyCursor;
+
+        private Reader(CursorFactory cursors, Read read) {
+            this.read = read;
+            this.nodeCursor = cursors.allocateNodeCursor();
+            this.propertyCursor = cursors.allocatePropertyCursor();
+        }
+
+        /**
+         * read all properties of a node in a single pass over its property chain
+         */
+        public void read(long nodeId, long mappedId) {
+            read.singleNode(nodeId, nodeCursor);
+            if (!nodeCursor.next()) {
+                return;
+            }
+            read(nodeCursor, mappedId, null);
+        }
+
+        /**
+         * read all properties of the node the cursor is positioned at into the next slot of the buffer
+         */
+        public void read(NodeCursor node, Buffer buffer) {
+            read(node, buffer.append(), buffer);
+        }
+
+        private void read(NodeCursor node, long index, Buffer buffer) {
+            node.properties(propertyCursor);
+            while (propertyCursor.next()) {
+                int propertyKey = propertyCursor.propertyKey();
+                Value value = null;
+                for (int i = 0; i < propertyKeyIds.length; i++) {
+                    if (propertyKeyIds[i] != propertyKey) {
+                        continue;
+                    }
+                    if (value == null) {
+                        value = propertyCursor.propertyValue();
+                    }
+                    if (doubles[i] != null) {
+                        double doubleValue = ReadHelper.extractValue(value, defaultValues[i]);
+                        if (buffer == null) {
+                            doubles[i].set(index, doubleValue);
+                        } else {
+                            buffer.doubleValues[i].set((int) index, doubleValue);
+                        }
+                    } else if (longs[i] != null) {
+                        long longValue = ReadHelper.extractLongValue(value, (long) defaultValues[i]);
+                        if (buffer == null) {
+                            longs[i].set(index, longValue);
+                        } else {
+                            buffer.longValues[i].set((int) index, longValue);
+                        }
+                    }
+                }
+            }
+        }
+
+        @Override
+        public void close() {
+            propertyCursor.close();
+            nodeCursor.close();
+        }
+    }
+
+    /**
+     * The property values of consecutive nodes, which are copied into the columns once
+     * the mapped id of the first node is known.
+     */
+    public final class Buffer {
+        private final DoubleArrayList[] doubleValues = new DoubleArrayList[types.length];
+        private final LongArrayList[] longValues = new LongArrayList[types.length];
+        private int size;
+
+        private Buffer() {
+            for (int i = 0; i < types.length; i++) {
+                if (doubles[i] != null) {
+                    doubleValues[i] = new DoubleArrayList();
+                } else if (longs[i] != null) {
+                    longValues[i] = new LongArrayList();
+                }
+            }
+        }
+
+        private int append() {
+            for (int i = 0; i < types.length; i++) {
+                if (doubleValues[i] != null) {
+                    doubleValues[i].add(defaultValues[i]);
+                } else if (longValues[i] != null) {
+                    longValues[i].add((long) defaultValues[i]);
+                }
+            }
+            return size++;
+        }
+
+        /**
+         * write the buffered values into the columns, the first node gets the mapped id {@code mappedStart}
+         */
+        public void copyTo(long mappedStart) {
+            for (int i = 0; i < types.length; i++) {
+                if (doubleValues[i] != null) {
+                    double[] values = doubleValues[i].buffer;
+                    for (int j = 0; j < size; j++) {
+                        doubles[i].set(mappedStart + j, values[j]);
+                    }
+                } else if (longValues[i] != null) {
+                    long[] values = longValues[i].buffer;
+                    for (int j = 0; j < size; j++) {
+                        longs[i].set(mappedStart + j, values[j]);
+                    }
+                }
+            }
+        }
+    }
+
+    private final class ColumnWeightMapping implements WeightMapping {
+        private final int index;
+
+        private ColumnWeightMapping(int index) {
+            this.index = index;
+        }
+
+        @Override
+        public double get(long id) {
+            return valueOf(index, id);
+        }
+
+        @Override
+        public double get(long id, double defaultValue) {
+            return valueOf(index, id);
+        }
+
+        @Override
+        public double get(int source, int target) {
+            return valueOf(index, Integer.toUnsignedLong(source));
+        }
+
+        @Override
+        public double get(int id) {
+            return valueOf(index, Integer.toUnsignedLong(id));
+        }
+
+        @Override
+        public double get(int id, double defaultValue) {
+            return valueOf(index, Integer.toUnsignedLong(id));
+        }
+
+        @Override
+        public int size() {
+            return (int) Math.min(nodeCount, Integer.MAX_VALUE);
+        }
+    }
+}
@@ -39,6 +39,10 @@ public class HugeNullWeightMap implements HugeWeightMapping {
         return defaultValue;
     }
 
+    public double defaultValue() {
+        return defaultValue;
+    }
+
     @Override
     public long release() {
         return 0L;
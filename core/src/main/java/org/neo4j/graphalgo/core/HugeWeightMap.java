@@ -19,7 +19,12 @@
 package org.neo4j.graphalgo.core;
 
 import org.neo4j.graphalgo.api.HugeWeightMapping;
+import org.neo4j.graphalgo.core.utils.container.TrackingLongDoubleHashMap;
+import org.neo4j.graphalgo.core.utils.mem.MemoryEstimation;
+import org.neo4j.graphalgo.core.utils.mem.MemoryEstimations;
+import org.neo4j.graphalgo.core.utils.mem.MemoryRange;
 import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.MemoryUsage;
 import org.neo4j.graphalgo.core.utils.paged.PagedLongLongDoubleMap;
 
 public final class HugeWeightMap implements HugeWeightMapping {
@@ -27,6 +32,28 @@ public final class HugeWeightMap implements HugeWeightMapping {
     private PagedLongLongDoubleMap weights;
     private final double defaultValue;
 
+    /**
+     * Estimates the weights with one hash map per node with relationships.
+     * The maps of nodes with many relationships are the largest if their size is just above a power of two.
+     */
+    public static MemoryEstimation memoryEstimation() {
+        return MemoryEstimations.builder(HugeWeightMap.class)
+                .fixed("instance", MemoryUsage.shallowSizeOfInstance(HugeWeightMap.class))
+                .perGraphDimension("weights", dimensions -> {
+                    long nodes = Math.min(dimensions.hugeNodeCount(), dimensions.maxRelCount());
+                    if (nodes == 0L) {
+                        return MemoryRange.empty();
+                    }
+                    long averageDegree = (dimensions.maxRelCount() + nodes - 1L) / nodes;
+                    long perNode = MemoryUsage.shallowSizeOfInstance(TrackingLongDoubleHashMap.class) +
+                            MemoryUsage.sizeOfOpenHashContainer(averageDegree, 0.75, Long.BYTES, Double.BYTES);
+                    long min = MemoryUsage.sizeOfObjectArrayElements(Math.toIntExact(Math.min(nodes, Integer.MAX_VALUE))) +
+                            nodes * perNode;
+                    return MemoryRange.of(min, min * 2L);
+                })
+                .build();
+    }
+
     public HugeWeightMap(long capacity, double defaultValue, AllocationTracker tracker) {
         this.defaultValue = defaultValue;
         this.weights = PagedLongLongDoubleMap.newMap(capacity, tracker);
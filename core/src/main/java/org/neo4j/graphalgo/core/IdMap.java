@@ -27,6 +27,9 @@ import org.neo4j.graphalgo.api.BatchNodeIterable;
 import org.neo4j.graphalgo.api.IdMapping;
 import org.neo4j.graphalgo.api.NodeIterator;
 import org.neo4j.graphalgo.core.utils.ParallelUtil;
+import org.neo4j.graphalgo.core.utils.mem.MemoryEstimation;
+import org.neo4j.graphalgo.core.utils.mem.MemoryEstimations;
+import org.neo4j.graphalgo.core.utils.paged.MemoryUsage;
 
 import java.util.Arrays;
 import java.util.Collection;
@@ -44,6 +47,18 @@ public final class IdMap implements IdMapping, NodeIterator, BatchNodeIterable {
     private long[] graphIds;
     private LongIntMap nodeToGraphIds;
 
+    public static MemoryEstimation memoryEstimation() {
+        return MemoryEstimations.builder(IdMap.class)
+                .fixed("instance", MemoryUsage.shallowSizeOfInstance(IdMap.class))
+                .perNode("graph ids", nodeCount -> MemoryUsage.sizeOfLongArray(Math.toIntExact(nodeCount)))
+                .perNode("node mapping", nodeCount -> MemoryUsage.sizeOfOpenHashContainer(
+                        (long) Math.ceil(nodeCount / 0.99),
+                        0.99,
+                        Long.BYTES,
+                        Integer.BYTES))
+                .build();
+    }
+
     /**
      * initialize the map with maximum node capacity
      */
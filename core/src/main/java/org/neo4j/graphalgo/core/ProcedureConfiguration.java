@@ -18,11 +18,17 @@
  */
 package org.neo4j.graphalgo.core;
 
+import org.neo4j.graphalgo.PropertyMapping;
+import org.neo4j.graphalgo.api.AdjacencyCodec;
+import org.neo4j.graphalgo.api.AdjacencyStorage;
 import org.neo4j.graphalgo.api.GraphFactory;
 import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.api.NodeOrder;
+import org.neo4j.graphalgo.api.RelationshipAggregation;
 import org.neo4j.graphalgo.core.heavyweight.HeavyCypherGraphFactory;
 import org.neo4j.graphalgo.core.heavyweight.HeavyGraph;
 import org.neo4j.graphalgo.core.heavyweight.HeavyGraphFactory;
+import org.neo4j.graphalgo.core.huge.HugeCypherGraphFactory;
 import org.neo4j.graphalgo.core.huge.HugeGraphFactory;
 import org.neo4j.graphalgo.core.lightweight.LightGraph;
 import org.neo4j.graphalgo.core.loading.LoadGraphFactory;
@@ -33,6 +39,8 @@ import org.neo4j.graphalgo.core.utils.ParallelUtil;
 import org.neo4j.graphalgo.core.utils.Pools;
 import org.neo4j.graphdb.Direction;
 
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -107,6 +115,17 @@ public class ProcedureConfiguration {
         return this;
     }
 
+    /**
+     * override the concurrency, e.g. with the threads granted by the admission control
+     *
+     * @param concurrency the number of threads
+     * @return self
+     */
+    public ProcedureConfiguration overrideConcurrency(int concurrency) {
+        config.put(ProcedureConstants.CONCURRENCY, concurrency);
+        return this;
+    }
+
     /**
      * override property param
      *
@@ -216,6 +235,129 @@ public class ProcedureConfiguration {
         return get(ProcedureConstants.STATS_FLAG, defaultValue);
     }
 
+    public boolean isInlineWeights() {
+        return get(ProcedureConstants.INLINE_WEIGHTS, false);
+    }
+
+    public boolean isSkipIndex() {
+        return get(ProcedureConstants.SKIP_INDEX, false);
+    }
+
+    public AdjacencyStorage getAdjacencyStorage() {
+        return AdjacencyStorage.parse(getString(ProcedureConstants.ADJACENCY_STORAGE, null));
+    }
+
+    /**
+     * @return the directory for the mapped adjacency storage or null if the default temp directory should be used
+     */
+    public Path getAdjacencyStorageDirectory() {
+        String directory = getString(ProcedureConstants.ADJACENCY_STORAGE_DIRECTORY, null);
+        return directory == null ? null : Paths.get(directory);
+    }
+
+    public boolean isSplitRelationshipTypes() {
+        return get(ProcedureConstants.SPLIT_RELATIONSHIP_TYPES, false);
+    }
+
+    public boolean isTransposeIncoming() {
+        return get(ProcedureConstants.TRANSPOSE_INCOMING, false);
+    }
+
+    public AdjacencyCodec getAdjacencyCodec() {
+        return AdjacencyCodec.parse(getString(ProcedureConstants.ADJACENCY_CODEC, null));
+    }
+
+    public boolean isIncremental() {
+        return get(ProcedureConstants.INCREMENTAL, false);
+    }
+
+    public long getCompactionThreshold() {
+        return getNumber(ProcedureConstants.COMPACTION_THRESHOLD, ProcedureConstants.COMPACTION_THRESHOLD_DEFAULT).longValue();
+    }
+
+    public NodeOrder getNodeOrder() {
+        return NodeOrder.parse(getString(ProcedureConstants.NODE_ORDER, null));
+    }
+
+    /**
+     * @return how long a job may wait for threads and memory in milliseconds, 0 to fail if they are not available
+     */
+    public long getAdmissionTimeout() {
+        return getNumber(ProcedureConstants.ADMISSION_TIMEOUT, ProcedureConstants.ADMISSION_TIMEOUT_DEFAULT).longValue();
+    }
+
+    /**
+     * @return how long the algorithm may compute in milliseconds before it returns its partial result, 0 for no limit
+     */
+    public long getMaxRuntime() {
+        return getNumber(ProcedureConstants.MAX_RUNTIME, 0L).longValue();
+    }
+
+    public boolean isRadixHeap() {
+        return get(ProcedureConstants.RADIX_HEAP, false);
+    }
+
+    /**
+     * @return the multiplier that scales double weights to integers
+     */
+    public int getMultiplier() {
+        return getInt(ProcedureConstants.MULTIPLIER, ProcedureConstants.MULTIPLIER_DEFAULT);
+    }
+
+    public RelationshipAggregation getRelationshipAggregation() {
+        return RelationshipAggregation.parse(getString(ProcedureConstants.RELATIONSHIP_AGGREGATION, null));
+    }
+
+    /**
+     * Reads the node properties to load into the columnar store of huge graphs.
+     * Accepts either a list of property keys, which are also used as the names
+     * of the properties, or a map from name to property key or to a map of
+     * {@code {property: key, defaultValue: 0.0, long: false}}.
+     *
+     * @return the property mappings, empty if none were configured
+     */
+    @SuppressWarnings("unchecked")
+    public PropertyMapping[] getNodePropertyMappings() {
+        Object value = get(ProcedureConstants.NODE_PROPERTIES);
+        if (value instanceof List) {
+            List<String> keys = (List<String>) value;
+            return keys.stream()
+                    .map(key -> PropertyMapping.of(key, key, 0.0))
+                    .toArray(PropertyMapping[]::new);
+        }
+        if (value instanceof Map) {
+            Map<String, Object> mappings = (Map<String, Object>) value;
+            return mappings.entrySet().stream()
+                    .map(e -> propertyMapping(e.getKey(), e.getValue()))
+                    .toArray(PropertyMapping[]::new);
+        }
+        if (value != null) {
+            throw new IllegalArgumentException(String.format(
+                    "Expected a list or a map for %s but got %s",
+                    ProcedureConstants.NODE_PROPERTIES,
+                    value));
+        }
+        return new PropertyMapping[0];
+    }
+
+    @SuppressWarnings("unchecked")
+    private static PropertyMapping propertyMapping(String type, Object value) {
+        if (value instanceof String) {
+            return PropertyMapping.of(type, (String) value, 0.0);
+        }
+        if (value instanceof Map) {
+            Map<String, Object> mapping = (Map<String, Object>) value;
+            String property = (String) mapping.getOrDefault("property", type);
+            Number defaultValue = (Number) mapping.getOrDefault("defaultValue", 0.0);
+            boolean longValues = (Boolean) mapping.getOrDefault("long", false);
+            return new PropertyMapping(type, property, defaultValue.doubleValue(), longValues);
+        }
+        throw new IllegalArgumentException(String.format(
+                "Invalid mapping for node property %s: %s",
+                type,
+                value));
+    }
+
     public boolean hasWeightProperty() {
         return containsKeys(ProcedureConstants.PROPERTY_PARAM);
     }
@@ -302,6 +444,8 @@ public class ProcedureConfiguration {
                 return GraphViewFactory.class;
             case HugeGraph.TYPE:
                 return HugeGraphFactory.class;
+            case HugeCypherGraphFactory.TYPE:
+                return HugeCypherGraphFactory.class;
             default:
                 if (validCustomName(graphImpl) && LoadGraphFactory.check(graphImpl)) {
                     return LoadGraphFactory.class;
@@ -311,7 +455,7 @@ public class ProcedureConfiguration {
     }
 
     private static Set<String> RESERVED = new HashSet<>(asList(HeavyGraph.TYPE, HeavyCypherGraphFactory.TYPE,
-            LightGraph.TYPE, GraphView.TYPE, HeavyGraph.TYPE));
+            LightGraph.TYPE, GraphView.TYPE, HeavyGraph.TYPE, HugeCypherGraphFactory.TYPE));
 
     public static boolean validCustomName(String name) {
         return name != null && !name.trim().isEmpty() && !RESERVED.contains(name.trim().toLowerCase());
@@ -325,6 +469,10 @@ public class ProcedureConfiguration {
         if (allowedNames.contains(graphName) || allowedNames.contains(LoadGraphFactory.getType(graphName))) {
             return getGraphImpl(defaultImpl);
         }
+        // the huge cypher loader builds the same graph as the huge loader
+        if (HugeCypherGraphFactory.TYPE.equals(graphName) && allowedNames.contains(HugeGraph.TYPE)) {
+            return getGraphImpl(defaultImpl);
+        }
         throw new IllegalArgumentException("The graph algorithm only supports these graph types; " + allowedNames);
     }
 
@@ -399,6 +547,9 @@ public class ProcedureConfiguration {
         if (HugeGraphFactory.class.isAssignableFrom(cls)) {
             return "huge";
         }
+        if (HugeCypherGraphFactory.class.isAssignableFrom(cls)) {
+            return "huge-cypher";
+        }
         throw new IllegalArgumentException("Unknown impl: " + cls);
     }
 
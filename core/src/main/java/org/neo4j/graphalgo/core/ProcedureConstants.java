@@ -61,4 +61,42 @@ public class ProcedureConstants {
 
     public static final String CONCURRENCY = "concurrency";
 
+    public static final String INLINE_WEIGHTS = "inlineWeights";
+
+    public static final String SKIP_INDEX = "skipIndex";
+
+    public static final String ADJACENCY_STORAGE = "adjacencyStorage";
+
+    public static final String ADJACENCY_STORAGE_DIRECTORY = "adjacencyStorageDir";
+
+    public static final String SPLIT_RELATIONSHIP_TYPES = "splitRelationshipTypes";
+
+    public static final String NODE_PROPERTIES = "nodeProperties";
+
+    public static final String INCREMENTAL = "incremental";
+
+    public static final String COMPACTION_THRESHOLD = "compactionThreshold";
+
+    public static final long COMPACTION_THRESHOLD_DEFAULT = 100_000L;
+
+    public static final String NODE_ORDER = "nodeOrder";
+
+    public static final String RELATIONSHIP_AGGREGATION = "relationshipAggregation";
+
+    public static final String TRANSPOSE_INCOMING = "transposeIncoming";
+
+    public static final String ADJACENCY_CODEC = "adjacencyCodec";
+
+    public static final String ADMISSION_TIMEOUT = "admissionTimeout";
+
+    public static final long ADMISSION_TIMEOUT_DEFAULT = 60_000L;
+
+    public static final String RADIX_HEAP = "radixHeap";
+
+    public static final String MULTIPLIER = "multiplier";
+
+    public static final int MULTIPLIER_DEFAULT = 100_000;
+
+    public static final String MAX_RUNTIME = "maxRuntime";
+
 }
@@ -21,6 +21,7 @@ package org.neo4j.graphalgo.core;
 import com.carrotsearch.hppc.LongDoubleHashMap;
 import com.carrotsearch.hppc.LongDoubleMap;
 import org.neo4j.graphalgo.api.WeightMapping;
+import org.neo4j.graphalgo.core.utils.paged.MemoryUsage;
 
 /**
  * single weight cache
@@ -32,6 +33,15 @@ public final class WeightMap implements WeightMapping {
     private final double defaultValue;
     private final int propertyId;
 
+    /**
+     * @return the memory usage of a map with the given number of weights
+     */
+    public static long memoryUsage(long entries) {
+        return MemoryUsage.shallowSizeOfInstance(WeightMap.class) +
+                MemoryUsage.shallowSizeOfInstance(LongDoubleHashMap.class) +
+                MemoryUsage.sizeOfOpenHashContainer(entries, 0.75, Long.BYTES, Double.BYTES);
+    }
+
     public WeightMap(
             int capacity,
             double defaultValue,
@@ -25,6 +25,9 @@ import org.neo4j.graphalgo.api.*;
 import org.neo4j.graphalgo.core.utils.Intersections;
 import org.neo4j.graphalgo.core.utils.ParallelUtil;
 import org.neo4j.graphalgo.core.utils.RawValues;
+import org.neo4j.graphalgo.core.utils.mem.MemoryEstimation;
+import org.neo4j.graphalgo.core.utils.mem.MemoryEstimations;
+import org.neo4j.graphalgo.core.utils.mem.MemoryRange;
 import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
 import org.neo4j.graphalgo.core.utils.paged.MemoryUsage;
 import org.neo4j.graphdb.Direction;
@@ -69,6 +72,32 @@ public class AdjacencyMatrix {
 
     private final AllocationTracker tracker;
 
+    /**
+     * Estimates the adjacency of one direction.
+     *
+     * @param relationshipFactor how often every relationship is stored in this direction, 2 for undirected graphs
+     * @param growing            true if the arrays grow while relationships are added instead of being
+     *                           allocated with the degree of the node
+     */
+    public static MemoryEstimation memoryEstimation(String description, int relationshipFactor, boolean growing) {
+        return MemoryEstimations.builder(description)
+                .perNode("degrees", nodeCount -> MemoryUsage.sizeOfIntArray(Math.toIntExact(nodeCount)))
+                .perNode("adjacency arrays", nodeCount -> MemoryUsage.sizeOfObjectArray(Math.toIntExact(nodeCount)))
+                .perGraphDimension("targets", dimensions -> {
+                    long relCount = dimensions.maxRelCount() * relationshipFactor;
+                    long arrays = Math.min(dimensions.hugeNodeCount(), relCount);
+                    long min = arrays * MemoryUsage.sizeOfIntArray(0) + relCount * Integer.BYTES;
+                    // every array may be padded by the object alignment
+                    long max = min + arrays * Integer.BYTES;
+                    if (growing) {
+                        // oversized by up to an eighth
+                        max += (relCount * Integer.BYTES) >>> 3;
+                    }
+                    return MemoryRange.of(min, max);
+                })
+                .build();
+    }
+
     public AdjacencyMatrix(int nodeCount, boolean sorted, AllocationTracker tracker) {
         this(nodeCount, true, true, sorted, tracker);
     }
@@ -276,6 +305,20 @@ public class AdjacencyMatrix {
         }
     }
 
+    /**
+     * sum of the outgoing degrees or the incoming ones if outgoing hasn't been loaded
+     */
+    public long relationshipCount() {
+        int[] degrees = outOffsets != null ? outOffsets : inOffsets;
+        long count = 0L;
+        if (degrees != null) {
+            for (int degree : degrees) {
+                count += degree;
+            }
+        }
+        return count;
+    }
+
     /**
      * iterate over each edge at the given node using an unweighted consumer
      */
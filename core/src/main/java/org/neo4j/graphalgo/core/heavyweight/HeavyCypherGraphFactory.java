@@ -30,6 +30,8 @@ import org.neo4j.graphalgo.core.IdMap;
 import org.neo4j.graphalgo.core.NullWeightMap;
 import org.neo4j.graphalgo.core.WeightMap;
 import org.neo4j.graphalgo.core.utils.RawValues;
+import org.neo4j.graphalgo.core.utils.mem.MemoryEstimation;
+import org.neo4j.graphalgo.core.utils.mem.MemoryEstimations;
 import org.neo4j.graphdb.Direction;
 import org.neo4j.graphdb.Result;
 import org.neo4j.kernel.internal.GraphDatabaseAPI;
@@ -128,6 +130,26 @@ public class HeavyCypherGraphFactory extends GraphFactory {
         }
     }
 
+    /**
+     * The graph is only known after running the queries, the estimation assumes that they return
+     * every node and relationship that is counted by the store statistics.
+     */
+    @Override
+    public MemoryEstimation memoryEstimation() {
+        MemoryEstimations.Builder builder = MemoryEstimations.builder(HeavyGraph.class)
+                .add(IdMap.memoryEstimation())
+                .add(AdjacencyMatrix.memoryEstimation("outgoing", 1, true))
+                // allocated but never filled
+                .add(AdjacencyMatrix.memoryEstimation("incoming", 0, true));
+        if (setup.shouldLoadRelationshipWeight()) {
+            builder.perGraphDimension("relationship weights", HeavyGraphFactory::weightsMemoryUsage);
+        }
+        for (PropertyMapping mapping : setup.nodePropertyMappings) {
+            builder.perNode("node property " + mapping.type, WeightMap::memoryUsage);
+        }
+        return builder.build();
+    }
+
     @SuppressWarnings("WeakerAccess")
     public Graph build() {
         int batchSize = setup.batchSize;
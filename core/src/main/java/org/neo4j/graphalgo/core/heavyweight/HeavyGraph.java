@@ -47,6 +47,7 @@ public class HeavyGraph implements Graph, NodeProperties, RelationshipPredicate,
     private Map<String, WeightMapping> nodePropertiesMapping;
 
     private boolean canRelease = true;
+    private Runnable onRelease;
 
     public HeavyGraph(
             IdMap nodeIdMap,
@@ -64,6 +65,11 @@ public class HeavyGraph implements Graph, NodeProperties, RelationshipPredicate,
         return nodeIdMap.size();
     }
 
+    @Override
+    public long relationshipCount() {
+        return container.relationshipCount();
+    }
+
     @Override
     public void forEachNode(IntPredicate consumer) {
         nodeIdMap.forEach(consumer);
@@ -131,8 +137,24 @@ public class HeavyGraph implements Graph, NodeProperties, RelationshipPredicate,
         return nodePropertiesMapping.keySet();
     }
 
+    /**
+     * Returns a copy that shares all data with this graph.
+     * Releasing the copy never frees the shared data, it only runs {@code onRelease} the first time.
+     */
+    public HeavyGraph sharedCopy(Runnable onRelease) {
+        HeavyGraph copy = new HeavyGraph(nodeIdMap, container, relationshipWeights, nodePropertiesMapping);
+        copy.canRelease = false;
+        copy.onRelease = onRelease;
+        return copy;
+    }
+
     @Override
     public void release() {
+        Runnable hook = onRelease;
+        onRelease = null;
+        if (hook != null) {
+            hook.run();
+        }
         if (!canRelease) return;
         container = null;
         relationshipWeights = null;
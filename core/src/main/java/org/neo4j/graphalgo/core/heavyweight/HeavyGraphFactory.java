@@ -23,9 +23,14 @@ import org.neo4j.graphalgo.api.Graph;
 import org.neo4j.graphalgo.api.GraphFactory;
 import org.neo4j.graphalgo.api.GraphSetup;
 import org.neo4j.graphalgo.api.WeightMapping;
+import org.neo4j.graphalgo.core.GraphDimensions;
 import org.neo4j.graphalgo.core.IdMap;
 import org.neo4j.graphalgo.core.WeightMap;
 import org.neo4j.graphalgo.core.utils.ParallelUtil;
+import org.neo4j.graphalgo.core.utils.mem.MemoryEstimation;
+import org.neo4j.graphalgo.core.utils.mem.MemoryEstimations;
+import org.neo4j.graphalgo.core.utils.mem.MemoryRange;
+import org.neo4j.kernel.api.StatementConstants;
 import org.neo4j.kernel.internal.GraphDatabaseAPI;
 
 import java.util.*;
@@ -47,6 +52,36 @@ public class HeavyGraphFactory extends GraphFactory {
         return importGraph(setup.batchSize);
     }
 
+    @Override
+    public MemoryEstimation memoryEstimation() {
+        boolean undirected = setup.loadAsUndirected;
+        MemoryEstimations.Builder builder = MemoryEstimations.builder(HeavyGraph.class)
+                .add(IdMap.memoryEstimation());
+        if (setup.loadOutgoing || undirected) {
+            builder.add(AdjacencyMatrix.memoryEstimation("outgoing", undirected ? 2 : 1, false));
+        }
+        if (setup.loadIncoming && !undirected) {
+            builder.add(AdjacencyMatrix.memoryEstimation("incoming", 1, false));
+        }
+        if (dimensions.relWeightId() != StatementConstants.NO_SUCH_PROPERTY_KEY) {
+            builder.perGraphDimension("relationship weights", HeavyGraphFactory::weightsMemoryUsage);
+        }
+        for (PropertyMapping mapping : setup.nodePropertyMappings) {
+            if (dimensions.nodePropertyKeyId(mapping.type) != StatementConstants.NO_SUCH_PROPERTY_KEY) {
+                builder.perNode("node property " + mapping.type, WeightMap::memoryUsage);
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Parallel imports fill a weight map per task, which are merged into one map at the end.
+     */
+    static MemoryRange weightsMemoryUsage(GraphDimensions dimensions) {
+        long merged = WeightMap.memoryUsage(dimensions.maxRelCount());
+        return MemoryRange.of(merged, merged * 2L);
+    }
+
     private Graph importGraph(final int batchSize) {
         final IdMap idMap = loadIdMap();
 
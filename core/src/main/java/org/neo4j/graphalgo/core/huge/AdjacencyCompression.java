@@ -18,9 +18,12 @@
  */
 package org.neo4j.graphalgo.core.huge;
 
+import org.neo4j.graphalgo.api.AdjacencyCodec;
+import org.neo4j.graphalgo.api.RelationshipAggregation;
 
 import java.util.Arrays;
 
+import static org.neo4j.graphalgo.core.huge.VarLongEncoding.encodeVLong;
 import static org.neo4j.graphalgo.core.huge.VarLongEncoding.encodeVLongs;
 import static org.neo4j.graphalgo.core.huge.VarLongEncoding.encodedVLongSize;
 
@@ -28,43 +31,187 @@ final class AdjacencyCompression {
 
     static final int CHUNK_SIZE = 64;
 
+    // 8 bytes for the last target of the previous chunk + 4 bytes for the chunk offset
+    static final int SKIP_ENTRY_SIZE = 12;
+
     static abstract class IntValue {
         int value;
     }
 
+    private static final int INSERTION_SORT_THRESHOLD = 32;
+
+    private final AdjacencyCodec codec;
+    // bit width of every PFor block, chosen while calculating the required bytes
+    private int[] blockBits;
+    private int[] histogram;
+
     private long[] ids;
+    private double[] weights;
     private int length;
 
     AdjacencyCompression() {
+        this(AdjacencyCodec.VARLONG);
+    }
+
+    AdjacencyCompression(AdjacencyCodec codec) {
+        this.codec = codec;
         this.ids = new long[0];
+        if (codec == AdjacencyCodec.PFOR) {
+            blockBits = new int[0];
+            histogram = new int[Long.SIZE + 1];
+        }
     }
 
     void copyFrom(long[] targets, int length) {
+        copyFrom(targets, null, length);
+    }
+
+    /**
+     * Use {@code weights} as values that are aligned with {@code targets},
+     * they will be reordered together with the targets during sorting and
+     * dropped together with duplicated targets.
+     */
+    void copyFrom(long[] targets, double[] weights, int length) {
         ids = targets;
+        this.weights = weights;
         this.length = length;
     }
 
     int applyDeltaEncodingAndCalculateRequiredBytes() {
-        Arrays.sort(ids, 0, length);
-        return applyDeltaAndCalculateRequiredBytes(ids, length);
+        if (weights == null) {
+            Arrays.sort(ids, 0, length);
+        } else {
+            sortWithWeights(ids, weights, 0, length - 1);
+        }
+        int bytes = applyDeltaAndCalculateRequiredBytes(ids, weights, length);
+        if (codec == AdjacencyCodec.PFOR) {
+            bytes = calculateRequiredBlockBytes();
+        }
+        return bytes;
     }
 
     int compress(byte[] out, int offset) {
+        if (codec == AdjacencyCodec.PFOR) {
+            for (int block = 0, start = 0; start < length; ++block, start += CHUNK_SIZE) {
+                int blockLength = Math.min(CHUNK_SIZE, length - start);
+                offset = PForEncoding.encode(ids, start, blockLength, blockBits[block], out, offset);
+            }
+            return pad(out, offset);
+        }
         return encodeVLongs(ids, length, out, offset);
     }
 
+    /**
+     * Choose the bit width of every block and return the size of all blocks, including the trailing padding.
+     */
+    private int calculateRequiredBlockBytes() {
+        int blocks = (length + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        if (blockBits.length < blocks) {
+            blockBits = new int[blocks];
+        }
+        int bytes = PForEncoding.PADDING;
+        for (int block = 0, start = 0; start < length; ++block, start += CHUNK_SIZE) {
+            int blockLength = Math.min(CHUNK_SIZE, length - start);
+            int bits = PForEncoding.bestBits(ids, start, blockLength, histogram);
+            blockBits[block] = bits;
+            bytes += PForEncoding.encodedSize(ids, start, blockLength, bits);
+        }
+        return bytes;
+    }
+
+    private static int pad(byte[] out, int offset) {
+        for (int i = 0; i < PForEncoding.PADDING; ++i) {
+            out[offset++] = 0;
+        }
+        return offset;
+    }
+
+    /**
+     * Number of skip index entries for an adjacency of the given degree.
+     * There is one entry for every chunk but the first one.
+     */
+    static int skipIndexEntries(int degree) {
+        return degree > 0 ? (degree - 1) / CHUNK_SIZE : 0;
+    }
+
+    static int skipIndexBytes(int degree) {
+        return skipIndexEntries(degree) * SKIP_ENTRY_SIZE;
+    }
+
+    /**
+     * Writes a skip index followed by the compressed targets.
+     * For every chunk of {@link #CHUNK_SIZE} targets but the first one, the index stores
+     * the last target of the previous chunk (the value the delta decoding has to start from)
+     * and the byte offset of the chunk, relative to the start of the first chunk.
+     * With {@link AdjacencyCodec#PFOR}, every chunk is one encoded block.
+     */
+    int compressWithSkipIndex(byte[] out, int offset) {
+        long[] ids = this.ids;
+        int length = this.length;
+        int skipOffset = offset;
+        int targetsOffset = offset + skipIndexBytes(length);
+        int into = targetsOffset;
+        long value = 0L;
+        if (codec == AdjacencyCodec.PFOR) {
+            for (int block = 0, start = 0; start < length; ++block, start += CHUNK_SIZE) {
+                if (block > 0) {
+                    skipOffset = writeLong(value, out, skipOffset);
+                    skipOffset = writeInt(into - targetsOffset, out, skipOffset);
+                }
+                int blockLength = Math.min(CHUNK_SIZE, length - start);
+                into = PForEncoding.encode(ids, start, blockLength, blockBits[block], out, into);
+                for (int i = start; i < start + blockLength; ++i) {
+                    value += ids[i];
+                }
+            }
+            return pad(out, into);
+        }
+        for (int i = 0; i < length; ++i) {
+            if (i > 0 && i % CHUNK_SIZE == 0) {
+                skipOffset = writeLong(value, out, skipOffset);
+                skipOffset = writeInt(into - targetsOffset, out, skipOffset);
+            }
+            into = encodeVLong(out, ids[i], into);
+            value += ids[i];
+        }
+        return into;
+    }
+
     //@formatter:off
     int writeDegree(byte[] out, int offset) {
-        int value = length;
+        return writeInt(length, out, offset);
+    }
+
+    private static int writeInt(int value, byte[] out, int offset) {
         out[    offset] = (byte) (value);
         out[1 + offset] = (byte) (value >>> 8);
         out[2 + offset] = (byte) (value >>> 16);
         out[3 + offset] = (byte) (value >>> 24);
         return 4 + offset;
     }
+
+    int writeWeights(byte[] out, int offset) {
+        double[] weights = this.weights;
+        for (int i = 0; i < length; ++i) {
+            offset = writeLong(Double.doubleToRawLongBits(weights[i]), out, offset);
+        }
+        return offset;
+    }
+
+    private static int writeLong(long value, byte[] out, int offset) {
+        out[    offset] = (byte) (value);
+        out[1 + offset] = (byte) (value >>> 8);
+        out[2 + offset] = (byte) (value >>> 16);
+        out[3 + offset] = (byte) (value >>> 24);
+        out[4 + offset] = (byte) (value >>> 32);
+        out[5 + offset] = (byte) (value >>> 40);
+        out[6 + offset] = (byte) (value >>> 48);
+        out[7 + offset] = (byte) (value >>> 56);
+        return 8 + offset;
+    }
     //@formatter:on
 
-    private int applyDeltaAndCalculateRequiredBytes(long values[], int length) {
+    private int applyDeltaAndCalculateRequiredBytes(long values[], double[] weights, int length) {
         long value = values[0], delta;
         int in = 1, out = 1, bytes = encodedVLongSize(value);
         for (; in < length; ++in) {
@@ -72,6 +219,9 @@ final class AdjacencyCompression {
             value = values[in];
             if (delta > 0L) {
                 bytes += encodedVLongSize(delta);
+                if (weights != null) {
+                    weights[out] = weights[in];
+                }
                 values[out++] = delta;
             }
         }
@@ -79,7 +229,91 @@ final class AdjacencyCompression {
         return bytes;
     }
 
+    /**
+     * Sorts {@code ids} in ascending order and applies the same permutation to {@code weights}.
+     * Sorting is not stable, for parallel relationships it is undefined which weight is kept.
+     */
+    static void sortWithWeights(long[] ids, double[] weights, int low, int high) {
+        while (high - low >= INSERTION_SORT_THRESHOLD) {
+            long pivot = ids[(low + high) >>> 1];
+            int i = low, j = high;
+            while (i <= j) {
+                while (ids[i] < pivot) {
+                    ++i;
+                }
+                while (ids[j] > pivot) {
+                    --j;
+                }
+                if (i <= j) {
+                    swap(ids, weights, i++, j--);
+                }
+            }
+            // recurse into the smaller partition, loop on the larger one
+            if (j - low < high - i) {
+                sortWithWeights(ids, weights, low, j);
+                low = i;
+            } else {
+                sortWithWeights(ids, weights, i, high);
+                high = j;
+            }
+        }
+        for (int i = low + 1; i <= high; ++i) {
+            long id = ids[i];
+            double weight = weights[i];
+            int j = i - 1;
+            while (j >= low && ids[j] > id) {
+                ids[j + 1] = ids[j];
+                weights[j + 1] = weights[j];
+                --j;
+            }
+            ids[j + 1] = id;
+            weights[j + 1] = weight;
+        }
+    }
+
+    /**
+     * Sorts {@code ids} in ascending order and collapses runs of the same id into one,
+     * the weights of such a run are combined with {@code aggregation}.
+     * The weights must already be {@link RelationshipAggregation#initialValue(double) initial values}.
+     *
+     * @return the number of distinct ids, the length of the aggregated prefix of both arrays
+     */
+    static int aggregate(long[] ids, double[] weights, int length, RelationshipAggregation aggregation) {
+        if (length <= 1) {
+            return length;
+        }
+        sortWithWeights(ids, weights, 0, length - 1);
+        int out = 0;
+        for (int in = 1; in < length; ++in) {
+            if (ids[in] == ids[out]) {
+                weights[out] = aggregation.merge(weights[out], weights[in]);
+            } else {
+                ++out;
+                ids[out] = ids[in];
+                weights[out] = weights[in];
+            }
+        }
+        return out + 1;
+    }
+
+    private static void swap(long[] ids, double[] weights, int i, int j) {
+        long id = ids[i];
+        ids[i] = ids[j];
+        ids[j] = id;
+        double weight = weights[i];
+        weights[i] = weights[j];
+        weights[j] = weight;
+    }
+
     int degree() {
         return length;
     }
+
+    AdjacencyCodec codec() {
+        return codec;
+    }
+
+    boolean hasWeights() {
+        return weights != null;
+    }
 }
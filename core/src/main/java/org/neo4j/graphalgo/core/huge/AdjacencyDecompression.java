@@ -18,39 +18,89 @@
  */
 package org.neo4j.graphalgo.core.huge;
 
+import org.neo4j.graphalgo.api.AdjacencyCodec;
 import org.neo4j.graphalgo.core.huge.AdjacencyCompression.IntValue;
 
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 
 import static org.neo4j.graphalgo.core.huge.AdjacencyCompression.CHUNK_SIZE;
+import static org.neo4j.graphalgo.core.huge.PForDecoding.decodeDeltaBlock;
 import static org.neo4j.graphalgo.core.huge.VarLongDecoding.decodeDeltaVLongs;
 
 final class AdjacencyDecompression {
 
     private final long[] block;
+    private final boolean blockCodec;
     private int pos;
     private byte[] array;
+    private ByteBuffer buffer;
     private int offset;
 
     AdjacencyDecompression() {
+        this(AdjacencyCodec.VARLONG);
+    }
+
+    AdjacencyDecompression(AdjacencyCodec codec) {
         this.block = new long[CHUNK_SIZE];
+        this.blockCodec = codec == AdjacencyCodec.PFOR;
     }
 
     void copyFrom(AdjacencyDecompression other) {
         System.arraycopy(other.block, 0, block, 0, CHUNK_SIZE);
         pos = other.pos;
         array = other.array;
+        buffer = other.buffer;
         offset = other.offset;
     }
 
     int reset(byte[] array, int offset) {
-        this.array = array;
         int remaining = readInt(array, offset);
-        this.offset = decodeDeltaVLongs(0L, array, 4 + offset, Math.min(remaining, CHUNK_SIZE), block);
-        pos = 0;
+        reset(array, 4 + offset, remaining);
         return remaining;
     }
 
+    /**
+     * Start decoding {@code remaining} targets that are stored starting at {@code offset},
+     * without reading the degree first.
+     */
+    void reset(byte[] array, int offset, int remaining) {
+        reset(array, offset, 0L, remaining);
+    }
+
+    /**
+     * Start decoding {@code remaining} targets that are stored starting at {@code offset},
+     * where the first target is delta encoded against {@code startValue}.
+     */
+    void reset(byte[] array, int offset, long startValue, int remaining) {
+        this.array = array;
+        this.buffer = null;
+        this.offset = decode(startValue, offset, Math.min(remaining, CHUNK_SIZE));
+        pos = 0;
+    }
+
+    /**
+     * Like {@link #reset(byte[], int, long, int)}, but decodes directly from an off-heap page.
+     */
+    void reset(ByteBuffer buffer, int offset, long startValue, int remaining) {
+        this.array = null;
+        this.buffer = buffer;
+        this.offset = decode(startValue, offset, Math.min(remaining, CHUNK_SIZE));
+        pos = 0;
+    }
+
+    private int decode(long startValue, int offset, int limit) {
+        if (blockCodec) {
+            return array != null
+                    ? decodeDeltaBlock(startValue, array, offset, limit, block)
+                    : decodeDeltaBlock(startValue, buffer, offset, limit, block);
+        }
+        if (array != null) {
+            return decodeDeltaVLongs(startValue, array, offset, limit, block);
+        }
+        return decodeDeltaVLongs(startValue, buffer, offset, limit, block);
+    }
+
     //@formatter:off
     static int readInt(byte[] array, int offset) {
         return   array[    offset] & 255        |
@@ -58,6 +108,21 @@ final class AdjacencyDecompression {
                 (array[2 + offset] & 255) << 16 |
                 (array[3 + offset] & 255) << 24;
     }
+
+    static long readLong(byte[] array, int offset) {
+        return   array[    offset] & 255L        |
+                (array[1 + offset] & 255L) <<  8 |
+                (array[2 + offset] & 255L) << 16 |
+                (array[3 + offset] & 255L) << 24 |
+                (array[4 + offset] & 255L) << 32 |
+                (array[5 + offset] & 255L) << 40 |
+                (array[6 + offset] & 255L) << 48 |
+                (array[7 + offset] & 255L) << 56;
+    }
+
+    static double readDouble(byte[] array, int offset) {
+        return Double.longBitsToDouble(readLong(array, offset));
+    }
     //@formatter:on
 
     long next(int remaining) {
@@ -68,9 +133,25 @@ final class AdjacencyDecompression {
         return readNextBlock(remaining);
     }
 
+    /**
+     * Copy the next targets into {@code out}, at most {@code length} of them and decoding at most one block.
+     *
+     * @return the number of copied targets
+     */
+    int next(long[] out, int into, int length, int remaining) {
+        if (pos >= CHUNK_SIZE) {
+            pos = 0;
+            offset = decode(block[CHUNK_SIZE - 1], offset, Math.min(remaining, CHUNK_SIZE));
+        }
+        int copied = Math.min(Math.min(CHUNK_SIZE - pos, remaining), length);
+        System.arraycopy(block, pos, out, into, copied);
+        pos += copied;
+        return copied;
+    }
+
     private long readNextBlock(int remaining) {
         pos = 1;
-        offset = decodeDeltaVLongs(block[CHUNK_SIZE - 1], array, offset, Math.min(remaining, CHUNK_SIZE), block);
+        offset = decode(block[CHUNK_SIZE - 1], offset, Math.min(remaining, CHUNK_SIZE));
         return block[0];
     }
 
@@ -83,7 +164,7 @@ final class AdjacencyDecompression {
         while (available > CHUNK_SIZE - pos && block[CHUNK_SIZE - 1] <= target) {
             int skippedInThisBlock = CHUNK_SIZE - pos;
             int needToDecode = Math.min(CHUNK_SIZE, available - skippedInThisBlock);
-            offset = decodeDeltaVLongs(block[CHUNK_SIZE - 1], array, offset, needToDecode, block);
+            offset = decode(block[CHUNK_SIZE - 1], offset, needToDecode);
             available -= skippedInThisBlock;
             pos = 0;
         }
@@ -106,7 +187,7 @@ final class AdjacencyDecompression {
         while (available > CHUNK_SIZE - pos && block[CHUNK_SIZE - 1] < target) {
             int skippedInThisBlock = CHUNK_SIZE - pos;
             int needToDecode = Math.min(CHUNK_SIZE, available - skippedInThisBlock);
-            offset = decodeDeltaVLongs(block[CHUNK_SIZE - 1], array, offset, needToDecode, block);
+            offset = decode(block[CHUNK_SIZE - 1], offset, needToDecode);
             available -= skippedInThisBlock;
             pos = 0;
         }
@@ -18,14 +18,22 @@
  */
 package org.neo4j.graphalgo.core.huge;
 
+import org.neo4j.graphalgo.api.AdjacencyCodec;
+import org.neo4j.graphalgo.api.AdjacencyStorage;
 import org.neo4j.graphalgo.api.HugeGraph;
 import org.neo4j.graphalgo.api.HugeWeightMapping;
+import org.neo4j.graphalgo.core.HugeNodePropertyStore;
 import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
 import org.neo4j.graphalgo.core.utils.paged.HugeLongArray;
 
+import java.nio.file.Path;
+
 class HugeAdjacencyBuilder {
 
     private final HugeAdjacencyListBuilder adjacency;
+    private final boolean hasWeights;
+    private final boolean hasSkipIndex;
+    private final AdjacencyCodec codec;
 
     private HugeAdjacencyListBuilder.Allocator allocator;
     private AdjacencyCompression compression;
@@ -33,7 +41,36 @@ class HugeAdjacencyBuilder {
     private final AllocationTracker tracker;
 
     HugeAdjacencyBuilder(AllocationTracker tracker) {
-        adjacency = HugeAdjacencyListBuilder.newBuilder(tracker);
+        this(tracker, false, false);
+    }
+
+    /**
+     * @param hasWeights   whether relationship weights are stored inline, next to the target ids.
+     *                     If true, only {@link #applyVariableDeltaEncoding(long[], double[], int)} must be used.
+     * @param hasSkipIndex whether a skip index over the compressed chunks of target ids
+     *                     is written in front of the target ids.
+     */
+    HugeAdjacencyBuilder(AllocationTracker tracker, boolean hasWeights, boolean hasSkipIndex) {
+        this(tracker, hasWeights, hasSkipIndex, AdjacencyStorage.HEAP, null, AdjacencyCodec.VARLONG);
+    }
+
+    /**
+     * @param storage   where the compressed pages are kept. For any storage but {@link AdjacencyStorage#HEAP},
+     *                  every thread local copy has to be {@link #flush() flushed} after the import.
+     * @param directory the directory of the temporary file for {@link AdjacencyStorage#MAPPED}, may be null.
+     * @param codec     how the target ids of every adjacency are encoded.
+     */
+    HugeAdjacencyBuilder(
+            AllocationTracker tracker,
+            boolean hasWeights,
+            boolean hasSkipIndex,
+            AdjacencyStorage storage,
+            Path directory,
+            AdjacencyCodec codec) {
+        adjacency = HugeAdjacencyListBuilder.newBuilder(tracker, storage, directory);
+        this.hasWeights = hasWeights;
+        this.hasSkipIndex = hasSkipIndex;
+        this.codec = codec;
         this.tracker = tracker;
     }
 
@@ -41,10 +78,15 @@ class HugeAdjacencyBuilder {
             HugeAdjacencyListBuilder adjacency,
             HugeAdjacencyListBuilder.Allocator allocator,
             AdjacencyCompression compression,
+            boolean hasWeights,
+            boolean hasSkipIndex,
             AllocationTracker tracker) {
         this.adjacency = adjacency;
         this.allocator = allocator;
         this.compression = compression;
+        this.hasWeights = hasWeights;
+        this.hasSkipIndex = hasSkipIndex;
+        this.codec = compression.codec();
         this.tracker = tracker;
     }
 
@@ -52,27 +94,79 @@ class HugeAdjacencyBuilder {
         return new HugeAdjacencyBuilder(
                 adjacency,
                 adjacency.newAllocator(),
-                new AdjacencyCompression(),
+                new AdjacencyCompression(codec),
+                hasWeights,
+                hasSkipIndex,
                 tracker);
     }
 
+    final boolean hasWeights() {
+        return hasWeights;
+    }
+
     final void prepare() {
         allocator.prepare();
     }
 
+    final void flush() {
+        allocator.flush();
+    }
+
     final long applyVariableDeltaEncoding(long[] targets, int length) {
-        compression.copyFrom(targets, length);
+        return applyVariableDeltaEncoding(targets, null, length);
+    }
+
+    final long applyVariableDeltaEncoding(long[] targets, double[] weights, int length) {
+        compression.copyFrom(targets, weights, length);
         int requiredBytes = compression.applyDeltaEncodingAndCalculateRequiredBytes();
+        int degree = compression.degree();
+        if (hasWeights) {
+            requiredBytes += degree << 3;
+        }
+        if (hasSkipIndex) {
+            requiredBytes += AdjacencyCompression.skipIndexBytes(degree);
+        }
         long address = allocator.allocate(4 + requiredBytes);
         int offset = compression.writeDegree(allocator.page, allocator.offset);
-        offset = compression.compress(allocator.page, offset);
+        if (hasWeights) {
+            offset = compression.writeWeights(allocator.page, offset);
+        }
+        if (hasSkipIndex) {
+            offset = compression.compressWithSkipIndex(allocator.page, offset);
+        } else {
+            offset = compression.compress(allocator.page, offset);
+        }
         allocator.offset = offset;
         return address;
     }
 
-    static HugeGraph apply(
+    /**
+     * Build the adjacency list of all thread local copies, they must have been flushed.
+     */
+    final HugeAdjacencyList build() {
+        return adjacency.build(hasWeights, hasSkipIndex, codec);
+    }
+
+    /**
+     * Discard the adjacency of all given builders after their import failed with {@code failure}.
+     * Builders may be {@code null}, failures to discard are added as suppressed to {@code failure}.
+     */
+    static void abort(Throwable failure, HugeAdjacencyBuilder... builders) {
+        for (HugeAdjacencyBuilder builder : builders) {
+            if (builder != null) {
+                try {
+                    builder.adjacency.abort();
+                } catch (RuntimeException e) {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+    }
+
+        static HugeGraph apply(
             final AllocationTracker tracker,
             final HugeIdMap idMapping,
+            final HugeNodePropertyStore nodeProperties,
             final HugeWeightMapping weights,
             final HugeAdjacencyBuilder inAdjacency,
             final HugeAdjacencyBuilder outAdjacency,
@@ -81,15 +175,15 @@ class HugeAdjacencyBuilder {
 
         HugeAdjacencyList outAdjacencyList = null;
         if (outAdjacency != null) {
-            outAdjacencyList = outAdjacency.adjacency.build();
+            outAdjacencyList = outAdjacency.build();
         }
         HugeAdjacencyList inAdjacencyList = null;
         if (inAdjacency != null) {
-            inAdjacencyList = inAdjacency.adjacency.build();
+            inAdjacencyList = inAdjacency.build();
         }
 
         return new HugeGraphImpl(
-                tracker, idMapping, weights,
+                tracker, idMapping, nodeProperties, weights,
                 inAdjacencyList, outAdjacencyList, inOffsets, outOffsets
         );
     }
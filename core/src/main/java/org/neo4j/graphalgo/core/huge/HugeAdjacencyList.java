@@ -18,7 +18,18 @@
  */
 package org.neo4j.graphalgo.core.huge;
 
+import org.neo4j.graphalgo.api.AdjacencyCodec;
+import org.neo4j.graphalgo.core.GraphDimensions;
+import org.neo4j.graphalgo.core.utils.mem.MemoryEstimation;
+import org.neo4j.graphalgo.core.utils.mem.MemoryEstimations;
+import org.neo4j.graphalgo.core.utils.mem.MemoryRange;
+import org.neo4j.graphalgo.core.utils.mem.MemoryTree;
+import org.neo4j.graphalgo.core.utils.paged.HugeLongArray;
 import org.neo4j.graphalgo.core.utils.paged.MemoryUsage;
+import org.neo4j.graphalgo.core.utils.paged.PageUtil;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 
 import static org.neo4j.graphalgo.core.utils.paged.PageUtil.indexInPage;
 import static org.neo4j.graphalgo.core.utils.paged.PageUtil.pageIndex;
@@ -30,13 +41,117 @@ final class HugeAdjacencyList {
     static final long PAGE_MASK = 262143L; // PAGE_SIZE - 1
 
     private final long allocatedMemory;
+    private final boolean hasWeights;
+    private final boolean hasSkipIndex;
+    private final AdjacencyCodec codec;
     private byte[][] pages;
+    private ByteBuffer[] offHeapPages;
 
     HugeAdjacencyList(byte[][] pages) {
+        this(pages, false, false, AdjacencyCodec.VARLONG);
+    }
+
+    /**
+     * Every adjacency is stored as
+     * {@code degree ~ [weight_1 ~ ... ~ weight_n] ~ [skip_1 ~ ... ~ skip_m] ~ targetId_1 ~ ... ~ targetId_n}.
+     *
+     * @param hasWeights   true iff the weights are present, every weight is a fixed-size 8 byte {@code double}.
+     * @param hasSkipIndex true iff the skip index is present, there is one 12 byte entry for
+     *                     every chunk of {@link AdjacencyCompression#CHUNK_SIZE} targets but the first one.
+     * @param codec        how the target ids are encoded, {@link AdjacencyCodec#PFOR} target ids are
+     *                     followed by {@link PForEncoding#PADDING} bytes.
+     */
+    HugeAdjacencyList(byte[][] pages, boolean hasWeights, boolean hasSkipIndex, AdjacencyCodec codec) {
         this.pages = pages;
+        this.hasWeights = hasWeights;
+        this.hasSkipIndex = hasSkipIndex;
+        this.codec = codec;
         this.allocatedMemory = memoryOfPages(pages);
     }
 
+    /**
+     * Same layout as {@link #HugeAdjacencyList(byte[][], boolean, boolean, AdjacencyCodec)}, but the pages are
+     * little endian buffers outside of the Java heap.
+     *
+     * @param offHeapMemory the number of bytes of the pages that have been added to the allocation tracker.
+     */
+    HugeAdjacencyList(
+            ByteBuffer[] pages,
+            long offHeapMemory,
+            boolean hasWeights,
+            boolean hasSkipIndex,
+            AdjacencyCodec codec) {
+        this.offHeapPages = pages;
+        this.hasWeights = hasWeights;
+        this.hasSkipIndex = hasSkipIndex;
+        this.codec = codec;
+        this.allocatedMemory = MemoryUsage.sizeOfObjectArray(pages.length) + offHeapMemory;
+    }
+
+    /**
+     * Estimates the adjacency of one direction with its offsets.
+     * The compressed size of a target id is between one byte and the bytes of the largest node id,
+     * every importing thread may leave the last of its pages partially filled.
+     *
+     * @param relationshipFactor how often every relationship is stored in this direction, 2 for undirected graphs
+     * @param onHeap             false if the pages are stored outside of the Java heap
+     */
+    static MemoryEstimation memoryEstimation(
+            String description,
+            int relationshipFactor,
+            boolean hasWeights,
+            boolean hasSkipIndex,
+            AdjacencyCodec codec,
+            boolean onHeap) {
+        return MemoryEstimations.builder(description)
+                .perNode("offsets", HugeLongArray::estimateMemoryUsage)
+                .add(new MemoryEstimation() {
+                    @Override
+                    public String description() {
+                        return onHeap ? "adjacency" : "adjacency (off heap)";
+                    }
+
+                    @Override
+                    public MemoryTree apply(GraphDimensions dimensions, int concurrency) {
+                        if (!onHeap) {
+                            return MemoryTree.leaf(description(), MemoryRange.empty());
+                        }
+                        long nodeCount = dimensions.hugeNodeCount();
+                        long relCount = dimensions.maxRelCount() * relationshipFactor;
+                        long adjacencies = Math.min(nodeCount, relCount);
+                        // the degree of every node with relationships
+                        long fixed = adjacencies * Integer.BYTES;
+                        if (hasWeights) {
+                            fixed += relCount * Double.BYTES;
+                        }
+                        if (hasSkipIndex) {
+                            fixed += (relCount / AdjacencyCompression.CHUNK_SIZE) * AdjacencyCompression.SKIP_ENTRY_SIZE;
+                        }
+                        long minTargets;
+                        long maxTargets;
+                        int bytesPerTarget = Math.max(1, (Long.SIZE - Long.numberOfLeadingZeros(nodeCount) + 6) / 7);
+                        if (codec == AdjacencyCodec.PFOR) {
+                            fixed += adjacencies * PForEncoding.PADDING;
+                            minTargets = (relCount + Byte.SIZE - 1) / Byte.SIZE;
+                            maxTargets = relCount * Math.max(1, Long.SIZE - Long.numberOfLeadingZeros(nodeCount)) / Byte.SIZE;
+                        } else {
+                            minTargets = relCount;
+                            maxTargets = relCount * bytesPerTarget;
+                        }
+                        long minPages = PageUtil.numPagesFor(fixed + minTargets, PAGE_SHIFT, PAGE_MASK);
+                        long maxPages = PageUtil.numPagesFor(fixed + Math.max(minTargets, maxTargets), PAGE_SHIFT, PAGE_MASK);
+                        if (relCount > 0L) {
+                            maxPages += concurrency;
+                        }
+                        long pageBytes = MemoryUsage.sizeOfByteArray(PAGE_SIZE);
+                        return MemoryTree.leaf(description(), MemoryRange.of(
+                                MemoryUsage.sizeOfObjectArray((int) minPages) + minPages * pageBytes,
+                                MemoryUsage.sizeOfObjectArray((int) maxPages) + maxPages * pageBytes));
+                    }
+                })
+                .build();
+    }
+
     private static long memoryOfPages(byte[][] pages) {
         long memory = MemoryUsage.sizeOfObjectArray(pages.length);
         for (byte[] page : pages) {
@@ -48,20 +163,57 @@ final class HugeAdjacencyList {
     }
 
     int getDegree(long index) {
+        if (pages == null) {
+            return offHeapPages[pageIndex(index, PAGE_SHIFT)].getInt(indexInPage(index, PAGE_MASK));
+        }
         return AdjacencyDecompression.readInt(
                 pages[pageIndex(index, PAGE_SHIFT)],
                 indexInPage(index, PAGE_MASK));
     }
 
+    boolean hasWeights() {
+        return hasWeights;
+    }
+
+    boolean hasSkipIndex() {
+        return hasSkipIndex;
+    }
+
+    AdjacencyCodec codec() {
+        return codec;
+    }
+
+    int numPages() {
+        return pages != null ? pages.length : offHeapPages.length;
+    }
+
+    /**
+     * Return a little endian view of the whole page or {@code null} if the page has never been allocated.
+     */
+    ByteBuffer page(int pageIndex) {
+        if (pages != null) {
+            byte[] page = pages[pageIndex];
+            return page == null ? null : ByteBuffer.wrap(page).order(ByteOrder.LITTLE_ENDIAN);
+        }
+        ByteBuffer page = offHeapPages[pageIndex];
+        if (page == null) {
+            return null;
+        }
+        ByteBuffer duplicate = page.duplicate();
+        duplicate.clear();
+        return duplicate.order(ByteOrder.LITTLE_ENDIAN);
+    }
+
     Cursor newCursor() {
-        return new Cursor(pages);
+        return new Cursor(pages, offHeapPages, hasWeights, hasSkipIndex, codec);
     }
 
     public final long release() {
-        if (pages == null) {
+        if (pages == null && offHeapPages == null) {
             return 0L;
         }
         pages = null;
+        offHeapPages = null;
         return allocatedMemory;
     }
 
@@ -73,14 +225,32 @@ final class HugeAdjacencyList {
 
         // TODO: free
         private byte[][] pages;
+        private ByteBuffer[] offHeapPages;
+        private final boolean hasWeights;
+        private final boolean hasSkipIndex;
         private final AdjacencyDecompression decompress;
 
         private int maxTargets;
         private int currentTarget;
 
-        private Cursor(byte[][] pages) {
+        // exactly one of page and buffer is set, depending on where the pages are stored
+        private byte[] page;
+        private ByteBuffer buffer;
+        private int weightsOffset;
+        private int skipIndexOffset;
+        private int targetsOffset;
+
+        private Cursor(
+                byte[][] pages,
+                ByteBuffer[] offHeapPages,
+                boolean hasWeights,
+                boolean hasSkipIndex,
+                AdjacencyCodec codec) {
             this.pages = pages;
-            this.decompress = new AdjacencyDecompression();
+            this.offHeapPages = offHeapPages;
+            this.hasWeights = hasWeights;
+            this.hasSkipIndex = hasSkipIndex;
+            this.decompress = new AdjacencyDecompression(codec);
         }
 
         /**
@@ -90,6 +260,11 @@ final class HugeAdjacencyList {
             decompress.copyFrom(other.decompress);
             currentTarget = other.currentTarget;
             maxTargets = other.maxTargets;
+            page = other.page;
+            buffer = other.buffer;
+            weightsOffset = other.weightsOffset;
+            skipIndexOffset = other.skipIndexOffset;
+            targetsOffset = other.targetsOffset;
         }
 
         /**
@@ -123,6 +298,35 @@ final class HugeAdjacencyList {
             return decompress.next(remaining);
         }
 
+        /**
+         * Read and decode the next targets into {@code out}, at most {@code length} of them.
+         *
+         * @return the number of targets that have been written to {@code out}, starting at {@code into}
+         */
+        int nextVLongs(long[] out, int into, int length) {
+            int copied = 0;
+            while (copied < length && currentTarget < maxTargets) {
+                int batch = decompress.next(out, into + copied, length - copied, maxTargets - currentTarget);
+                currentTarget += batch;
+                copied += batch;
+            }
+            return copied;
+        }
+
+        /**
+         * Like {@link #nextVLongs(long[], int, int)}, but also reads the inline weights of the targets.
+         * It is undefined behavior if the adjacency list was not built with weights.
+         */
+        int nextVLongs(long[] out, double[] weights, int into, int length) {
+            int first = currentTarget;
+            int copied = nextVLongs(out, into, length);
+            int offset = weightsOffset + (first << 3);
+            for (int i = into; i < into + copied; ++i, offset += 8) {
+                weights[i] = page != null ? AdjacencyDecompression.readDouble(page, offset) : buffer.getDouble(offset);
+            }
+            return copied;
+        }
+
         /**
          * Read and decode target ids until it is strictly larger than (`>`) the provided {@code target}.
          * Might return an id that is less than or equal to {@code target} iff the cursor did exhaust before finding an
@@ -149,10 +353,122 @@ final class HugeAdjacencyList {
             return value;
         }
 
+        /**
+         * Return the weight of the target that was decoded last.
+         * It is undefined behavior if this is called before any target was decoded
+         * or if the adjacency list was not built with weights.
+         */
+        double weight() {
+            int offset = weightsOffset + ((currentTarget - 1) << 3);
+            return page != null ? AdjacencyDecompression.readDouble(page, offset) : buffer.getDouble(offset);
+        }
+
+        /**
+         * Like {@link #advance(long)}, but uses the skip index – if present – to jump
+         * directly to the chunk that might contain the {@code target} instead of decoding every chunk before it.
+         */
+        long seek(long target) {
+            if (hasSkipIndex) {
+                int chunk = findChunk(target);
+                if (chunk > 0 && chunk * AdjacencyCompression.CHUNK_SIZE > currentTarget) {
+                    jumpToChunk(chunk);
+                }
+            }
+            return advance(target);
+        }
+
+        /**
+         * Read and decode the target at position {@code index}, counting from the start of the adjacency.
+         * Uses the skip index – if present – to avoid decoding the chunks before the target.
+         * Returns {@code -1} iff there is no target at the given position.
+         * Afterwards, the cursor continues from the target after {@code index}.
+         */
+        long targetAt(int index) {
+            if (index < currentTarget || index >= maxTargets) {
+                return -1L;
+            }
+            if (hasSkipIndex) {
+                int chunk = index / AdjacencyCompression.CHUNK_SIZE;
+                if (chunk > 0 && chunk * AdjacencyCompression.CHUNK_SIZE > currentTarget) {
+                    jumpToChunk(chunk);
+                }
+            }
+            while (currentTarget < index) {
+                nextVLong();
+            }
+            return nextVLong();
+        }
+
+        /**
+         * Binary search for the largest chunk, whose predecessors last target is smaller than {@code target}.
+         */
+        private int findChunk(long target) {
+            int low = 1;
+            int high = AdjacencyCompression.skipIndexEntries(maxTargets);
+            int chunk = 0;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                long previousLast = readLong(skipEntryOffset(mid));
+                if (previousLast < target) {
+                    chunk = mid;
+                    low = mid + 1;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            return chunk;
+        }
+
+        private void jumpToChunk(int chunk) {
+            int entryOffset = skipEntryOffset(chunk);
+            long previousLast = readLong(entryOffset);
+            int chunkOffset = readInt(8 + entryOffset);
+            int skipped = chunk * AdjacencyCompression.CHUNK_SIZE;
+            if (page != null) {
+                decompress.reset(page, targetsOffset + chunkOffset, previousLast, maxTargets - skipped);
+            } else {
+                decompress.reset(buffer, targetsOffset + chunkOffset, previousLast, maxTargets - skipped);
+            }
+            currentTarget = skipped;
+        }
+
+        private int readInt(int offset) {
+            return page != null ? AdjacencyDecompression.readInt(page, offset) : buffer.getInt(offset);
+        }
+
+        private long readLong(int offset) {
+            return page != null ? AdjacencyDecompression.readLong(page, offset) : buffer.getLong(offset);
+        }
+
+        private int skipEntryOffset(int chunk) {
+            return skipIndexOffset + (chunk - 1) * AdjacencyCompression.SKIP_ENTRY_SIZE;
+        }
+
         Cursor init(long fromIndex) {
-            maxTargets = decompress.reset(
-                    pages[pageIndex(fromIndex, PAGE_SHIFT)],
-                    indexInPage(fromIndex, PAGE_MASK));
+            int pageIndex = pageIndex(fromIndex, PAGE_SHIFT);
+            if (pages != null) {
+                page = pages[pageIndex];
+            } else {
+                buffer = offHeapPages[pageIndex];
+            }
+            int offset = indexInPage(fromIndex, PAGE_MASK);
+            int degree = readInt(offset);
+            offset += 4;
+            weightsOffset = offset;
+            if (hasWeights) {
+                offset += degree << 3;
+            }
+            skipIndexOffset = offset;
+            if (hasSkipIndex) {
+                offset += AdjacencyCompression.skipIndexBytes(degree);
+            }
+            targetsOffset = offset;
+            if (page != null) {
+                decompress.reset(page, offset, 0L, degree);
+            } else {
+                decompress.reset(buffer, offset, 0L, degree);
+            }
+            maxTargets = degree;
             currentTarget = 0;
             return this;
         }
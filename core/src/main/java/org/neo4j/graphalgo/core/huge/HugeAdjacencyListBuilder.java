@@ -18,9 +18,12 @@
  */
 package org.neo4j.graphalgo.core.huge;
 
+import org.neo4j.graphalgo.api.AdjacencyCodec;
+import org.neo4j.graphalgo.api.AdjacencyStorage;
 import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
 import org.neo4j.graphalgo.core.utils.paged.PageUtil;
 
+import java.nio.file.Path;
 import java.util.Arrays;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.ReentrantLock;
@@ -41,6 +44,7 @@ final class HugeAdjacencyListBuilder {
     private static final long PREFETCH_ELEMENTS = ((long) PREFETCH_PAGES) << PAGE_SHIFT;
 
     private final AllocationTracker tracker;
+    private final OffHeapAdjacencyPages offHeapPages;
     private final ReentrantLock growLock;
 
     private final AtomicLong allocIdx;
@@ -50,11 +54,26 @@ final class HugeAdjacencyListBuilder {
     private byte[][] pages;
 
     static HugeAdjacencyListBuilder newBuilder(AllocationTracker tracker) {
-        return new HugeAdjacencyListBuilder(tracker);
+        return new HugeAdjacencyListBuilder(tracker, null);
     }
 
-    private HugeAdjacencyListBuilder(AllocationTracker tracker) {
+    /**
+     * Create a builder that moves every completed page to the given {@code storage}.
+     * Every allocator has to be {@link Allocator#flush() flushed} before the adjacency list is built.
+     */
+    static HugeAdjacencyListBuilder newBuilder(
+            AllocationTracker tracker,
+            AdjacencyStorage storage,
+            Path directory) {
+        if (storage == null || storage == AdjacencyStorage.HEAP) {
+            return newBuilder(tracker);
+        }
+        return new HugeAdjacencyListBuilder(tracker, OffHeapAdjacencyPages.of(storage, directory, tracker));
+    }
+
+    private HugeAdjacencyListBuilder(AllocationTracker tracker, OffHeapAdjacencyPages offHeapPages) {
         this.tracker = tracker;
+        this.offHeapPages = offHeapPages;
         growLock = new ReentrantLock(true);
         size = new AtomicLong();
         capacity = new AtomicLong();
@@ -68,7 +87,29 @@ final class HugeAdjacencyListBuilder {
     }
 
     public HugeAdjacencyList build() {
-        return new HugeAdjacencyList(pages);
+        return build(false, false, AdjacencyCodec.VARLONG);
+    }
+
+    public HugeAdjacencyList build(boolean hasWeights, boolean hasSkipIndex, AdjacencyCodec codec) {
+        if (offHeapPages != null) {
+            return new HugeAdjacencyList(
+                    offHeapPages.build(pages.length),
+                    offHeapPages.allocatedMemory(),
+                    hasWeights,
+                    hasSkipIndex,
+                    codec);
+        }
+        return new HugeAdjacencyList(pages, hasWeights, hasSkipIndex, codec);
+    }
+
+    /**
+     * Discard the pages of a failed import, the builder cannot be used afterwards.
+     * Off-heap pages are freed and the temporary file of {@link AdjacencyStorage#MAPPED} is deleted.
+     */
+    void abort() {
+        if (offHeapPages != null) {
+            offHeapPages.abort();
+        }
     }
 
     private long allocateNewPages(Allocator into) {
@@ -82,9 +123,11 @@ final class HugeAdjacencyListBuilder {
         long intoIndex = allocIdx.getAndAdd(PAGE_SIZE);
         int pageIndex = PageUtil.pageIndex(intoIndex, PAGE_SHIFT);
         grow(intoIndex + PAGE_SIZE, pageIndex);
-        tracker.add(sizeOfByteArray(page.length));
-        pages[pageIndex] = page;
-        into.insertPage(page);
+        if (offHeapPages == null) {
+            tracker.add(sizeOfByteArray(page.length));
+            pages[pageIndex] = page;
+        }
+        into.insertPage(page, pageIndex);
         return intoIndex;
     }
 
@@ -136,7 +179,8 @@ final class HugeAdjacencyListBuilder {
             AllocationTracker tracker = this.tracker;
             tracker.add(sizeOfObjectArrayElements(newPages));
             byte[][] pages = Arrays.copyOf(this.pages, newNumPages);
-            for (int i = currentNumPages; i < newNumPages; i++) {
+            // off-heap pages are written into the allocators buffer and moved out once they are full
+            for (int i = currentNumPages; offHeapPages == null && i < newNumPages; i++) {
                 if (i != skipPage) {
                     tracker.add(PAGE_SIZE_IN_BYTES);
                     pages[i] = new byte[PAGE_SIZE];
@@ -149,6 +193,7 @@ final class HugeAdjacencyListBuilder {
     static final class Allocator {
 
         private final HugeAdjacencyListBuilder builder;
+        private final OffHeapAdjacencyPages offHeapPages;
 
         private long top;
 
@@ -157,11 +202,16 @@ final class HugeAdjacencyListBuilder {
         private int toPageIndex;
         private int currentPageIndex;
 
+        // reused for every page if the pages are stored off-heap
+        private byte[] buffer;
+        private int insertedPageIndex;
+
         public byte[] page;
         public int offset;
 
         private Allocator(final HugeAdjacencyListBuilder builder) {
             this.builder = builder;
+            this.offHeapPages = builder.offHeapPages;
             prevOffset = -1;
         }
 
@@ -195,6 +245,7 @@ final class HugeAdjacencyListBuilder {
                 return address;
             }
             address = top += (long) (PAGE_SIZE - offset);
+            moveOffHeap(currentPageIndex, page, offset);
             if (next()) {
                 // TODO: store and reuse fragments
                 // branch: huge-alloc-fragmentation-recycle
@@ -220,9 +271,40 @@ final class HugeAdjacencyListBuilder {
             return address;
         }
 
+        /**
+         * Move all pages that are still held by this allocator to the off-heap storage.
+         * Must be called once all adjacency lists have been written, the allocator cannot be used afterwards.
+         * Does nothing if the pages are stored on the heap.
+         */
+        void flush() {
+            if (offHeapPages != null && page != null) {
+                reset();
+                moveOffHeap(currentPageIndex, page, offset);
+                page = null;
+                buffer = null;
+            }
+        }
+
+        private void moveOffHeap(int pageIndex, byte[] page, int length) {
+            if (offHeapPages != null) {
+                offHeapPages.write(pageIndex, page, length);
+            }
+        }
+
+        private byte[] pageAt(int pageIndex) {
+            if (offHeapPages == null) {
+                return pages[pageIndex];
+            }
+            if (buffer == null) {
+                buffer = new byte[PAGE_SIZE];
+            }
+            return buffer;
+        }
+
         private boolean reset() {
             if (prevOffset != -1) {
-                page = pages[currentPageIndex];
+                moveOffHeap(insertedPageIndex, page, page.length);
+                page = pageAt(currentPageIndex);
                 offset = prevOffset;
                 prevOffset = -1;
                 return true;
@@ -232,7 +314,7 @@ final class HugeAdjacencyListBuilder {
 
         private boolean next() {
             if (++currentPageIndex <= toPageIndex) {
-                page = pages[currentPageIndex];
+                page = pageAt(currentPageIndex);
                 offset = 0;
                 return true;
             }
@@ -245,14 +327,17 @@ final class HugeAdjacencyListBuilder {
             this.pages = pages;
             currentPageIndex = PageUtil.pageIndex(fromIndex, PAGE_SHIFT);
             toPageIndex = currentPageIndex + PREFETCH_PAGES - 1;
-            page = pages[currentPageIndex];
+            page = pageAt(currentPageIndex);
             offset = 0;
         }
 
-        private void insertPage(byte[] page) {
+        private void insertPage(byte[] page, int pageIndex) {
             if (prevOffset == -1) {
                 prevOffset = offset;
+            } else {
+                moveOffHeap(insertedPageIndex, this.page, this.page.length);
             }
+            insertedPageIndex = pageIndex;
             this.page = page;
             offset = 0;
         }
@@ -0,0 +1,292 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.huge;
+
+import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.core.utils.ParallelUtil;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.DoubleArray;
+import org.neo4j.graphalgo.core.utils.paged.HugeLongArray;
+import org.neo4j.graphalgo.core.utils.paged.PagedAtomicIntegerArray;
+import org.neo4j.graphdb.Direction;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Builds the incoming adjacency of a graph by transposing its outgoing adjacency in memory,
+ * instead of reading every relationship from the store a second time.
+ * <p>
+ * The transposition runs in three parallel passes over the compressed outgoing adjacency:
+ * the first one counts the in-degree of every node, the second one scatters the source node
+ * (and inline weight) of every relationship into a flat buffer grouped by target node, and the
+ * last one compresses the group of every target into the incoming adjacency.
+ * The buffer holds one long per relationship, plus one double for inline weights, while the transposition runs.
+ * <p>
+ * A weight map is shared by both directions and is kept as it is.
+ */
+final class HugeAdjacencyTranspose {
+
+    private static final int BATCH_SIZE = 4096;
+
+    private final HugeGraphImpl graph;
+    private final long nodeCount;
+    private final int concurrency;
+    private final ExecutorService executor;
+    private final AllocationTracker tracker;
+    private final boolean inlineWeights;
+
+    private HugeAdjacencyTranspose(
+            HugeGraphImpl graph,
+            int concurrency,
+            ExecutorService executor,
+            AllocationTracker tracker) {
+        this.graph = graph;
+        this.nodeCount = graph.nodeCount();
+        this.concurrency = concurrency;
+        this.executor = executor;
+        this.tracker = tracker;
+        this.inlineWeights = graph.adjacency(Direction.OUTGOING).hasWeights();
+    }
+
+    /**
+     * @param outgoing     a graph with only an outgoing adjacency
+     * @param inAdjacency  the builder for the incoming adjacency, it must use the same weight encoding as the outgoing one
+     * @param keepOutgoing false if the outgoing adjacency is released once the incoming one is built
+     */
+    static HugeGraphImpl withIncoming(
+            HugeGraphImpl outgoing,
+            HugeAdjacencyBuilder inAdjacency,
+            boolean keepOutgoing,
+            int concurrency,
+            ExecutorService executor,
+            AllocationTracker tracker) {
+        HugeLongArray inOffsets = HugeLongArray.newArray(outgoing.nodeCount(), tracker);
+        try {
+            new HugeAdjacencyTranspose(outgoing, concurrency, executor, tracker).transpose(inAdjacency, inOffsets);
+        } catch (RuntimeException | Error e) {
+            HugeAdjacencyBuilder.abort(e, inAdjacency);
+            throw e;
+        }
+
+        HugeAdjacencyList outAdjacencyList = outgoing.adjacency(Direction.OUTGOING);
+        HugeLongArray outOffsets = outgoing.offsets(Direction.OUTGOING);
+        if (!keepOutgoing) {
+            tracker.remove(outAdjacencyList.release());
+            tracker.remove(outOffsets.release());
+            outAdjacencyList = null;
+            outOffsets = null;
+        }
+        return new HugeGraphImpl(
+                tracker,
+                outgoing.idMapping(),
+                outgoing.nodePropertyStore(),
+                outgoing.weights(),
+                inAdjacency.build(),
+                outAdjacencyList,
+                inOffsets,
+                outOffsets);
+    }
+
+    private void transpose(HugeAdjacencyBuilder inAdjacency, HugeLongArray inOffsets) {
+        PagedAtomicIntegerArray degrees = PagedAtomicIntegerArray.newArray(nodeCount, tracker);
+        runBatches(copy -> new CountDegrees(copy, degrees));
+
+        // the first index of every target in the flat buffer
+        HugeLongArray starts = HugeLongArray.newArray(nodeCount + 1L, tracker);
+        long relationshipCount = 0L;
+        for (long node = 0L; node < nodeCount; node++) {
+            starts.set(node, relationshipCount);
+            relationshipCount += degrees.get(node);
+        }
+        starts.set(nodeCount, relationshipCount);
+
+        if (relationshipCount > 0L) {
+            HugeLongArray sources = HugeLongArray.newArray(relationshipCount, tracker);
+            DoubleArray weights = inlineWeights ? DoubleArray.newArray(relationshipCount, tracker) : null;
+            runBatches(copy -> new Scatter(copy, degrees, starts, sources, weights));
+            runBatches(copy -> new Compress(inAdjacency.threadLocalCopy(), inOffsets, starts, sources, weights));
+            tracker.remove(sources.release());
+            if (weights != null) {
+                tracker.remove(weights.release());
+            }
+        }
+        tracker.remove(starts.release());
+        tracker.remove(degrees.release());
+    }
+
+    private interface BatchTask {
+        void run(long start, long end);
+
+        default void finish() {
+        }
+    }
+
+    private interface BatchTaskFactory {
+        BatchTask newTask(HugeGraph copy);
+    }
+
+    /**
+     * Run one task per thread, every task takes batches of nodes until all nodes are processed.
+     */
+    private void runBatches(BatchTaskFactory factory) {
+        AtomicLong nextBatch = new AtomicLong();
+        List<Runnable> tasks = new ArrayList<>(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            BatchTask task = factory.newTask(graph.concurrentCopy());
+            tasks.add(() -> {
+                long start;
+                while ((start = nextBatch.getAndAdd(BATCH_SIZE)) < nodeCount) {
+                    task.run(start, Math.min(start + BATCH_SIZE, nodeCount));
+                }
+                task.finish();
+            });
+        }
+        ParallelUtil.run(tasks, executor);
+    }
+
+    private static final class CountDegrees implements BatchTask {
+        private final HugeGraph graph;
+        private final PagedAtomicIntegerArray degrees;
+
+        private CountDegrees(HugeGraph graph, PagedAtomicIntegerArray degrees) {
+            this.graph = graph;
+            this.degrees = degrees;
+        }
+
+        @Override
+        public void run(long start, long end) {
+            for (long node = start; node < end; node++) {
+                graph.forEachRelationship(node, Direction.OUTGOING, (s, t) -> {
+                    degrees.add(t, 1);
+                    return true;
+                });
+            }
+        }
+    }
+
+    /**
+     * Fills the group of every target from its end, the degrees are counted down to zero.
+     */
+    private static final class Scatter implements BatchTask {
+        private final HugeGraph graph;
+        private final PagedAtomicIntegerArray degrees;
+        private final HugeLongArray starts;
+        private final HugeLongArray sources;
+        private final DoubleArray weights;
+
+        private Scatter(
+                HugeGraph graph,
+                PagedAtomicIntegerArray degrees,
+                HugeLongArray starts,
+                HugeLongArray sources,
+                DoubleArray weights) {
+            this.graph = graph;
+            this.degrees = degrees;
+            this.starts = starts;
+            this.sources = sources;
+            this.weights = weights;
+        }
+
+        @Override
+        public void run(long start, long end) {
+            for (long node = start; node < end; node++) {
+                if (weights != null) {
+                    graph.forEachRelationship(node, Direction.OUTGOING, (s, t, w) -> {
+                        long index = nextIndex(t);
+                        sources.set(index, s);
+                        weights.set(index, w);
+                        return true;
+                    });
+                } else {
+                    graph.forEachRelationship(node, Direction.OUTGOING, (s, t) -> {
+                        sources.set(nextIndex(t), s);
+                        return true;
+                    });
+                }
+            }
+        }
+
+        private long nextIndex(long target) {
+            return starts.get(target) + degrees.getAndAdd(target, -1) - 1;
+        }
+    }
+
+    private static final class Compress implements BatchTask {
+        private final HugeAdjacencyBuilder builder;
+        private final HugeLongArray offsets;
+        private final HugeLongArray starts;
+        private final HugeLongArray sources;
+        private final DoubleArray weights;
+
+        private long[] targets = new long[0];
+        private double[] targetWeights = new double[0];
+
+        private Compress(
+                HugeAdjacencyBuilder builder,
+                HugeLongArray offsets,
+                HugeLongArray starts,
+                HugeLongArray sources,
+                DoubleArray weights) {
+            this.builder = builder;
+            this.offsets = offsets;
+            this.starts = starts;
+            this.sources = sources;
+            this.weights = weights;
+            builder.prepare();
+        }
+
+        @Override
+        public void run(long start, long end) {
+            for (long node = start; node < end; node++) {
+                long first = starts.get(node);
+                int degree = (int) (starts.get(node + 1L) - first);
+                if (degree == 0) {
+                    continue;
+                }
+                if (targets.length < degree) {
+                    targets = new long[degree];
+                    if (weights != null) {
+                        targetWeights = new double[degree];
+                    }
+                }
+                for (int i = 0; i < degree; i++) {
+                    targets[i] = sources.get(first + i);
+                }
+                long adjacencyIdx;
+                if (weights != null) {
+                    for (int i = 0; i < degree; i++) {
+                        targetWeights[i] = weights.get(first + i);
+                    }
+                    adjacencyIdx = builder.applyVariableDeltaEncoding(targets, targetWeights, degree);
+                } else {
+                    adjacencyIdx = builder.applyVariableDeltaEncoding(targets, degree);
+                }
+                offsets.set(node, adjacencyIdx);
+            }
+        }
+
+        @Override
+        public void finish() {
+            builder.flush();
+        }
+    }
+}
@@ -0,0 +1,616 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.huge;
+
+import com.carrotsearch.hppc.LongArrayList;
+import com.carrotsearch.hppc.cursors.LongCursor;
+import org.neo4j.graphalgo.api.GraphFactory;
+import org.neo4j.graphalgo.api.GraphSetup;
+import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.api.HugeWeightMapping;
+import org.neo4j.graphalgo.core.HugeNodePropertyStore;
+import org.neo4j.graphalgo.core.HugeNullWeightMap;
+import org.neo4j.graphalgo.core.HugeWeightMap;
+import org.neo4j.graphalgo.core.utils.ParallelUtil;
+import org.neo4j.graphalgo.core.utils.mem.MemoryEstimation;
+import org.neo4j.graphalgo.core.utils.mem.MemoryEstimations;
+import org.neo4j.graphalgo.core.utils.mem.MemoryRange;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.DoubleArray;
+import org.neo4j.graphalgo.core.utils.paged.HugeLongArray;
+import org.neo4j.graphdb.Direction;
+import org.neo4j.graphdb.Result;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import static org.neo4j.graphalgo.core.utils.paged.MemoryUsage.sizeOfDoubleArray;
+import static org.neo4j.graphalgo.core.utils.paged.MemoryUsage.sizeOfLongArray;
+
+/**
+ * Loads a {@link HugeGraph} from a node statement returning an {@code id} column
+ * and a relationship statement returning {@code source}, {@code target} and an optional
+ * {@code weight} column, like the {@link org.neo4j.graphalgo.core.heavyweight.HeavyCypherGraphFactory}.
+ * <p>
+ * If both statements use {@code skip} and {@code limit} parameters, they are executed
+ * in parallel batches. Relationship rows are buffered in pages and grouped by node afterwards,
+ * so that every adjacency list is compressed in one go, like in the {@link HugeGraphFactory}.
+ */
+public final class HugeCypherGraphFactory extends GraphFactory {
+
+    public static final String TYPE = "huge-cypher";
+
+    private static final int NO_BATCH = -1;
+    private static final String LIMIT = "limit";
+    private static final String SKIP = "skip";
+
+    public HugeCypherGraphFactory(GraphDatabaseAPI api, GraphSetup setup) {
+        super(api, setup);
+    }
+
+    /**
+     * The graph is only known after running the queries, the estimation assumes that they return
+     * every node and relationship that is counted by the store statistics.
+     * The relationship rows are buffered and grouped by node before they are compressed.
+     */
+    @Override
+    public MemoryEstimation memoryEstimation() {
+        boolean loadWeights = setup.shouldLoadRelationshipWeight();
+        // the directions are grouped one after the other, an undirected graph groups every row twice
+        int directions = setup.loadAsUndirected ? 2 : 1;
+        MemoryEstimations.Builder builder = MemoryEstimations.builder(HugeGraph.class)
+                .add(HugeIdMap.memoryEstimation());
+        HugeGraphFactory.addRelationshipEstimations(builder, setup, loadWeights);
+        return builder
+                .perGraphDimension("relationship rows", dimensions -> MemoryRange.of(
+                        dimensions.maxRelCount() * (loadWeights ? 24L : 16L)))
+                .perGraphDimension("grouped relationships", dimensions -> {
+                    long rows = dimensions.maxRelCount() * directions;
+                    long grouped = HugeLongArray.estimateMemoryUsage(dimensions.hugeNodeCount()) +
+                            HugeLongArray.estimateMemoryUsage(rows);
+                    if (loadWeights) {
+                        grouped += DoubleArray.estimateMemoryUsage(rows);
+                    }
+                    return MemoryRange.of(grouped);
+                })
+                .build();
+    }
+
+    @Override
+    public HugeGraph build() {
+        AllocationTracker tracker = setup.tracker;
+        int batchSize = setup.batchSize;
+
+        HugeIdMap idMap = canBatchLoad(batchSize, setup.startLabel)
+                ? batchLoadNodes(batchSize, tracker)
+                : loadNodes(tracker);
+        List<RelationshipRows> relationships = canBatchLoad(batchSize, setup.relationshipType)
+                ? batchLoadRelationships(batchSize, idMap)
+                : Collections.singletonList(loadRelationships(0L, NO_BATCH, idMap));
+
+        HugeGraph graph = buildGraph(idMap, relationships, tracker);
+        progressLogger.logDone(tracker);
+        return graph;
+    }
+
+    private HugeIdMap loadNodes(AllocationTracker tracker) {
+        HugeIdMap idMap = newIdMap(tracker);
+        api.execute(setup.startLabel, params(0L, NO_BATCH)).accept(row -> {
+            addNode(idMap, row.getNumber("id").longValue());
+            return true;
+        });
+        return idMap;
+    }
+
+    private HugeIdMap batchLoadNodes(int batchSize, AllocationTracker tracker) {
+        ExecutorService pool = setup.executor;
+        int threads = setup.concurrency();
+
+        HugeIdMap idMap = newIdMap(tracker);
+
+        long offset = 0;
+        List<Future<LongArrayList>> futures = new ArrayList<>(threads);
+        boolean working = true;
+        do {
+            long skip = offset;
+            futures.add(pool.submit(() -> loadNodeIds(skip, batchSize)));
+            offset += batchSize;
+            if (futures.size() >= threads) {
+                // merge in submission order to keep the ids in the order of the statement
+                for (Future<LongArrayList> future : futures) {
+                    LongArrayList nodeIds = get("Error during loading nodes", future);
+                    working = !nodeIds.isEmpty();
+                    for (LongCursor cursor : nodeIds) {
+                        addNode(idMap, cursor.value);
+                    }
+                }
+                futures.clear();
+            }
+        } while (working);
+
+        return idMap;
+    }
+
+    private LongArrayList loadNodeIds(long offset, int batchSize) {
+        LongArrayList nodeIds = new LongArrayList(batchSize);
+        api.execute(setup.startLabel, params(offset, batchSize)).accept(row -> {
+            nodeIds.add(row.getNumber("id").longValue());
+            return true;
+        });
+        return nodeIds;
+    }
+
+    private HugeIdMap newIdMap(AllocationTracker tracker) {
+        // the node count of the statement is unknown upfront, but it can't exceed the highest node id
+        long capacity = dimensions.allNodesCount() + 1L;
+        return new HugeIdMap(capacity, capacity, tracker);
+    }
+
+    private void addNode(HugeIdMap idMap, long nodeId) {
+        // the statement might return a node more than once
+        if (nodeId >= 0L && nodeId <= dimensions.allNodesCount() && !idMap.contains(nodeId)) {
+            idMap.add(nodeId);
+        }
+    }
+
+    private List<RelationshipRows> batchLoadRelationships(int batchSize, HugeIdMap idMap) {
+        ExecutorService pool = setup.executor;
+        int threads = setup.concurrency();
+
+        List<RelationshipRows> relationships = new ArrayList<>();
+        long offset = 0;
+        List<Future<RelationshipRows>> futures = new ArrayList<>(threads);
+        boolean working = true;
+        do {
+            long skip = offset;
+            futures.add(pool.submit(() -> loadRelationships(skip, batchSize, idMap)));
+            offset += batchSize;
+            if (futures.size() >= threads) {
+                for (Future<RelationshipRows> future : futures) {
+                    RelationshipRows result = get("Error during loading relationships", future);
+                    working = result.rows > 0;
+                    if (result.size > 0) {
+                        relationships.add(result);
+                    }
+                }
+                futures.clear();
+            }
+        } while (working);
+
+        return relationships;
+    }
+
+    private RelationshipRows loadRelationships(long offset, int batchSize, HugeIdMap idMap) {
+        boolean loadWeights = setup.shouldLoadRelationshipWeight();
+        double defaultWeight = setup.relationDefaultWeight;
+        RelationshipRows relationships = new RelationshipRows(loadWeights, setup.tracker);
+
+        api.execute(setup.relationshipType, params(offset, batchSize)).accept(row -> {
+            relationships.rows++;
+            long source = mappedId(idMap, row.getNumber("source").longValue());
+            if (source == HugeIdMap.NOT_FOUND) {
+                return true;
+            }
+            long target = mappedId(idMap, row.getNumber("target").longValue());
+            if (target == HugeIdMap.NOT_FOUND) {
+                return true;
+            }
+            double weight = defaultWeight;
+            if (loadWeights) {
+                Object value = getProperty(row, "weight");
+                if (value instanceof Number) {
+                    weight = ((Number) value).doubleValue();
+                }
+            }
+            relationships.add(source, target, weight);
+            return true;
+        });
+        return relationships;
+    }
+
+    private long mappedId(HugeIdMap idMap, long nodeId) {
+        if (nodeId < 0L || nodeId > dimensions.allNodesCount()) {
+            return HugeIdMap.NOT_FOUND;
+        }
+        return idMap.toHugeMappedNodeId(nodeId);
+    }
+
+    private HugeGraph buildGraph(
+            HugeIdMap idMap,
+            List<RelationshipRows> relationships,
+            AllocationTracker tracker) {
+        long nodeCount = idMap.nodeCount();
+        boolean loadWeights = setup.shouldLoadRelationshipWeight();
+        boolean inlineWeights = loadWeights && setup.inlineRelationshipWeights;
+
+        HugeWeightMap weightMap = null;
+        HugeWeightMapping weights;
+        if (loadWeights && !inlineWeights) {
+            weightMap = new HugeWeightMap(nodeCount, setup.relationDefaultWeight, tracker);
+            weights = weightMap;
+        } else {
+            weights = new HugeNullWeightMap(setup.relationDefaultWeight);
+        }
+
+        HugeLongArray inOffsets = null;
+        HugeLongArray outOffsets = null;
+        HugeAdjacencyBuilder inAdjacency = null;
+        HugeAdjacencyBuilder outAdjacency = null;
+        if (setup.loadAsUndirected) {
+            outOffsets = HugeLongArray.newArray(nodeCount, tracker);
+            outAdjacency = newAdjacencyBuilder(inlineWeights, tracker);
+            importAdjacency(relationships, nodeCount, Direction.BOTH, outAdjacency, outOffsets, weightMap, tracker);
+        } else {
+            if (setup.loadOutgoing) {
+                outOffsets = HugeLongArray.newArray(nodeCount, tracker);
+                outAdjacency = newAdjacencyBuilder(inlineWeights, tracker);
+                importAdjacency(relationships, nodeCount, Direction.OUTGOING, outAdjacency, outOffsets, weightMap, tracker);
+            }
+            if (setup.loadIncoming) {
+                inOffsets = HugeLongArray.newArray(nodeCount, tracker);
+                inAdjacency = newAdjacencyBuilder(inlineWeights, tracker);
+                // the weight map is keyed by (source, target), it only needs to be filled once
+                HugeWeightMap inWeightMap = setup.loadOutgoing ? null : weightMap;
+                importAdjacency(relationships, nodeCount, Direction.INCOMING, inAdjacency, inOffsets, inWeightMap, tracker);
+            }
+        }
+        for (RelationshipRows rows : relationships) {
+            rows.release();
+        }
+
+        return HugeAdjacencyBuilder.apply(
+                tracker,
+                idMap,
+                HugeNodePropertyStore.EMPTY,
+                weights,
+                inAdjacency,
+                outAdjacency,
+                inOffsets,
+                outOffsets
+        );
+    }
+
+    private HugeAdjacencyBuilder newAdjacencyBuilder(boolean inlineWeights, AllocationTracker tracker) {
+        return new HugeAdjacencyBuilder(
+                tracker,
+                inlineWeights,
+                setup.adjacencySkipIndex,
+                setup.adjacencyStorage,
+                setup.adjacencyStorageDirectory,
+                setup.adjacencyCodec);
+    }
+
+    /**
+     * Groups the buffered relationships by the node they belong to in the given direction
+     * and compresses the adjacency list of every node.
+     * The grouping is a counting sort: the degrees are turned into end positions,
+     * so the adjacency of node {@code n} ends up in {@code [ends[n - 1], ends[n])}.
+     */
+    private void importAdjacency(
+            List<RelationshipRows> relationships,
+            long nodeCount,
+            Direction direction,
+            HugeAdjacencyBuilder adjacency,
+            HugeLongArray offsets,
+            HugeWeightMap weightMap,
+            AllocationTracker tracker) {
+        boolean withWeights = setup.shouldLoadRelationshipWeight();
+        boolean addSource = direction != Direction.INCOMING;
+        boolean addTarget = direction != Direction.OUTGOING;
+
+        HugeLongArray ends = HugeLongArray.newArray(nodeCount, tracker);
+        for (RelationshipRows rows : relationships) {
+            rows.forEach((source, target, weight) -> {
+                if (addSource) {
+                    ends.addTo(source, 1L);
+                }
+                if (addTarget) {
+                    ends.addTo(target, 1L);
+                }
+            });
+        }
+        long total = 0L;
+        for (long node = 0L; node < nodeCount; ++node) {
+            long degree = ends.get(node);
+            ends.set(node, total);
+            total += degree;
+        }
+
+        HugeLongArray targets = HugeLongArray.newArray(total, tracker);
+        DoubleArray weights = withWeights ? DoubleArray.newArray(total, tracker) : null;
+        for (RelationshipRows rows : relationships) {
+            rows.forEach((source, target, weight) -> {
+                if (addSource) {
+                    long index = ends.get(source);
+                    ends.set(source, index + 1L);
+                    targets.set(index, target);
+                    if (weights != null) {
+                        weights.set(index, weight);
+                    }
+                }
+                if (addTarget) {
+                    long index = ends.get(target);
+                    ends.set(target, index + 1L);
+                    targets.set(index, source);
+                    if (weights != null) {
+                        weights.set(index, weight);
+                    }
+                }
+            });
+        }
+
+        int concurrency = setup.concurrency();
+        long batchSize = ParallelUtil.adjustBatchSize(nodeCount, concurrency, 10_000L);
+        List<Runnable> tasks = new ArrayList<>();
+        for (long start = 0L; start < nodeCount; start += batchSize) {
+            long end = Math.min(nodeCount, start + batchSize);
+            tasks.add(new CompressAdjacency(
+                    start,
+                    end,
+                    ends,
+                    targets,
+                    weights,
+                    adjacency,
+                    offsets,
+                    weightMap,
+                    direction == Direction.INCOMING,
+                    setup.accumulateWeights));
+        }
+        ParallelUtil.run(tasks, threadPool);
+
+        ends.release();
+        targets.release();
+        if (weights != null) {
+            weights.release();
+        }
+    }
+
+    private <T> T get(String message, Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            throw new RuntimeException("Interrupted: " + message, e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException(message, e);
+        }
+    }
+
+    private boolean canBatchLoad(int batchSize, String statement) {
+        return setup.loadConcurrent() && batchSize > 0 &&
+                (statement.contains("{" + LIMIT + "}") || statement.contains("$" + LIMIT)) &&
+                (statement.contains("{" + SKIP + "}") || statement.contains("$" + SKIP));
+    }
+
+    private Object getProperty(Result.ResultRow row, String propertyName) {
+        try {
+            return row.get(propertyName);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private Map<String, Object> params(long offset, int batchSize) {
+        Map<String, Object> params = new HashMap<>(setup.params);
+        params.put(SKIP, offset);
+        if (batchSize > 0) {
+            params.put(LIMIT, batchSize);
+        }
+        return params;
+    }
+
+    private static final class CompressAdjacency implements Runnable {
+        private final long startNode;
+        private final long endNode;
+        private final HugeLongArray ends;
+        private final HugeLongArray targets;
+        private final DoubleArray weights;
+        private final HugeAdjacencyBuilder adjacency;
+        private final HugeLongArray offsets;
+        private final HugeWeightMap weightMap;
+        private final boolean reverseWeightKey;
+        private final boolean accumulateWeights;
+
+        private long[] targetBuffer;
+        private double[] weightBuffer;
+
+        CompressAdjacency(
+                long startNode,
+                long endNode,
+                HugeLongArray ends,
+                HugeLongArray targets,
+                DoubleArray weights,
+                HugeAdjacencyBuilder adjacency,
+                HugeLongArray offsets,
+                HugeWeightMap weightMap,
+                boolean reverseWeightKey,
+                boolean accumulateWeights) {
+            this.startNode = startNode;
+            this.endNode = endNode;
+            this.ends = ends;
+            this.targets = targets;
+            this.weights = weights;
+            this.adjacency = adjacency.threadLocalCopy();
+            this.offsets = offsets;
+            this.weightMap = weightMap;
+            this.reverseWeightKey = reverseWeightKey;
+            this.accumulateWeights = accumulateWeights && weights != null;
+            this.targetBuffer = new long[0];
+            this.weightBuffer = weights != null ? new double[0] : null;
+        }
+
+        @Override
+        public void run() {
+            adjacency.prepare();
+            for (long node = startNode; node < endNode; ++node) {
+                long start = node == 0L ? 0L : ends.get(node - 1L);
+                int degree = Math.toIntExact(ends.get(node) - start);
+                if (degree > 0) {
+                    degree = copyAdjacency(start, degree);
+                    if (weightMap != null) {
+                        putWeights(node, degree);
+                    }
+                    long adjacencyIdx = adjacency.hasWeights()
+                            ? adjacency.applyVariableDeltaEncoding(targetBuffer, weightBuffer, degree)
+                            : adjacency.applyVariableDeltaEncoding(targetBuffer, degree);
+                    if (adjacencyIdx != 0L) {
+                        offsets.set(node, adjacencyIdx);
+                    }
+                }
+            }
+            adjacency.flush();
+        }
+
+        private int copyAdjacency(long start, int degree) {
+            if (targetBuffer.length < degree) {
+                int newSize = Math.max(32, degree);
+                targetBuffer = new long[newSize];
+                if (weightBuffer != null) {
+                    weightBuffer = new double[newSize];
+                }
+            }
+            for (int i = 0; i < degree; ++i) {
+                targetBuffer[i] = targets.get(start + i);
+            }
+            if (weightBuffer == null) {
+                return degree;
+            }
+            for (int i = 0; i < degree; ++i) {
+                weightBuffer[i] = weights.get(start + i);
+            }
+            if (accumulateWeights) {
+                return sumParallelRelationships(degree);
+            }
+            return degree;
+        }
+
+        /**
+         * Sorts the adjacency and merges relationships with the same target into one,
+         * whose weight is the sum of all their weights.
+         */
+        private int sumParallelRelationships(int degree) {
+            AdjacencyCompression.sortWithWeights(targetBuffer, weightBuffer, 0, degree - 1);
+            int length = 1;
+            for (int i = 1; i < degree; ++i) {
+                if (targetBuffer[i] == targetBuffer[length - 1]) {
+                    weightBuffer[length - 1] += weightBuffer[i];
+                } else {
+                    targetBuffer[length] = targetBuffer[i];
+                    weightBuffer[length] = weightBuffer[i];
+                    ++length;
+                }
+            }
+            return length;
+        }
+
+        private void putWeights(long node, int degree) {
+            double defaultWeight = weightMap.defaultValue();
+            for (int i = 0; i < degree; ++i) {
+                double weight = weightBuffer[i];
+                if (weight != defaultWeight) {
+                    if (reverseWeightKey) {
+                        weightMap.put(targetBuffer[i], node, weight);
+                    } else {
+                        weightMap.put(node, targetBuffer[i], weight);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Buffers mapped relationships in pages of plain arrays,
+     * the total number of relationships might exceed the size of a single array.
+     */
+    private static final class RelationshipRows {
+        private static final int PAGE_SHIFT = 14;
+        private static final int PAGE_SIZE = 1 << PAGE_SHIFT;
+        private static final int PAGE_MASK = PAGE_SIZE - 1;
+
+        private final List<long[]> sources;
+        private final List<long[]> targets;
+        private final List<double[]> weights;
+        private final AllocationTracker tracker;
+
+        // number of rows returned by the statement, including the ones that have been skipped
+        private long rows;
+        // number of buffered relationships
+        private long size;
+
+        RelationshipRows(boolean withWeights, AllocationTracker tracker) {
+            this.tracker = tracker;
+            sources = new ArrayList<>();
+            targets = new ArrayList<>();
+            weights = withWeights ? new ArrayList<>() : null;
+        }
+
+        void add(long source, long target, double weight) {
+            int indexInPage = (int) (size & PAGE_MASK);
+            if (indexInPage == 0) {
+                sources.add(new long[PAGE_SIZE]);
+                targets.add(new long[PAGE_SIZE]);
+                tracker.add(2L * sizeOfLongArray(PAGE_SIZE));
+                if (weights != null) {
+                    weights.add(new double[PAGE_SIZE]);
+                    tracker.add(sizeOfDoubleArray(PAGE_SIZE));
+                }
+            }
+            int pageIndex = (int) (size >>> PAGE_SHIFT);
+            sources.get(pageIndex)[indexInPage] = source;
+            targets.get(pageIndex)[indexInPage] = target;
+            if (weights != null) {
+                weights.get(pageIndex)[indexInPage] = weight;
+            }
+            ++size;
+        }
+
+        void forEach(RelationshipConsumer consumer) {
+            for (int pageIndex = 0; pageIndex < sources.size(); ++pageIndex) {
+                long[] sourcePage = sources.get(pageIndex);
+                long[] targetPage = targets.get(pageIndex);
+                double[] weightPage = weights != null ? weights.get(pageIndex) : null;
+                int length = (int) Math.min(PAGE_SIZE, size - ((long) pageIndex << PAGE_SHIFT));
+                for (int i = 0; i < length; ++i) {
+                    consumer.accept(sourcePage[i], targetPage[i], weightPage != null ? weightPage[i] : 0.0);
+                }
+            }
+        }
+
+        void release() {
+            long pages = sources.size();
+            tracker.remove(pages * 2L * sizeOfLongArray(PAGE_SIZE));
+            if (weights != null) {
+                tracker.remove(pages * sizeOfDoubleArray(PAGE_SIZE));
+                weights.clear();
+            }
+            sources.clear();
+            targets.clear();
+        }
+    }
+
+    private interface RelationshipConsumer {
+        void accept(long source, long target, double weight);
+    }
+}
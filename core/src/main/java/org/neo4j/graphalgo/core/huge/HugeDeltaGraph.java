@@ -0,0 +1,1022 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.huge;
+
+import org.neo4j.collection.primitive.PrimitiveLongIterable;
+import org.neo4j.collection.primitive.PrimitiveLongIterator;
+import org.neo4j.graphalgo.api.AdjacencyStorage;
+import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.api.HugeNeighbourCursor;
+import org.neo4j.graphalgo.api.HugeRelationshipConsumer;
+import org.neo4j.graphalgo.api.HugeWeightedRelationshipConsumer;
+import org.neo4j.graphalgo.api.RelationshipConsumer;
+import org.neo4j.graphalgo.api.RelationshipIntersect;
+import org.neo4j.graphalgo.api.WeightedRelationshipConsumer;
+import org.neo4j.graphalgo.core.HugeNodePropertyStore;
+import org.neo4j.graphalgo.core.utils.LazyBatchCollection;
+import org.neo4j.graphalgo.core.utils.Pools;
+import org.neo4j.graphalgo.core.utils.RawValues;
+import org.neo4j.graphalgo.core.utils.container.PersistentLongMap;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.HugeLongArray;
+import org.neo4j.graphdb.Direction;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.LongPredicate;
+
+/**
+ * A huge graph that is kept up to date with the transactions that are committed after it has been loaded.
+ * <p>
+ * Committed changes are not written into the compressed adjacency of the loaded graph, they are
+ * collected in an overlay of inserted and deleted targets per node. Reads merge the loaded graph with
+ * the overlay, inserted relationships are visited after the loaded ones.
+ * {@link #compact()} merges the overlay into a new adjacency, which happens on demand and
+ * whenever the number of pending changes exceeds the compaction threshold.
+ * <p>
+ * Every commit publishes a new immutable version of the overlay. The versions share their maps, which are
+ * persistent, so that a commit only copies the entries it touches. Algorithms run on a {@link #snapshot()}
+ * that pins the version at the time it was taken, so that they see a consistent graph while transactions
+ * keep committing. Nodes that are deleted – or lose the label of the graph – keep their id until the next
+ * compaction. Snapshots only contain versions without created or deleted nodes, which keeps node ids dense
+ * and node properties available for every node.
+ * <p>
+ * A compaction replaces the loaded graph, the replaced graph is released as soon as no snapshot uses it
+ * anymore. Reading the incremental graph itself can therefore race with a compaction, algorithms should
+ * run on a snapshot and release it when they are done.
+ * <p>
+ * Parallel relationships are collapsed as during loading, the weight of an inserted
+ * relationship is the weight of the first relationship between its nodes.
+ */
+public final class HugeDeltaGraph implements HugeGraph {
+
+    private final HugeDeltaGraphUpdater updater;
+    private final long compactionThreshold;
+    private final Object compactionLock;
+    private final AtomicBoolean compactionScheduled;
+    // the pin of a snapshot on its loaded graph, null for the incremental graph and concurrent copies
+    private final Pins pinned;
+
+    private volatile Overlay overlay;
+    // the latest version without created or deleted nodes, snapshots use it until the next compaction
+    private volatile Overlay dense;
+    // changes committed while a compaction is running, they are replayed onto the compacted graph
+    private List<HugeDeltaGraphUpdater.Changes> replay;
+    private volatile boolean released;
+    private boolean canRelease = true;
+
+    HugeDeltaGraph(
+            HugeGraphImpl base,
+            boolean undirected,
+            double defaultWeight,
+            HugeDeltaGraphUpdater updater,
+            long compactionThreshold) {
+        this.updater = updater;
+        this.compactionThreshold = compactionThreshold;
+        this.compactionLock = new Object();
+        this.compactionScheduled = new AtomicBoolean();
+        this.pinned = null;
+        this.overlay = new Overlay(base, new Pins(base), undirected, defaultWeight);
+        this.dense = overlay;
+    }
+
+    private HugeDeltaGraph(Overlay version, Pins pinned) {
+        this.updater = null;
+        this.compactionThreshold = 0L;
+        this.compactionLock = null;
+        this.compactionScheduled = null;
+        this.pinned = pinned;
+        this.overlay = version;
+        this.dense = version;
+    }
+
+    /**
+     * @return a read-only view of the current version that is not affected by later commits.
+     * The snapshot keeps its loaded graph from being released, it has to be released after use.
+     * <p>
+     * Taking a snapshot never waits for a compaction. If nodes have been created or deleted since the last
+     * compaction, the snapshot is the latest version without node changes and a compaction is started in the
+     * background. Snapshots that are taken after the compaction has finished contain all changes again.
+     */
+    public HugeDeltaGraph snapshot() {
+        if (updater == null) {
+            return this;
+        }
+        while (true) {
+            Overlay current = overlay;
+            if (current.hasNodeChanges()) {
+                scheduleCompaction();
+                current = dense;
+            }
+            if (current.pins.pin()) {
+                return new HugeDeltaGraph(current.withBase((HugeGraphImpl) current.base.concurrentCopy()), current.pins);
+            }
+            // a compaction has replaced and released the loaded graph of this version, retry with the new one
+            checkNotReleased();
+        }
+    }
+
+    /**
+     * @return the number of changes that have been committed since the last compaction
+     */
+    public long pendingChanges() {
+        return overlay.changes;
+    }
+
+    /**
+     * Merge all pending changes into a new adjacency. Commits are not blocked while the new
+     * adjacency is built, changes that arrive meanwhile are applied to the compacted graph afterwards.
+     * The compacted adjacency is always kept on the heap.
+     */
+    public void compact() {
+        if (updater == null) {
+            throw new UnsupportedOperationException("Snapshots of an incremental graph cannot be compacted");
+        }
+        synchronized (compactionLock) {
+            Overlay current;
+            synchronized (this) {
+                current = overlay;
+                if (released || current.changes == 0L || !current.pins.pin()) {
+                    return;
+                }
+                replay = new ArrayList<>();
+            }
+            Overlay compacted = null;
+            Pins replaced = null;
+            try {
+                HugeGraphImpl base = Compaction.compact(current.withBase((HugeGraphImpl) current.base.concurrentCopy()));
+                compacted = new Overlay(base, new Pins(base), current.undirected, current.defaultWeight);
+            } finally {
+                current.pins.unpin();
+                synchronized (this) {
+                    if (compacted != null && !released) {
+                        Overlay next = compacted.copy();
+                        for (HugeDeltaGraphUpdater.Changes changes : replay) {
+                            changes.applyTo(next);
+                        }
+                        overlay = next;
+                        dense = next.hasNodeChanges() ? compacted : next;
+                        // all versions since the last compaction share the loaded graph and its pins
+                        replaced = current.pins;
+                    }
+                    replay = null;
+                }
+            }
+            if (replaced != null) {
+                replaced.unpin();
+            } else if (compacted != null) {
+                // the graph has been released during the compaction
+                compacted.pins.unpin();
+            }
+        }
+    }
+
+    /**
+     * Publish a new version that contains the given committed changes.
+     */
+    synchronized void apply(HugeDeltaGraphUpdater.Changes changes) {
+        Overlay next = overlay.copy();
+        changes.applyTo(next);
+        overlay = next;
+        if (!next.hasNodeChanges()) {
+            dense = next;
+        }
+        if (replay != null) {
+            replay.add(changes);
+        } else if (compactionThreshold > 0L && next.changes >= compactionThreshold) {
+            scheduleCompaction();
+        }
+    }
+
+    private void scheduleCompaction() {
+        if (!compactionScheduled.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            Pools.DEFAULT.execute(() -> {
+                try {
+                    compact();
+                } finally {
+                    compactionScheduled.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // try again with the next commit or snapshot
+            compactionScheduled.set(false);
+        }
+    }
+
+    /**
+     * Run the action on a compacted version of the graph, the version is not released while the action runs.
+     * Pending changes of the incremental graph are compacted first.
+     */
+    <T> T withCompactedBase(Function<HugeGraphImpl, T> action) {
+        if (updater != null) {
+            compact();
+            HugeDeltaGraph snapshot = snapshot();
+            try {
+                return snapshot.withCompactedBase(action);
+            } finally {
+                snapshot.release();
+            }
+        }
+        Overlay version = overlay;
+        return action.apply(version.changes == 0L ? version.base : Compaction.compact(version));
+    }
+
+    @Override
+    public long relationshipCount() {
+        Overlay current = overlay;
+        if (current.changes == 0L) {
+            return current.base.relationshipCount();
+        }
+        // counting visits every node, the loaded graph must not be released by a compaction meanwhile
+        while (!current.pins.pin()) {
+            checkNotReleased();
+            current = overlay;
+        }
+        try {
+            Direction direction = current.base.adjacency(Direction.OUTGOING) != null
+                    ? Direction.OUTGOING
+                    : Direction.INCOMING;
+            long count = 0L;
+            long nodeCount = current.nodeCount();
+            for (long node = 0L; node < nodeCount; node++) {
+                count += current.degree(node, direction);
+            }
+            return count;
+        } finally {
+            current.pins.unpin();
+        }
+    }
+
+    private void checkNotReleased() {
+        if (released) {
+            throw new IllegalStateException("The graph has already been released");
+        }
+    }
+
+    /**
+     * The node properties of the loaded graph, they are only available for the nodes of the last compaction.
+     * Snapshots are compacted if nodes have been created, their node properties cover every node.
+     */
+    @Override
+    public HugeNodePropertyStore nodePropertyStore() {
+        return overlay.base.nodePropertyStore();
+    }
+
+    @Override
+    public long nodeCount() {
+        return overlay.nodeCount();
+    }
+
+    @Override
+    public Collection<PrimitiveLongIterable> hugeBatchIterables(final int batchSize) {
+        return LazyBatchCollection.of(
+                nodeCount(),
+                batchSize,
+                HugeIdMap.IdIterable::new);
+    }
+
+    @Override
+    public void forEachNode(LongPredicate consumer) {
+        final long count = nodeCount();
+        for (long i = 0L; i < count; i++) {
+            if (!consumer.test(i)) {
+                return;
+            }
+        }
+    }
+
+    @Override
+    public PrimitiveLongIterator hugeNodeIterator() {
+        return new HugeIdMap.IdIterable(0L, nodeCount()).iterator();
+    }
+
+    @Override
+    public long toHugeMappedNodeId(long nodeId) {
+        return overlay.toMappedNodeId(nodeId);
+    }
+
+    @Override
+    public long toOriginalNodeId(long nodeId) {
+        return overlay.toOriginalNodeId(nodeId);
+    }
+
+    @Override
+    public boolean contains(final long nodeId) {
+        return overlay.toMappedNodeId(nodeId) != HugeIdMap.NOT_FOUND;
+    }
+
+    /**
+     * O(1) without pending changes for the node, O(n) if nodes have been deleted.
+     */
+    @Override
+    public int degree(long node, Direction direction) {
+        return overlay.degree(node, direction);
+    }
+
+    @Override
+    public double weightOf(long sourceNodeId, long targetNodeId) {
+        return overlay.weightOf(sourceNodeId, targetNodeId);
+    }
+
+    @Override
+    public void forEachRelationship(long nodeId, Direction direction, HugeRelationshipConsumer consumer) {
+        overlay.forEach(nodeId, direction, consumer, /* reuseCursor */ true);
+    }
+
+    /**
+     * Reads the batches from the loaded adjacency if there are no pending changes,
+     * otherwise collects the neighbours including the changes.
+     */
+    @Override
+    public HugeNeighbourCursor neighbours(long nodeId, Direction direction) {
+        Overlay current = overlay;
+        if (current.changes == 0L) {
+            return current.base.neighbours(nodeId, direction);
+        }
+        return new CollectedNeighbours(this, nodeId, direction);
+    }
+
+    @Override
+    public void forEachRelationship(long nodeId, Direction direction, HugeWeightedRelationshipConsumer consumer) {
+        overlay.forEach(nodeId, direction, consumer, /* reuseCursor */ true);
+    }
+
+    @Override
+    public void forEachRelationship(int nodeId, Direction direction, RelationshipConsumer consumer) {
+        Overlay current = overlay;
+        long node = Integer.toUnsignedLong(nodeId);
+        if (direction != Direction.INCOMING) {
+            current.forEach(node, Direction.OUTGOING, (HugeRelationshipConsumer) (s, t) -> consumer.accept(
+                    (int) s,
+                    (int) t,
+                    RawValues.combineIntInt((int) s, (int) t)), /* reuseCursor */ false);
+        }
+        if (direction != Direction.OUTGOING) {
+            current.forEach(node, Direction.INCOMING, (HugeRelationshipConsumer) (s, t) -> consumer.accept(
+                    (int) s,
+                    (int) t,
+                    RawValues.combineIntInt((int) t, (int) s)), /* reuseCursor */ false);
+        }
+    }
+
+    @Override
+    public void forEachRelationship(int nodeId, Direction direction, WeightedRelationshipConsumer consumer) {
+        Overlay current = overlay;
+        long node = Integer.toUnsignedLong(nodeId);
+        if (direction != Direction.INCOMING) {
+            current.forEach(node, Direction.OUTGOING, (HugeWeightedRelationshipConsumer) (s, t, w) -> consumer.accept(
+                    (int) s,
+                    (int) t,
+                    RawValues.combineIntInt((int) s, (int) t),
+                    w), /* reuseCursor */ false);
+        }
+        if (direction != Direction.OUTGOING) {
+            current.forEach(node, Direction.INCOMING, (HugeWeightedRelationshipConsumer) (s, t, w) -> consumer.accept(
+                    (int) s,
+                    (int) t,
+                    RawValues.combineIntInt((int) t, (int) s),
+                    w), /* reuseCursor */ false);
+        }
+    }
+
+    @Override
+    public boolean exists(long sourceNodeId, long targetNodeId, Direction direction) {
+        return overlay.exists(sourceNodeId, targetNodeId, direction, /* reuseCursor */ true);
+    }
+
+    @Override
+    public boolean exists(int sourceNodeId, int targetNodeId, Direction direction) {
+        return overlay.exists(
+                Integer.toUnsignedLong(sourceNodeId),
+                Integer.toUnsignedLong(targetNodeId),
+                direction,
+                /* reuseCursor */ false);
+    }
+
+    /**
+     * Inserted relationships come after the loaded ones, O(n) if the node has pending changes.
+     */
+    @Override
+    public long getTarget(long nodeId, long index, Direction direction) {
+        return overlay.getTarget(nodeId, index, direction, /* reuseCursor */ true);
+    }
+
+    @Override
+    public int getTarget(int nodeId, int index, Direction direction) {
+        return Math.toIntExact(overlay.getTarget(
+                Integer.toUnsignedLong(nodeId),
+                Integer.toUnsignedLong(index),
+                direction,
+                /* reuseCursor */ false));
+    }
+
+    /**
+     * The copy shares the version of this graph and is only valid as long as this graph is.
+     */
+    @Override
+    public HugeGraph concurrentCopy() {
+        Overlay current = overlay;
+        return new HugeDeltaGraph(current.withBase((HugeGraphImpl) current.base.concurrentCopy()), null);
+    }
+
+    /**
+     * Intersections require sorted adjacency lists, they are only supported without pending changes.
+     */
+    @Override
+    public RelationshipIntersect intersection() {
+        Overlay current = overlay;
+        if (current.changes != 0L) {
+            throw new UnsupportedOperationException(
+                    "Intersections require a compacted graph, there are " + current.changes + " pending changes");
+        }
+        return current.base.intersection();
+    }
+
+    @Override
+    public void canRelease(boolean canRelease) {
+        this.canRelease = canRelease;
+    }
+
+    /**
+     * Stops following committed transactions. The loaded graph is released once all snapshots
+     * that use it have been released. Releasing a snapshot allows to release its loaded graph,
+     * releasing a concurrent copy does nothing.
+     */
+    @Override
+    public void release() {
+        if (!canRelease || (updater == null && pinned == null)) return;
+        if (updater != null) {
+            updater.unregister();
+        }
+        Overlay current;
+        synchronized (this) {
+            if (released) return;
+            released = true;
+            current = overlay;
+        }
+        current.pins.unpin();
+    }
+
+    /**
+     * Counts the users of a loaded graph: the incremental graph while the loaded graph is its current base,
+     * the snapshots of its versions and a running compaction. The loaded graph is released with the last of them.
+     */
+    static final class Pins {
+        private final HugeGraphImpl base;
+        private final AtomicInteger count = new AtomicInteger(1);
+
+        Pins(HugeGraphImpl base) {
+            this.base = base;
+        }
+
+        /**
+         * @return false if the loaded graph has already been released
+         */
+        boolean pin() {
+            int pins;
+            do {
+                pins = count.get();
+                if (pins == 0) {
+                    return false;
+                }
+            } while (!count.compareAndSet(pins, pins + 1));
+            return true;
+        }
+
+        void unpin() {
+            if (count.decrementAndGet() == 0) {
+                base.release();
+            }
+        }
+    }
+
+    /**
+     * Inserted and deleted targets of a single node, immutable.
+     * Changes per node are expected to be few until the next compaction, all lookups are linear.
+     */
+    static final class Delta {
+        private static final long[] NO_TARGETS = new long[0];
+        private static final double[] NO_WEIGHTS = new double[0];
+        static final Delta EMPTY = new Delta(NO_TARGETS, NO_WEIGHTS, NO_TARGETS);
+
+        final long[] inserted;
+        final double[] weights;
+        final long[] deleted;
+
+        private Delta(long[] inserted, double[] weights, long[] deleted) {
+            this.inserted = inserted;
+            this.weights = weights;
+            this.deleted = deleted;
+        }
+
+        int indexOfInserted(long target) {
+            for (int i = 0; i < inserted.length; i++) {
+                if (inserted[i] == target) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        boolean isDeleted(long target) {
+            for (long deletedTarget : deleted) {
+                if (deletedTarget == target) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        boolean isEmpty() {
+            return inserted.length == 0 && deleted.length == 0;
+        }
+
+        Delta insert(long target, double weight) {
+            long[] newInserted = Arrays.copyOf(inserted, inserted.length + 1);
+            double[] newWeights = Arrays.copyOf(weights, weights.length + 1);
+            newInserted[inserted.length] = target;
+            newWeights[weights.length] = weight;
+            return new Delta(newInserted, newWeights, deleted);
+        }
+
+        Delta removeInserted(int index) {
+            long[] newInserted = new long[inserted.length - 1];
+            double[] newWeights = new double[weights.length - 1];
+            System.arraycopy(inserted, 0, newInserted, 0, index);
+            System.arraycopy(inserted, index + 1, newInserted, index, newInserted.length - index);
+            System.arraycopy(weights, 0, newWeights, 0, index);
+            System.arraycopy(weights, index + 1, newWeights, index, newWeights.length - index);
+            return new Delta(newInserted, newWeights, deleted);
+        }
+
+        Delta delete(long target) {
+            long[] newDeleted = Arrays.copyOf(deleted, deleted.length + 1);
+            newDeleted[deleted.length] = target;
+            return new Delta(inserted, weights, newDeleted);
+        }
+    }
+
+    /**
+     * One version of the graph: the compacted base graph and all changes since.
+     * <p>
+     * New nodes get the mapped ids following the base graph in the order of their creation,
+     * so do deleted nodes that are added again.
+     * An overlay is only modified through {@link #copy()} before it is published,
+     * published overlays are never modified again. The maps are persistent, a copy shares
+     * them with its origin and a change only copies the path to the changed entry.
+     */
+    static final class Overlay {
+        final HugeGraphImpl base;
+        final Pins pins;
+        final boolean undirected;
+        final double defaultWeight;
+        final long baseNodeCount;
+        private final boolean hasOutgoing;
+        private final boolean hasIncoming;
+
+        // original ids of the new nodes by their index after the base graph
+        private PersistentLongMap<Long> addedNodes;
+        private PersistentLongMap<Long> addedNodeIds;
+        private PersistentLongMap<Boolean> deletedNodes;
+        private PersistentLongMap<Delta> outgoing;
+        private PersistentLongMap<Delta> incoming;
+        long changes;
+
+        Overlay(HugeGraphImpl base, Pins pins, boolean undirected, double defaultWeight) {
+            this(base, pins, undirected, defaultWeight,
+                    PersistentLongMap.empty(),
+                    PersistentLongMap.empty(),
+                    PersistentLongMap.empty(),
+                    PersistentLongMap.empty(),
+                    PersistentLongMap.empty(),
+                    0L);
+        }
+
+        private Overlay(
+                HugeGraphImpl base,
+                Pins pins,
+                boolean undirected,
+                double defaultWeight,
+                PersistentLongMap<Long> addedNodes,
+                PersistentLongMap<Long> addedNodeIds,
+                PersistentLongMap<Boolean> deletedNodes,
+                PersistentLongMap<Delta> outgoing,
+                PersistentLongMap<Delta> incoming,
+                long changes) {
+            this.base = base;
+            this.pins = pins;
+            this.undirected = undirected;
+            this.defaultWeight = defaultWeight;
+            this.baseNodeCount = base.nodeCount();
+            this.hasOutgoing = base.adjacency(Direction.OUTGOING) != null;
+            this.hasIncoming = base.adjacency(Direction.INCOMING) != null;
+            this.addedNodes = addedNodes;
+            this.addedNodeIds = addedNodeIds;
+            this.deletedNodes = deletedNodes;
+            this.outgoing = outgoing;
+            this.incoming = incoming;
+            this.changes = changes;
+        }
+
+        Overlay copy() {
+            return withBase(base);
+        }
+
+        Overlay withBase(HugeGraphImpl base) {
+            return new Overlay(
+                    base, pins, undirected, defaultWeight,
+                    addedNodes, addedNodeIds, deletedNodes, outgoing, incoming,
+                    changes);
+        }
+
+        boolean hasNodeChanges() {
+            return !addedNodes.isEmpty() || !deletedNodes.isEmpty();
+        }
+
+        long nodeCount() {
+            return baseNodeCount + addedNodes.size();
+        }
+
+        long toOriginalNodeId(long node) {
+            return node < baseNodeCount
+                    ? base.toOriginalNodeId(node)
+                    : addedNodes.get(node - baseNodeCount);
+        }
+
+        long toMappedNodeId(long originalId) {
+            long node = mappedIdOf(originalId);
+            return isDeleted(node) ? HugeIdMap.NOT_FOUND : node;
+        }
+
+        /**
+         * also resolves the ids of deleted nodes
+         */
+        private long mappedIdOf(long originalId) {
+            Long node = addedNodeIds.get(originalId);
+            return node != null ? node : base.idMapping().toMappedNodeIdOrNotFound(originalId);
+        }
+
+        boolean isDeleted(long node) {
+            return !deletedNodes.isEmpty() && deletedNodes.containsKey(node);
+        }
+
+        private Delta delta(long node, Direction direction) {
+            return deltas(direction).get(node);
+        }
+
+        int degree(long node, Direction direction) {
+            if (direction == Direction.BOTH) {
+                return degree(node, Direction.OUTGOING) + degree(node, Direction.INCOMING);
+            }
+            if (isDeleted(node)) {
+                return 0;
+            }
+            if (!deletedNodes.isEmpty()) {
+                int[] degree = {0};
+                forEach(node, direction, (HugeRelationshipConsumer) (s, t) -> {
+                    degree[0]++;
+                    return true;
+                }, /* reuseCursor */ false);
+                return degree[0];
+            }
+            int degree = node < baseNodeCount ? base.degree(node, direction) : 0;
+            Delta delta = delta(node, direction);
+            return delta == null ? degree : degree + delta.inserted.length - delta.deleted.length;
+        }
+
+        /**
+         * @return false if the consumer stopped the iteration
+         */
+        boolean forEach(
+                long node,
+                Direction direction,
+                HugeRelationshipConsumer consumer,
+                boolean reuseCursor) {
+            if (direction == Direction.BOTH) {
+                return forEach(node, Direction.OUTGOING, consumer, reuseCursor) &&
+                        forEach(node, Direction.INCOMING, consumer, reuseCursor);
+            }
+            if (isDeleted(node)) {
+                return true;
+            }
+            Delta delta = delta(node, direction);
+            if (node < baseNodeCount) {
+                if (delta == null && deletedNodes.isEmpty()) {
+                    base.runForEach(node, direction, consumer, reuseCursor);
+                    return true;
+                }
+                boolean[] proceed = {true};
+                base.runForEach(node, direction, (s, t) -> {
+                    if (isDeleted(t) || (delta != null && delta.isDeleted(t))) {
+                        return true;
+                    }
+                    return proceed[0] = consumer.accept(s, t);
+                }, reuseCursor);
+                if (!proceed[0]) {
+                    return false;
+                }
+            }
+            if (delta != null) {
+                for (long target : delta.inserted) {
+                    if (!isDeleted(target) && !consumer.accept(node, target)) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+
+        /**
+         * @return false if the consumer stopped the iteration
+         */
+        boolean forEach(
+                long node,
+                Direction direction,
+                HugeWeightedRelationshipConsumer consumer,
+                boolean reuseCursor) {
+            if (direction == Direction.BOTH) {
+                return forEach(node, Direction.OUTGOING, consumer, reuseCursor) &&
+                        forEach(node, Direction.INCOMING, consumer, reuseCursor);
+            }
+            if (isDeleted(node)) {
+                return true;
+            }
+            Delta delta = delta(node, direction);
+            if (node < baseNodeCount) {
+                if (delta == null && deletedNodes.isEmpty()) {
+                    base.runForEach(node, direction, consumer, reuseCursor);
+                    return true;
+                }
+                boolean[] proceed = {true};
+                base.runForEach(node, direction, (s, t, w) -> {
+                    if (isDeleted(t) || (delta != null && delta.isDeleted(t))) {
+                        return true;
+                    }
+                    return proceed[0] = consumer.accept(s, t, w);
+                }, reuseCursor);
+                if (!proceed[0]) {
+                    return false;
+                }
+            }
+            if (delta != null) {
+                long[] inserted = delta.inserted;
+                for (int i = 0; i < inserted.length; i++) {
+                    if (!isDeleted(inserted[i]) && !consumer.accept(node, inserted[i], delta.weights[i])) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+
+        boolean exists(long source, long target, Direction direction, boolean reuseCursor) {
+            if (direction == Direction.BOTH) {
+                return exists(source, target, Direction.OUTGOING, reuseCursor) ||
+                        exists(source, target, Direction.INCOMING, reuseCursor);
+            }
+            if (isDeleted(source) || isDeleted(target)) {
+                return false;
+            }
+            Delta delta = delta(source, direction);
+            if (delta != null) {
+                if (delta.indexOfInserted(target) != -1) {
+                    return true;
+                }
+                if (delta.isDeleted(target)) {
+                    return false;
+                }
+            }
+            return source < baseNodeCount &&
+                    target < baseNodeCount &&
+                    base.exists(source, target, direction, reuseCursor);
+        }
+
+        long getTarget(long node, long index, Direction direction, boolean reuseCursor) {
+            if (direction == Direction.BOTH) {
+                int outDegree = degree(node, Direction.OUTGOING);
+                if (index < outDegree) {
+                    return getTarget(node, index, Direction.OUTGOING, reuseCursor);
+                }
+                return getTarget(node, index - outDegree, Direction.INCOMING, reuseCursor);
+            }
+            if (node < baseNodeCount && deletedNodes.isEmpty() && delta(node, direction) == null) {
+                return base.getTarget(node, index, direction, reuseCursor);
+            }
+            long[] target = {-1L, index};
+            forEach(node, direction, (HugeRelationshipConsumer) (s, t) -> {
+                if (target[1]-- == 0L) {
+                    target[0] = t;
+                    return false;
+                }
+                return true;
+            }, reuseCursor);
+            return target[0];
+        }
+
+        double weightOf(long source, long target) {
+            Delta delta = outgoing.get(source);
+            int index;
+            if (delta != null && (index = delta.indexOfInserted(target)) != -1) {
+                return delta.weights[index];
+            }
+            delta = incoming.get(target);
+            if (delta != null && (index = delta.indexOfInserted(source)) != -1) {
+                return delta.weights[index];
+            }
+            if (source < baseNodeCount && target < baseNodeCount) {
+                return base.weightOf(source, target);
+            }
+            return defaultWeight;
+        }
+
+        /**
+         * A deleted node that is added again gets a new id like any other new node. Its old id stays deleted
+         * and keeps hiding the relationships of the node from before, on both sides, until the next compaction.
+         */
+        void addNode(long originalId) {
+            long node = mappedIdOf(originalId);
+            if (node == HugeIdMap.NOT_FOUND || isDeleted(node)) {
+                node = nodeCount();
+                addedNodes = addedNodes.put(node - baseNodeCount, originalId);
+                addedNodeIds = addedNodeIds.put(originalId, node);
+                changes++;
+            }
+        }
+
+        void deleteNode(long originalId) {
+            long node = mappedIdOf(originalId);
+            if (node != HugeIdMap.NOT_FOUND && !isDeleted(node)) {
+                deletedNodes = deletedNodes.put(node, Boolean.TRUE);
+                changes++;
+            }
+        }
+
+        /**
+         * Relationships are only added between nodes of the graph, others are ignored.
+         */
+        void addRelationship(long sourceId, long targetId, double weight) {
+            long source = toMappedNodeId(sourceId);
+            long target = toMappedNodeId(targetId);
+            if (source == HugeIdMap.NOT_FOUND || target == HugeIdMap.NOT_FOUND) {
+                return;
+            }
+            if (undirected) {
+                insert(Direction.OUTGOING, source, target, weight);
+                insert(Direction.OUTGOING, target, source, weight);
+                return;
+            }
+            if (hasOutgoing) {
+                insert(Direction.OUTGOING, source, target, weight);
+            }
+            if (hasIncoming) {
+                insert(Direction.INCOMING, target, source, weight);
+            }
+        }
+
+        void deleteRelationship(long sourceId, long targetId) {
+            long source = mappedIdOf(sourceId);
+            long target = mappedIdOf(targetId);
+            if (source == HugeIdMap.NOT_FOUND || target == HugeIdMap.NOT_FOUND) {
+                return;
+            }
+            if (undirected) {
+                delete(Direction.OUTGOING, source, target);
+                delete(Direction.OUTGOING, target, source);
+                return;
+            }
+            if (hasOutgoing) {
+                delete(Direction.OUTGOING, source, target);
+            }
+            if (hasIncoming) {
+                delete(Direction.INCOMING, target, source);
+            }
+        }
+
+        private void insert(
+                Direction direction,
+                long node,
+                long target,
+                double weight) {
+            Delta delta = deltas(direction).getOrDefault(node, Delta.EMPTY);
+            if (delta.indexOfInserted(target) != -1 ||
+                    (!delta.isDeleted(target) && baseContains(node, target, direction))) {
+                return;
+            }
+            setDeltas(direction, deltas(direction).put(node, delta.insert(target, weight)));
+            changes++;
+        }
+
+        private void delete(
+                Direction direction,
+                long node,
+                long target) {
+            PersistentLongMap<Delta> deltas = deltas(direction);
+            Delta delta = deltas.getOrDefault(node, Delta.EMPTY);
+            int index = delta.indexOfInserted(target);
+            if (index != -1) {
+                delta = delta.removeInserted(index);
+            } else if (!delta.isDeleted(target) && baseContains(node, target, direction)) {
+                delta = delta.delete(target);
+            } else {
+                return;
+            }
+            setDeltas(direction, delta.isEmpty() ? deltas.remove(node) : deltas.put(node, delta));
+            changes++;
+        }
+
+        private PersistentLongMap<Delta> deltas(Direction direction) {
+            return direction == Direction.OUTGOING ? outgoing : incoming;
+        }
+
+        private void setDeltas(Direction direction, PersistentLongMap<Delta> deltas) {
+            if (direction == Direction.OUTGOING) {
+                outgoing = deltas;
+            } else {
+                incoming = deltas;
+            }
+        }
+
+        private boolean baseContains(long node, long target, Direction direction) {
+            return node < baseNodeCount &&
+                    target < baseNodeCount &&
+                    base.exists(node, target, direction, /* reuseCursor */ false);
+        }
+    }
+
+    /**
+     * Rebuilds the adjacency of an overlay, the surviving nodes of the base graph keep their
+     * relative order and are followed by the surviving new nodes.
+     */
+    private static final class Compaction {
+
+        static HugeGraphImpl compact(Overlay overlay) {
+            HugeGraphImpl base = overlay.base;
+            // the compacted graph is accounted like the loaded one, the mappings are only temporary
+            AllocationTracker tracker = base.tracker();
+            long oldNodeCount = overlay.nodeCount();
+
+            HugeLongArray newIds = HugeLongArray.newArray(oldNodeCount, AllocationTracker.EMPTY);
+            HugeLongArray oldIds = HugeLongArray.newArray(oldNodeCount, AllocationTracker.EMPTY);
+            long nodeCount = 0L;
+            long maxOriginalId = -1L;
+            for (long node = 0L; node < oldNodeCount; node++) {
+                if (overlay.isDeleted(node)) {
+                    newIds.set(node, HugeIdMap.NOT_FOUND);
+                } else {
+                    newIds.set(node, nodeCount);
+                    oldIds.set(nodeCount++, node);
+                    maxOriginalId = Math.max(maxOriginalId, overlay.toOriginalNodeId(node));
+                }
+            }
+
+            HugeIdMap idMapping = new HugeIdMap(nodeCount, maxOriginalId + 1L, tracker);
+            HugeLongArray oldBaseIds = HugeLongArray.newArray(nodeCount, AllocationTracker.EMPTY);
+            for (long node = 0L; node < nodeCount; node++) {
+                long oldId = oldIds.get(node);
+                long originalId = overlay.toOriginalNodeId(oldId);
+                idMapping.add(originalId);
+                // a loaded node that has been deleted and added again keeps its loaded properties
+                oldBaseIds.set(node, oldId < overlay.baseNodeCount
+                        ? oldId
+                        : base.idMapping().toMappedNodeIdOrNotFound(originalId));
+            }
+            HugeNodePropertyStore nodeProperties = base.nodePropertyStore().remap(nodeCount, oldBaseIds, tracker);
+
+            return HugeGraphRebuilder.rebuild(
+                    base,
+                    (node, direction, consumer) -> overlay.forEach(node, direction, consumer, /* reuseCursor */ true),
+                    idMapping,
+                    nodeProperties,
+                    oldIds,
+                    newIds,
+                    tracker,
+                    AdjacencyStorage.HEAP,
+                    null);
+        }
+    }
+}
@@ -0,0 +1,271 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.huge;
+
+import com.carrotsearch.hppc.DoubleArrayList;
+import com.carrotsearch.hppc.LongArrayList;
+import com.carrotsearch.hppc.LongHashSet;
+import org.neo4j.graphalgo.api.GraphSetup;
+import org.neo4j.graphdb.Direction;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Label;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Relationship;
+import org.neo4j.graphdb.event.LabelEntry;
+import org.neo4j.graphdb.event.PropertyEntry;
+import org.neo4j.graphdb.event.TransactionData;
+import org.neo4j.graphdb.event.TransactionEventHandler;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Collects the changes of every committed transaction that affect the nodes and relationships
+ * of an incremental graph and applies them to the {@link HugeDeltaGraph}.
+ * <p>
+ * The handler is registered before the graph is loaded, changes that are committed during the import
+ * are buffered and replayed once the graph is attached. Replaying changes that the import has already
+ * seen is a no-op.
+ */
+final class HugeDeltaGraphUpdater implements TransactionEventHandler<HugeDeltaGraphUpdater.Changes> {
+
+    private final GraphDatabaseService db;
+    private final Label label;
+    private final Set<String> relationshipTypes;
+    private final String weightProperty;
+    private final double defaultWeight;
+    private final boolean undirected;
+
+    private HugeDeltaGraph graph;
+    private List<Changes> pending = new ArrayList<>();
+
+    private HugeDeltaGraphUpdater(GraphDatabaseService db, GraphSetup setup) {
+        this.db = db;
+        this.label = setup.loadAnyLabel() ? null : Label.label(setup.startLabel);
+        this.relationshipTypes = setup.loadAnyRelationshipType()
+                ? null
+                : new HashSet<>(Arrays.asList(setup.relationshipTypes()));
+        this.weightProperty = setup.shouldLoadRelationshipWeight() ? setup.relationWeightPropertyName : null;
+        this.defaultWeight = setup.relationDefaultWeight;
+        this.undirected = setup.loadAsUndirected;
+    }
+
+    static HugeDeltaGraphUpdater register(GraphDatabaseService db, GraphSetup setup) {
+        HugeDeltaGraphUpdater updater = new HugeDeltaGraphUpdater(db, setup);
+        db.registerTransactionEventHandler(updater);
+        return updater;
+    }
+
+    /**
+     * Wrap the loaded graph and apply all changes that have been committed since the handler was registered.
+     */
+    synchronized HugeDeltaGraph attach(HugeGraphImpl base, long compactionThreshold) {
+        graph = new HugeDeltaGraph(base, undirected, defaultWeight, this, compactionThreshold);
+        for (Changes changes : pending) {
+            graph.apply(changes);
+        }
+        pending = null;
+        return graph;
+    }
+
+    void unregister() {
+        try {
+            db.unregisterTransactionEventHandler(this);
+        } catch (IllegalStateException ignored) {
+            // already unregistered or the database is shutting down
+        }
+    }
+
+    @Override
+    public Changes beforeCommit(TransactionData data) {
+        Changes changes = new Changes();
+        for (Node node : data.createdNodes()) {
+            if (label == null || node.hasLabel(label)) {
+                changes.addedNodes.add(node.getId());
+            }
+        }
+        if (label != null) {
+            for (LabelEntry entry : data.assignedLabels()) {
+                Node node = entry.node();
+                if (entry.label().name().equals(label.name()) && !data.isDeleted(node)) {
+                    changes.addedNodes.add(node.getId());
+                    // an existing node joins the graph together with its relationships
+                    for (Relationship relationship : node.getRelationships()) {
+                        if (matches(relationship)) {
+                            changes.addRelationship(relationship, weightOf(relationship));
+                        }
+                    }
+                }
+            }
+            for (LabelEntry entry : data.removedLabels()) {
+                if (entry.label().name().equals(label.name())) {
+                    changes.deletedNodes.add(entry.node().getId());
+                }
+            }
+        }
+        for (Node node : data.deletedNodes()) {
+            changes.deletedNodes.add(node.getId());
+        }
+
+        LongHashSet created = new LongHashSet();
+        for (Relationship relationship : data.createdRelationships()) {
+            created.add(relationship.getId());
+        }
+        for (Relationship relationship : data.deletedRelationships()) {
+            if (!created.contains(relationship.getId()) &&
+                    matches(relationship) &&
+                    !hasParallelRelationship(data, relationship)) {
+                changes.deleteRelationship(relationship);
+            }
+        }
+        for (Relationship relationship : data.createdRelationships()) {
+            if (!data.isDeleted(relationship) && matches(relationship)) {
+                changes.addRelationship(relationship, weightOf(relationship));
+            }
+        }
+        if (weightProperty != null) {
+            for (PropertyEntry<Relationship> entry : data.assignedRelationshipProperties()) {
+                updateWeight(data, created, changes, entry, weightOf(entry.value()));
+            }
+            for (PropertyEntry<Relationship> entry : data.removedRelationshipProperties()) {
+                updateWeight(data, created, changes, entry, defaultWeight);
+            }
+        }
+        return changes.isEmpty() ? null : changes;
+    }
+
+    @Override
+    public void afterCommit(TransactionData data, Changes changes) {
+        if (changes == null) {
+            return;
+        }
+        synchronized (this) {
+            if (graph == null) {
+                pending.add(changes);
+            } else {
+                graph.apply(changes);
+            }
+        }
+    }
+
+    @Override
+    public void afterRollback(TransactionData data, Changes changes) {
+    }
+
+    private void updateWeight(
+            TransactionData data,
+            LongHashSet created,
+            Changes changes,
+            PropertyEntry<Relationship> entry,
+            double weight) {
+        Relationship relationship = entry.entity();
+        if (weightProperty.equals(entry.key()) &&
+                !created.contains(relationship.getId()) &&
+                !data.isDeleted(relationship) &&
+                matches(relationship)) {
+            changes.deleteRelationship(relationship);
+            changes.addRelationship(relationship, weight);
+        }
+    }
+
+    private boolean matches(Relationship relationship) {
+        return relationshipTypes == null || relationshipTypes.contains(relationship.getType().name());
+    }
+
+    /**
+     * The graph collapses parallel relationships, the relationship between both nodes
+     * only disappears with the last of them.
+     */
+    private boolean hasParallelRelationship(TransactionData data, Relationship relationship) {
+        Node start = relationship.getStartNode();
+        if (data.isDeleted(start)) {
+            return false;
+        }
+        long end = relationship.getEndNodeId();
+        Direction direction = undirected ? Direction.BOTH : Direction.OUTGOING;
+        for (Relationship other : start.getRelationships(direction)) {
+            if (other.getId() != relationship.getId() &&
+                    other.getOtherNodeId(start.getId()) == end &&
+                    matches(other)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private double weightOf(Relationship relationship) {
+        return weightProperty == null
+                ? defaultWeight
+                : weightOf(relationship.getProperty(weightProperty, null));
+    }
+
+    private double weightOf(Object value) {
+        return value instanceof Number ? ((Number) value).doubleValue() : defaultWeight;
+    }
+
+    /**
+     * The changes of a single transaction by original node ids. They are applied in the order
+     * added nodes, deleted relationships, added relationships and deleted nodes.
+     */
+    static final class Changes {
+        private final LongArrayList addedNodes = new LongArrayList();
+        private final LongArrayList deletedNodes = new LongArrayList();
+        // source and target id per relationship
+        private final LongArrayList addedRelationships = new LongArrayList();
+        private final DoubleArrayList addedWeights = new DoubleArrayList();
+        private final LongArrayList deletedRelationships = new LongArrayList();
+
+        void addRelationship(Relationship relationship, double weight) {
+            addedRelationships.add(relationship.getStartNodeId(), relationship.getEndNodeId());
+            addedWeights.add(weight);
+        }
+
+        void deleteRelationship(Relationship relationship) {
+            deletedRelationships.add(relationship.getStartNodeId(), relationship.getEndNodeId());
+        }
+
+        boolean isEmpty() {
+            return addedNodes.isEmpty() &&
+                    deletedNodes.isEmpty() &&
+                    addedRelationships.isEmpty() &&
+                    deletedRelationships.isEmpty();
+        }
+
+        void applyTo(HugeDeltaGraph.Overlay overlay) {
+            for (int i = 0; i < addedNodes.size(); i++) {
+                overlay.addNode(addedNodes.get(i));
+            }
+            for (int i = 0; i < deletedRelationships.size(); i += 2) {
+                overlay.deleteRelationship(deletedRelationships.get(i), deletedRelationships.get(i + 1));
+            }
+            for (int i = 0; i < addedRelationships.size(); i += 2) {
+                overlay.addRelationship(
+                        addedRelationships.get(i),
+                        addedRelationships.get(i + 1),
+                        addedWeights.get(i >> 1));
+            }
+            for (int i = 0; i < deletedNodes.size(); i++) {
+                overlay.deleteNode(deletedNodes.get(i));
+            }
+        }
+    }
+}
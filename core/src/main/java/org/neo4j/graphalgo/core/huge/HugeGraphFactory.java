@@ -18,23 +18,32 @@
  */
 package org.neo4j.graphalgo.core.huge;
 
+import org.neo4j.graphalgo.PropertyMapping;
+import org.neo4j.graphalgo.api.AdjacencyStorage;
 import org.neo4j.graphalgo.api.GraphFactory;
 import org.neo4j.graphalgo.api.GraphSetup;
 import org.neo4j.graphalgo.api.HugeGraph;
 import org.neo4j.graphalgo.api.HugeWeightMapping;
+import org.neo4j.graphalgo.api.RelationshipAggregation;
 import org.neo4j.graphalgo.core.GraphDimensions;
+import org.neo4j.graphalgo.core.HugeNodePropertyStore;
+import org.neo4j.graphalgo.core.HugeNullWeightMap;
 import org.neo4j.graphalgo.core.HugeWeightMap;
 import org.neo4j.graphalgo.core.utils.ApproximatedImportProgress;
 import org.neo4j.graphalgo.core.utils.ImportProgress;
 import org.neo4j.graphalgo.core.utils.ParallelUtil;
 import org.neo4j.graphalgo.core.utils.ProgressLogger;
 import org.neo4j.graphalgo.core.utils.StatementAction;
+import org.neo4j.graphalgo.core.utils.mem.MemoryEstimation;
+import org.neo4j.graphalgo.core.utils.mem.MemoryEstimations;
 import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.DoubleArray;
 import org.neo4j.graphalgo.core.utils.paged.HugeLongArray;
 import org.neo4j.internal.kernel.api.CursorFactory;
 import org.neo4j.internal.kernel.api.NodeCursor;
 import org.neo4j.internal.kernel.api.Read;
 import org.neo4j.kernel.api.KernelTransaction;
+import org.neo4j.kernel.api.StatementConstants;
 import org.neo4j.kernel.internal.GraphDatabaseAPI;
 
 import java.util.Arrays;
@@ -48,9 +57,54 @@ public final class HugeGraphFactory extends GraphFactory {
 
     @Override
     public HugeGraph build() {
+        if (setup.incremental) {
+            return importIncrementalGraph();
+        }
         return importGraph();
     }
 
+    @Override
+    public MemoryEstimation memoryEstimation() {
+        MemoryEstimations.Builder builder = MemoryEstimations.builder(HugeGraph.class)
+                .add(HugeIdMap.memoryEstimation());
+        addRelationshipEstimations(builder, setup, loadWeights());
+        for (PropertyMapping mapping : setup.nodePropertyMappings) {
+            if (dimensions.nodePropertyKeyId(mapping.type) != StatementConstants.NO_SUCH_PROPERTY_KEY) {
+                builder.perNode("node property " + mapping.type, mapping.longValues
+                        ? HugeLongArray::estimateMemoryUsage
+                        : DoubleArray::estimateMemoryUsage);
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Adds the adjacency of every loaded direction and the weights that are not inlined.
+     */
+    static void addRelationshipEstimations(
+            MemoryEstimations.Builder builder,
+            GraphSetup setup,
+            boolean loadWeights) {
+        boolean inlineWeights = loadWeights && setup.inlineRelationshipWeights;
+        boolean onHeap = setup.adjacencyStorage == AdjacencyStorage.HEAP;
+        if (setup.loadAsUndirected) {
+            builder.add(HugeAdjacencyList.memoryEstimation(
+                    "outgoing", 2, inlineWeights, setup.adjacencySkipIndex, setup.adjacencyCodec, onHeap));
+        } else {
+            if (setup.loadOutgoing) {
+                builder.add(HugeAdjacencyList.memoryEstimation(
+                        "outgoing", 1, inlineWeights, setup.adjacencySkipIndex, setup.adjacencyCodec, onHeap));
+            }
+            if (setup.loadIncoming) {
+                builder.add(HugeAdjacencyList.memoryEstimation(
+                        "incoming", 1, inlineWeights, setup.adjacencySkipIndex, setup.adjacencyCodec, onHeap));
+            }
+        }
+        if (loadWeights && !inlineWeights) {
+            builder.add(HugeWeightMap.memoryEstimation());
+        }
+    }
+
     @Override
     protected ImportProgress importProgress(
             final ProgressLogger progressLogger,
@@ -79,24 +133,116 @@ public final class HugeGraphFactory extends GraphFactory {
     private HugeGraph importGraph() {
         int concurrency = setup.concurrency();
         AllocationTracker tracker = setup.tracker;
-        HugeWeightMapping weights = hugeWeightMapping(tracker, dimensions.relWeightId(), setup.relationDefaultWeight);
-        HugeIdMap mapping = loadHugeIdMap(tracker);
-        HugeGraph graph = loadRelationships(dimensions, mapping, weights, concurrency, tracker, progress);
+        HugeNodePropertyStore nodeProperties = newNodePropertyStore(tracker);
+        HugeIdMap mapping = loadHugeIdMap(tracker, nodeProperties);
+        HugeGraph graph;
+        if (setup.splitRelationshipTypes && !setup.loadAnyRelationshipType()) {
+            HugeGraph[] graphs = loadRelationships(
+                    dimensions,
+                    mapping,
+                    nodeProperties,
+                    dimensions.splitRelationshipTypeIds(),
+                    concurrency,
+                    tracker,
+                    progress);
+            graph = new HugeMultiTypeGraph(mapping, nodeProperties, setup.relationshipTypes(), graphs);
+        } else {
+            int[][] relationIds = {dimensions.relationshipTypeId()};
+            graph = loadRelationships(
+                    dimensions,
+                    mapping,
+                    nodeProperties,
+                    relationIds,
+                    concurrency,
+                    tracker,
+                    progress)[0];
+        }
+        graph = HugeNodeOrdering.reorder(graph, setup);
         progressLogger.logDone(tracker);
         return graph;
     }
 
-    private HugeGraph loadRelationships(
+    /**
+     * The transaction handler is registered before the import so that no commit
+     * between the node scan and the attachment of the graph gets lost.
+     */
+    private HugeGraph importIncrementalGraph() {
+        if (setup.splitRelationshipTypes) {
+            throw new IllegalArgumentException("Incremental updates are not supported for split relationship types");
+        }
+        if (aggregation() != RelationshipAggregation.NONE) {
+            throw new IllegalArgumentException("Incremental updates are not supported for aggregated relationship weights");
+        }
+        HugeDeltaGraphUpdater updater = HugeDeltaGraphUpdater.register(api, setup);
+        try {
+            HugeGraphImpl graph = (HugeGraphImpl) importGraph();
+            return updater.attach(graph, setup.compactionThreshold);
+        } catch (RuntimeException | Error e) {
+            updater.unregister();
+            throw e;
+        }
+    }
+
+    private HugeNodePropertyStore newNodePropertyStore(AllocationTracker tracker) {
+        PropertyMapping[] mappings = setup.nodePropertyMappings;
+        int[] propertyKeyIds = new int[mappings.length];
+        Arrays.setAll(propertyKeyIds, i -> dimensions.nodePropertyKeyId(mappings[i].type));
+        return HugeNodePropertyStore.of(mappings, propertyKeyIds, dimensions.hugeNodeCount(), tracker);
+    }
+
+    /**
+     * Parallel relationships are always collapsed, accumulating weights sums up their weights.
+     */
+    private RelationshipAggregation aggregation() {
+        if (setup.relationshipAggregation == RelationshipAggregation.NONE && setup.accumulateWeights) {
+            return RelationshipAggregation.SUM;
+        }
+        return setup.relationshipAggregation;
+    }
+
+    /**
+     * Counting parallel relationships yields weights even without a weight property.
+     */
+    private boolean loadWeights() {
+        return dimensions.relWeightId() != StatementConstants.NO_SUCH_PROPERTY_KEY ||
+                aggregation() == RelationshipAggregation.COUNT;
+    }
+
+    private boolean inlineWeights() {
+        return setup.inlineRelationshipWeights && loadWeights();
+    }
+
+    private HugeWeightMapping newWeightMapping(AllocationTracker tracker) {
+        if (inlineWeights()) {
+            return new HugeNullWeightMap(setup.relationDefaultWeight);
+        }
+        return loadWeights()
+                ? new HugeWeightMap(dimensions.hugeNodeCount(), setup.relationDefaultWeight, tracker)
+                : new HugeNullWeightMap(setup.relationDefaultWeight);
+    }
+
+    /**
+     * Loads one graph for every relationship type selector in {@code relationIds},
+     * all graphs share the given id mapping and are imported in a single pass over the nodes.
+     */
+    private HugeGraph[] loadRelationships(
             GraphDimensions dimensions,
             HugeIdMap mapping,
-            HugeWeightMapping weights,
+            HugeNodePropertyStore nodeProperties,
+            int[][] relationIds,
             int concurrency,
             AllocationTracker tracker,
             ImportProgress progress) {
+        final int types = relationIds.length;
+        final HugeWeightMapping[] weights = new HugeWeightMapping[types];
+        Arrays.setAll(weights, i -> newWeightMapping(tracker));
+
         if (setup.loadAsUndirected) {
             return loadUndirectedRelationships(
                     dimensions,
                     mapping,
+                    nodeProperties,
+                    relationIds,
                     weights,
                     concurrency,
                     tracker,
@@ -104,28 +250,27 @@ public final class HugeGraphFactory extends GraphFactory {
         }
 
         final long nodeCount = dimensions.hugeNodeCount();
-        final int[] relationId = dimensions.relationshipTypeId();
         final int weightId = dimensions.relWeightId();
+        // the incoming adjacency is transposed from the outgoing one, which is only read for that if not requested
+        final boolean transpose = setup.loadIncoming && setup.transposeIncoming;
+        final boolean readIncoming = setup.loadIncoming && !transpose;
+        final boolean readOutgoing = setup.loadOutgoing || transpose;
 
-        HugeLongArray inOffsets = null;
-        HugeLongArray outOffsets = null;
-        HugeAdjacencyBuilder inAdjacency = null;
-        HugeAdjacencyBuilder outAdjacency = null;
-        if (setup.loadIncoming) {
-            inOffsets = HugeLongArray.newArray(nodeCount, tracker);
-            inAdjacency = new HugeAdjacencyBuilder(tracker);
-        }
-        if (setup.loadOutgoing) {
-            outOffsets = HugeLongArray.newArray(nodeCount, tracker);
-            outAdjacency = new HugeAdjacencyBuilder(tracker);
+        HugeLongArray[] inOffsets = new HugeLongArray[types];
+        HugeLongArray[] outOffsets = new HugeLongArray[types];
+        HugeAdjacencyBuilder[] inAdjacency = new HugeAdjacencyBuilder[types];
+        HugeAdjacencyBuilder[] outAdjacency = new HugeAdjacencyBuilder[types];
+        for (int i = 0; i < types; i++) {
+            if (readIncoming) {
+                inOffsets[i] = HugeLongArray.newArray(nodeCount, tracker);
+                inAdjacency[i] = newAdjacencyBuilder(tracker);
+            }
+            if (readOutgoing) {
+                outOffsets[i] = HugeLongArray.newArray(nodeCount, tracker);
+                outAdjacency[i] = newAdjacencyBuilder(tracker);
+            }
         }
-        if (setup.loadIncoming || setup.loadOutgoing) {
-            // needs final b/c of reference from lambda
-            final HugeLongArray finalInOffsets = inOffsets;
-            final HugeLongArray finalOutOffsets = outOffsets;
-            final HugeAdjacencyBuilder finalInAdjacency = inAdjacency;
-            final HugeAdjacencyBuilder finalOutAdjacency = outAdjacency;
-
+        if (readIncoming || readOutgoing) {
             NodeQueue nodes = new NodeQueue(nodeCount);
             HugeRelationshipImporter[] tasks = new HugeRelationshipImporter[concurrency];
             Arrays.setAll(tasks, i -> new HugeRelationshipImporter(
@@ -134,42 +279,81 @@ public final class HugeGraphFactory extends GraphFactory {
                     nodes,
                     progress,
                     mapping,
-                    finalInOffsets,
-                    finalOutOffsets,
-                    finalInAdjacency,
-                    finalOutAdjacency,
+                    inOffsets,
+                    outOffsets,
+                    inAdjacency,
+                    outAdjacency,
                     false,
-                    relationId,
+                    relationIds,
                     weightId,
+                    setup.relationDefaultWeight,
+                    aggregation(),
                     weights
             ));
-            ParallelUtil.run(Arrays.asList(tasks), threadPool);
+            try {
+                ParallelUtil.run(Arrays.asList(tasks), threadPool);
+            } catch (RuntimeException | Error e) {
+                for (int i = 0; i < types; i++) {
+                    HugeAdjacencyBuilder.abort(e, inAdjacency[i], outAdjacency[i]);
+                }
+                throw e;
+            }
         }
 
-        return HugeAdjacencyBuilder.apply(
+        HugeGraph[] graphs = new HugeGraph[types];
+        for (int i = 0; i < types; i++) {
+            graphs[i] = HugeAdjacencyBuilder.apply(
+                    tracker,
+                    mapping,
+                    nodeProperties,
+                    weights[i],
+                    inAdjacency[i],
+                    outAdjacency[i],
+                    inOffsets[i],
+                    outOffsets[i]
+            );
+            if (transpose) {
+                graphs[i] = HugeAdjacencyTranspose.withIncoming(
+                        (HugeGraphImpl) graphs[i],
+                        newAdjacencyBuilder(tracker),
+                        setup.loadOutgoing,
+                        concurrency,
+                        threadPool,
+                        tracker);
+            }
+        }
+        return graphs;
+    }
+
+    private HugeAdjacencyBuilder newAdjacencyBuilder(AllocationTracker tracker) {
+        return new HugeAdjacencyBuilder(
                 tracker,
-                mapping,
-                weights,
-                inAdjacency,
-                outAdjacency,
-                inOffsets,
-                outOffsets
-        );
+                inlineWeights(),
+                setup.adjacencySkipIndex,
+                setup.adjacencyStorage,
+                setup.adjacencyStorageDirectory,
+                setup.adjacencyCodec);
     }
 
-    private HugeGraph loadUndirectedRelationships(
+    private HugeGraph[] loadUndirectedRelationships(
             GraphDimensions dimensions,
             HugeIdMap mapping,
-            HugeWeightMapping weights,
+            HugeNodePropertyStore nodeProperties,
+            int[][] relationIds,
+            HugeWeightMapping[] weights,
             int concurrency,
             AllocationTracker tracker,
             ImportProgress progress) {
+        final int types = relationIds.length;
         final long nodeCount = dimensions.hugeNodeCount();
-        final int[] relationId = dimensions.relationshipTypeId();
         final int weightId = dimensions.relWeightId();
 
-        HugeLongArray offsets = HugeLongArray.newArray(nodeCount, tracker);
-        HugeAdjacencyBuilder adjacency = new HugeAdjacencyBuilder(tracker);
+        HugeLongArray[] offsets = new HugeLongArray[types];
+        HugeAdjacencyBuilder[] adjacency = new HugeAdjacencyBuilder[types];
+        for (int i = 0; i < types; i++) {
+            offsets[i] = HugeLongArray.newArray(nodeCount, tracker);
+            adjacency[i] = newAdjacencyBuilder(tracker);
+        }
 
         NodeQueue nodes = new NodeQueue(nodeCount);
         HugeRelationshipImporter[] tasks = new HugeRelationshipImporter[concurrency];
@@ -179,26 +363,38 @@ public final class HugeGraphFactory extends GraphFactory {
                 nodes,
                 progress,
                 mapping,
-                null,
+                new HugeLongArray[types],
                 offsets,
-                null,
+                new HugeAdjacencyBuilder[types],
                 adjacency,
                 true,
-                relationId,
+                relationIds,
                 weightId,
+                setup.relationDefaultWeight,
+                aggregation(),
                 weights
         ));
-        ParallelUtil.run(Arrays.asList(tasks), threadPool);
+        try {
+            ParallelUtil.run(Arrays.asList(tasks), threadPool);
+        } catch (RuntimeException | Error e) {
+            HugeAdjacencyBuilder.abort(e, adjacency);
+            throw e;
+        }
 
-        return HugeAdjacencyBuilder.apply(
-                tracker,
-                mapping,
-                weights,
-                null,
-                adjacency,
-                null,
-                offsets
-        );
+        HugeGraph[] graphs = new HugeGraph[types];
+        for (int i = 0; i < types; i++) {
+            graphs[i] = HugeAdjacencyBuilder.apply(
+                    tracker,
+                    mapping,
+                    nodeProperties,
+                    weights[i],
+                    null,
+                    adjacency[i],
+                    null,
+                    offsets[i]
+            );
+        }
+        return graphs;
     }
 
     private static final class NodeQueue {
@@ -220,29 +416,36 @@ public final class HugeGraphFactory extends GraphFactory {
         private final ImportProgress progress;
         private final NodeQueue nodes;
         private final HugeIdMap idMap;
-        private final HugeLongArray inOffsets;
-        private final HugeLongArray outOffsets;
-        private final HugeAdjacencyBuilder inAllocator;
-        private final HugeAdjacencyBuilder outAllocator;
-        private final int[] relationId;
+        private final HugeLongArray[] inOffsets;
+        private final HugeLongArray[] outOffsets;
+        private final HugeAdjacencyBuilder[] inAllocators;
+        private final HugeAdjacencyBuilder[] outAllocators;
+        private final int[][] relationIds;
         private final int weightId;
-        private final HugeWeightMapping weights;
+        private final double defaultWeight;
+        private final RelationshipAggregation aggregation;
+        private final HugeWeightMapping[] weights;
         private final boolean undirected;
 
+        /**
+         * All arrays are indexed by relationship type selector, see {@code relationIds}.
+         */
         HugeRelationshipImporter(
                 GraphDatabaseAPI api,
                 int batchIndex,
                 NodeQueue nodes,
                 ImportProgress progress,
                 HugeIdMap idMap,
-                HugeLongArray inOffsets,
-                HugeLongArray outOffsets,
-                HugeAdjacencyBuilder inAdjacency,
-                HugeAdjacencyBuilder outAdjacency,
+                HugeLongArray[] inOffsets,
+                HugeLongArray[] outOffsets,
+                HugeAdjacencyBuilder[] inAdjacency,
+                HugeAdjacencyBuilder[] outAdjacency,
                 boolean undirected,
-                int[] relationId,
+                int[][] relationIds,
                 int weightId,
-                HugeWeightMapping weights) {
+                double defaultWeight,
+                RelationshipAggregation aggregation,
+                HugeWeightMapping[] weights) {
             super(api);
             this.batchIndex = batchIndex;
             this.progress = progress;
@@ -250,10 +453,16 @@ public final class HugeGraphFactory extends GraphFactory {
             this.idMap = idMap;
             this.inOffsets = inOffsets;
             this.outOffsets = outOffsets;
-            this.inAllocator = inAdjacency != null ? inAdjacency.threadLocalCopy() : null;
-            this.outAllocator = outAdjacency != null ? outAdjacency.threadLocalCopy() : null;
-            this.relationId = relationId;
+            this.inAllocators = new HugeAdjacencyBuilder[relationIds.length];
+            this.outAllocators = new HugeAdjacencyBuilder[relationIds.length];
+            for (int i = 0; i < relationIds.length; i++) {
+                this.inAllocators[i] = inAdjacency[i] != null ? inAdjacency[i].threadLocalCopy() : null;
+                this.outAllocators[i] = outAdjacency[i] != null ? outAdjacency[i].threadLocalCopy() : null;
+            }
+            this.relationIds = relationIds;
             this.weightId = weightId;
+            this.defaultWeight = defaultWeight;
+            this.aggregation = aggregation;
             this.weights = weights;
             this.undirected = undirected;
         }
@@ -265,12 +474,62 @@ public final class HugeGraphFactory extends GraphFactory {
 
         @Override
         public void accept(final KernelTransaction transaction) {
+            RelationshipLoader[] loaders = new RelationshipLoader[relationIds.length];
+            for (int i = 0; i < relationIds.length; i++) {
+                loaders[i] = newLoader(
+                        transaction,
+                        relationIds[i],
+                        inOffsets[i],
+                        outOffsets[i],
+                        inAllocators[i],
+                        outAllocators[i],
+                        weights[i]);
+            }
+
             Read readOp = transaction.dataRead();
             CursorFactory cursors = transaction.cursors();
-            boolean shouldLoadWeights = weightId >= 0;
-            HugeWeightMap weightMap = shouldLoadWeights ? (HugeWeightMap) weights : null;
+            try (NodeCursor nodeCursor = cursors.allocateNodeCursor()) {
+                NodeQueue nodes = this.nodes;
+                int imported;
+                long sourceNodeId, nodeId;
+                while ((nodeId = nodes.next()) != -1L) {
+                    sourceNodeId = idMap.toOriginalNodeId(nodeId);
+                    readOp.singleNode(sourceNodeId, nodeCursor);
+                    if (nodeCursor.next()) {
+                        for (RelationshipLoader loader : loaders) {
+                            imported = loader.load(nodeCursor, nodeId);
+                            progress.relationshipsImported(imported);
+                        }
+                    }
+                }
+            }
+            for (int i = 0; i < relationIds.length; i++) {
+                if (outAllocators[i] != null) {
+                    outAllocators[i].flush();
+                }
+                if (inAllocators[i] != null) {
+                    inAllocators[i].flush();
+                }
+            }
+        }
+
+        private RelationshipLoader newLoader(
+                KernelTransaction transaction,
+                int[] relationId,
+                HugeLongArray inOffsets,
+                HugeLongArray outOffsets,
+                HugeAdjacencyBuilder inAllocator,
+                HugeAdjacencyBuilder outAllocator,
+                HugeWeightMapping weights) {
+            Read readOp = transaction.dataRead();
+            CursorFactory cursors = transaction.cursors();
+            boolean shouldLoadWeights = weightId >= 0 || aggregation == RelationshipAggregation.COUNT;
+            boolean inlineWeights = shouldLoadWeights && (outAllocator != null
+                    ? outAllocator.hasWeights()
+                    : inAllocator != null && inAllocator.hasWeights());
+            HugeWeightMap weightMap = shouldLoadWeights && !inlineWeights ? (HugeWeightMap) weights : null;
+            boolean aggregateWeights = shouldLoadWeights && aggregation != RelationshipAggregation.NONE;
 
-            final RelationshipLoader loader;
             if (undirected) {
                 assert outOffsets != null;
                 assert outAllocator != null;
@@ -278,60 +537,62 @@ public final class HugeGraphFactory extends GraphFactory {
                 outAllocator.prepare();
                 final VisitRelationship visitIn;
                 final VisitRelationship visitOut;
-                if (shouldLoadWeights) {
+                if (aggregateWeights) {
+                    // both visitors share the buffer of the node, the outgoing visitor writes the weights
+                    visitIn = new VisitIncomingWithAggregatedWeight(readOp, cursors, idMap, null, defaultWeight, weightId, aggregation);
+                    visitOut = new VisitOutgoingWithAggregatedWeight(readOp, cursors, idMap, weightMap, defaultWeight, weightId, aggregation);
+                } else if (inlineWeights) {
+                    visitIn = new VisitIncomingWithInlineWeight(readOp, cursors, idMap, defaultWeight, weightId);
+                    visitOut = new VisitOutgoingWithInlineWeight(readOp, cursors, idMap, defaultWeight, weightId);
+                } else if (shouldLoadWeights) {
                     visitIn = new VisitIncomingNoWeight(idMap);
                     visitOut = new VisitUndirectedOutgoingWithWeight(readOp, cursors, idMap, weightMap, weightId);
                 } else {
                     visitIn = new VisitIncomingNoWeight(idMap);
                     visitOut = new VisitOutgoingNoWeight(idMap);
                 }
-                loader = new ReadUndirected(transaction, outOffsets, outAllocator, relationId, visitOut, visitIn);
-            } else {
-                RelationshipLoader load = null;
-                if (outAllocator != null) {
-                    outAllocator.prepare();
-                    final VisitRelationship visitOut;
-                    if (shouldLoadWeights) {
-                        visitOut = new VisitOutgoingWithWeight(readOp, cursors, idMap, weightMap, weightId);
-                    } else {
-                        visitOut = new VisitOutgoingNoWeight(idMap);
-                    }
-                    load = new ReadOutgoing(transaction, outOffsets, outAllocator, relationId, visitOut);
+                return new ReadUndirected(transaction, outOffsets, outAllocator, relationId, visitOut, visitIn);
+            }
+
+            RelationshipLoader load = null;
+            if (outAllocator != null) {
+                outAllocator.prepare();
+                final VisitRelationship visitOut;
+                if (aggregateWeights) {
+                    visitOut = new VisitOutgoingWithAggregatedWeight(readOp, cursors, idMap, weightMap, defaultWeight, weightId, aggregation);
+                } else if (inlineWeights) {
+                    visitOut = new VisitOutgoingWithInlineWeight(readOp, cursors, idMap, defaultWeight, weightId);
+                } else if (shouldLoadWeights) {
+                    visitOut = new VisitOutgoingWithWeight(readOp, cursors, idMap, weightMap, weightId);
+                } else {
+                    visitOut = new VisitOutgoingNoWeight(idMap);
                 }
-                if (inAllocator != null) {
-                    inAllocator.prepare();
-                    final VisitRelationship visitIn;
-                    if (shouldLoadWeights) {
-                        visitIn = new VisitIncomingWithWeight(readOp, cursors, idMap, weightMap, weightId);
-                    } else {
-                        visitIn = new VisitIncomingNoWeight(idMap);
-                    }
-                    if (load != null) {
-                        load = new ReadBoth((ReadOutgoing) load, visitIn, inOffsets, inAllocator);
-                    } else {
-                        load = new ReadIncoming(transaction, inOffsets, inAllocator, relationId, visitIn);
-                    }
+                load = new ReadOutgoing(transaction, outOffsets, outAllocator, relationId, visitOut);
+            }
+            if (inAllocator != null) {
+                inAllocator.prepare();
+                final VisitRelationship visitIn;
+                if (aggregateWeights) {
+                    // the outgoing visitor already writes the same aggregated weights
+                    HugeWeightMap inWeightMap = load != null ? null : weightMap;
+                    visitIn = new VisitIncomingWithAggregatedWeight(readOp, cursors, idMap, inWeightMap, defaultWeight, weightId, aggregation);
+                } else if (inlineWeights) {
+                    visitIn = new VisitIncomingWithInlineWeight(readOp, cursors, idMap, defaultWeight, weightId);
+                } else if (shouldLoadWeights) {
+                    visitIn = new VisitIncomingWithWeight(readOp, cursors, idMap, weightMap, weightId);
+                } else {
+                    visitIn = new VisitIncomingNoWeight(idMap);
                 }
                 if (load != null) {
-                    loader = load;
+                    load = new ReadBoth((ReadOutgoing) load, visitIn, inOffsets, inAllocator);
                 } else {
-                    loader = new ReadNothing(transaction, relationId);
+                    load = new ReadIncoming(transaction, inOffsets, inAllocator, relationId, visitIn);
                 }
             }
-
-            try (NodeCursor nodeCursor = cursors.allocateNodeCursor()) {
-                NodeQueue nodes = this.nodes;
-                int imported;
-                long sourceNodeId, nodeId;
-                while ((nodeId = nodes.next()) != -1L) {
-                    sourceNodeId = idMap.toOriginalNodeId(nodeId);
-                    readOp.singleNode(sourceNodeId, nodeCursor);
-                    if (nodeCursor.next()) {
-                        imported = loader.load(nodeCursor, nodeId);
-                        progress.relationshipsImported(imported);
-                    }
-                }
+            if (load != null) {
+                return load;
             }
+            return new ReadNothing(transaction, relationId);
         }
     }
 }
@@ -21,11 +21,14 @@ package org.neo4j.graphalgo.core.huge;
 import org.neo4j.collection.primitive.PrimitiveLongIterable;
 import org.neo4j.collection.primitive.PrimitiveLongIterator;
 import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.api.HugeNeighbourCursor;
 import org.neo4j.graphalgo.api.HugeRelationshipConsumer;
+import org.neo4j.graphalgo.api.HugeWeightedRelationshipConsumer;
 import org.neo4j.graphalgo.api.RelationshipIntersect;
 import org.neo4j.graphalgo.api.HugeWeightMapping;
 import org.neo4j.graphalgo.api.RelationshipConsumer;
 import org.neo4j.graphalgo.api.WeightedRelationshipConsumer;
+import org.neo4j.graphalgo.core.HugeNodePropertyStore;
 import org.neo4j.graphalgo.core.utils.RawValues;
 import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
 import org.neo4j.graphalgo.core.utils.paged.HugeLongArray;
@@ -45,20 +48,31 @@ import java.util.function.LongPredicate;
  * <p>
  * The data is in the format:
  * <blockquote>
- * <code>degree</code> ~ <code>targetId</code><sub><code>1</code></sub> ~ <code>targetId</code><sub><code>2</code></sub> ~ <code>targetId</code><sub><code>n</code></sub>
+ * <code>degree</code> ~ <code>weights</code> ~ <code>skip index</code> ~ <code>targetIds</code>
  * </blockquote>
  * The {@code degree} is stored as a fill-sized 4 byte long {@code int}
  * (the neo kernel api returns an int for {@link org.neo4j.internal.kernel.api.helpers.Nodes#countAll(NodeCursor, CursorFactory)}).
- * Every target ID is first sorted, then delta encoded, and finally written as variable-length vlongs.
- * The delta encoding does not write the actual value but only the difference to the previous value, which plays very nice with the vlong encoding.
+ * <p>
+ * If the graph was loaded with relationship weights, {@code degree} 8 byte doubles follow, one for every
+ * target in the order of the sorted targets, so that a weighted traversal does not have to look them up.
+ * <p>
+ * If the adjacency has a skip index, it follows next. There is one 12 byte entry for every chunk
+ * of 64 targets but the first one, storing the last target of the previous chunk and the byte offset of
+ * the chunk, so that {@link #exists(long, long, Direction)} and intersections can jump to the chunk
+ * that may contain a target instead of decoding every target before it.
+ * <p>
+ * Every target ID is first sorted, then delta encoded, and finally written with the
+ * {@link org.neo4j.graphalgo.api.AdjacencyCodec} of the graph – either as variable-length vlongs
+ * ({@code VARLONG}) or as bit packed blocks of 64 deltas with patched exceptions ({@code PFOR}).
+ * The delta encoding does not write the actual value but only the difference to the previous value, which plays very nice with both encodings.
  * <p>
  * The seconds data structure is a LongArray, which is a long[] addressable by longs
  * and capable of storing about 2^43 (~9k bn) longs – or 64 TiB worth of 64 bit longs.
  * The data is the offset address into the aforementioned adjacency array, the index is the respective source node id.
  * <p>
  * To traverse all nodes, first access to offset from the LongArray, then read
- * 4 bytes into the {@code degree} from the ByteArray, starting from the offset, then read
- * {@code degree} vlongs as targetId.
+ * 4 bytes into the {@code degree} from the ByteArray, starting from the offset, then skip
+ * the weights and the skip index if present, and decode {@code degree} targetIds.
  * <p>
  * <p>
  * The graph encoding (sans delta+vlong) is similar to that of the
@@ -83,6 +97,7 @@ public class HugeGraphImpl implements HugeGraph {
     private final HugeIdMap idMapping;
     private final AllocationTracker tracker;
 
+    private HugeNodePropertyStore nodeProperties;
     private HugeWeightMapping weights;
     private HugeAdjacencyList inAdjacency;
     private HugeAdjacencyList outAdjacency;
@@ -91,11 +106,14 @@ public class HugeGraphImpl implements HugeGraph {
     private HugeAdjacencyList.Cursor empty;
     private HugeAdjacencyList.Cursor inCache;
     private HugeAdjacencyList.Cursor outCache;
+    private NeighbourCursor neighbours;
     private boolean canRelease = true;
+    private Runnable onRelease;
 
     HugeGraphImpl(
             final AllocationTracker tracker,
             final HugeIdMap idMapping,
+            final HugeNodePropertyStore nodeProperties,
             final HugeWeightMapping weights,
             final HugeAdjacencyList inAdjacency,
             final HugeAdjacencyList outAdjacency,
@@ -103,6 +121,7 @@ public class HugeGraphImpl implements HugeGraph {
             final HugeLongArray outOffsets) {
         this.idMapping = idMapping;
         this.tracker = tracker;
+        this.nodeProperties = nodeProperties;
         this.weights = weights;
         this.inAdjacency = inAdjacency;
         this.outAdjacency = outAdjacency;
@@ -113,6 +132,45 @@ public class HugeGraphImpl implements HugeGraph {
         empty = inCache == null ? newCursor(this.outAdjacency) : newCursor(this.inAdjacency);
     }
 
+    HugeIdMap idMapping() {
+        return idMapping;
+    }
+
+    AllocationTracker tracker() {
+        return tracker;
+    }
+
+    @Override
+    public long relationshipCount() {
+        HugeLongArray offsets = outOffsets != null ? outOffsets : inOffsets;
+        HugeAdjacencyList adjacency = outOffsets != null ? outAdjacency : inAdjacency;
+        long count = 0L;
+        if (offsets != null) {
+            long nodeCount = idMapping.nodeCount();
+            for (long node = 0L; node < nodeCount; node++) {
+                count += degree(node, offsets, adjacency);
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public HugeNodePropertyStore nodePropertyStore() {
+        return nodeProperties;
+    }
+
+    HugeWeightMapping weights() {
+        return weights;
+    }
+
+    HugeAdjacencyList adjacency(Direction direction) {
+        return direction == Direction.OUTGOING ? outAdjacency : inAdjacency;
+    }
+
+    HugeLongArray offsets(Direction direction) {
+        return direction == Direction.OUTGOING ? outOffsets : inOffsets;
+    }
+
     @Override
     public long nodeCount() {
         return idMapping.nodeCount();
@@ -133,16 +191,42 @@ public class HugeGraphImpl implements HugeGraph {
         return idMapping.hugeNodeIterator();
     }
 
+    /**
+     * O(n) ! if the weights are stored inline with the adjacency.
+     */
     @Override
     public double weightOf(final long sourceNodeId, final long targetNodeId) {
+        if (outAdjacency != null && outAdjacency.hasWeights()) {
+            return inlineWeightOf(sourceNodeId, targetNodeId, outOffsets, outAdjacency);
+        }
+        if (inAdjacency != null && inAdjacency.hasWeights()) {
+            return inlineWeightOf(targetNodeId, sourceNodeId, inOffsets, inAdjacency);
+        }
         return weights.weight(sourceNodeId, targetNodeId);
     }
 
+    private double inlineWeightOf(long node, long target, HugeLongArray offsets, HugeAdjacencyList adjacency) {
+        long offset = offsets.get(node);
+        if (offset != 0L) {
+            // weightOf is expected to be thread-safe, so the cached cursors cannot be used
+            HugeAdjacencyList.Cursor cursor = adjacency.deltaCursor(adjacency.newCursor(), offset);
+            if (cursor.seek(target) == target) {
+                return cursor.weight();
+            }
+        }
+        return weights.weight(node, target);
+    }
+
     @Override
     public void forEachRelationship(long nodeId, Direction direction, HugeRelationshipConsumer consumer) {
         runForEach(nodeId, direction, consumer, /* reuseCursor */ true);
     }
 
+    @Override
+    public void forEachRelationship(long nodeId, Direction direction, HugeWeightedRelationshipConsumer consumer) {
+        runForEach(nodeId, direction, consumer, /* reuseCursor */ true);
+    }
+
     @Override
     public void forEachRelationship(int nodeId, Direction direction, RelationshipConsumer consumer) {
         switch (direction) {
@@ -233,11 +317,15 @@ public class HugeGraphImpl implements HugeGraph {
         runForEach(
                 Integer.toUnsignedLong(nodeId),
                 Direction.INCOMING,
-                toHugeInConsumer(consumer),
+                toHugeInWeightedConsumer(consumer),
                 /* reuseCursor */ false
         );
     }
 
+    public void forEachWeightedIncoming(long nodeId, HugeWeightedRelationshipConsumer consumer) {
+        runForEach(nodeId, Direction.INCOMING, consumer, /* reuseCursor */ true);
+    }
+
     @Override
     public void forEachOutgoing(long node, final HugeRelationshipConsumer consumer) {
         runForEach(node, Direction.OUTGOING, consumer, /* reuseCursor */ true);
@@ -257,16 +345,32 @@ public class HugeGraphImpl implements HugeGraph {
         runForEach(
                 Integer.toUnsignedLong(nodeId),
                 Direction.OUTGOING,
-                toHugeOutConsumer(consumer),
+                toHugeOutWeightedConsumer(consumer),
                 /* reuseCursor */ false
         );
     }
 
+    public void forEachWeightedOutgoing(long nodeId, HugeWeightedRelationshipConsumer consumer) {
+        runForEach(nodeId, Direction.OUTGOING, consumer, /* reuseCursor */ true);
+    }
+
+    /**
+     * Decodes the targets block by block directly into the buffers of the caller.
+     */
+    @Override
+    public HugeNeighbourCursor neighbours(long nodeId, Direction direction) {
+        if (neighbours == null) {
+            neighbours = new NeighbourCursor();
+        }
+        return neighbours.init(nodeId, direction);
+    }
+
     @Override
     public HugeGraph concurrentCopy() {
         return new HugeGraphImpl(
                 tracker,
                 idMapping,
+                nodeProperties,
                 weights,
                 inAdjacency,
                 outAdjacency,
@@ -275,13 +379,24 @@ public class HugeGraphImpl implements HugeGraph {
         );
     }
 
+    /**
+     * Returns a copy that shares all data with this graph, like {@link #concurrentCopy()}.
+     * Releasing the copy never frees the shared data, it only runs {@code onRelease} the first time.
+     */
+    public HugeGraph sharedCopy(Runnable onRelease) {
+        HugeGraphImpl copy = (HugeGraphImpl) concurrentCopy();
+        copy.canRelease = false;
+        copy.onRelease = onRelease;
+        return copy;
+    }
+
     @Override
     public RelationshipIntersect intersection() {
         return new HugeGraphIntersectImpl(outAdjacency, outOffsets);
     }
 
     /**
-     * O(n) !
+     * O(log n) if the graph was loaded with a skip index, O(n) otherwise.
      */
     @Override
     public boolean exists(int sourceNodeId, int targetNodeId, Direction direction) {
@@ -295,7 +410,7 @@ public class HugeGraphImpl implements HugeGraph {
     }
 
     /**
-     * O(n) !
+     * O(log n) if the graph was loaded with a skip index, O(n) otherwise.
      */
     @Override
     public boolean exists(long sourceNodeId, long targetNodeId, Direction direction) {
@@ -308,10 +423,23 @@ public class HugeGraphImpl implements HugeGraph {
         );
     }
 
-    private boolean exists(long sourceNodeId, long targetNodeId, Direction direction, boolean reuseCursor) {
-        ExistsConsumer consumer = new ExistsConsumer(targetNodeId);
-        runForEach(sourceNodeId, direction, consumer, reuseCursor);
-        return consumer.found;
+    /**
+     * Thread-safe check whether the relationship {@code (source)-->(target)} exists in any loaded direction.
+     */
+    boolean containsRelationship(long sourceNodeId, long targetNodeId) {
+        if (outAdjacency != null) {
+            return exists(sourceNodeId, targetNodeId, Direction.OUTGOING, false);
+        }
+        return inAdjacency != null && exists(targetNodeId, sourceNodeId, Direction.INCOMING, false);
+    }
+
+    boolean exists(long sourceNodeId, long targetNodeId, Direction direction, boolean reuseCursor) {
+        if (direction == Direction.BOTH) {
+            return exists(sourceNodeId, targetNodeId, Direction.OUTGOING, reuseCursor) ||
+                    exists(sourceNodeId, targetNodeId, Direction.INCOMING, reuseCursor);
+        }
+        HugeAdjacencyList.Cursor cursor = forEachCursor(sourceNodeId, direction, reuseCursor);
+        return cursor.hasNextVLong() && cursor.seek(targetNodeId) == targetNodeId;
     }
 
     @Override
@@ -326,7 +454,7 @@ public class HugeGraphImpl implements HugeGraph {
     }
 
     /*
-     * O(n) !
+     * O(1) if the graph was loaded with a skip index, O(n) otherwise.
      */
     @Override
     public long getTarget(long sourceNodeId, long index, Direction direction) {
@@ -339,13 +467,22 @@ public class HugeGraphImpl implements HugeGraph {
         );
     }
 
-    private long getTarget(long sourceNodeId, long index, Direction direction, boolean reuseCursor) {
-        GetTargetConsumer consumer = new GetTargetConsumer(index);
-        runForEach(sourceNodeId, direction, consumer, reuseCursor);
-        return consumer.target;
+    long getTarget(long sourceNodeId, long index, Direction direction, boolean reuseCursor) {
+        if (direction == Direction.BOTH) {
+            int outDegree = degree(sourceNodeId, Direction.OUTGOING);
+            if (index < outDegree) {
+                return getTarget(sourceNodeId, index, Direction.OUTGOING, reuseCursor);
+            }
+            return getTarget(sourceNodeId, index - outDegree, Direction.INCOMING, reuseCursor);
+        }
+        if (index > Integer.MAX_VALUE) {
+            return -1L;
+        }
+        HugeAdjacencyList.Cursor cursor = forEachCursor(sourceNodeId, direction, reuseCursor);
+        return cursor.targetAt((int) index);
     }
 
-    private void runForEach(
+    void runForEach(
             long sourceNodeId,
             Direction direction,
             HugeRelationshipConsumer consumer,
@@ -359,6 +496,26 @@ public class HugeGraphImpl implements HugeGraph {
         consumeNodes(sourceNodeId, cursor, consumer);
     }
 
+    void runForEach(
+            long sourceNodeId,
+            Direction direction,
+            HugeWeightedRelationshipConsumer consumer,
+            boolean reuseCursor) {
+        if (direction == Direction.BOTH) {
+            runForEach(sourceNodeId, Direction.OUTGOING, consumer, reuseCursor);
+            runForEach(sourceNodeId, Direction.INCOMING, consumer, reuseCursor);
+            return;
+        }
+        HugeAdjacencyList.Cursor cursor = forEachCursor(sourceNodeId, direction, reuseCursor);
+        if (direction == Direction.OUTGOING ? outAdjacency.hasWeights() : inAdjacency.hasWeights()) {
+            consumeNodesWithWeights(sourceNodeId, cursor, consumer);
+        } else if (direction == Direction.OUTGOING) {
+            consumeNodes(sourceNodeId, cursor, (s, t) -> consumer.accept(s, t, weights.weight(s, t)));
+        } else {
+            consumeNodes(sourceNodeId, cursor, (s, t) -> consumer.accept(s, t, weights.weight(t, s)));
+        }
+    }
+
     private HugeAdjacencyList.Cursor forEachCursor(
             long sourceNodeId,
             Direction direction,
@@ -385,6 +542,11 @@ public class HugeGraphImpl implements HugeGraph {
 
     @Override
     public void release() {
+        Runnable hook = onRelease;
+        onRelease = null;
+        if (hook != null) {
+            hook.run();
+        }
         if (!canRelease) return;
         if (inAdjacency != null) {
             tracker.remove(inAdjacency.release());
@@ -401,10 +563,15 @@ public class HugeGraphImpl implements HugeGraph {
         if (weights != null) {
             tracker.remove(weights.release());
         }
+        if (nodeProperties != null) {
+            tracker.remove(nodeProperties.release());
+        }
         empty = null;
         inCache = null;
         outCache = null;
+        neighbours = null;
         weights = null;
+        nodeProperties = null;
     }
 
     private HugeAdjacencyList.Cursor newCursor(final HugeAdjacencyList adjacency) {
@@ -439,6 +606,14 @@ public class HugeGraphImpl implements HugeGraph {
         while (cursor.hasNextVLong() && consumer.accept(startNode, cursor.nextVLong())) ;
     }
 
+    private void consumeNodesWithWeights(
+            long startNode,
+            HugeAdjacencyList.Cursor cursor,
+            HugeWeightedRelationshipConsumer consumer) {
+        //noinspection StatementWithEmptyBody
+        while (cursor.hasNextVLong() && consumer.accept(startNode, cursor.nextVLong(), cursor.weight())) ;
+    }
+
     private HugeRelationshipConsumer toHugeOutConsumer(RelationshipConsumer consumer) {
         return (s, t) -> consumer.accept(
                 (int) s,
@@ -453,61 +628,82 @@ public class HugeGraphImpl implements HugeGraph {
                 RawValues.combineIntInt((int) t, (int) s));
     }
 
-    private HugeRelationshipConsumer toHugeOutConsumer(WeightedRelationshipConsumer consumer) {
-        return (s, t) -> {
-            double weight = weightOf(s, t);
-            return consumer.accept(
-                    (int) s,
-                    (int) t,
-                    RawValues.combineIntInt((int) s, (int) t),
-                    weight);
-        };
-    }
-
-    private HugeRelationshipConsumer toHugeInConsumer(WeightedRelationshipConsumer consumer) {
-        return (s, t) -> {
-            double weight = weightOf(t, s);
-            return consumer.accept(
-                    (int) s,
-                    (int) t,
-                    RawValues.combineIntInt((int) t, (int) s),
-                    weight);
-        };
+    private HugeWeightedRelationshipConsumer toHugeOutWeightedConsumer(WeightedRelationshipConsumer consumer) {
+        return (s, t, weight) -> consumer.accept(
+                (int) s,
+                (int) t,
+                RawValues.combineIntInt((int) s, (int) t),
+                weight);
     }
 
-    private static class GetTargetConsumer implements HugeRelationshipConsumer {
-        private long count;
-        private long target = -1;
-
-        public GetTargetConsumer(long count) {
-            this.count = count;
+    private HugeWeightedRelationshipConsumer toHugeInWeightedConsumer(WeightedRelationshipConsumer consumer) {
+        return (s, t, weight) -> consumer.accept(
+                (int) s,
+                (int) t,
+                RawValues.combineIntInt((int) t, (int) s),
+                weight);
+    }
+
+    private final class NeighbourCursor implements HugeNeighbourCursor {
+        // not shared with the cursors of forEachRelationship, callers may iterate other nodes between two batches
+        private final HugeAdjacencyList.Cursor outCursor = newCursor(outAdjacency);
+        private final HugeAdjacencyList.Cursor inCursor = newCursor(inAdjacency);
+
+        private long nodeId;
+        private Direction direction;
+        private HugeAdjacencyList.Cursor cursor;
+        private boolean readIncoming;
+
+        NeighbourCursor init(long nodeId, Direction direction) {
+            this.nodeId = nodeId;
+            this.direction = direction == Direction.BOTH ? Direction.OUTGOING : direction;
+            this.readIncoming = direction == Direction.BOTH;
+            this.cursor = cursorOf(this.direction);
+            return this;
         }
 
         @Override
-        public boolean accept(long s, long t) {
-            if (count-- == 0) {
-                target = t;
-                return false;
-            }
-            return true;
+        public int nextBatch(long[] targets) {
+            int batch;
+            while ((batch = cursor.nextVLongs(targets, 0, targets.length)) == 0 && nextDirection()) ;
+            return batch;
         }
-    }
 
-    private static class ExistsConsumer implements HugeRelationshipConsumer {
-        private final long targetNodeId;
-        private boolean found = false;
+        @Override
+        public int nextBatch(long[] targets, double[] weights) {
+            int batch;
+            while ((batch = readBatch(targets, weights)) == 0 && nextDirection()) ;
+            return batch;
+        }
 
-        public ExistsConsumer(long targetNodeId) {
-            this.targetNodeId = targetNodeId;
+        private int readBatch(long[] targets, double[] weights) {
+            boolean outgoing = direction == Direction.OUTGOING;
+            if (outgoing ? outAdjacency.hasWeights() : inAdjacency.hasWeights()) {
+                return cursor.nextVLongs(targets, weights, 0, targets.length);
+            }
+            int batch = cursor.nextVLongs(targets, 0, targets.length);
+            HugeWeightMapping weightMap = HugeGraphImpl.this.weights;
+            long nodeId = this.nodeId;
+            for (int i = 0; i < batch; i++) {
+                weights[i] = outgoing ? weightMap.weight(nodeId, targets[i]) : weightMap.weight(targets[i], nodeId);
+            }
+            return batch;
         }
 
-        @Override
-        public boolean accept(long s, long t) {
-            if (t == targetNodeId) {
-                found = true;
+        private boolean nextDirection() {
+            if (!readIncoming) {
                 return false;
             }
+            readIncoming = false;
+            direction = Direction.INCOMING;
+            cursor = cursorOf(direction);
             return true;
         }
+
+        private HugeAdjacencyList.Cursor cursorOf(Direction direction) {
+            return direction == Direction.OUTGOING
+                    ? cursor(nodeId, outCursor, outOffsets, outAdjacency)
+                    : cursor(nodeId, inCursor, inOffsets, inAdjacency);
+        }
     }
 }
@@ -0,0 +1,160 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.huge;
+
+import com.carrotsearch.hppc.DoubleArrayList;
+import com.carrotsearch.hppc.LongArrayList;
+import org.neo4j.graphalgo.api.AdjacencyStorage;
+import org.neo4j.graphalgo.api.HugeWeightMapping;
+import org.neo4j.graphalgo.api.HugeWeightedRelationshipConsumer;
+import org.neo4j.graphalgo.core.HugeNodePropertyStore;
+import org.neo4j.graphalgo.core.HugeWeightMap;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.HugeLongArray;
+import org.neo4j.graphdb.Direction;
+
+import java.nio.file.Path;
+
+/**
+ * Writes the relationships of a graph into a new adjacency and weight map under a new numbering of the nodes.
+ * The new adjacency has the same directions and the same encoding as the one of the {@code template} graph.
+ */
+final class HugeGraphRebuilder {
+
+    /**
+     * Visits the relationships of a node by its id in the old numbering.
+     */
+    interface Relationships {
+        void forEach(long node, Direction direction, HugeWeightedRelationshipConsumer consumer);
+    }
+
+    private HugeGraphRebuilder() {
+        throw new UnsupportedOperationException("No instances");
+    }
+
+    /**
+     * @param oldIds the old id of every new node
+     * @param newIds the new id of every old node, {@link HugeIdMap#NOT_FOUND} for nodes that are removed
+     */
+    static HugeGraphImpl rebuild(
+            HugeGraphImpl template,
+            Relationships relationships,
+            HugeIdMap idMapping,
+            HugeNodePropertyStore nodeProperties,
+            HugeLongArray oldIds,
+            HugeLongArray newIds,
+            AllocationTracker tracker,
+            AdjacencyStorage storage,
+            Path directory) {
+        long nodeCount = idMapping.nodeCount();
+
+        HugeWeightMapping weights = template.weights();
+        HugeWeightMap weightMap = null;
+        if (weights instanceof HugeWeightMap) {
+            weightMap = new HugeWeightMap(nodeCount, ((HugeWeightMap) weights).defaultValue(), tracker);
+            weights = weightMap;
+        }
+
+        HugeAdjacencyBuilder outAdjacency = null;
+        HugeLongArray outOffsets = null;
+        if (template.adjacency(Direction.OUTGOING) != null) {
+            outAdjacency = newAdjacencyBuilder(template.adjacency(Direction.OUTGOING), tracker, storage, directory);
+            outOffsets = HugeLongArray.newArray(nodeCount, tracker);
+            rebuild(relationships, Direction.OUTGOING, nodeCount, oldIds, newIds, outAdjacency, outOffsets, weightMap);
+            weightMap = null;
+        }
+        HugeAdjacencyBuilder inAdjacency = null;
+        HugeLongArray inOffsets = null;
+        if (template.adjacency(Direction.INCOMING) != null) {
+            inAdjacency = newAdjacencyBuilder(template.adjacency(Direction.INCOMING), tracker, storage, directory);
+            inOffsets = HugeLongArray.newArray(nodeCount, tracker);
+            rebuild(relationships, Direction.INCOMING, nodeCount, oldIds, newIds, inAdjacency, inOffsets, weightMap);
+        }
+
+        return (HugeGraphImpl) HugeAdjacencyBuilder.apply(
+                tracker,
+                idMapping,
+                nodeProperties,
+                weights,
+                inAdjacency,
+                outAdjacency,
+                inOffsets,
+                outOffsets);
+    }
+
+    private static HugeAdjacencyBuilder newAdjacencyBuilder(
+            HugeAdjacencyList adjacency,
+            AllocationTracker tracker,
+            AdjacencyStorage storage,
+            Path directory) {
+        return new HugeAdjacencyBuilder(
+                tracker,
+                adjacency.hasWeights(),
+                adjacency.hasSkipIndex(),
+                storage,
+                directory,
+                adjacency.codec());
+    }
+
+    /**
+     * @param weightMap receives the weights of all relationships if not null
+     */
+    private static void rebuild(
+            Relationships relationships,
+            Direction direction,
+            long nodeCount,
+            HugeLongArray oldIds,
+            HugeLongArray newIds,
+            HugeAdjacencyBuilder adjacency,
+            HugeLongArray offsets,
+            HugeWeightMap weightMap) {
+        HugeAdjacencyBuilder builder = adjacency.threadLocalCopy();
+        builder.prepare();
+        LongArrayList targets = new LongArrayList();
+        DoubleArrayList weights = new DoubleArrayList();
+        for (long node = 0L; node < nodeCount; node++) {
+            targets.elementsCount = 0;
+            weights.elementsCount = 0;
+            relationships.forEach(oldIds.get(node), direction, (s, t, w) -> {
+                targets.add(newIds.get(t));
+                weights.add(w);
+                return true;
+            });
+            int degree = targets.size();
+            if (degree > 0) {
+                if (weightMap != null) {
+                    for (int i = 0; i < degree; i++) {
+                        if (direction == Direction.OUTGOING) {
+                            weightMap.put(node, targets.buffer[i], weights.buffer[i]);
+                        } else {
+                            weightMap.put(targets.buffer[i], node, weights.buffer[i]);
+                        }
+                    }
+                }
+                long adjacencyIdx = builder.hasWeights()
+                        ? builder.applyVariableDeltaEncoding(targets.buffer, weights.buffer, degree)
+                        : builder.applyVariableDeltaEncoding(targets.buffer, degree);
+                if (adjacencyIdx != 0L) {
+                    offsets.set(node, adjacencyIdx);
+                }
+            }
+        }
+        builder.flush();
+    }
+}
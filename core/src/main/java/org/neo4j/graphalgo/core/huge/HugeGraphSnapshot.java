@@ -0,0 +1,528 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.huge;
+
+import org.neo4j.graphalgo.api.AdjacencyCodec;
+import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.api.HugeWeightMapping;
+import org.neo4j.graphalgo.core.HugeNodePropertyStore;
+import org.neo4j.graphalgo.core.HugeNullWeightMap;
+import org.neo4j.graphalgo.core.HugeWeightMap;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.HugeLongArray;
+import org.neo4j.graphdb.Direction;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Saves a {@link HugeGraph} to a binary snapshot file and restores it again.
+ * <p>
+ * The restored adjacency lists are memory mapped from the snapshot, without reading or copying them,
+ * only the id mapping, the offsets and the weights – if they are not stored inline – are read onto the heap.
+ * The snapshot must therefore not be modified or deleted while a restored graph is in use.
+ * <p>
+ * All values are little endian, the layout of version {@value #VERSION} is
+ * <pre>
+ * magic:long ~ version:int
+ * nodeCount:long ~ idCapacity:long ~ originalId:long * nodeCount
+ * weights:byte (0 = default value only, 1 = weights section) ~ defaultWeight:double
+ * for outgoing, then incoming:
+ *     present:byte ~ [hasWeights:byte ~ hasSkipIndex:byte ~ codec:byte ~ offset:long * nodeCount]
+ * for outgoing, then incoming, if present:
+ *     numPages:int ~ (position:long ~ length:int) * numPages
+ * weightsPosition:long
+ * adjacency pages at their positions
+ * weights section at weightsPosition: one weight:double per relationship, in the order of iteration
+ * </pre>
+ * Version 1 snapshots have no codec byte, their target ids are always encoded with {@link AdjacencyCodec#VARLONG}.
+ * <p>
+ * The procedures only read and write snapshots in the directory of the {@value #DIRECTORY_SETTING} setting,
+ * see {@link #resolve(Path, String)}.
+ */
+public final class HugeGraphSnapshot {
+
+    /**
+     * server setting with the directory of the snapshot files, saving and restoring is disabled without it
+     */
+    public static final String DIRECTORY_SETTING = "algo.graph.snapshot.dir";
+
+    static final int VERSION = 2;
+    private static final int VERSION_WITHOUT_CODEC = 1;
+
+    // "HUGESNAP"
+    private static final long MAGIC = 0x50414E5345475548L;
+    private static final byte DEFAULT_WEIGHTS = 0;
+    private static final byte WEIGHTS_SECTION = 1;
+    private static final long PAGES_ALIGNMENT = 4096L;
+    private static final Direction[] DIRECTIONS = {Direction.OUTGOING, Direction.INCOMING};
+
+    /**
+     * Resolve the file name of a snapshot against the snapshot directory.
+     * Only relative names that stay within the directory are accepted.
+     *
+     * @param directory the configured snapshot directory, null if snapshots are disabled
+     * @throws IllegalArgumentException if snapshots are disabled or the file is outside of the directory
+     */
+    public static Path resolve(Path directory, String file) {
+        if (directory == null) {
+            throw new IllegalArgumentException("Saving and restoring graphs is disabled, " +
+                    "set " + DIRECTORY_SETTING + " in the server configuration to enable it");
+        }
+        if (file == null || file.isEmpty()) {
+            throw new IllegalArgumentException("The snapshot file must not be empty");
+        }
+        Path relative = Paths.get(file);
+        if (relative.isAbsolute() || relative.getRoot() != null) {
+            throw new IllegalArgumentException("The snapshot file " + file + " must be relative to the snapshot directory");
+        }
+        for (Path element : relative) {
+            if ("..".equals(element.toString())) {
+                throw new IllegalArgumentException("The snapshot file " + file + " must not leave the snapshot directory");
+            }
+        }
+        Path base = directory.toAbsolutePath().normalize();
+        Path resolved = base.resolve(relative).normalize();
+        if (!resolved.startsWith(base) || resolved.equals(base)) {
+            throw new IllegalArgumentException("The snapshot file " + file + " must not leave the snapshot directory");
+        }
+        // symbolic links below the directory must not point outside of it either
+        Path parent = resolved.getParent();
+        try {
+            if (Files.exists(parent) && Files.exists(base) &&
+                    !parent.toRealPath().startsWith(base.toRealPath())) {
+                throw new IllegalArgumentException("The snapshot file " + file + " must not leave the snapshot directory");
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not resolve the snapshot file " + file, e);
+        }
+        return resolved;
+    }
+
+    /**
+     * Write the graph to the given file, replacing any existing content.
+     * Pending changes of an incremental graph are compacted first, the restored graph is not incremental.
+     *
+     * @return the number of bytes written
+     */
+    public static long write(HugeGraph graph, Path file) {
+        if (graph instanceof HugeDeltaGraph) {
+            return ((HugeDeltaGraph) graph).withCompactedBase(compacted -> write(compacted, file));
+        }
+        if (graph instanceof HugeMultiTypeGraph) {
+            throw new IllegalArgumentException("Graphs with split relationship types cannot be saved");
+        }
+        if (!(graph instanceof HugeGraphImpl)) {
+            throw new IllegalArgumentException("Only graphs of type " + HugeGraph.TYPE + " can be saved");
+        }
+        HugeGraphImpl hugeGraph = (HugeGraphImpl) graph;
+        try (FileChannel channel = FileChannel.open(file, CREATE, TRUNCATE_EXISTING, WRITE)) {
+            return write(hugeGraph, new Output(channel));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not save the graph to " + file, e);
+        }
+    }
+
+    /**
+     * Restore a graph from a snapshot that has been created by {@link #write(HugeGraph, Path)}.
+     */
+    public static HugeGraph read(Path file, AllocationTracker tracker) {
+        try (FileChannel channel = FileChannel.open(file, READ)) {
+            return read(new Input(channel), channel, tracker, file);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not restore the graph from " + file, e);
+        }
+    }
+
+    private static long write(HugeGraphImpl graph, Output out) throws IOException {
+        out.putLong(MAGIC);
+        out.putInt(VERSION);
+
+        HugeIdMap idMapping = graph.idMapping();
+        long nodeCount = idMapping.nodeCount();
+        long maxOriginalId = -1L;
+        for (long node = 0L; node < nodeCount; node++) {
+            maxOriginalId = Math.max(maxOriginalId, idMapping.toOriginalNodeId(node));
+        }
+        out.putLong(nodeCount);
+        out.putLong(maxOriginalId + 1L);
+        for (long node = 0L; node < nodeCount; node++) {
+            out.putLong(idMapping.toOriginalNodeId(node));
+        }
+
+        HugeWeightMapping weights = graph.weights();
+        if (weights instanceof HugeWeightMap) {
+            out.putByte(WEIGHTS_SECTION);
+            out.putDouble(((HugeWeightMap) weights).defaultValue());
+        } else if (weights instanceof HugeNullWeightMap) {
+            out.putByte(DEFAULT_WEIGHTS);
+            out.putDouble(((HugeNullWeightMap) weights).defaultValue());
+        } else {
+            throw new IllegalArgumentException("Unsupported weights: " + weights.getClass().getSimpleName());
+        }
+
+        long tablesSize = 8L;
+        for (Direction direction : DIRECTIONS) {
+            HugeAdjacencyList adjacency = graph.adjacency(direction);
+            out.putByte(adjacency != null ? 1 : 0);
+            if (adjacency != null) {
+                out.putByte(adjacency.hasWeights() ? 1 : 0);
+                out.putByte(adjacency.hasSkipIndex() ? 1 : 0);
+                out.putByte(adjacency.codec().ordinal());
+                HugeLongArray offsets = graph.offsets(direction);
+                try (HugeLongArray.Cursor cursor = offsets.cursor(offsets.newCursor())) {
+                    while (cursor.next()) {
+                        long[] array = cursor.array;
+                        for (int i = cursor.offset; i < cursor.limit; i++) {
+                            out.putLong(array[i]);
+                        }
+                    }
+                }
+                tablesSize += 4L + 12L * adjacency.numPages();
+            }
+        }
+
+        long position = alignUp(out.position() + tablesSize);
+        for (Direction direction : DIRECTIONS) {
+            HugeAdjacencyList adjacency = graph.adjacency(direction);
+            if (adjacency != null) {
+                int numPages = adjacency.numPages();
+                out.putInt(numPages);
+                for (int i = 0; i < numPages; i++) {
+                    ByteBuffer page = adjacency.page(i);
+                    int length = page == null ? 0 : page.remaining();
+                    position = OffHeapAdjacencyPages.alignPage(position, length);
+                    out.putLong(position);
+                    out.putInt(length);
+                    position += length;
+                }
+            }
+        }
+        long weightsPosition = position;
+        out.putLong(weightsPosition);
+
+        position = alignUp(out.position());
+        for (Direction direction : DIRECTIONS) {
+            HugeAdjacencyList adjacency = graph.adjacency(direction);
+            if (adjacency != null) {
+                int numPages = adjacency.numPages();
+                for (int i = 0; i < numPages; i++) {
+                    ByteBuffer page = adjacency.page(i);
+                    if (page != null) {
+                        position = OffHeapAdjacencyPages.alignPage(position, page.remaining());
+                        position = out.writeAt(page, position);
+                    }
+                }
+            }
+        }
+        assert position == weightsPosition;
+
+        out.seek(weightsPosition);
+        if (weights instanceof HugeWeightMap) {
+            Direction direction = weightsDirection(graph);
+            for (long node = 0L; node < nodeCount; node++) {
+                graph.forEachRelationship(node, direction, (source, target) -> {
+                    double weight = direction == Direction.OUTGOING
+                            ? weights.weight(source, target)
+                            : weights.weight(target, source);
+                    return out.tryPutDouble(weight);
+                });
+            }
+            out.rethrow();
+        }
+        out.flush();
+        return out.position();
+    }
+
+    private static HugeGraph read(
+            Input in,
+            FileChannel channel,
+            AllocationTracker tracker,
+            Path file) throws IOException {
+        if (in.getLong() != MAGIC) {
+            throw new IllegalArgumentException(file + " is not a graph snapshot");
+        }
+        int version = in.getInt();
+        if (version != VERSION && version != VERSION_WITHOUT_CODEC) {
+            throw new IllegalArgumentException(
+                    "Unsupported snapshot version " + version + ", expected version " + VERSION);
+        }
+
+        long nodeCount = in.getLong();
+        long idCapacity = in.getLong();
+        HugeIdMap idMapping = new HugeIdMap(nodeCount, idCapacity, tracker);
+        for (long node = 0L; node < nodeCount; node++) {
+            idMapping.add(in.getLong());
+        }
+
+        boolean hasWeightsSection = in.getByte() == WEIGHTS_SECTION;
+        double defaultWeight = in.getDouble();
+
+        boolean[] present = new boolean[DIRECTIONS.length];
+        boolean[] hasWeights = new boolean[DIRECTIONS.length];
+        boolean[] hasSkipIndex = new boolean[DIRECTIONS.length];
+        AdjacencyCodec[] codecs = new AdjacencyCodec[DIRECTIONS.length];
+        HugeLongArray[] offsets = new HugeLongArray[DIRECTIONS.length];
+        for (int d = 0; d < DIRECTIONS.length; d++) {
+            present[d] = in.getByte() != 0;
+            if (present[d]) {
+                hasWeights[d] = in.getByte() != 0;
+                hasSkipIndex[d] = in.getByte() != 0;
+                codecs[d] = version == VERSION_WITHOUT_CODEC
+                        ? AdjacencyCodec.VARLONG
+                        : AdjacencyCodec.values()[in.getByte()];
+                HugeLongArray directionOffsets = HugeLongArray.newArray(nodeCount, tracker);
+                for (long node = 0L; node < nodeCount; node++) {
+                    directionOffsets.set(node, in.getLong());
+                }
+                offsets[d] = directionOffsets;
+            }
+        }
+
+        long fileSize = channel.size();
+        HugeAdjacencyList[] adjacency = new HugeAdjacencyList[DIRECTIONS.length];
+        for (int d = 0; d < DIRECTIONS.length; d++) {
+            if (present[d]) {
+                int numPages = in.getInt();
+                long[] positions = new long[numPages];
+                int[] lengths = new int[numPages];
+                for (int i = 0; i < numPages; i++) {
+                    positions[i] = in.getLong();
+                    lengths[i] = in.getInt();
+                }
+                ByteBuffer[] pages = OffHeapAdjacencyPages.mapPages(channel, positions, lengths, numPages, fileSize);
+                adjacency[d] = new HugeAdjacencyList(pages, 0L, hasWeights[d], hasSkipIndex[d], codecs[d]);
+            }
+        }
+        long weightsPosition = in.getLong();
+
+        HugeWeightMapping weights = hasWeightsSection
+                ? new HugeWeightMap(nodeCount, defaultWeight, tracker)
+                : new HugeNullWeightMap(defaultWeight);
+        HugeGraphImpl graph = new HugeGraphImpl(
+                tracker,
+                idMapping,
+                HugeNodePropertyStore.EMPTY,
+                weights,
+                adjacency[1],
+                adjacency[0],
+                offsets[1],
+                offsets[0]);
+
+        if (hasWeightsSection) {
+            HugeWeightMap weightMap = (HugeWeightMap) weights;
+            Direction direction = weightsDirection(graph);
+            in.seek(weightsPosition);
+            for (long node = 0L; node < nodeCount; node++) {
+                graph.forEachRelationship(node, direction, (source, target) -> {
+                    double weight = in.tryGetDouble();
+                    if (direction == Direction.OUTGOING) {
+                        weightMap.put(source, target, weight);
+                    } else {
+                        weightMap.put(target, source, weight);
+                    }
+                    return true;
+                });
+            }
+            in.rethrow();
+        }
+        return graph;
+    }
+
+    private static Direction weightsDirection(HugeGraphImpl graph) {
+        return graph.adjacency(Direction.OUTGOING) != null ? Direction.OUTGOING : Direction.INCOMING;
+    }
+
+    private static long alignUp(long position) {
+        return (position + PAGES_ALIGNMENT - 1L) & -PAGES_ALIGNMENT;
+    }
+
+    private static final class Output {
+        private final FileChannel channel;
+        private final ByteBuffer buffer;
+        private long flushedPosition;
+        private IOException failure;
+
+        private Output(FileChannel channel) {
+            this.channel = channel;
+            this.buffer = ByteBuffer.allocate(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+        }
+
+        long position() {
+            return flushedPosition + buffer.position();
+        }
+
+        void putByte(int value) throws IOException {
+            ensure(1).put((byte) value);
+        }
+
+        void putInt(int value) throws IOException {
+            ensure(4).putInt(value);
+        }
+
+        void putLong(long value) throws IOException {
+            ensure(8).putLong(value);
+        }
+
+        void putDouble(double value) throws IOException {
+            ensure(8).putDouble(value);
+        }
+
+        /**
+         * Variant of {@link #putDouble(double)} that can be used from within relationship consumers.
+         * Returns {@code false} and remembers the exception for {@link #rethrow()} if writing failed.
+         */
+        boolean tryPutDouble(double value) {
+            if (failure != null) {
+                return false;
+            }
+            try {
+                putDouble(value);
+                return true;
+            } catch (IOException e) {
+                failure = e;
+                return false;
+            }
+        }
+
+        void rethrow() throws IOException {
+            if (failure != null) {
+                throw failure;
+            }
+        }
+
+        /**
+         * Write the remaining content of {@code src} at the given file position
+         * and return the position after the written bytes.
+         */
+        long writeAt(ByteBuffer src, long position) throws IOException {
+            flush();
+            while (src.hasRemaining()) {
+                position += channel.write(src, position);
+            }
+            return position;
+        }
+
+        void seek(long position) throws IOException {
+            flush();
+            flushedPosition = position;
+        }
+
+        void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                flushedPosition += channel.write(buffer, flushedPosition);
+            }
+            buffer.clear();
+        }
+
+        private ByteBuffer ensure(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                flush();
+            }
+            return buffer;
+        }
+    }
+
+    private static final class Input {
+        private final FileChannel channel;
+        private final ByteBuffer buffer;
+        private long bufferPosition;
+        private IOException failure;
+
+        private Input(FileChannel channel) {
+            this.channel = channel;
+            this.buffer = ByteBuffer.allocate(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+            this.buffer.limit(0);
+        }
+
+        byte getByte() throws IOException {
+            return ensure(1).get();
+        }
+
+        int getInt() throws IOException {
+            return ensure(4).getInt();
+        }
+
+        long getLong() throws IOException {
+            return ensure(8).getLong();
+        }
+
+        double getDouble() throws IOException {
+            return ensure(8).getDouble();
+        }
+
+        /**
+         * Variant of {@link #getDouble()} that can be used from within relationship consumers.
+         * Returns {@code NaN} and remembers the exception for {@link #rethrow()} if reading failed.
+         */
+        double tryGetDouble() {
+            if (failure != null) {
+                return Double.NaN;
+            }
+            try {
+                return getDouble();
+            } catch (IOException e) {
+                failure = e;
+                return Double.NaN;
+            }
+        }
+
+        void rethrow() throws IOException {
+            if (failure != null) {
+                throw failure;
+            }
+        }
+
+        void seek(long position) {
+            bufferPosition = position;
+            buffer.limit(0);
+        }
+
+        private ByteBuffer ensure(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                bufferPosition += buffer.position();
+                buffer.compact();
+                while (buffer.position() < bytes) {
+                    int read = channel.read(buffer, bufferPosition + buffer.position());
+                    if (read < 0) {
+                        throw new IOException("Unexpected end of the graph snapshot");
+                    }
+                }
+                buffer.flip();
+            }
+            return buffer;
+        }
+    }
+
+    private HugeGraphSnapshot() {
+        throw new UnsupportedOperationException("No instances");
+    }
+}
@@ -25,7 +25,10 @@ import org.neo4j.graphalgo.api.HugeIdMapping;
 import org.neo4j.graphalgo.api.HugeNodeIterator;
 import org.neo4j.graphalgo.core.utils.LazyBatchCollection;
 import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.mem.MemoryEstimation;
+import org.neo4j.graphalgo.core.utils.mem.MemoryEstimations;
 import org.neo4j.graphalgo.core.utils.paged.HugeLongArray;
+import org.neo4j.graphalgo.core.utils.paged.MemoryUsage;
 import org.neo4j.graphalgo.core.utils.paged.PageUtil;
 import org.neo4j.graphalgo.core.utils.paged.SparseLongArray;
 
@@ -47,6 +50,20 @@ public final class HugeIdMap implements HugeIdMapping, HugeNodeIterator, HugeBat
     private HugeLongArray graphIds;
     private SparseLongArray nodeToGraphIds;
 
+    /**
+     * Estimates the id map of the nodes of a graph, the mapping from original ids is the smallest
+     * if the original ids are dense.
+     */
+    public static MemoryEstimation memoryEstimation() {
+        return MemoryEstimations.builder(HugeIdMap.class)
+                .fixed("instance", MemoryUsage.shallowSizeOfInstance(HugeIdMap.class))
+                .perNode("graph ids", HugeLongArray::estimateMemoryUsage)
+                .perGraphDimension("node mapping", dimensions -> SparseLongArray.estimateMemoryUsage(
+                        dimensions.hugeNodeCount(),
+                        dimensions.allNodesCount()))
+                .build();
+    }
+
     /**
      * initialize the map with maximum node capacity
      */
@@ -55,10 +72,61 @@ public final class HugeIdMap implements HugeIdMapping, HugeNodeIterator, HugeBat
         nodeToGraphIds = SparseLongArray.newArray(fullCapacity, tracker);
     }
 
-    void add(long longValue) {
+    long add(long longValue) {
         long internalId = nextGraphId++;
         nodeToGraphIds.set(longValue, internalId);
         graphIds.set(internalId, longValue);
+        return internalId;
+    }
+
+    /**
+     * Mark an original id during a partitioned node scan. The mapped id is assigned by
+     * {@link #assignPartition(long, long, long)} once the sizes of all partitions are known.
+     *
+     * @param localId the index of the node within its partition
+     */
+    void markInPartition(long originalId, long localId) {
+        nodeToGraphIds.set(originalId, localId);
+    }
+
+    /**
+     * Assign consecutive mapped ids to the marked original ids in {@code [start, end)}.
+     * Partitions can be assigned concurrently if their bounds are aligned to {@link SparseLongArray#pageSize()}.
+     *
+     * @param mappedStart the mapped id of the first node of the partition, i.e. the number of nodes in all previous partitions
+     */
+    void assignPartition(long start, long end, long mappedStart) {
+        long mappedId = mappedStart;
+        end = Math.min(end, nodeToGraphIds.capacity());
+        for (long originalId = start; originalId < end; originalId++) {
+            if (nodeToGraphIds.contains(originalId)) {
+                nodeToGraphIds.set(originalId, mappedId);
+                graphIds.set(mappedId++, originalId);
+            }
+        }
+    }
+
+    /**
+     * Set the number of nodes after all partitions have been assigned.
+     */
+    void setNodeCount(long nodeCount) {
+        nextGraphId = nodeCount;
+    }
+
+    /**
+     * Assign new mapped ids to all nodes in place, the node with the mapped id {@code oldIds.get(i)}
+     * becomes the node {@code i}. {@code oldIds} must be a permutation of all mapped ids.
+     */
+    void renumber(HugeLongArray oldIds, AllocationTracker tracker) {
+        long nodeCount = nodeCount();
+        HugeLongArray newGraphIds = HugeLongArray.newArray(nodeCount, tracker);
+        for (long node = 0L; node < nodeCount; node++) {
+            long originalId = graphIds.get(oldIds.get(node));
+            newGraphIds.set(node, originalId);
+            nodeToGraphIds.set(originalId, node);
+        }
+        tracker.remove(graphIds.release());
+        graphIds = newGraphIds;
     }
 
     @Override
@@ -66,6 +134,19 @@ public final class HugeIdMap implements HugeIdMapping, HugeNodeIterator, HugeBat
         return nodeToGraphIds.get(nodeId);
     }
 
+    /**
+     * Like {@link #toHugeMappedNodeId(long)}, but also accepts ids beyond the capacity
+     * of the map, e.g. of nodes that have been created after loading.
+     *
+     * @return the mapped id or {@link #NOT_FOUND}
+     */
+    long toMappedNodeIdOrNotFound(long nodeId) {
+        if (nodeId < 0L || nodeId >= nodeToGraphIds.capacity()) {
+            return NOT_FOUND;
+        }
+        return nodeToGraphIds.get(nodeId);
+    }
+
     @Override
     public long toOriginalNodeId(long nodeId) {
         return graphIds.get(nodeId);
@@ -104,11 +185,11 @@ public final class HugeIdMap implements HugeIdMapping, HugeNodeIterator, HugeBat
                 IdIterable::new);
     }
 
-    private static final class IdIterable implements PrimitiveLongIterable {
+    static final class IdIterable implements PrimitiveLongIterable {
         private final long start;
         private final long length;
 
-        private IdIterable(long start, long length) {
+        IdIterable(long start, long length) {
             this.start = start;
             this.length = length;
         }
@@ -0,0 +1,342 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.huge;
+
+import org.neo4j.collection.primitive.PrimitiveLongIterable;
+import org.neo4j.collection.primitive.PrimitiveLongIterator;
+import org.neo4j.graphalgo.api.GraphSetup;
+import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.api.HugeNeighbourCursor;
+import org.neo4j.graphalgo.api.HugeRelationshipConsumer;
+import org.neo4j.graphalgo.api.HugeWeightedRelationshipConsumer;
+import org.neo4j.graphalgo.api.RelationshipConsumer;
+import org.neo4j.graphalgo.api.RelationshipIntersect;
+import org.neo4j.graphalgo.api.WeightedRelationshipConsumer;
+import org.neo4j.graphalgo.core.HugeNodePropertyStore;
+import org.neo4j.graphdb.Direction;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.function.LongPredicate;
+
+/**
+ * A huge graph that holds one adjacency per relationship type, all of them sharing a single {@link HugeIdMap}.
+ * <p>
+ * The graph itself is the union of all relationship types, iterating over a node
+ * visits the relationships of one type after the other.
+ * {@link #forRelationshipTypes(String)} returns the graph of a subset of the types,
+ * for a single type this is the plain {@link HugeGraphImpl} of that type without any indirection.
+ */
+public final class HugeMultiTypeGraph implements HugeGraph {
+
+    private final HugeIdMap idMapping;
+    private final HugeNodePropertyStore nodeProperties;
+    private final String[] types;
+    private final HugeGraph[] graphs;
+    private Runnable onRelease;
+
+    HugeMultiTypeGraph(
+            HugeIdMap idMapping,
+            HugeNodePropertyStore nodeProperties,
+            String[] types,
+            HugeGraph[] graphs) {
+        assert types.length == graphs.length;
+        this.idMapping = idMapping;
+        this.nodeProperties = nodeProperties;
+        this.types = types;
+        this.graphs = graphs;
+    }
+
+    HugeIdMap idMapping() {
+        return idMapping;
+    }
+
+    HugeGraph[] graphs() {
+        return graphs;
+    }
+
+    /**
+     * @return the loaded relationship types, in the order of the relationship selector used for loading
+     */
+    public String[] relationshipTypes() {
+        return types.clone();
+    }
+
+    @Override
+    public long relationshipCount() {
+        long count = 0L;
+        for (HugeGraph graph : graphs) {
+            count += graph.relationshipCount();
+        }
+        return count;
+    }
+
+    @Override
+    public HugeNodePropertyStore nodePropertyStore() {
+        return nodeProperties;
+    }
+
+    /**
+     * @param relationshipType one or more relationship types, separated by {@code |}
+     * @return a graph that only contains the relationships of the given types
+     * @throws IllegalArgumentException if any of the given types has not been loaded
+     */
+    public HugeGraph forRelationshipTypes(String relationshipType) {
+        String[] selected = GraphSetup.relationshipTypes(relationshipType);
+        if (selected.length == 0) {
+            return this;
+        }
+        HugeGraph[] selectedGraphs = new HugeGraph[selected.length];
+        for (int i = 0; i < selected.length; i++) {
+            selectedGraphs[i] = graphs[indexOf(selected[i])];
+        }
+        if (selectedGraphs.length == 1) {
+            return selectedGraphs[0];
+        }
+        return new HugeMultiTypeGraph(idMapping, nodeProperties, selected, selectedGraphs);
+    }
+
+    private int indexOf(String type) {
+        for (int i = 0; i < types.length; i++) {
+            if (types[i].equals(type)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException(String.format(
+                "Relationship type %s has not been loaded, available types are %s",
+                type,
+                Arrays.toString(types)));
+    }
+
+    @Override
+    public long nodeCount() {
+        return idMapping.nodeCount();
+    }
+
+    @Override
+    public Collection<PrimitiveLongIterable> hugeBatchIterables(final int batchSize) {
+        return idMapping.hugeBatchIterables(batchSize);
+    }
+
+    @Override
+    public void forEachNode(LongPredicate consumer) {
+        idMapping.forEachNode(consumer);
+    }
+
+    @Override
+    public PrimitiveLongIterator hugeNodeIterator() {
+        return idMapping.hugeNodeIterator();
+    }
+
+    @Override
+    public long toHugeMappedNodeId(long nodeId) {
+        return idMapping.toHugeMappedNodeId(nodeId);
+    }
+
+    @Override
+    public long toOriginalNodeId(long nodeId) {
+        return idMapping.toOriginalNodeId(nodeId);
+    }
+
+    @Override
+    public boolean contains(final long nodeId) {
+        return idMapping.contains(nodeId);
+    }
+
+    @Override
+    public int degree(long node, Direction direction) {
+        int degree = 0;
+        for (HugeGraph graph : graphs) {
+            degree += graph.degree(node, direction);
+        }
+        return degree;
+    }
+
+    /**
+     * The weight of the first relationship type that contains the relationship.
+     * O(n) per relationship type, as the adjacency of the source node has to be searched.
+     */
+    @Override
+    public double weightOf(long sourceNodeId, long targetNodeId) {
+        for (HugeGraph graph : graphs) {
+            if (((HugeGraphImpl) graph).containsRelationship(sourceNodeId, targetNodeId)) {
+                return graph.weightOf(sourceNodeId, targetNodeId);
+            }
+        }
+        return graphs.length > 0 ? graphs[0].weightOf(sourceNodeId, targetNodeId) : 0.0;
+    }
+
+    /**
+     * Reads the batches from the adjacency of a single selected type,
+     * the neighbours of several types are collected and sorted.
+     */
+    @Override
+    public HugeNeighbourCursor neighbours(long nodeId, Direction direction) {
+        if (graphs.length == 1) {
+            return graphs[0].neighbours(nodeId, direction);
+        }
+        return new CollectedNeighbours(this, nodeId, direction);
+    }
+
+    @Override
+    public void forEachRelationship(long nodeId, Direction direction, HugeRelationshipConsumer consumer) {
+        boolean[] proceed = {true};
+        for (HugeGraph graph : graphs) {
+            graph.forEachRelationship(nodeId, direction, (HugeRelationshipConsumer) (s, t) ->
+                    proceed[0] = consumer.accept(s, t));
+            if (!proceed[0]) {
+                return;
+            }
+        }
+    }
+
+    @Override
+    public void forEachRelationship(long nodeId, Direction direction, HugeWeightedRelationshipConsumer consumer) {
+        boolean[] proceed = {true};
+        for (HugeGraph graph : graphs) {
+            graph.forEachRelationship(nodeId, direction, (HugeWeightedRelationshipConsumer) (s, t, w) ->
+                    proceed[0] = consumer.accept(s, t, w));
+            if (!proceed[0]) {
+                return;
+            }
+        }
+    }
+
+    @Override
+    public void forEachRelationship(int nodeId, Direction direction, RelationshipConsumer consumer) {
+        boolean[] proceed = {true};
+        for (HugeGraph graph : graphs) {
+            graph.forEachRelationship(nodeId, direction, (RelationshipConsumer) (s, t, r) ->
+                    proceed[0] = consumer.accept(s, t, r));
+            if (!proceed[0]) {
+                return;
+            }
+        }
+    }
+
+    @Override
+    public void forEachRelationship(int nodeId, Direction direction, WeightedRelationshipConsumer consumer) {
+        boolean[] proceed = {true};
+        for (HugeGraph graph : graphs) {
+            graph.forEachRelationship(nodeId, direction, (WeightedRelationshipConsumer) (s, t, r, w) ->
+                    proceed[0] = consumer.accept(s, t, r, w));
+            if (!proceed[0]) {
+                return;
+            }
+        }
+    }
+
+    @Override
+    public boolean exists(long sourceNodeId, long targetNodeId, Direction direction) {
+        for (HugeGraph graph : graphs) {
+            if (graph.exists(sourceNodeId, targetNodeId, direction)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public boolean exists(int sourceNodeId, int targetNodeId, Direction direction) {
+        for (HugeGraph graph : graphs) {
+            if (graph.exists(sourceNodeId, targetNodeId, direction)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The index runs over the relationship types in the order of {@link #relationshipTypes()}.
+     */
+    @Override
+    public long getTarget(long nodeId, long index, Direction direction) {
+        for (HugeGraph graph : graphs) {
+            int degree = graph.degree(nodeId, direction);
+            if (index < degree) {
+                return graph.getTarget(nodeId, index, direction);
+            }
+            index -= degree;
+        }
+        return -1L;
+    }
+
+    @Override
+    public int getTarget(int nodeId, int index, Direction direction) {
+        for (HugeGraph graph : graphs) {
+            int degree = graph.degree(nodeId, direction);
+            if (index < degree) {
+                return graph.getTarget(nodeId, index, direction);
+            }
+            index -= degree;
+        }
+        return -1;
+    }
+
+    @Override
+    public HugeGraph concurrentCopy() {
+        HugeGraph[] copies = new HugeGraph[graphs.length];
+        Arrays.setAll(copies, i -> (HugeGraph) graphs[i].concurrentCopy());
+        return new HugeMultiTypeGraph(idMapping, nodeProperties, types, copies);
+    }
+
+    /**
+     * Returns a copy that shares all data with this graph, like {@link #concurrentCopy()}.
+     * Releasing the copy never frees the shared data, it only runs {@code onRelease} the first time.
+     */
+    public HugeGraph sharedCopy(Runnable onRelease) {
+        HugeMultiTypeGraph copy = (HugeMultiTypeGraph) concurrentCopy();
+        copy.canRelease(false);
+        copy.onRelease = onRelease;
+        return copy;
+    }
+
+    /**
+     * Intersections require a single sorted adjacency per node,
+     * they are only supported on the graph of a single relationship type.
+     */
+    @Override
+    public RelationshipIntersect intersection() {
+        if (graphs.length == 1) {
+            return graphs[0].intersection();
+        }
+        throw new UnsupportedOperationException(
+                "Intersections over several relationship types are not supported, select a single type of " +
+                        Arrays.toString(types));
+    }
+
+    @Override
+    public void canRelease(boolean canRelease) {
+        for (HugeGraph graph : graphs) {
+            graph.canRelease(canRelease);
+        }
+    }
+
+    @Override
+    public void release() {
+        Runnable hook = onRelease;
+        onRelease = null;
+        if (hook != null) {
+            hook.run();
+        }
+        for (HugeGraph graph : graphs) {
+            graph.release();
+        }
+    }
+}
@@ -19,13 +19,17 @@
 package org.neo4j.graphalgo.core.huge;
 
 import org.neo4j.graphalgo.core.BaseNodeImporter;
+import org.neo4j.graphalgo.core.HugeNodePropertyStore;
 import org.neo4j.graphalgo.core.utils.ImportProgress;
 import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.kernel.api.KernelTransaction;
 import org.neo4j.kernel.internal.GraphDatabaseAPI;
 
 public final class HugeNodeImporter extends BaseNodeImporter<HugeIdMap> {
     private final AllocationTracker tracker;
     private final long allNodesCount;
+    private final HugeNodePropertyStore properties;
+    private HugeNodePropertyStore.Reader propertyReader;
 
     public HugeNodeImporter(
             GraphDatabaseAPI api,
@@ -34,9 +38,24 @@ public final class HugeNodeImporter extends BaseNodeImporter<HugeIdMap> {
             long nodeCount,
             long allNodesCount,
             int labelId) {
+        this(api, tracker, progress, nodeCount, allNodesCount, labelId, HugeNodePropertyStore.EMPTY);
+    }
+
+    /**
+     * fill the columns of the property store while scanning the nodes
+     */
+    public HugeNodeImporter(
+            GraphDatabaseAPI api,
+            AllocationTracker tracker,
+            ImportProgress progress,
+            long nodeCount,
+            long allNodesCount,
+            int labelId,
+            HugeNodePropertyStore properties) {
         super(api, progress, nodeCount, labelId);
         this.tracker = tracker;
         this.allNodesCount = allNodesCount;
+        this.properties = properties;
     }
 
     @Override
@@ -46,7 +65,25 @@ public final class HugeNodeImporter extends BaseNodeImporter<HugeIdMap> {
 
     @Override
     protected void addNodeId(final HugeIdMap map, final long nodeId) {
-        map.add(nodeId);
+        long mappedId = map.add(nodeId);
+        if (propertyReader != null) {
+            propertyReader.read(nodeId, mappedId);
+        }
+    }
+
+    @Override
+    protected void open(final KernelTransaction transaction) {
+        if (properties.hasColumns()) {
+            propertyReader = properties.newReader(transaction.cursors(), transaction.dataRead());
+        }
+    }
+
+    @Override
+    protected void close() {
+        if (propertyReader != null) {
+            propertyReader.close();
+            propertyReader = null;
+        }
     }
 
     @Override
@@ -0,0 +1,289 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.huge;
+
+import com.carrotsearch.hppc.LongLongHashMap;
+import com.carrotsearch.hppc.cursors.LongLongCursor;
+import org.neo4j.graphalgo.api.GraphSetup;
+import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.api.HugeRelationshipConsumer;
+import org.neo4j.graphalgo.api.NodeOrder;
+import org.neo4j.graphalgo.core.HugeNodePropertyStore;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.HugeLongArray;
+import org.neo4j.graphalgo.core.utils.paged.PagedSimpleBitSet;
+import org.neo4j.graphdb.Direction;
+
+/**
+ * Assigns new mapped ids to the nodes of an imported graph, so that nodes which are
+ * visited together by neighbour walks are also close to each other in memory.
+ * <p>
+ * The adjacency, the weights and the node properties are rebuilt for the new ids, the id mapping
+ * is renumbered in place. The old adjacency is released once the new one has been written,
+ * so the import temporarily needs the memory for both of them.
+ *
+ * @see NodeOrder
+ */
+final class HugeNodeOrdering {
+
+    private HugeNodeOrdering() {
+        throw new UnsupportedOperationException("No instances");
+    }
+
+    /**
+     * @return the reordered graph or the given graph if {@link GraphSetup#nodeOrder} is {@link NodeOrder#NONE}
+     */
+    static HugeGraph reorder(HugeGraph graph, GraphSetup setup) {
+        if (setup.nodeOrder == NodeOrder.NONE) {
+            return graph;
+        }
+        AllocationTracker tracker = setup.tracker;
+        long nodeCount = graph.nodeCount();
+        HugeLongArray oldIds = order(graph, setup.nodeOrder, neighbours(setup), tracker);
+        HugeLongArray newIds = HugeLongArray.newArray(nodeCount, tracker);
+        for (long node = 0L; node < nodeCount; node++) {
+            newIds.set(oldIds.get(node), node);
+        }
+
+        HugeNodePropertyStore nodeProperties = graph.nodePropertyStore().remap(nodeCount, oldIds, tracker);
+        HugeGraph reordered;
+        HugeIdMap idMapping;
+        if (graph instanceof HugeMultiTypeGraph) {
+            HugeMultiTypeGraph multiTypeGraph = (HugeMultiTypeGraph) graph;
+            idMapping = multiTypeGraph.idMapping();
+            HugeGraph[] graphs = multiTypeGraph.graphs();
+            HugeGraph[] reorderedGraphs = new HugeGraph[graphs.length];
+            for (int i = 0; i < graphs.length; i++) {
+                reorderedGraphs[i] = rebuild((HugeGraphImpl) graphs[i], idMapping, nodeProperties, oldIds, newIds, setup);
+            }
+            reordered = new HugeMultiTypeGraph(
+                    idMapping,
+                    nodeProperties,
+                    multiTypeGraph.relationshipTypes(),
+                    reorderedGraphs);
+        } else {
+            idMapping = ((HugeGraphImpl) graph).idMapping();
+            reordered = rebuild((HugeGraphImpl) graph, idMapping, nodeProperties, oldIds, newIds, setup);
+        }
+        graph.release();
+        idMapping.renumber(oldIds, tracker);
+        tracker.remove(oldIds.release());
+        tracker.remove(newIds.release());
+        return reordered;
+    }
+
+    private static HugeGraph rebuild(
+            HugeGraphImpl graph,
+            HugeIdMap idMapping,
+            HugeNodePropertyStore nodeProperties,
+            HugeLongArray oldIds,
+            HugeLongArray newIds,
+            GraphSetup setup) {
+        return HugeGraphRebuilder.rebuild(
+                graph,
+                (node, direction, consumer) -> graph.runForEach(node, direction, consumer, /* reuseCursor */ true),
+                idMapping,
+                nodeProperties,
+                oldIds,
+                newIds,
+                setup.tracker,
+                setup.adjacencyStorage,
+                setup.adjacencyStorageDirectory);
+    }
+
+    /**
+     * Undirected graphs only have an outgoing adjacency, which already contains all neighbours.
+     */
+    private static Direction neighbours(GraphSetup setup) {
+        if (setup.loadAsUndirected || !setup.loadIncoming) {
+            return Direction.OUTGOING;
+        }
+        return setup.loadOutgoing ? Direction.BOTH : Direction.INCOMING;
+    }
+
+    /**
+     * @return the old id of every node in the new order
+     */
+    static HugeLongArray order(HugeGraph graph, NodeOrder order, Direction direction, AllocationTracker tracker) {
+        switch (order) {
+            case DEGREE:
+                return degreeOrder(graph, direction, tracker);
+            case BFS:
+                return bfsOrder(graph, direction, tracker);
+            case COMMUNITY:
+                return communityOrder(graph, direction, tracker);
+            default:
+                throw new IllegalArgumentException("Unsupported node order: " + order);
+        }
+    }
+
+    /**
+     * A stable counting sort by descending degree.
+     */
+    private static HugeLongArray degreeOrder(HugeGraph graph, Direction direction, AllocationTracker tracker) {
+        long nodeCount = graph.nodeCount();
+        int maxDegree = 0;
+        for (long node = 0L; node < nodeCount; node++) {
+            maxDegree = Math.max(maxDegree, graph.degree(node, direction));
+        }
+        long[] offsets = new long[maxDegree + 1];
+        for (long node = 0L; node < nodeCount; node++) {
+            offsets[maxDegree - graph.degree(node, direction)]++;
+        }
+        long sum = 0L;
+        for (int rank = 0; rank <= maxDegree; rank++) {
+            long count = offsets[rank];
+            offsets[rank] = sum;
+            sum += count;
+        }
+        HugeLongArray oldIds = HugeLongArray.newArray(nodeCount, tracker);
+        for (long node = 0L; node < nodeCount; node++) {
+            oldIds.set(offsets[maxDegree - graph.degree(node, direction)]++, node);
+        }
+        return oldIds;
+    }
+
+    /**
+     * Breadth first traversals that start from the unvisited node with the highest degree.
+     * The new order itself is used as the queue of the traversal.
+     */
+    private static HugeLongArray bfsOrder(HugeGraph graph, Direction direction, AllocationTracker tracker) {
+        long nodeCount = graph.nodeCount();
+        HugeLongArray seeds = degreeOrder(graph, direction, tracker);
+        HugeLongArray oldIds = HugeLongArray.newArray(nodeCount, tracker);
+        PagedSimpleBitSet visited = PagedSimpleBitSet.newBitSet(nodeCount, tracker);
+        long[] tail = {0L};
+        HugeRelationshipConsumer enqueue = (source, target) -> {
+            if (!visited.contains(target)) {
+                visited.put(target);
+                oldIds.set(tail[0]++, target);
+            }
+            return true;
+        };
+        long head = 0L;
+        for (long i = 0L; i < nodeCount; i++) {
+            long seed = seeds.get(i);
+            if (visited.contains(seed)) {
+                continue;
+            }
+            visited.put(seed);
+            oldIds.set(tail[0]++, seed);
+            while (head < tail[0]) {
+                graph.forEachRelationship(oldIds.get(head++), direction, enqueue);
+            }
+        }
+        tracker.remove(seeds.release());
+        tracker.remove(visited.release());
+        return oldIds;
+    }
+
+    /**
+     * A sequential, simplified Rabbit Order.
+     * <p>
+     * The nodes are visited by ascending degree and every node merges its community into the neighbouring
+     * community with the highest modularity gain, if there is any gain. Other than the original, only the
+     * relationships of the visited node are considered and not those of the nodes that merged into it before.
+     * The new order is a depth first traversal of the resulting merge tree, which numbers every
+     * community and every sub-community consecutively.
+     */
+    private static HugeLongArray communityOrder(HugeGraph graph, Direction direction, AllocationTracker tracker) {
+        long nodeCount = graph.nodeCount();
+        HugeLongArray communities = HugeLongArray.newArray(nodeCount, tracker);
+        HugeLongArray communityDegrees = HugeLongArray.newArray(nodeCount, tracker);
+        HugeLongArray firstChild = HugeLongArray.newArray(nodeCount, tracker);
+        HugeLongArray nextSibling = HugeLongArray.newArray(nodeCount, tracker);
+        firstChild.fill(-1L);
+        double totalDegree = 0.0;
+        for (long node = 0L; node < nodeCount; node++) {
+            communities.set(node, node);
+            int degree = graph.degree(node, direction);
+            communityDegrees.set(node, degree);
+            totalDegree += degree;
+        }
+
+        HugeLongArray byDegree = degreeOrder(graph, direction, tracker);
+        LongLongHashMap weights = new LongLongHashMap();
+        HugeRelationshipConsumer weigh = (source, target) -> {
+            weights.addTo(community(communities, target), 1L);
+            return true;
+        };
+        for (long i = nodeCount - 1L; i >= 0L; i--) {
+            long node = byDegree.get(i);
+            weights.clear();
+            graph.forEachRelationship(node, direction, weigh);
+            // the node has not been visited before and is still the root of its community
+            weights.remove(node);
+            long degree = communityDegrees.get(node);
+            long best = -1L;
+            double bestGain = 0.0;
+            for (LongLongCursor cursor : weights) {
+                double gain = cursor.value * totalDegree - (double) degree * communityDegrees.get(cursor.key);
+                if (gain > bestGain) {
+                    best = cursor.key;
+                    bestGain = gain;
+                }
+            }
+            if (best != -1L) {
+                communities.set(node, best);
+                communityDegrees.set(best, communityDegrees.get(best) + degree);
+                nextSibling.set(node, firstChild.get(best));
+                firstChild.set(best, node);
+            }
+        }
+        tracker.remove(byDegree.release());
+        tracker.remove(communityDegrees.release());
+
+        HugeLongArray stack = HugeLongArray.newArray(nodeCount, tracker);
+        HugeLongArray oldIds = HugeLongArray.newArray(nodeCount, tracker);
+        long newId = 0L;
+        for (long root = 0L; root < nodeCount; root++) {
+            if (communities.get(root) != root) {
+                continue;
+            }
+            long top = 0L;
+            stack.set(top++, root);
+            while (top > 0L) {
+                long node = stack.get(--top);
+                oldIds.set(newId++, node);
+                for (long child = firstChild.get(node); child != -1L; child = nextSibling.get(child)) {
+                    stack.set(top++, child);
+                }
+            }
+        }
+        tracker.remove(stack.release());
+        tracker.remove(communities.release());
+        tracker.remove(firstChild.release());
+        tracker.remove(nextSibling.release());
+        return oldIds;
+    }
+
+    /**
+     * Find the root of the community of the node and compress the path on the way.
+     */
+    private static long community(HugeLongArray communities, long node) {
+        long parent = communities.get(node);
+        while (parent != node) {
+            long grandParent = communities.get(parent);
+            communities.set(node, grandParent);
+            node = parent;
+            parent = grandParent;
+        }
+        return node;
+    }
+}
@@ -0,0 +1,220 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.huge;
+
+import org.neo4j.graphalgo.core.HugeNodePropertyStore;
+import org.neo4j.graphalgo.core.utils.ImportProgress;
+import org.neo4j.graphalgo.core.utils.ParallelUtil;
+import org.neo4j.graphalgo.core.utils.StatementAction;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.SparseLongArray;
+import org.neo4j.internal.kernel.api.CursorFactory;
+import org.neo4j.internal.kernel.api.NodeCursor;
+import org.neo4j.internal.kernel.api.Read;
+import org.neo4j.kernel.api.KernelTransaction;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Builds the {@link HugeIdMap} with a parallel scan over the node id space.
+ * <p>
+ * The id space is split into partitions that are aligned to the pages of the sparse original-to-mapped
+ * array, so that every page is written by a single thread. The scanning threads mark the nodes of a
+ * partition in the sparse array and buffer their property values. Once all partitions are scanned,
+ * a prefix sum over the partition sizes yields the first mapped id of every partition and the
+ * partitions are assigned their mapped ids in parallel. The mapped ids are in ascending order of the
+ * original ids, the same as for the single threaded {@link HugeNodeImporter}.
+ * <p>
+ * Every node record in the id space is read. Graphs of a label that only some of the nodes have
+ * are loaded with the label scan of the single threaded {@link HugeNodeImporter} instead,
+ * see {@link #canRunInParallel(long, long, int)}.
+ */
+public final class HugeParallelNodeImporter {
+
+    // a few partitions per thread to balance id ranges with many and few nodes
+    private static final int PARTITIONS_PER_THREAD = 16;
+    // upper bound for the id range of a partition, its property buffers are int-indexed
+    private static final long MAX_PARTITION_SIZE = 1L << 24;
+    // the share of the id space that must have the label for a full scan to pay off over the label scan
+    private static final double MIN_LABEL_SHARE = 0.5;
+
+    private final GraphDatabaseAPI api;
+    private final ExecutorService executor;
+    private final int concurrency;
+    private final AllocationTracker tracker;
+    private final ImportProgress progress;
+    private final long nodeCount;
+    private final long allNodesCount;
+    // the highest possible node id is part of the id space
+    private final long idSpace;
+    private final int labelId;
+    private final HugeNodePropertyStore properties;
+
+    public HugeParallelNodeImporter(
+            GraphDatabaseAPI api,
+            ExecutorService executor,
+            int concurrency,
+            AllocationTracker tracker,
+            ImportProgress progress,
+            long nodeCount,
+            long allNodesCount,
+            int labelId,
+            HugeNodePropertyStore properties) {
+        this.api = api;
+        this.executor = executor;
+        this.concurrency = concurrency;
+        this.tracker = tracker;
+        this.progress = progress;
+        this.nodeCount = nodeCount;
+        this.allNodesCount = allNodesCount;
+        this.idSpace = allNodesCount + 1L;
+        this.labelId = labelId;
+        this.properties = properties;
+    }
+
+    /**
+     * @return true if the id space has more than one partition and the graph contains all nodes
+     * or a label that most of the nodes have
+     */
+    public static boolean canRunInParallel(long nodeCount, long allNodesCount, int labelId) {
+        return allNodesCount > SparseLongArray.pageSize() &&
+                (labelId == Read.ANY_LABEL || nodeCount >= MIN_LABEL_SHARE * allNodesCount);
+    }
+
+    public HugeIdMap call() {
+        long partitionSize = partitionSize(idSpace, concurrency);
+        int partitions = Math.toIntExact(ParallelUtil.threadSize(partitionSize, idSpace));
+        HugeIdMap idMap = new HugeIdMap(nodeCount, allNodesCount, tracker);
+        long[] sizes = new long[partitions];
+        HugeNodePropertyStore.Buffer[] buffers = new HugeNodePropertyStore.Buffer[partitions];
+
+        AtomicInteger nextPartition = new AtomicInteger();
+        List<ScanTask> scans = new ArrayList<>(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            scans.add(new ScanTask(i, nextPartition, partitions, partitionSize, idMap, sizes, buffers));
+        }
+        ParallelUtil.run(scans, executor);
+
+        long mappedStart = 0L;
+        List<Runnable> assignments = new ArrayList<>(partitions);
+        for (int partition = 0; partition < partitions; partition++) {
+            long start = partition * partitionSize;
+            long end = Math.min(start + partitionSize, idSpace);
+            long first = mappedStart;
+            HugeNodePropertyStore.Buffer buffer = buffers[partition];
+            assignments.add(() -> {
+                idMap.assignPartition(start, end, first);
+                if (buffer != null) {
+                    buffer.copyTo(first);
+                }
+            });
+            mappedStart += sizes[partition];
+        }
+        // every partition must be assigned, wait for a free thread instead of dropping the task
+        ParallelUtil.runWithConcurrency(
+                concurrency,
+                assignments,
+                10L,
+                TimeUnit.MICROSECONDS,
+                executor);
+        idMap.setNodeCount(mappedStart);
+        return idMap;
+    }
+
+    static long partitionSize(long idSpace, int concurrency) {
+        long pageSize = SparseLongArray.pageSize();
+        long size = ParallelUtil.threadSize((long) concurrency * PARTITIONS_PER_THREAD, idSpace);
+        size = Math.min(size, MAX_PARTITION_SIZE);
+        // round up to whole pages
+        return Math.max(pageSize, ((size + pageSize - 1L) / pageSize) * pageSize);
+    }
+
+    private final class ScanTask extends StatementAction {
+        private final int index;
+        private final AtomicInteger nextPartition;
+        private final int partitions;
+        private final long partitionSize;
+        private final HugeIdMap idMap;
+        private final long[] sizes;
+        private final HugeNodePropertyStore.Buffer[] buffers;
+
+        private ScanTask(
+                int index,
+                AtomicInteger nextPartition,
+                int partitions,
+                long partitionSize,
+                HugeIdMap idMap,
+                long[] sizes,
+                HugeNodePropertyStore.Buffer[] buffers) {
+            super(HugeParallelNodeImporter.this.api);
+            this.index = index;
+            this.nextPartition = nextPartition;
+            this.partitions = partitions;
+            this.partitionSize = partitionSize;
+            this.idMap = idMap;
+            this.sizes = sizes;
+            this.buffers = buffers;
+        }
+
+        @Override
+        public String threadName() {
+            return "HugeNodeImport-" + index;
+        }
+
+        @Override
+        public void accept(final KernelTransaction transaction) {
+            Read read = transaction.dataRead();
+            CursorFactory cursors = transaction.cursors();
+            HugeNodePropertyStore.Reader reader = properties.hasColumns()
+                    ? properties.newReader(cursors, read)
+                    : null;
+            try (NodeCursor nodeCursor = cursors.allocateNodeCursor()) {
+                int partition;
+                while ((partition = nextPartition.getAndIncrement()) < partitions) {
+                    long start = partition * partitionSize;
+                    long end = Math.min(start + partitionSize, idSpace);
+                    HugeNodePropertyStore.Buffer buffer = reader != null ? properties.newBuffer() : null;
+                    long size = 0L;
+                    for (long nodeId = start; nodeId < end; nodeId++) {
+                        read.singleNode(nodeId, nodeCursor);
+                        if (nodeCursor.next() &&
+                                (labelId == Read.ANY_LABEL || nodeCursor.labels().contains(labelId))) {
+                            idMap.markInPartition(nodeId, size++);
+                            if (buffer != null) {
+                                reader.read(nodeCursor, buffer);
+                            }
+                            progress.nodeImported();
+                        }
+                    }
+                    sizes[partition] = size;
+                    buffers[partition] = buffer;
+                }
+            } finally {
+                if (reader != null) {
+                    reader.close();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,273 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.huge;
+
+import org.neo4j.graphalgo.api.AdjacencyStorage;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+import static java.nio.file.StandardOpenOption.DELETE_ON_CLOSE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Receives completed adjacency pages during import and keeps them outside of the Java heap.
+ * Every page is written exactly once, possibly concurrently with other pages.
+ * The resulting buffers are little endian and are read by {@link HugeAdjacencyList} without copying.
+ */
+abstract class OffHeapAdjacencyPages {
+
+    static OffHeapAdjacencyPages of(
+            AdjacencyStorage storage,
+            Path directory,
+            AllocationTracker tracker) {
+        switch (storage) {
+            case DIRECT:
+                return new Direct(tracker);
+            case MAPPED:
+                return new Mapped(directory);
+            default:
+                throw new IllegalArgumentException("Not an off-heap adjacency storage: " + storage);
+        }
+    }
+
+    /**
+     * Store the first {@code length} bytes of {@code page} as the page with the index {@code pageIndex}.
+     * The content of {@code page} is copied and the array may be reused afterwards.
+     */
+    abstract void write(int pageIndex, byte[] page, int length);
+
+    /**
+     * Finish the import and return one buffer per page, pages that have never been written are {@code null}.
+     */
+    abstract ByteBuffer[] build(int numPages);
+
+    /**
+     * Discard all pages of a failed import, {@link #build(int)} must not be called afterwards.
+     * Does nothing if the pages have already been built.
+     */
+    abstract void abort();
+
+    /**
+     * The number of bytes that have been added to the {@link AllocationTracker}.
+     */
+    abstract long allocatedMemory();
+
+    private static final int SEGMENT_SHIFT = 30;
+    private static final long SEGMENT_SIZE = 1L << SEGMENT_SHIFT;
+
+    /**
+     * Return the file position at or after {@code position} where a page of {@code length} bytes
+     * can be stored without crossing a segment boundary, as required by {@link #mapPages(FileChannel, long[], int[], int, long)}.
+     */
+    static long alignPage(long position, int length) {
+        if (length > 0 && (position >>> SEGMENT_SHIFT) != ((position + length - 1L) >>> SEGMENT_SHIFT)) {
+            return ((position >>> SEGMENT_SHIFT) + 1L) << SEGMENT_SHIFT;
+        }
+        return position;
+    }
+
+    /**
+     * Map the pages that are stored at the given {@link #alignPage(long, int) aligned} positions of the file
+     * as read-only, little endian buffers. The file is mapped in segments of 1 GiB, pages that are larger
+     * than a segment are mapped on their own. Pages with a length of 0 are returned as {@code null}.
+     */
+    static ByteBuffer[] mapPages(
+            FileChannel channel,
+            long[] positions,
+            int[] lengths,
+            int numPages,
+            long fileSize) throws IOException {
+        ByteBuffer[] pages = new ByteBuffer[numPages];
+        MappedByteBuffer[] segments = new MappedByteBuffer[(int) ((fileSize >>> SEGMENT_SHIFT) + 1L)];
+        for (int i = 0; i < numPages; i++) {
+            long position = positions[i];
+            int length = lengths[i];
+            if (length == 0) {
+                continue;
+            }
+            if (length > SEGMENT_SIZE) {
+                pages[i] = channel
+                        .map(FileChannel.MapMode.READ_ONLY, position, length)
+                        .order(ByteOrder.LITTLE_ENDIAN);
+                continue;
+            }
+            int segmentIndex = (int) (position >>> SEGMENT_SHIFT);
+            MappedByteBuffer segment = segments[segmentIndex];
+            if (segment == null) {
+                long segmentStart = ((long) segmentIndex) << SEGMENT_SHIFT;
+                long segmentLength = Math.min(SEGMENT_SIZE, fileSize - segmentStart);
+                segment = channel.map(FileChannel.MapMode.READ_ONLY, segmentStart, segmentLength);
+                segments[segmentIndex] = segment;
+            }
+            ByteBuffer page = segment.duplicate();
+            int offset = (int) (position & (SEGMENT_SIZE - 1L));
+            page.limit(offset + length).position(offset);
+            pages[i] = page.slice().order(ByteOrder.LITTLE_ENDIAN);
+        }
+        return pages;
+    }
+
+    private static final class Direct extends OffHeapAdjacencyPages {
+
+        private final AllocationTracker tracker;
+        private ByteBuffer[] pages;
+        private long allocatedMemory;
+
+        private Direct(AllocationTracker tracker) {
+            this.tracker = tracker;
+            this.pages = new ByteBuffer[0];
+        }
+
+        @Override
+        void write(int pageIndex, byte[] page, int length) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(length).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.put(page, 0, length);
+            synchronized (this) {
+                if (pageIndex >= pages.length) {
+                    pages = Arrays.copyOf(pages, Math.max(pageIndex + 1, pages.length << 1));
+                }
+                pages[pageIndex] = buffer;
+                allocatedMemory += length;
+            }
+            tracker.add(length);
+        }
+
+        @Override
+        synchronized ByteBuffer[] build(int numPages) {
+            ByteBuffer[] result = Arrays.copyOf(pages, numPages);
+            pages = null;
+            return result;
+        }
+
+        @Override
+        synchronized void abort() {
+            if (pages != null) {
+                pages = null;
+                tracker.remove(allocatedMemory);
+                allocatedMemory = 0L;
+            }
+        }
+
+        @Override
+        synchronized long allocatedMemory() {
+            return allocatedMemory;
+        }
+    }
+
+    /**
+     * Pages are appended to a temporary file, which is {@link #mapPages(FileChannel, long[], int[], int, long) mapped}
+     * once the import is done. The file is deleted once it is mapped, the operating system keeps the mapped content alive.
+     * If the import fails, {@link #abort()} deletes the file.
+     */
+    private static final class Mapped extends OffHeapAdjacencyPages {
+
+        private final FileChannel channel;
+        private long[] positions;
+        private int[] lengths;
+        private long size;
+
+        private Mapped(Path directory) {
+            try {
+                Path dir = directory != null ? directory : Paths.get(System.getProperty("java.io.tmpdir"));
+                Path file = Files.createTempFile(dir, "adjacency-", ".pages");
+                try {
+                    channel = FileChannel.open(file, READ, WRITE, DELETE_ON_CLOSE);
+                } catch (IOException e) {
+                    Files.deleteIfExists(file);
+                    throw e;
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not create the file for the mapped adjacency storage", e);
+            }
+            positions = new long[0];
+            lengths = new int[0];
+        }
+
+        @Override
+        void write(int pageIndex, byte[] page, int length) {
+            long position = reserve(pageIndex, length);
+            ByteBuffer src = ByteBuffer.wrap(page, 0, length);
+            try {
+                while (src.hasRemaining()) {
+                    position += channel.write(src, position);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not write to the mapped adjacency storage", e);
+            }
+        }
+
+        private synchronized long reserve(int pageIndex, int length) {
+            if (pageIndex >= positions.length) {
+                int newLength = Math.max(pageIndex + 1, positions.length << 1);
+                positions = Arrays.copyOf(positions, newLength);
+                lengths = Arrays.copyOf(lengths, newLength);
+            }
+            long position = alignPage(size, length);
+            positions[pageIndex] = position;
+            lengths[pageIndex] = length;
+            size = position + length;
+            return position;
+        }
+
+        @Override
+        synchronized ByteBuffer[] build(int numPages) {
+            ByteBuffer[] pages;
+            // the file is deleted even if it cannot be mapped
+            try (FileChannel channel = this.channel) {
+                if (positions.length < numPages) {
+                    positions = Arrays.copyOf(positions, numPages);
+                    lengths = Arrays.copyOf(lengths, numPages);
+                }
+                pages = mapPages(channel, positions, lengths, numPages, size);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not map the adjacency storage", e);
+            }
+            positions = null;
+            lengths = null;
+            return pages;
+        }
+
+        @Override
+        synchronized void abort() {
+            positions = null;
+            lengths = null;
+            try {
+                channel.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not delete the mapped adjacency storage", e);
+            }
+        }
+
+        @Override
+        long allocatedMemory() {
+            return 0L;
+        }
+    }
+}
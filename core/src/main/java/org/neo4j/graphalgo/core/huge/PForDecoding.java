@@ -0,0 +1,128 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.huge;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Decodes blocks that have been written by {@link PForEncoding} and reverts the delta encoding.
+ */
+final class PForDecoding {
+
+    static int decodeDeltaBlock(
+            long startValue,
+            byte[] array,
+            int offset,
+            int limit,
+            long[] out) {
+        if (limit == 0) {
+            return offset;
+        }
+        int bits = array[offset];
+        int exceptions = array[1 + offset];
+        offset += 2;
+        long mask = (1L << bits) - 1L;
+        long bitPosition = 0L;
+        for (int i = 0; i < limit; ++i, bitPosition += bits) {
+            out[i] = (AdjacencyDecompression.readLong(array, offset + (int) (bitPosition >>> 3))
+                    >>> (bitPosition & 7L)) & mask;
+        }
+        offset += (int) ((bitPosition + 7L) >>> 3);
+        if (exceptions > 0) {
+            offset = patchExceptions(array, offset, exceptions, bits, out);
+        }
+        for (int i = 0; i < limit; ++i) {
+            startValue += out[i];
+            out[i] = startValue;
+        }
+        return offset;
+    }
+
+    static int decodeDeltaBlock(
+            long startValue,
+            ByteBuffer buffer,
+            int offset,
+            int limit,
+            long[] out) {
+        if (limit == 0) {
+            return offset;
+        }
+        int bits = buffer.get(offset);
+        int exceptions = buffer.get(1 + offset);
+        offset += 2;
+        long mask = (1L << bits) - 1L;
+        long bitPosition = 0L;
+        for (int i = 0; i < limit; ++i, bitPosition += bits) {
+            out[i] = (buffer.getLong(offset + (int) (bitPosition >>> 3)) >>> (bitPosition & 7L)) & mask;
+        }
+        offset += (int) ((bitPosition + 7L) >>> 3);
+        if (exceptions > 0) {
+            offset = patchExceptions(buffer, offset, exceptions, bits, out);
+        }
+        for (int i = 0; i < limit; ++i) {
+            startValue += out[i];
+            out[i] = startValue;
+        }
+        return offset;
+    }
+
+    private static int patchExceptions(byte[] array, int offset, int exceptions, int bits, long[] out) {
+        int positions = offset;
+        int end = offset + exceptions;
+        offset = end;
+        long input, value = 0L;
+        int shift = 0;
+        while (positions < end) {
+            input = (long) array[offset++];
+            value += (input & 127L) << shift;
+            if ((input & 128L) == 128L) {
+                out[array[positions++]] |= value << bits;
+                value = 0L;
+                shift = 0;
+            } else {
+                shift += 7;
+            }
+        }
+        return offset;
+    }
+
+    private static int patchExceptions(ByteBuffer buffer, int offset, int exceptions, int bits, long[] out) {
+        int positions = offset;
+        int end = offset + exceptions;
+        offset = end;
+        long input, value = 0L;
+        int shift = 0;
+        while (positions < end) {
+            input = (long) buffer.get(offset++);
+            value += (input & 127L) << shift;
+            if ((input & 128L) == 128L) {
+                out[buffer.get(positions++)] |= value << bits;
+                value = 0L;
+                shift = 0;
+            } else {
+                shift += 7;
+            }
+        }
+        return offset;
+    }
+
+    private PForDecoding() {
+        throw new UnsupportedOperationException("No instances");
+    }
+}
@@ -0,0 +1,134 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.huge;
+
+import java.util.Arrays;
+
+import static org.neo4j.graphalgo.core.huge.VarLongEncoding.encodeVLong;
+
+/**
+ * Patched frame of reference encoding of blocks of up to {@link AdjacencyCompression#CHUNK_SIZE} positive values.
+ * Every block is stored as
+ * {@code bits:byte ~ exceptions:byte ~ packed ~ [position_1:byte ~ ... ~ position_e] ~ [high_1:vlong ~ ... ~ high_e]},
+ * where {@code packed} holds the lowest {@code bits} bits of every value, little endian and without gaps between
+ * the values. The remaining bits of the values that do not fit are stored as exceptions.
+ * The decoder reads 8 bytes for every value, so an encoded sequence of blocks is followed by
+ * {@link #PADDING} bytes of padding.
+ */
+final class PForEncoding {
+
+    // reading 8 bytes at the byte of a value leaves 7 bits for the shift into the byte
+    static final int MAX_BITS = Long.SIZE - Byte.SIZE;
+
+    static final int PADDING = Long.BYTES - 1;
+
+    private static final int HEADER_SIZE = 2;
+
+    /**
+     * Choose the bit width of the block {@code values[offset, offset + length)} that results in the smallest encoding.
+     */
+    static int bestBits(long[] values, int offset, int length, int[] histogram) {
+        // number of values per required bit width
+        Arrays.fill(histogram, 0);
+        int maxWidth = 0;
+        for (int i = offset; i < offset + length; ++i) {
+            int width = Long.SIZE - Long.numberOfLeadingZeros(values[i]);
+            ++histogram[width];
+            maxWidth = Math.max(maxWidth, width);
+        }
+        int bestBits = Math.min(maxWidth, MAX_BITS);
+        long bestSize = Long.MAX_VALUE;
+        for (int bits = bestBits; bits >= 0; --bits) {
+            long size = packedBytes(length, bits);
+            for (int width = bits + 1; width <= maxWidth; ++width) {
+                // position and the high bits as vlong
+                size += histogram[width] * (1L + (width - bits + 6) / 7);
+            }
+            if (size < bestSize) {
+                bestSize = size;
+                bestBits = bits;
+            }
+        }
+        return bestBits;
+    }
+
+    static int encodedSize(long[] values, int offset, int length, int bits) {
+        int size = HEADER_SIZE + packedBytes(length, bits);
+        for (int i = offset; i < offset + length; ++i) {
+            long high = values[i] >>> bits;
+            if (high != 0L) {
+                size += 1 + VarLongEncoding.encodedVLongSize(high);
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Encode the block {@code values[offset, offset + length)} at the given bit width.
+     *
+     * @return the offset after the encoded block
+     */
+    static int encode(long[] values, int offset, int length, int bits, byte[] out, int into) {
+        long mask = (1L << bits) - 1L;
+        int exceptions = 0;
+        for (int i = offset; i < offset + length; ++i) {
+            if ((values[i] >>> bits) != 0L) {
+                ++exceptions;
+            }
+        }
+        out[into] = (byte) bits;
+        out[1 + into] = (byte) exceptions;
+        into += HEADER_SIZE;
+
+        int packedBytes = packedBytes(length, bits);
+        for (int i = into; i < into + packedBytes; ++i) {
+            out[i] = 0;
+        }
+        long bitPosition = 0L;
+        for (int i = offset; i < offset + length; ++i, bitPosition += bits) {
+            long value = values[i] & mask;
+            int byteIndex = into + (int) (bitPosition >>> 3);
+            int shift = (int) (bitPosition & 7L);
+            // bits + shift <= 63, the shifted value fits into a long
+            value <<= shift;
+            for (int remaining = bits + shift; remaining > 0; remaining -= Byte.SIZE, value >>>= Byte.SIZE) {
+                out[byteIndex++] |= (byte) value;
+            }
+        }
+        into += packedBytes;
+
+        int highs = into + exceptions;
+        for (int i = offset; i < offset + length; ++i) {
+            long high = values[i] >>> bits;
+            if (high != 0L) {
+                out[into++] = (byte) (i - offset);
+                highs = encodeVLong(out, high, highs);
+            }
+        }
+        return highs;
+    }
+
+    private static int packedBytes(int length, int bits) {
+        return (int) (((long) length * bits + 7L) >>> 3);
+    }
+
+    private PForEncoding() {
+        throw new UnsupportedOperationException("No instances");
+    }
+}
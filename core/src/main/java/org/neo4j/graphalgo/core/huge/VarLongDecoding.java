@@ -18,6 +18,8 @@
  */
 package org.neo4j.graphalgo.core.huge;
 
+import java.nio.ByteBuffer;
+
 final class VarLongDecoding {
 
     static int decodeDeltaVLongs(
@@ -44,6 +46,30 @@ final class VarLongDecoding {
         return offset;
     }
 
+    static int decodeDeltaVLongs(
+            long startValue,
+            ByteBuffer buffer,
+            int offset,
+            int limit,
+            long[] out) {
+        long input, value = 0L;
+        int into = 0, shift = 0;
+        while (into < limit) {
+            input = (long) buffer.get(offset++);
+            value += (input & 127L) << shift;
+            if ((input & 128L) == 128L) {
+                startValue += value;
+                out[into++] = startValue;
+                value = 0L;
+                shift = 0;
+            } else {
+                shift += 7;
+            }
+        }
+
+        return offset;
+    }
+
     static int zigZagUncompress(byte[] array, int limit, long[] out) {
         long input, startValue = 0L, value = 0L;
         int into = 0, offset = 0, shift = 0;
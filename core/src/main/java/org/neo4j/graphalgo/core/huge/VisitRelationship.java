@@ -18,21 +18,29 @@
  */
 package org.neo4j.graphalgo.core.huge;
 
+import org.neo4j.graphalgo.api.RelationshipAggregation;
 import org.neo4j.graphalgo.core.HugeWeightMap;
 import org.neo4j.graphalgo.core.loading.ReadHelper;
 import org.neo4j.internal.kernel.api.CursorFactory;
 import org.neo4j.internal.kernel.api.PropertyCursor;
 import org.neo4j.internal.kernel.api.Read;
 import org.neo4j.internal.kernel.api.helpers.RelationshipSelectionCursor;
+import org.neo4j.kernel.api.StatementConstants;
+
+import java.util.Arrays;
 
 
 abstract class VisitRelationship {
 
     private static final long[] EMPTY_LONGS = new long[0];
+    private static final double[] EMPTY_DOUBLES = new double[0];
 
     private final HugeIdMap idMap;
+    // keep parallel relationships in the buffer so that their weights can be aggregated
+    private final boolean keepParallel;
 
     private long[] targets;
+    private double[] weights;
     private int length;
     private long prevNode;
     private boolean isSorted;
@@ -41,8 +49,18 @@ abstract class VisitRelationship {
     long sourceGraphId;
 
     VisitRelationship(final HugeIdMap idMap) {
+        this(idMap, false);
+    }
+
+    VisitRelationship(final HugeIdMap idMap, final boolean withWeights) {
+        this(idMap, withWeights, false);
+    }
+
+    VisitRelationship(final HugeIdMap idMap, final boolean withWeights, final boolean keepParallel) {
         this.idMap = idMap;
+        this.keepParallel = keepParallel;
         this.targets = EMPTY_LONGS;
+        this.weights = withWeights ? EMPTY_DOUBLES : null;
     }
 
     abstract void visit(RelationshipSelectionCursor cursor);
@@ -61,6 +79,9 @@ abstract class VisitRelationship {
             // avoid generous over-allocation for larger degrees
             int newSize = Math.max(32, 1 + degree);
             targets = new long[newSize];
+            if (weights != null) {
+                weights = new double[newSize];
+            }
         }
     }
 
@@ -71,10 +92,11 @@ abstract class VisitRelationship {
         prevNode = other.prevNode;
         isSorted = other.isSorted;
         targets = other.targets;
+        weights = other.weights;
     }
 
     final boolean addNode(final long nodeId) {
-        if (nodeId == prevNode) {
+        if (nodeId == prevNode && !keepParallel) {
             return false;
         }
         final long targetId = idMap.toHugeMappedNodeId(nodeId);
@@ -84,13 +106,56 @@ abstract class VisitRelationship {
         if (isSorted && targetId < prevTarget) {
             isSorted = false;
         }
+        if (keepParallel && length == targets.length) {
+            // self-references are visited as outgoing and incoming relationship
+            grow();
+        }
         targets[length++] = targetId;
         prevNode = nodeId;
         prevTarget = targetId;
         return true;
     }
 
-    final long flush(HugeAdjacencyBuilder builder) {
+    final void setWeight(final double weight) {
+        weights[length - 1] = weight;
+    }
+
+    private void grow() {
+        int newSize = length + (length >> 1) + 1;
+        targets = Arrays.copyOf(targets, newSize);
+        weights = Arrays.copyOf(weights, newSize);
+    }
+
+    /**
+     * Collapse the parallel relationships of the current node and combine their weights.
+     * If {@code weightMap} is given, the aggregated weights are written into it.
+     *
+     * @param reverse true if the buffered targets are the source nodes of the relationships
+     */
+    final void aggregateWeights(RelationshipAggregation aggregation, HugeWeightMap weightMap, boolean reverse) {
+        length = AdjacencyCompression.aggregate(targets, weights, length, aggregation);
+        if (weightMap != null) {
+            double defaultWeight = weightMap.defaultValue();
+            for (int i = 0; i < length; i++) {
+                if (weights[i] != defaultWeight) {
+                    if (reverse) {
+                        weightMap.put(targets[i], sourceGraphId, weights[i]);
+                    } else {
+                        weightMap.put(sourceGraphId, targets[i], weights[i]);
+                    }
+                }
+            }
+        }
+    }
+
+    long flush(HugeAdjacencyBuilder builder) {
+        // all relationships might point to nodes that are not loaded
+        if (length == 0) {
+            return 0L;
+        }
+        if (builder.hasWeights()) {
+            return builder.applyVariableDeltaEncoding(targets, weights, length);
+        }
         return builder.applyVariableDeltaEncoding(targets, length);
     }
 
@@ -112,6 +177,19 @@ abstract class VisitRelationship {
         }
     }
 
+    static double readWeight(
+            Read readOp,
+            CursorFactory cursors,
+            double defaultWeight,
+            int weightProperty,
+            long propertiesRef,
+            long relationshipId) {
+        try (PropertyCursor pc = cursors.allocatePropertyCursor()) {
+            readOp.relationshipProperties(relationshipId, propertiesRef, pc);
+            return ReadHelper.readProperty(pc, weightProperty, defaultWeight);
+        }
+    }
+
     static void visitUndirectedWeight(
             Read readOp,
             CursorFactory cursors,
@@ -265,3 +343,170 @@ final class VisitUndirectedOutgoingWithWeight extends VisitRelationship {
         }
     }
 }
+
+final class VisitOutgoingWithInlineWeight extends VisitRelationship {
+
+    private final Read readOp;
+    private final CursorFactory cursors;
+    private final double defaultWeight;
+    private final int weightProperty;
+
+    VisitOutgoingWithInlineWeight(
+            final Read readOp,
+            final CursorFactory cursors,
+            final HugeIdMap idMap,
+            final double defaultWeight,
+            final int weightProperty) {
+        super(idMap, true);
+        this.readOp = readOp;
+        this.cursors = cursors;
+        this.defaultWeight = defaultWeight;
+        this.weightProperty = weightProperty;
+    }
+
+    @Override
+    public void visit(final RelationshipSelectionCursor cursor) {
+        if (addNode(cursor.targetNodeReference())) {
+            setWeight(readWeight(
+                    readOp,
+                    cursors,
+                    defaultWeight,
+                    weightProperty,
+                    cursor.propertiesReference(),
+                    cursor.relationshipReference()));
+        }
+    }
+}
+
+final class VisitIncomingWithInlineWeight extends VisitRelationship {
+
+    private final Read readOp;
+    private final CursorFactory cursors;
+    private final double defaultWeight;
+    private final int weightProperty;
+
+    VisitIncomingWithInlineWeight(
+            final Read readOp,
+            final CursorFactory cursors,
+            final HugeIdMap idMap,
+            final double defaultWeight,
+            final int weightProperty) {
+        super(idMap, true);
+        this.readOp = readOp;
+        this.cursors = cursors;
+        this.defaultWeight = defaultWeight;
+        this.weightProperty = weightProperty;
+    }
+
+    @Override
+    public void visit(final RelationshipSelectionCursor cursor) {
+        if (addNode(cursor.sourceNodeReference())) {
+            setWeight(readWeight(
+                    readOp,
+                    cursors,
+                    defaultWeight,
+                    weightProperty,
+                    cursor.propertiesReference(),
+                    cursor.relationshipReference()));
+        }
+    }
+}
+
+/**
+ * Buffers the weights of all relationships of a node, including parallel relationships,
+ * and combines the weights of parallel relationships before the adjacency is compressed.
+ * Without inline weights, the aggregated weights are written into the weight map.
+ */
+abstract class VisitWithAggregatedWeight extends VisitRelationship {
+
+    private final Read readOp;
+    private final CursorFactory cursors;
+    private final HugeWeightMap weightMap;
+    private final boolean reverse;
+    private final double defaultWeight;
+    private final int weightProperty;
+    private final boolean readWeights;
+    private final RelationshipAggregation aggregation;
+
+    /**
+     * @param weightMap the map for the aggregated weights, null for inline weights
+     *                  or if another visitor already writes the weights of the same relationships
+     */
+    VisitWithAggregatedWeight(
+            final Read readOp,
+            final CursorFactory cursors,
+            final HugeIdMap idMap,
+            final HugeWeightMap weightMap,
+            final boolean reverse,
+            final double defaultWeight,
+            final int weightProperty,
+            final RelationshipAggregation aggregation) {
+        super(idMap, true, true);
+        this.readOp = readOp;
+        this.cursors = cursors;
+        this.weightMap = weightMap;
+        this.reverse = reverse;
+        this.defaultWeight = defaultWeight;
+        this.weightProperty = weightProperty;
+        this.readWeights = weightProperty != StatementConstants.NO_SUCH_PROPERTY_KEY &&
+                aggregation != RelationshipAggregation.COUNT;
+        this.aggregation = aggregation;
+    }
+
+    final void visit(final long nodeId, final RelationshipSelectionCursor cursor) {
+        if (addNode(nodeId)) {
+            double weight = readWeights ? readWeight(
+                    readOp,
+                    cursors,
+                    defaultWeight,
+                    weightProperty,
+                    cursor.propertiesReference(),
+                    cursor.relationshipReference()) : defaultWeight;
+            setWeight(aggregation.initialValue(weight));
+        }
+    }
+
+    @Override
+    long flush(final HugeAdjacencyBuilder builder) {
+        aggregateWeights(aggregation, weightMap, reverse);
+        return super.flush(builder);
+    }
+}
+
+final class VisitOutgoingWithAggregatedWeight extends VisitWithAggregatedWeight {
+
+    VisitOutgoingWithAggregatedWeight(
+            final Read readOp,
+            final CursorFactory cursors,
+            final HugeIdMap idMap,
+            final HugeWeightMap weightMap,
+            final double defaultWeight,
+            final int weightProperty,
+            final RelationshipAggregation aggregation) {
+        super(readOp, cursors, idMap, weightMap, false, defaultWeight, weightProperty, aggregation);
+    }
+
+    @Override
+    public void visit(final RelationshipSelectionCursor cursor) {
+        visit(cursor.targetNodeReference(), cursor);
+    }
+}
+
+final class VisitIncomingWithAggregatedWeight extends VisitWithAggregatedWeight {
+
+    VisitIncomingWithAggregatedWeight(
+            final Read readOp,
+            final CursorFactory cursors,
+            final HugeIdMap idMap,
+            final HugeWeightMap weightMap,
+            final double defaultWeight,
+            final int weightProperty,
+            final RelationshipAggregation aggregation) {
+        super(readOp, cursors, idMap, weightMap, true, defaultWeight, weightProperty, aggregation);
+    }
+
+    @Override
+    public void visit(final RelationshipSelectionCursor cursor) {
+        visit(cursor.sourceNodeReference(), cursor);
+    }
+}
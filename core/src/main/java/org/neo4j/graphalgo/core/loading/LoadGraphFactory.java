@@ -21,13 +21,45 @@ package org.neo4j.graphalgo.core.loading;
 import org.neo4j.graphalgo.api.Graph;
 import org.neo4j.graphalgo.api.GraphFactory;
 import org.neo4j.graphalgo.api.GraphSetup;
+import org.neo4j.graphalgo.core.heavyweight.HeavyGraph;
+import org.neo4j.graphalgo.core.huge.HugeDeltaGraph;
+import org.neo4j.graphalgo.core.huge.HugeGraphImpl;
+import org.neo4j.graphalgo.core.huge.HugeMultiTypeGraph;
+import org.neo4j.graphalgo.core.utils.mem.MemoryEstimation;
+import org.neo4j.graphalgo.core.utils.mem.MemoryEstimations;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
 import org.neo4j.kernel.internal.GraphDatabaseAPI;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Catalog of named graphs.
+ * <p>
+ * Every entry keeps track of the memory its graph uses, as reported by the {@link AllocationTracker}
+ * that was used for loading. When a new graph would exceed the global memory budget, the least recently
+ * used graphs are removed until it fits.
+ * <p>
+ * {@link #build()} pins the graph and returns a copy that shares its data, releasing the copy unpins it.
+ * A removed or evicted graph leaves the catalog immediately, but its data is released with the last pin,
+ * so algorithms that are still running on it are not affected. Graphs of holders that never release
+ * them are left to the garbage collector. Memory of evicted graphs that are still pinned is no longer
+ * counted against the budget.
+ */
 public final class LoadGraphFactory extends GraphFactory {
 
-    private final static ConcurrentHashMap<String, Graph> graphs = new ConcurrentHashMap<>();
+    public static final long UNLIMITED = Long.MAX_VALUE;
+
+    private final static ConcurrentHashMap<String, Entry> graphs = new ConcurrentHashMap<>();
+    private final static Object lock = new Object();
+    private static volatile long memoryBudget = UNLIMITED;
+    // orders accesses that happen within the same millisecond
+    private final static AtomicLong accessClock = new AtomicLong();
 
     public LoadGraphFactory(
             final GraphDatabaseAPI api,
@@ -35,35 +67,130 @@ public final class LoadGraphFactory extends GraphFactory {
         super(api, setup);
     }
 
+    /**
+     * No memory is estimated, the named graph is already loaded.
+     */
+    @Override
+    public MemoryEstimation memoryEstimation() {
+        return MemoryEstimations.empty("LoadGraph");
+    }
+
+    /**
+     * Returns the named graph, pinned until it is released. If the graph has been loaded with split
+     * relationship types, the relationship selector picks the types that the returned graph contains.
+     * Incremental graphs return a snapshot of their current version, which pins its data by itself.
+     *
+     * @throws IllegalArgumentException if the graph is not in the catalog
+     */
     @Override
     public Graph build() {
-        return get(setup.name);
+        Entry entry = graphs.get(setup.name);
+        if (entry != null) {
+            entry.touch();
+            if (entry.graph instanceof HugeDeltaGraph) {
+                return ((HugeDeltaGraph) entry.graph).snapshot();
+            }
+            if (entry.pin()) {
+                return pinned(entry, selectRelationshipTypes(entry.graph));
+            }
+        }
+        throw new IllegalArgumentException("Graph " + setup.name + " is not loaded");
+    }
+
+    private Graph selectRelationshipTypes(Graph graph) {
+        if (graph instanceof HugeMultiTypeGraph && !setup.loadAnyRelationshipType()) {
+            return ((HugeMultiTypeGraph) graph).forRelationshipTypes(setup.relationshipType);
+        }
+        return graph;
+    }
+
+    private static Graph pinned(Entry entry, Graph graph) {
+        if (graph instanceof HugeGraphImpl) {
+            return ((HugeGraphImpl) graph).sharedCopy(entry::unpin);
+        }
+        if (graph instanceof HugeMultiTypeGraph) {
+            return ((HugeMultiTypeGraph) graph).sharedCopy(entry::unpin);
+        }
+        if (graph instanceof HeavyGraph) {
+            return ((HeavyGraph) graph).sharedCopy(entry::unpin);
+        }
+        // nothing to release, e.g. a kernel view
+        entry.unpin();
+        return graph;
     }
 
     public static void set(String name, Graph graph) {
+        set(name, graph, 0L);
+    }
+
+    /**
+     * Add a graph to the catalog, evicting least recently used graphs if it doesn't fit into the memory budget.
+     *
+     * @param bytes the memory used by the graph, usually {@link AllocationTracker#tracked()}
+     * @throws IllegalArgumentException if the graph is larger than the memory budget; the graph is released then
+     */
+    public static void set(String name, Graph graph, long bytes) {
         if (name == null || graph == null) {
             throw new IllegalArgumentException("Both name and graph must be not null");
         }
-        if (graphs.putIfAbsent(name, graph) != null) {
-            throw new IllegalStateException("Graph name " + name + " already loaded");
+        Entry entry = new Entry(name, graph, bytes, graph.relationshipCount());
+        synchronized (lock) {
+            if (graphs.containsKey(name)) {
+                throw new IllegalStateException("Graph name " + name + " already loaded");
+            }
+            if (bytes > memoryBudget) {
+                graph.release();
+                throw new IllegalArgumentException(String.format(
+                        "Graph %s needs %s which exceeds the memory budget of %s",
+                        name,
+                        AllocationTracker.humanReadable(bytes),
+                        AllocationTracker.humanReadable(memoryBudget)));
+            }
+            evict(memoryBudget - bytes);
+            graph.canRelease(false);
+            graphs.put(name, entry);
         }
-        graph.canRelease(false);
     }
 
+    /**
+     * Returns the named graph and counts the access for the least recently used eviction.
+     */
     public static Graph get(String name) {
+        if (name == null) return null;
+        Entry entry = graphs.get(name);
+        if (entry == null) return null;
+        entry.touch();
+        return entry.graph;
+    }
+
+    /**
+     * Returns the catalog entry of the named graph without counting an access.
+     */
+    public static Entry entry(String name) {
         return name == null ? null : graphs.get(name);
     }
 
+    /**
+     * @return all catalog entries, least recently used first
+     */
+    public static List<Entry> entries() {
+        List<Entry> entries = new ArrayList<>(graphs.values());
+        entries.sort(Comparator.comparingLong(e -> e.accessTick));
+        return entries;
+    }
+
     public static boolean check(String name) {
         return name != null && graphs.containsKey(name);
     }
 
+    /**
+     * Removes the named graph from the catalog, it is released as soon as no algorithm holds it anymore.
+     */
     public static boolean remove(String name) {
         if (name == null) return false;
-        Graph graph = graphs.remove(name);
-        if (graph != null) {
-            graph.canRelease(true);
-            graph.release();
+        Entry entry = graphs.remove(name);
+        if (entry != null) {
+            entry.unpin();
             return true;
         }
         return false;
@@ -71,7 +198,118 @@ public final class LoadGraphFactory extends GraphFactory {
 
     public static String getType(String name) {
         if (name == null) return null;
-        Graph graph = graphs.get(name);
-        return graph == null ? null : graph.getType();
+        Entry entry = graphs.get(name);
+        return entry == null ? null : entry.graph.getType();
+    }
+
+    /**
+     * @return the memory used by all graphs in the catalog
+     */
+    public static long memoryUsage() {
+        return memoryUsage(graphs.values());
+    }
+
+    public static long memoryBudget() {
+        return memoryBudget;
+    }
+
+    /**
+     * Set the global memory budget of the catalog, evicting least recently used graphs if the catalog exceeds it.
+     *
+     * @param bytes the budget or {@link #UNLIMITED}
+     * @return the names of the evicted graphs
+     */
+    public static List<String> setMemoryBudget(long bytes) {
+        if (bytes < 0L) {
+            throw new IllegalArgumentException("The memory budget must not be negative, but was " + bytes);
+        }
+        synchronized (lock) {
+            memoryBudget = bytes;
+            return evict(bytes);
+        }
+    }
+
+    private static List<String> evict(long budget) {
+        List<String> evicted = new ArrayList<>();
+        long used = memoryUsage();
+        for (Entry entry : entries()) {
+            if (used <= budget) {
+                break;
+            }
+            if (remove(entry.name)) {
+                used -= entry.bytes;
+                evicted.add(entry.name);
+            }
+        }
+        return evicted;
+    }
+
+    private static long memoryUsage(Collection<Entry> entries) {
+        long bytes = 0L;
+        for (Entry entry : entries) {
+            bytes += entry.bytes;
+        }
+        return bytes;
+    }
+
+    public static final class Entry {
+        public final String name;
+        public final Graph graph;
+        public final long bytes;
+        public final long relationships;
+        public final long loadedAt;
+        private volatile long lastAccess;
+        private volatile long accessTick;
+        private final AtomicLong hits = new AtomicLong();
+        // the catalog itself and every graph returned by build() that has not been released yet
+        private final AtomicInteger pins = new AtomicInteger(1);
+
+        private Entry(String name, Graph graph, long bytes, long relationships) {
+            this.name = name;
+            this.graph = graph;
+            this.bytes = bytes;
+            this.relationships = relationships;
+            this.loadedAt = System.currentTimeMillis();
+            this.lastAccess = loadedAt;
+            this.accessTick = accessClock.incrementAndGet();
+        }
+
+        private void touch() {
+            lastAccess = System.currentTimeMillis();
+            accessTick = accessClock.incrementAndGet();
+            hits.incrementAndGet();
+        }
+
+        /**
+         * @return epoch millis of the last access, or of the load if the graph hasn't been used yet
+         */
+        public long lastAccess() {
+            return lastAccess;
+        }
+
+        public long hits() {
+            return hits.get();
+        }
+
+        /**
+         * @return false if the graph has already been released
+         */
+        private boolean pin() {
+            int count;
+            do {
+                count = pins.get();
+                if (count == 0) {
+                    return false;
+                }
+            } while (!pins.compareAndSet(count, count + 1));
+            return true;
+        }
+
+        private void unpin() {
+            if (pins.decrementAndGet() == 0) {
+                graph.canRelease(true);
+                graph.release();
+            }
+        }
     }
 }
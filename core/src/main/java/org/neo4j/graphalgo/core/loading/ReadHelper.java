@@ -86,4 +86,19 @@ public final class ReadHelper {
                     value));
         }
     }
+
+    public static long extractLongValue(Value value, long defaultValue) {
+        if (value instanceof IntegralValue) {
+            return ((IntegralValue) value).longValue();
+        } else if (value instanceof FloatingPointValue) {
+            return (long) ((FloatingPointValue) value).doubleValue();
+        } else if (value.valueGroup() == ValueGroup.NO_VALUE) {
+            return defaultValue;
+        } else {
+            throw new IllegalArgumentException(String.format(
+                    "Unsupported type [%s] of value %s. Please use a numeric property.",
+                    value.valueGroup(),
+                    value));
+        }
+    }
 }
@@ -25,6 +25,8 @@ import org.neo4j.graphalgo.core.GraphDimensions;
 import org.neo4j.graphalgo.core.IdMap;
 import org.neo4j.graphalgo.core.NodeImporter;
 import org.neo4j.graphalgo.core.utils.ImportProgress;
+import org.neo4j.graphalgo.core.utils.mem.MemoryEstimation;
+import org.neo4j.graphalgo.core.utils.mem.MemoryEstimations;
 import org.neo4j.kernel.internal.GraphDatabaseAPI;
 
 public final class GraphViewFactory extends GraphFactory {
@@ -35,6 +37,14 @@ public final class GraphViewFactory extends GraphFactory {
         super(api, setup);
     }
 
+    /**
+     * No memory is estimated, the view reads the store on demand.
+     */
+    @Override
+    public MemoryEstimation memoryEstimation() {
+        return MemoryEstimations.empty("GraphView");
+    }
+
     @Override
     public Graph build() {
         GraphDimensions dimensions = new GraphDimensions(api, setup).call();
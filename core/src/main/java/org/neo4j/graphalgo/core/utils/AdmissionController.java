@@ -0,0 +1,310 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.utils;
+
+import org.neo4j.graphalgo.api.GraphFactory;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Process-wide budget of threads and memory for concurrently running algorithms.
+ * <p>
+ * A job reserves its concurrency and an estimate of the bytes it is going to allocate
+ * before it loads the graph. Jobs that do not fit into the remaining budget wait in
+ * the order of their arrival until running jobs release their reservations or until
+ * their timeout expires. Jobs whose estimate exceeds the whole memory budget are rejected
+ * immediately, a concurrency above the thread budget is reduced to the budget.
+ * <p>
+ * A reservation counts the larger of the estimate and the bytes tracked by the
+ * {@link AllocationTracker} of the job, so that an underestimated job still holds back
+ * the jobs waiting behind it.
+ * <p>
+ * The budgets of the {@link #GLOBAL} controller can be set with the system properties
+ * {@code neo4j.graphalgo.admission.threads} and {@code neo4j.graphalgo.admission.memory} (in bytes).
+ * Admission control is opt-in: unless at least one of them is set, the global controller is
+ * {@link #unlimited()} and admits every job immediately. A budget that is not set defaults to the
+ * default concurrency and to 90% of the maximum heap, respectively.
+ * Only {@code algo.pageRank} and the {@code algo.unionFind} procedures reserve their jobs so far,
+ * other algorithms are not accounted for.
+ */
+public final class AdmissionController {
+
+    private static final long WAIT_SLICE_MILLIS = 100L;
+
+    public static final AdmissionController GLOBAL;
+
+    static {
+        Integer threads = null;
+        Long memory = null;
+        try {
+            threads = Integer.getInteger("neo4j.graphalgo.admission.threads");
+            memory = Long.getLong("neo4j.graphalgo.admission.memory");
+        } catch (SecurityException ignored) {
+        }
+        GLOBAL = threads == null && memory == null
+                ? unlimited()
+                : new AdmissionController(
+                        threads != null ? threads : Pools.DEFAULT_CONCURRENCY,
+                        memory != null ? memory : (long) (Runtime.getRuntime().maxMemory() * 0.9));
+    }
+
+    private final int threadBudget;
+    private final long memoryBudget;
+    private final boolean limited;
+    private final Map<Long, Reservation> reservations = new LinkedHashMap<>();
+    // tickets of jobs that gave up waiting before their turn
+    private final List<Long> abandoned = new ArrayList<>();
+
+    private long nextTicket;
+    private long admittedTicket;
+    private long nextId;
+
+    public AdmissionController(int threadBudget, long memoryBudget) {
+        if (threadBudget < 1) {
+            throw new IllegalArgumentException("Thread budget must be positive, got " + threadBudget);
+        }
+        if (memoryBudget < 0L) {
+            throw new IllegalArgumentException("Memory budget must not be negative, got " + memoryBudget);
+        }
+        this.threadBudget = threadBudget;
+        this.memoryBudget = memoryBudget;
+        this.limited = true;
+    }
+
+    private AdmissionController() {
+        this.threadBudget = Integer.MAX_VALUE;
+        this.memoryBudget = Long.MAX_VALUE;
+        this.limited = false;
+    }
+
+    /**
+     * A controller that lists the reservations of all jobs without limiting them:
+     * every job is admitted immediately with its requested concurrency.
+     */
+    public static AdmissionController unlimited() {
+        return new AdmissionController();
+    }
+
+    /**
+     * Reserve threads and memory for a job, waiting for running jobs to finish if the budget is exhausted.
+     *
+     * @param job            a description of the job, listed with the reservations
+     * @param concurrency    the requested number of threads, reduced to the thread budget
+     * @param estimatedBytes the estimated memory usage of the job, see {@link GraphFactory#estimateMemoryUsage}
+     * @param tracker        the tracker of the allocations of the job
+     * @param timeoutMillis  how long to wait for the budget, 0 to reject the job if it does not fit immediately
+     * @param flag           the termination flag of the job, checked while waiting
+     * @return the reservation that has to be closed after the job finished
+     * @throws IllegalStateException if the job does not fit into the budget in time
+     */
+    public Reservation reserve(
+            String job,
+            int concurrency,
+            long estimatedBytes,
+            AllocationTracker tracker,
+            long timeoutMillis,
+            TerminationFlag flag) {
+        if (!limited) {
+            synchronized (this) {
+                Reservation reservation = new Reservation(nextId++, job, Math.max(1, concurrency), estimatedBytes, tracker);
+                reservations.put(reservation.id, reservation);
+                return reservation;
+            }
+        }
+        if (estimatedBytes > memoryBudget) {
+            throw new IllegalStateException(String.format(
+                    "%s needs an estimated %s but the memory budget is %s",
+                    job,
+                    AllocationTracker.humanReadable(estimatedBytes),
+                    AllocationTracker.humanReadable(memoryBudget)));
+        }
+        int threads = Math.max(1, Math.min(concurrency, threadBudget));
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(Math.max(0L, timeoutMillis));
+
+        synchronized (this) {
+            long ticket = nextTicket++;
+            boolean admitted = false;
+            try {
+                while (ticket != admittedTicket || !fits(threads, estimatedBytes)) {
+                    long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                    if (remaining <= 0L) {
+                        throw new IllegalStateException(String.format(
+                                "%s could not be admitted in time, it needs %d threads and %s " +
+                                        "but %d of %d threads and %s of %s are reserved",
+                                job,
+                                threads,
+                                AllocationTracker.humanReadable(estimatedBytes),
+                                reservedThreads(),
+                                threadBudget,
+                                AllocationTracker.humanReadable(reservedBytes()),
+                                AllocationTracker.humanReadable(memoryBudget)));
+                    }
+                    if (!flag.running()) {
+                        throw new IllegalStateException(job + " was terminated while waiting for admission");
+                    }
+                    wait(Math.min(remaining, WAIT_SLICE_MILLIS));
+                }
+                Reservation reservation = new Reservation(nextId++, job, threads, estimatedBytes, tracker);
+                reservations.put(reservation.id, reservation);
+                admitted = true;
+                return reservation;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(job + " was interrupted while waiting for admission", e);
+            } finally {
+                // a job that gives up must not block the jobs behind it
+                if (admitted || ticket == admittedTicket) {
+                    admittedTicket++;
+                } else {
+                    abandoned.add(ticket);
+                }
+                while (abandoned.remove((Long) admittedTicket)) {
+                    admittedTicket++;
+                }
+                notifyAll();
+            }
+        }
+    }
+
+    private boolean fits(int threads, long bytes) {
+        // a single job may always run, even if it is underestimated by the others
+        return reservations.isEmpty() ||
+                (reservedThreads() + threads <= threadBudget && reservedBytes() + bytes <= memoryBudget);
+    }
+
+    private synchronized void release(Reservation reservation) {
+        reservations.remove(reservation.id);
+        notifyAll();
+    }
+
+    /**
+     * @return a snapshot of the current reservations in the order they were admitted
+     */
+    public synchronized List<Reservation> reservations() {
+        return new ArrayList<>(reservations.values());
+    }
+
+    public synchronized int reservedThreads() {
+        int threads = 0;
+        for (Reservation reservation : reservations.values()) {
+            threads += reservation.concurrency;
+        }
+        return threads;
+    }
+
+    public synchronized long reservedBytes() {
+        long bytes = 0L;
+        for (Reservation reservation : reservations.values()) {
+            bytes += reservation.reservedBytes();
+        }
+        return bytes;
+    }
+
+    /**
+     * @return the number of jobs that are waiting for admission
+     */
+    public synchronized long waitingJobs() {
+        return nextTicket - admittedTicket - abandoned.size();
+    }
+
+    /**
+     * @return false if jobs are admitted without limits, see {@link #unlimited()}
+     */
+    public boolean isLimited() {
+        return limited;
+    }
+
+    public int threadBudget() {
+        return threadBudget;
+    }
+
+    public long memoryBudget() {
+        return memoryBudget;
+    }
+
+    /**
+     * The threads and memory that have been reserved for a job.
+     * Closing the reservation returns them to the budget.
+     */
+    public final class Reservation implements AutoCloseable {
+        private final long id;
+        private final String job;
+        private final int concurrency;
+        private final long estimatedBytes;
+        private final AllocationTracker tracker;
+        private final long startMillis;
+        private boolean released;
+
+        private Reservation(long id, String job, int concurrency, long estimatedBytes, AllocationTracker tracker) {
+            this.id = id;
+            this.job = job;
+            this.concurrency = concurrency;
+            this.estimatedBytes = estimatedBytes;
+            this.tracker = tracker;
+            this.startMillis = System.currentTimeMillis();
+        }
+
+        public long id() {
+            return id;
+        }
+
+        public String job() {
+            return job;
+        }
+
+        /**
+         * @return the granted number of threads, which may be lower than the requested concurrency
+         */
+        public int concurrency() {
+            return concurrency;
+        }
+
+        public long estimatedBytes() {
+            return estimatedBytes;
+        }
+
+        public long trackedBytes() {
+            return tracker.tracked();
+        }
+
+        public long reservedBytes() {
+            return Math.max(estimatedBytes, tracker.tracked());
+        }
+
+        public long startMillis() {
+            return startMillis;
+        }
+
+        @Override
+        public void close() {
+            synchronized (AdmissionController.this) {
+                if (released) {
+                    return;
+                }
+                released = true;
+            }
+            release(this);
+        }
+    }
+}
@@ -0,0 +1,160 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.utils;
+
+import com.carrotsearch.hppc.LongArrayList;
+import org.neo4j.collection.primitive.PrimitiveIntIterable;
+import org.neo4j.graphalgo.core.IdMap;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongToIntFunction;
+
+/**
+ * Consecutive ranges of node ids that hold roughly the same number of relationships.
+ * <p>
+ * A node weighs its degree plus one, so that long runs of nodes without relationships are split as well.
+ * A single node that weighs more than a partition is budgeted gets a partition of its own.
+ * <p>
+ * Partitions can be assigned to threads up front or be claimed one after the other by all threads
+ * with {@link #claim()}. For the latter, build the partitions with work stealing: the partitions
+ * become smaller towards the end of the id space, so that threads that finish early take over
+ * the tail in small pieces instead of waiting on one large partition.
+ *
+ * @see ParallelUtil#hugeDegreePartitions(long, org.neo4j.graphalgo.api.HugeDegrees, org.neo4j.graphdb.Direction, int, boolean)
+ */
+public final class DegreePartitions {
+
+    // the smallest partition with work stealing is budgeted a fraction of the static partition size
+    private static final int MIN_PARTITIONS_PER_THREAD = 32;
+
+    // partition i covers the nodes bounds[i] (inclusive) to bounds[i + 1] (exclusive)
+    private final long[] bounds;
+    private final AtomicInteger nextPartition = new AtomicInteger();
+
+    private DegreePartitions(long[] bounds) {
+        this.bounds = bounds;
+    }
+
+    static DegreePartitions of(
+            long nodeCount,
+            LongToIntFunction degrees,
+            int concurrency,
+            boolean workStealing) {
+        if (concurrency <= 0) {
+            throw new IllegalArgumentException("concurrency must be > 0");
+        }
+        long total = 0L;
+        for (long node = 0L; node < nodeCount; node++) {
+            total += weight(degrees, node);
+        }
+        long staticSize = Math.max(1L, ParallelUtil.threadSize(concurrency, total));
+        long minSize = Math.max(1L, staticSize / MIN_PARTITIONS_PER_THREAD);
+
+        LongArrayList bounds = new LongArrayList(workStealing ? concurrency * 8 : concurrency + 1);
+        bounds.add(0L);
+        long remaining = total;
+        long budget = partitionSize(remaining, concurrency, staticSize, minSize, workStealing);
+        long size = 0L;
+        for (long node = 0L; node < nodeCount; node++) {
+            size += weight(degrees, node);
+            if (size >= budget) {
+                bounds.add(node + 1L);
+                remaining -= size;
+                size = 0L;
+                budget = partitionSize(remaining, concurrency, staticSize, minSize, workStealing);
+            }
+        }
+        if (size > 0L) {
+            bounds.add(nodeCount);
+        }
+        return new DegreePartitions(bounds.toArray());
+    }
+
+    private static int weight(LongToIntFunction degrees, long node) {
+        return degrees.applyAsInt(node) + 1;
+    }
+
+    /**
+     * Guided scheduling for work stealing: every partition gets its share of the
+     * relationships that are left, but never less than the minimum size.
+     */
+    private static long partitionSize(
+            long remaining,
+            int concurrency,
+            long staticSize,
+            long minSize,
+            boolean workStealing) {
+        if (!workStealing) {
+            return staticSize;
+        }
+        return Math.max(minSize, ParallelUtil.threadSize(concurrency, remaining));
+    }
+
+    /**
+     * @return the number of partitions
+     */
+    public int size() {
+        return bounds.length - 1;
+    }
+
+    /**
+     * @return the first node of the partition
+     */
+    public long start(int partition) {
+        return bounds[partition];
+    }
+
+    /**
+     * @return the node after the last node of the partition
+     */
+    public long end(int partition) {
+        return bounds[partition + 1];
+    }
+
+    /**
+     * Claim the next partition that has not been claimed by any thread.
+     *
+     * @return the partition or -1 if all partitions are claimed
+     */
+    public int claim() {
+        int partition = nextPartition.getAndIncrement();
+        return partition < size() ? partition : -1;
+    }
+
+    /**
+     * Make all partitions available to {@link #claim()} again.
+     */
+    public void reset() {
+        nextPartition.set(0);
+    }
+
+    /**
+     * @return one iterable per partition, for node ids that fit into an int
+     */
+    public List<PrimitiveIntIterable> batchIterables() {
+        List<PrimitiveIntIterable> iterables = new ArrayList<>(size());
+        for (int partition = 0; partition < size(); partition++) {
+            int start = Math.toIntExact(start(partition));
+            iterables.add(new IdMap.IdIterable(start, Math.toIntExact(end(partition)) - start));
+        }
+        return iterables;
+    }
+}
@@ -21,8 +21,11 @@ package org.neo4j.graphalgo.core.utils;
 import org.neo4j.collection.primitive.PrimitiveIntIterable;
 import org.neo4j.collection.primitive.PrimitiveLongIterable;
 import org.neo4j.graphalgo.api.BatchNodeIterable;
+import org.neo4j.graphalgo.api.Degrees;
 import org.neo4j.graphalgo.api.HugeBatchNodeIterable;
+import org.neo4j.graphalgo.api.HugeDegrees;
 import org.neo4j.graphalgo.core.IdMap;
+import org.neo4j.graphdb.Direction;
 import org.neo4j.helpers.Exceptions;
 
 import java.util.*;
@@ -33,6 +36,7 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.Future;
 import java.util.concurrent.FutureTask;
 import java.util.concurrent.LinkedBlockingQueue;
@@ -140,6 +144,11 @@ public final class ParallelUtil {
             int availableConcurrency = pool.getCorePoolSize() - pool.getActiveCount();
             return Math.min(availableConcurrency, desiredConcurrency);
         }
+        if (executor instanceof ForkJoinPool) {
+            ForkJoinPool pool = (ForkJoinPool) executor;
+            int availableConcurrency = pool.getParallelism() - pool.getActiveThreadCount();
+            return Math.min(availableConcurrency, desiredConcurrency);
+        }
         return desiredConcurrency;
     }
 
@@ -213,6 +222,66 @@ public final class ParallelUtil {
         }
     }
 
+    /**
+     * Executes read operations in parallel, one for each of the given partitions.
+     */
+    public static <T extends Runnable> List<T> readParallel(
+            int concurrency,
+            DegreePartitions partitions,
+            ParallelGraphImporter<T> importer,
+            ExecutorService executor) {
+        List<PrimitiveIntIterable> iterators = partitions.batchIterables();
+        List<T> tasks = new ArrayList<>(iterators.size());
+        for (int partition = 0; partition < iterators.size(); partition++) {
+            tasks.add(importer.newImporter(
+                    Math.toIntExact(partitions.start(partition)),
+                    iterators.get(partition)));
+        }
+        if (!canRunInParallel(executor) || tasks.size() <= 1) {
+            for (T task : tasks) {
+                task.run();
+            }
+        } else {
+            runWithConcurrency(concurrency, tasks, executor);
+        }
+        return tasks;
+    }
+
+    /**
+     * Splits the nodes into consecutive ranges with roughly the same number of relationships.
+     * Without work stealing there are at most {@code concurrency} partitions, one for each thread.
+     * With work stealing the partitions shrink towards the end and are meant to be
+     * {@link DegreePartitions#claim() claimed} by the threads as they go.
+     */
+    public static DegreePartitions hugeDegreePartitions(
+            long nodeCount,
+            HugeDegrees degrees,
+            Direction direction,
+            int concurrency,
+            boolean workStealing) {
+        return DegreePartitions.of(
+                nodeCount,
+                node -> degrees.degree(node, direction),
+                concurrency,
+                workStealing);
+    }
+
+    /**
+     * @see #hugeDegreePartitions(long, HugeDegrees, Direction, int, boolean)
+     */
+    public static DegreePartitions degreePartitions(
+            int nodeCount,
+            Degrees degrees,
+            Direction direction,
+            int concurrency,
+            boolean workStealing) {
+        return DegreePartitions.of(
+                nodeCount,
+                node -> degrees.degree((int) node, direction),
+                concurrency,
+                workStealing);
+    }
+
     public static Collection<Runnable> tasks(
             final int concurrency,
             final Supplier<? extends Runnable> newTask) {
@@ -341,6 +410,10 @@ public final class ParallelUtil {
      * <p>
      * If the pool is full, all remaining, non-submitted tasks are abandoned
      * and never tried again.
+     * <p>
+     * A {@link ForkJoinPool} is never considered full, the tasks are run as a
+     * {@link TaskScheduler.TaskGroup} that waits for a running task to finish
+     * before it submits the next one, no task is abandoned.
      *
      * @param concurrency how many tasks should be run simultaneous
      * @param tasks the tasks to execute
@@ -394,6 +467,10 @@ public final class ParallelUtil {
      * If the pool is full, all remaining, non-submitted tasks are abandoned
      * and never tried again.
      * <p>
+     * A {@link ForkJoinPool} is never considered full, the tasks are run as a
+     * {@link TaskScheduler.TaskGroup} that waits for a running task to finish
+     * before it submits the next one, no task is abandoned.
+     * <p>
      * The provided {@code terminationFlag} is checked before submitting new
      * tasks and if it signals termination, running tasks are cancelled and
      * not-yet-started tasks are abandoned.
@@ -451,6 +528,10 @@ public final class ParallelUtil {
      * <p>
      * If the pool is full, wait for {@code waitTime} {@code timeUnit}s
      * and retry submitting the tasks indefinitely.
+     * <p>
+     * A {@link ForkJoinPool} is never considered full, the tasks are run as a
+     * {@link TaskScheduler.TaskGroup} that waits for a running task to finish
+     * before it submits the next one, {@code waitTime} does not apply.
      *
      * @param concurrency how many tasks should be run simultaneous
      * @param tasks the tasks to execute
@@ -508,6 +589,10 @@ public final class ParallelUtil {
      * If the pool is full, wait for {@code waitTime} {@code timeUnit}s
      * and retry submitting the tasks indefinitely.
      * <p>
+     * A {@link ForkJoinPool} is never considered full, the tasks are run as a
+     * {@link TaskScheduler.TaskGroup} that waits for a running task to finish
+     * before it submits the next one, {@code waitTime} does not apply.
+     * <p>
      * The provided {@code terminationFlag} is checked before submitting new
      * tasks and if it signals termination, running tasks are cancelled and
      * not-yet-started tasks are abandoned.
@@ -569,6 +654,10 @@ public final class ParallelUtil {
      * <p>
      * If the pool is full, wait for {@code waitTime} {@code timeUnit}s
      * and retry submitting the tasks at most {@code maxRetries} times.
+     * <p>
+     * A {@link ForkJoinPool} is never considered full, the tasks are run as a
+     * {@link TaskScheduler.TaskGroup} that waits for a running task to finish
+     * before it submits the next one, {@code waitTime} and {@code maxRetries} do not apply.
      *
      * @param concurrency how many tasks should be run simultaneous
      * @param tasks the tasks to execute
@@ -628,6 +717,10 @@ public final class ParallelUtil {
      * If the pool is full, wait for {@code waitTime} {@code timeUnit}s
      * and retry submitting the tasks at most {@code maxRetries} times.
      * <p>
+     * A {@link ForkJoinPool} is never considered full, the tasks are run as a
+     * {@link TaskScheduler.TaskGroup} that waits for a running task to finish
+     * before it submits the next one, {@code waitTime} and {@code maxRetries} do not apply.
+     * <p>
      * The provided {@code terminationFlag} is checked before submitting new
      * tasks and if it signals termination, running tasks are cancelled and
      * not-yet-started tasks are abandoned.
@@ -675,6 +768,14 @@ public final class ParallelUtil {
             return;
         }
 
+        if (executor instanceof ForkJoinPool) {
+            // tasks are never abandoned on a fork join pool, a full pool applies backpressure instead
+            TaskScheduler
+                    .newGroup((ForkJoinPool) executor, concurrency, terminationFlag)
+                    .runAll(tasks);
+            return;
+        }
+
         CompletionService completionService =
                 new CompletionService(executor, concurrency);
 
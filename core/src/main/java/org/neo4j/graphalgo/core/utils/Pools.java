@@ -18,16 +18,8 @@
  */
 package org.neo4j.graphalgo.core.utils;
 
-import org.neo4j.helpers.NamedThreadFactory;
-
-import java.util.concurrent.ArrayBlockingQueue;
-import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ForkJoinPool;
-import java.util.concurrent.RejectedExecutionHandler;
-import java.util.concurrent.ThreadPoolExecutor;
-import java.util.concurrent.TimeUnit;
-import java.util.concurrent.locks.LockSupport;
 
 public class Pools {
     public static final int DEFAULT_CONCURRENCY;
@@ -54,37 +46,18 @@ public class Pools {
         throw new UnsupportedOperationException();
     }
 
+    /**
+     * The default pool is a work-stealing {@link TaskScheduler}. Submitters outside of the pool
+     * are parked while more than {@link #DEFAULT_QUEUE_SIZE} submissions are queued.
+     */
     public static ExecutorService createDefaultPool() {
-        return new ThreadPoolExecutor(
-                DEFAULT_CONCURRENCY,
-                DEFAULT_CONCURRENCY * 2,
-                30L,
-                TimeUnit.SECONDS,
-                new ArrayBlockingQueue<>(DEFAULT_QUEUE_SIZE),
-                NamedThreadFactory.daemon("algo"),
-                new CallerBlocksPolicy());
+        return new TaskScheduler(DEFAULT_CONCURRENCY, DEFAULT_QUEUE_SIZE, "algo");
     }
 
     public static ForkJoinPool createFJPool() {
         return new ForkJoinPool(ForkJoinPool.getCommonPoolParallelism());
     }
 
-    static class CallerBlocksPolicy implements RejectedExecutionHandler {
-        @Override
-        public void rejectedExecution(Runnable r, ThreadPoolExecutor executor) {
-            if (!executor.isShutdown()) {
-                // block caller for 100ns
-                LockSupport.parkNanos(100);
-                try {
-                    // submit again
-                    executor.submit(r).get();
-                } catch (InterruptedException | ExecutionException e) {
-                    throw new RuntimeException(e);
-                }
-            }
-        }
-    }
-
     public static int getNoThreadsInDefaultPool() {
         return DEFAULT_CONCURRENCY;
     }
@@ -0,0 +1,294 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.utils;
+
+import org.neo4j.helpers.Exceptions;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A work-stealing pool for the parallel parts of the algorithms.
+ * <p>
+ * The parallel tasks of one call are run as a {@link TaskGroup}. A group keeps at most
+ * {@code concurrency} of its tasks in flight and forks the next one after an earlier one has finished,
+ * so that tasks can be created lazily. The calling thread waits on the tasks of its group. If it is
+ * a worker of the pool itself, for instance a task that runs nested parallel work, it executes queued
+ * tasks while it waits instead of blocking, so that nested calls can neither deadlock nor starve the pool.
+ * <p>
+ * Threads outside of the pool are subject to backpressure. When more than {@code maxQueuedSubmissions}
+ * submissions are queued, an external submitter is parked until the workers have caught up. Workers are
+ * never parked by the bound, they are the ones that drain the queue.
+ */
+public final class TaskScheduler extends ForkJoinPool {
+
+    private static final long MIN_BACKOFF_NANOS = TimeUnit.MICROSECONDS.toNanos(10L);
+    private static final long MAX_BACKOFF_NANOS = TimeUnit.MILLISECONDS.toNanos(1L);
+
+    private final int maxQueuedSubmissions;
+
+    public TaskScheduler(int parallelism, int maxQueuedSubmissions, String threadNamePrefix) {
+        super(parallelism, new NamedWorkerFactory(threadNamePrefix), null, false);
+        if (maxQueuedSubmissions <= 0) {
+            throw new IllegalArgumentException("maxQueuedSubmissions must be > 0");
+        }
+        this.maxQueuedSubmissions = maxQueuedSubmissions;
+    }
+
+    /**
+     * Start a group of tasks on the given pool. Backpressure is only applied
+     * if the pool is a {@link TaskScheduler}.
+     */
+    public static TaskGroup newGroup(
+            ForkJoinPool pool,
+            int concurrency,
+            TerminationFlag terminationFlag) {
+        return new TaskGroup(pool, concurrency, terminationFlag);
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        awaitCapacity();
+        super.execute(task);
+    }
+
+    @Override
+    public ForkJoinTask<?> submit(Runnable task) {
+        awaitCapacity();
+        return super.submit(task);
+    }
+
+    @Override
+    public <T> ForkJoinTask<T> submit(Runnable task, T result) {
+        awaitCapacity();
+        return super.submit(task, result);
+    }
+
+    @Override
+    public <T> ForkJoinTask<T> submit(Callable<T> task) {
+        awaitCapacity();
+        return super.submit(task);
+    }
+
+    private boolean isWorkerOfThisPool() {
+        Thread thread = Thread.currentThread();
+        return thread instanceof ForkJoinWorkerThread && ((ForkJoinWorkerThread) thread).getPool() == this;
+    }
+
+    /**
+     * Park an external submitter with an increasing back-off while the pool is saturated.
+     * An interrupted submitter stops waiting and keeps its interrupt flag.
+     */
+    private void awaitCapacity() {
+        if (isWorkerOfThisPool()) {
+            return;
+        }
+        long backoff = MIN_BACKOFF_NANOS;
+        while (getQueuedSubmissionCount() >= maxQueuedSubmissions &&
+                !isShutdown() &&
+                !Thread.currentThread().isInterrupted()) {
+            LockSupport.parkNanos(this, backoff);
+            backoff = Math.min(backoff << 1, MAX_BACKOFF_NANOS);
+        }
+    }
+
+    /**
+     * The tasks of a single parallel call.
+     * <p>
+     * Errors of the tasks are chained together and rethrown by {@link #runAll(Collection)} once all started
+     * tasks have finished. If the {@link TerminationFlag} signals termination, or the waiting thread is
+     * interrupted, tasks that have not yet started are cancelled and no further tasks are forked.
+     * Tasks that are already running are not interrupted and not waited for, they have to check
+     * the flag themselves to stop early.
+     */
+    public static final class TaskGroup {
+        private final ForkJoinPool pool;
+        private final TerminationFlag terminationFlag;
+        // one permit for every task that may be in flight
+        private final Semaphore slots;
+        // forked tasks in order, finished ones are removed from the head
+        private final ArrayDeque<ForkJoinTask<?>> forked;
+        private Throwable error;
+
+        private TaskGroup(ForkJoinPool pool, int concurrency, TerminationFlag terminationFlag) {
+            this.pool = pool;
+            this.terminationFlag = terminationFlag;
+            this.slots = new Semaphore(Math.max(1, concurrency));
+            this.forked = new ArrayDeque<>();
+        }
+
+        /**
+         * Run all tasks, with at most {@code concurrency} of them in flight.
+         */
+        public void runAll(Collection<? extends Runnable> tasks) {
+            try {
+                Iterator<? extends Runnable> iterator = tasks.iterator();
+                while (iterator.hasNext() && terminationFlag.running()) {
+                    acquireSlot();
+                    fork(iterator.next());
+                    reapFinished();
+                }
+                while (!forked.isEmpty() && terminationFlag.running()) {
+                    awaitOldest();
+                }
+            } catch (InterruptedException e) {
+                synchronized (this) {
+                    error = error == null ? e : Exceptions.chain(e, error);
+                }
+            } finally {
+                cancelAll();
+            }
+            Throwable error;
+            synchronized (this) {
+                error = this.error;
+            }
+            if (error instanceof RuntimeException) {
+                throw (RuntimeException) error;
+            }
+            if (error instanceof Error) {
+                throw (Error) error;
+            }
+            if (error != null) {
+                throw new RuntimeException(error);
+            }
+        }
+
+        private boolean isWorkerOfPool() {
+            Thread thread = Thread.currentThread();
+            return thread instanceof ForkJoinWorkerThread && ((ForkJoinWorkerThread) thread).getPool() == pool;
+        }
+
+        /**
+         * Waits for a free slot. A worker of the pool lets the pool activate a spare
+         * thread while it waits, so that its own queued tasks are still executed.
+         */
+        private void acquireSlot() throws InterruptedException {
+            if (slots.tryAcquire()) {
+                return;
+            }
+            if (isWorkerOfPool()) {
+                ForkJoinPool.managedBlock(new ForkJoinPool.ManagedBlocker() {
+                    private boolean acquired;
+
+                    @Override
+                    public boolean block() throws InterruptedException {
+                        if (!acquired) {
+                            slots.acquire();
+                            acquired = true;
+                        }
+                        return true;
+                    }
+
+                    @Override
+                    public boolean isReleasable() {
+                        return acquired || (acquired = slots.tryAcquire());
+                    }
+                });
+            } else {
+                slots.acquire();
+            }
+        }
+
+        private void fork(Runnable task) {
+            ForkJoinTask<?> forkJoinTask = ForkJoinTask.adapt(() -> {
+                try {
+                    task.run();
+                } catch (Throwable e) {
+                    // the pool would rethrow a copy of the error, keep the original one
+                    addError(e);
+                } finally {
+                    slots.release();
+                }
+            });
+            if (isWorkerOfPool()) {
+                // nested work goes to the local queue of the worker and can be stolen from there
+                forkJoinTask.fork();
+            } else {
+                if (pool instanceof TaskScheduler) {
+                    ((TaskScheduler) pool).awaitCapacity();
+                }
+                pool.execute(forkJoinTask);
+            }
+            forked.addLast(forkJoinTask);
+        }
+
+        private void reapFinished() throws InterruptedException {
+            ForkJoinTask<?> task;
+            while ((task = forked.peekFirst()) != null && task.isDone()) {
+                awaitOldest();
+            }
+        }
+
+        /**
+         * Waits for the oldest task. A worker of the pool executes other tasks
+         * while it waits, only external threads actually block.
+         */
+        private void awaitOldest() throws InterruptedException {
+            ForkJoinTask<?> task = forked.pollFirst();
+            try {
+                task.get();
+            } catch (ExecutionException e) {
+                addError(e.getCause());
+            } catch (CancellationException ignore) {
+            }
+        }
+
+        private synchronized void addError(Throwable e) {
+            error = Exceptions.chain(error, e);
+        }
+
+        /**
+         * Cancelling a fork join task never interrupts it, only tasks that have not yet started are stopped.
+         */
+        private void cancelAll() {
+            ForkJoinTask<?> task;
+            while ((task = forked.pollFirst()) != null) {
+                task.cancel(false);
+            }
+        }
+    }
+
+    private static final class NamedWorkerFactory implements ForkJoinWorkerThreadFactory {
+        private final String prefix;
+        private final AtomicInteger threadCount = new AtomicInteger();
+
+        private NamedWorkerFactory(String prefix) {
+            this.prefix = prefix;
+        }
+
+        @Override
+        public ForkJoinWorkerThread newThread(ForkJoinPool pool) {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName(prefix + "-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
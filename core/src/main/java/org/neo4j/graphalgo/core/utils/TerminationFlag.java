@@ -21,15 +21,41 @@ package org.neo4j.graphalgo.core.utils;
 import org.neo4j.kernel.api.KernelTransaction;
 
 /**
+ * Signals algorithms to stop early.
+ * <p>
+ * Termination is cooperative. Algorithms check the flag between iterations or every
+ * {@link #RUN_CHECK_NODE_COUNT} nodes, and running tasks are never interrupted. A terminated
+ * algorithm returns once all of its running tasks have reached their next check, so how soon
+ * it releases its memory depends on the work between two checks, not on the check interval.
+ *
  * @author mknblch
  */
 public interface TerminationFlag {
 
     TerminationFlag RUNNING_TRUE = () -> true;
 
+    /**
+     * number of nodes between two calls to {@link #running()} in loops over single nodes
+     */
+    int RUN_CHECK_NODE_COUNT = 8192;
+
     static TerminationFlag wrap(KernelTransaction transaction) {
         return new TerminationFlagImpl(transaction);
     }
 
+    /**
+     * @param maxRuntime milliseconds until the flag stops running, 0 for no limit
+     */
+    static TerminationFlag wrap(KernelTransaction transaction, long maxRuntime) {
+        return new TerminationFlagImpl(transaction).withMaxRuntime(maxRuntime);
+    }
+
     boolean running();
+
+    /**
+     * @return true if the flag stopped running because its runtime budget was used up
+     */
+    default boolean deadlineExceeded() {
+        return false;
+    }
 }
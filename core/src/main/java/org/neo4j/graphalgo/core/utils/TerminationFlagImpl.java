@@ -21,36 +21,72 @@ package org.neo4j.graphalgo.core.utils;
 import org.neo4j.kernel.api.KernelTransaction;
 
 /**
+ * Stops running once the transaction is terminated or closed, or once the optional deadline has passed.
+ * <p>
+ * The transaction and the deadline are checked at most once per check interval, every other call
+ * only reads the clock. Loops over single nodes should call {@link #running()} only every
+ * {@link TerminationFlag#RUN_CHECK_NODE_COUNT} nodes.
+ *
  * @author mknblch
  */
 public class TerminationFlagImpl implements TerminationFlag {
 
     private final KernelTransaction transaction;
 
-    private long interval = 10_000;
+    private long interval = 10;
+
+    private long deadline = Long.MAX_VALUE;
 
     private volatile long lastCheck = 0;
 
     private volatile boolean running = true;
 
+    private volatile boolean deadlineExceeded = false;
+
     public TerminationFlagImpl(KernelTransaction transaction) {
         this.transaction = transaction;
     }
 
+    /**
+     * @param interval milliseconds between two checks of the transaction
+     */
     public TerminationFlagImpl withCheckInterval(long interval) {
         this.interval = interval;
         return this;
     }
 
+    /**
+     * @param maxRuntime milliseconds from now until the flag stops running, 0 for no limit
+     */
+    public TerminationFlagImpl withMaxRuntime(long maxRuntime) {
+        if (maxRuntime < 0) {
+            throw new IllegalArgumentException("maxRuntime must be >= 0, but was " + maxRuntime);
+        }
+        long now = System.currentTimeMillis();
+        this.deadline = maxRuntime == 0 || maxRuntime > Long.MAX_VALUE - now ? Long.MAX_VALUE : now + maxRuntime;
+        return this;
+    }
+
     @Override
     public boolean running() {
+        if (!running) {
+            return false;
+        }
         final long currentTime = System.currentTimeMillis();
         if (currentTime > lastCheck + interval) {
-            if (transaction.getReasonIfTerminated().isPresent() || !transaction.isOpen()) {
+            if (currentTime >= deadline) {
+                deadlineExceeded = true;
+                running = false;
+            } else if (transaction.getReasonIfTerminated().isPresent() || !transaction.isOpen()) {
                 running = false;
             }
             lastCheck = currentTime;
         }
         return running;
     }
+
+    @Override
+    public boolean deadlineExceeded() {
+        return deadlineExceeded;
+    }
 }
@@ -0,0 +1,212 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.utils.container;
+
+import java.util.Objects;
+
+/**
+ * An immutable map from long keys to values. Every update returns a new map that shares all unchanged
+ * parts with the previous one, an update costs O(log n) instead of a copy of the whole map.
+ * <p>
+ * The entries are kept in a trie of 32-way nodes that consumes the key five bits per level, starting
+ * with the lowest bits, so that dense keys spread over the first levels. A node only stores the
+ * children it has, a bitmap marks their slots. An entry is stored at the first level where its key
+ * differs from all other keys.
+ * <p>
+ * Null values are not supported.
+ */
+public final class PersistentLongMap<V> {
+
+    private static final int BITS = 5;
+    private static final int MASK = (1 << BITS) - 1;
+    private static final PersistentLongMap<?> EMPTY = new PersistentLongMap<>(null, 0);
+
+    private final Node root;
+    private final int size;
+
+    private PersistentLongMap(Node root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <V> PersistentLongMap<V> empty() {
+        return (PersistentLongMap<V>) EMPTY;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean containsKey(long key) {
+        return get(key) != null;
+    }
+
+    public V get(long key) {
+        return getOrDefault(key, null);
+    }
+
+    @SuppressWarnings("unchecked")
+    public V getOrDefault(long key, V defaultValue) {
+        Node node = root;
+        int shift = 0;
+        while (node != null) {
+            int bit = bit(key, shift);
+            if ((node.bitmap & bit) == 0) {
+                return defaultValue;
+            }
+            Object child = node.children[node.index(bit)];
+            if (child instanceof Leaf) {
+                Leaf leaf = (Leaf) child;
+                return leaf.key == key ? (V) leaf.value : defaultValue;
+            }
+            node = (Node) child;
+            shift += BITS;
+        }
+        return defaultValue;
+    }
+
+    /**
+     * @return a map that associates the key with the value, this map if it already does
+     */
+    public PersistentLongMap<V> put(long key, V value) {
+        Objects.requireNonNull(value, "value");
+        int newSize = containsKey(key) ? size : size + 1;
+        Node newRoot = put(root == null ? Node.EMPTY : root, key, value, 0);
+        return newRoot == root ? this : new PersistentLongMap<>(newRoot, newSize);
+    }
+
+    /**
+     * @return a map without the key, this map if it does not contain the key
+     */
+    public PersistentLongMap<V> remove(long key) {
+        if (!containsKey(key)) {
+            return this;
+        }
+        Node newRoot = (Node) remove(root, key, 0);
+        return newRoot == null ? empty() : new PersistentLongMap<>(newRoot, size - 1);
+    }
+
+    private static int bit(long key, int shift) {
+        return 1 << (int) ((key >>> shift) & MASK);
+    }
+
+    private static Node put(Node node, long key, Object value, int shift) {
+        int bit = bit(key, shift);
+        int index = node.index(bit);
+        if ((node.bitmap & bit) == 0) {
+            return node.insert(bit, index, new Leaf(key, value));
+        }
+        Object child = node.children[index];
+        Object newChild;
+        if (child instanceof Node) {
+            newChild = put((Node) child, key, value, shift + BITS);
+        } else {
+            Leaf leaf = (Leaf) child;
+            if (leaf.key != key) {
+                // both keys share the bits so far, they move one level down
+                // distinct keys differ in one of the 13 levels, the recursion ends before the shift overflows
+                Node split = put(Node.EMPTY, leaf.key, leaf.value, shift + BITS);
+                newChild = put(split, key, value, shift + BITS);
+            } else if (leaf.value != value) {
+                newChild = new Leaf(key, value);
+            } else {
+                newChild = leaf;
+            }
+        }
+        return newChild == child ? node : node.replace(index, newChild);
+    }
+
+    /**
+     * @return the node without the key, a single remaining leaf below the root or null if nothing remains
+     */
+    private static Object remove(Node node, long key, int shift) {
+        int bit = bit(key, shift);
+        int index = node.index(bit);
+        Object child = node.children[index];
+        Object newChild = child instanceof Node ? remove((Node) child, key, shift + BITS) : null;
+        if (newChild == null) {
+            if (node.children.length == 1) {
+                return null;
+            }
+            Node newNode = node.delete(bit, index);
+            // the last leaf of a node moves up to its parent
+            if (shift > 0 && newNode.children.length == 1 && newNode.children[0] instanceof Leaf) {
+                return newNode.children[0];
+            }
+            return newNode;
+        }
+        if (shift > 0 && newChild instanceof Leaf && node.children.length == 1) {
+            return newChild;
+        }
+        return node.replace(index, newChild);
+    }
+
+    private static final class Node {
+        static final Node EMPTY = new Node(0, new Object[0]);
+
+        final int bitmap;
+        // a Node or a Leaf per set bit of the bitmap
+        final Object[] children;
+
+        private Node(int bitmap, Object[] children) {
+            this.bitmap = bitmap;
+            this.children = children;
+        }
+
+        int index(int bit) {
+            return Integer.bitCount(bitmap & (bit - 1));
+        }
+
+        Node insert(int bit, int index, Object child) {
+            Object[] newChildren = new Object[children.length + 1];
+            System.arraycopy(children, 0, newChildren, 0, index);
+            newChildren[index] = child;
+            System.arraycopy(children, index, newChildren, index + 1, children.length - index);
+            return new Node(bitmap | bit, newChildren);
+        }
+
+        Node replace(int index, Object child) {
+            Object[] newChildren = children.clone();
+            newChildren[index] = child;
+            return new Node(bitmap, newChildren);
+        }
+
+        Node delete(int bit, int index) {
+            Object[] newChildren = new Object[children.length - 1];
+            System.arraycopy(children, 0, newChildren, 0, index);
+            System.arraycopy(children, index + 1, newChildren, index, newChildren.length - index);
+            return new Node(bitmap & ~bit, newChildren);
+        }
+    }
+
+    private static final class Leaf {
+        final long key;
+        final Object value;
+
+        private Leaf(long key, Object value) {
+            this.key = key;
+            this.value = value;
+        }
+    }
+}
@@ -23,6 +23,9 @@ import com.carrotsearch.hppc.IntIntScatterMap;
 import com.carrotsearch.hppc.IntScatterSet;
 import com.carrotsearch.hppc.IntSet;
 import org.neo4j.graphalgo.api.IdMapping;
+import org.neo4j.graphalgo.core.utils.mem.MemoryEstimation;
+import org.neo4j.graphalgo.core.utils.mem.MemoryEstimations;
+import org.neo4j.graphalgo.core.utils.paged.MemoryUsage;
 import org.neo4j.graphalgo.core.write.PropertyTranslator;
 
 import java.util.Arrays;
@@ -52,6 +55,14 @@ public final class DisjointSetStruct {
      *
      * @param capacity the capacity (maximum node id)
      */
+    public static MemoryEstimation memoryEstimation() {
+        return MemoryEstimations.builder(DisjointSetStruct.class)
+                .fixed("instance", MemoryUsage.shallowSizeOfInstance(DisjointSetStruct.class))
+                .perNode("parent", nodeCount -> MemoryUsage.sizeOfIntArray(Math.toIntExact(nodeCount)))
+                .perNode("depth", nodeCount -> MemoryUsage.sizeOfIntArray(Math.toIntExact(nodeCount)))
+                .build();
+    }
+
     public DisjointSetStruct(int capacity) {
         parent = new int[capacity];
         depth = new int[capacity];
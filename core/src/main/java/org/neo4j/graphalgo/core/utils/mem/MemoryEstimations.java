@@ -0,0 +1,210 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.utils.mem;
+
+import org.neo4j.graphalgo.core.GraphDimensions;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.IntUnaryOperator;
+import java.util.function.LongUnaryOperator;
+
+/**
+ * Builds {@link MemoryEstimation}s as a tree of components, e.g.
+ * <pre>
+ * MemoryEstimations.builder("PageRank")
+ *         .perNode("scores", MemoryUsage::sizeOfDoubleArray)
+ *         .perThread("partition", nodeCount -&gt; ...)
+ *         .build();
+ * </pre>
+ */
+public final class MemoryEstimations {
+
+    public static MemoryEstimation empty(String description) {
+        return new Leaf(description, (dimensions, concurrency) -> MemoryRange.empty());
+    }
+
+    public static Builder builder(String description) {
+        return new Builder(description);
+    }
+
+    public static Builder builder(Class<?> type) {
+        return new Builder(type.getSimpleName());
+    }
+
+    public static final class Builder {
+        private final String description;
+        private final List<MemoryEstimation> components = new ArrayList<>();
+
+        private Builder(String description) {
+            this.description = description;
+        }
+
+        /**
+         * A component with a fixed size, e.g. the instance of a class.
+         */
+        public Builder fixed(String description, long bytes) {
+            return fixed(description, MemoryRange.of(bytes));
+        }
+
+        public Builder fixed(String description, MemoryRange range) {
+            components.add(new Leaf(description, (dimensions, concurrency) -> range));
+            return this;
+        }
+
+        /**
+         * A component whose size depends on the number of nodes.
+         */
+        public Builder perNode(String description, LongUnaryOperator bytesForNodes) {
+            components.add(new Leaf(
+                    description,
+                    (dimensions, concurrency) -> MemoryRange.of(bytesForNodes.applyAsLong(dimensions.hugeNodeCount()))));
+            return this;
+        }
+
+        /**
+         * A component whose size depends on any of the graph dimensions.
+         */
+        public Builder perGraphDimension(String description, Function<GraphDimensions, MemoryRange> range) {
+            components.add(new Leaf(description, (dimensions, concurrency) -> range.apply(dimensions)));
+            return this;
+        }
+
+        /**
+         * A component that is allocated once per thread, whose size depends on the number of nodes.
+         */
+        public Builder perThread(String description, LongUnaryOperator bytesForNodes) {
+            components.add(new Leaf(
+                    description,
+                    (dimensions, concurrency) -> MemoryRange
+                            .of(bytesForNodes.applyAsLong(dimensions.hugeNodeCount()))
+                            .times(concurrency)));
+            return this;
+        }
+
+        /**
+         * A component that is allocated between {@code minCopies} and {@code maxCopies(concurrency)} times,
+         * e.g. thread local copies of a data structure that only exist while the algorithm runs in parallel.
+         */
+        public Builder copies(
+                String description,
+                MemoryEstimation estimation,
+                int minCopies,
+                IntUnaryOperator maxCopies) {
+            components.add(new Copies(description, estimation, minCopies, maxCopies));
+            return this;
+        }
+
+        public Builder add(MemoryEstimation estimation) {
+            components.add(estimation);
+            return this;
+        }
+
+        public MemoryEstimation build() {
+            return new Composite(description, new ArrayList<>(components));
+        }
+    }
+
+    @FunctionalInterface
+    private interface RangeFunction {
+        MemoryRange apply(GraphDimensions dimensions, int concurrency);
+    }
+
+    private static final class Leaf implements MemoryEstimation {
+        private final String description;
+        private final RangeFunction range;
+
+        private Leaf(String description, RangeFunction range) {
+            this.description = description;
+            this.range = range;
+        }
+
+        @Override
+        public String description() {
+            return description;
+        }
+
+        @Override
+        public MemoryTree apply(GraphDimensions dimensions, int concurrency) {
+            return MemoryTree.leaf(description, range.apply(dimensions, concurrency));
+        }
+    }
+
+    private static final class Composite implements MemoryEstimation {
+        private final String description;
+        private final List<MemoryEstimation> components;
+
+        private Composite(String description, List<MemoryEstimation> components) {
+            this.description = description;
+            this.components = components;
+        }
+
+        @Override
+        public String description() {
+            return description;
+        }
+
+        @Override
+        public MemoryTree apply(GraphDimensions dimensions, int concurrency) {
+            List<MemoryTree> trees = new ArrayList<>(components.size());
+            MemoryRange total = MemoryRange.empty();
+            for (MemoryEstimation component : components) {
+                MemoryTree tree = component.apply(dimensions, concurrency);
+                trees.add(tree);
+                total = total.add(tree.memoryUsage());
+            }
+            return new MemoryTree(description, total, trees);
+        }
+    }
+
+    private static final class Copies implements MemoryEstimation {
+        private final String description;
+        private final MemoryEstimation estimation;
+        private final int minCopies;
+        private final IntUnaryOperator maxCopies;
+
+        private Copies(String description, MemoryEstimation estimation, int minCopies, IntUnaryOperator maxCopies) {
+            this.description = description;
+            this.estimation = estimation;
+            this.minCopies = minCopies;
+            this.maxCopies = maxCopies;
+        }
+
+        @Override
+        public String description() {
+            return description;
+        }
+
+        @Override
+        public MemoryTree apply(GraphDimensions dimensions, int concurrency) {
+            MemoryTree tree = estimation.apply(dimensions, concurrency);
+            MemoryRange single = tree.memoryUsage();
+            int copies = Math.max(minCopies, maxCopies.applyAsInt(concurrency));
+            MemoryRange range = MemoryRange.of(single.min() * minCopies, single.max() * copies);
+            List<MemoryTree> components = new ArrayList<>(1);
+            components.add(tree);
+            return new MemoryTree(description, range, components);
+        }
+    }
+
+    private MemoryEstimations() {
+        throw new UnsupportedOperationException("No instances");
+    }
+}
@@ -0,0 +1,120 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.utils.mem;
+
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+
+import java.util.Objects;
+
+/**
+ * An inclusive range of memory usage in bytes.
+ * Used where the actual usage depends on data that is not known before the graph is loaded,
+ * e.g. the compression of the adjacency lists or the size of intermediate results.
+ */
+public final class MemoryRange {
+
+    private static final MemoryRange EMPTY = new MemoryRange(0L, 0L);
+
+    public static MemoryRange of(long value) {
+        return of(value, value);
+    }
+
+    public static MemoryRange of(long min, long max) {
+        if (min < 0L || max < min) {
+            throw new IllegalArgumentException(String.format(
+                    "Invalid memory range [%d, %d]",
+                    min,
+                    max));
+        }
+        return new MemoryRange(min, max);
+    }
+
+    public static MemoryRange empty() {
+        return EMPTY;
+    }
+
+    private final long min;
+    private final long max;
+
+    private MemoryRange(long min, long max) {
+        this.min = min;
+        this.max = max;
+    }
+
+    public long min() {
+        return min;
+    }
+
+    public long max() {
+        return max;
+    }
+
+    public boolean isEmpty() {
+        return max == 0L;
+    }
+
+    public MemoryRange add(MemoryRange other) {
+        return new MemoryRange(
+                Math.addExact(min, other.min),
+                Math.addExact(max, other.max));
+    }
+
+    public MemoryRange times(long count) {
+        return new MemoryRange(
+                Math.multiplyExact(min, count),
+                Math.multiplyExact(max, count));
+    }
+
+    /**
+     * @return the smallest range that contains both ranges
+     */
+    public MemoryRange union(MemoryRange other) {
+        return new MemoryRange(
+                Math.min(min, other.min),
+                Math.max(max, other.max));
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        MemoryRange that = (MemoryRange) o;
+        return min == that.min && max == that.max;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(min, max);
+    }
+
+    @Override
+    public String toString() {
+        if (min == max) {
+            return AllocationTracker.humanReadable(min);
+        }
+        return String.format(
+                "[%s ... %s]",
+                AllocationTracker.humanReadable(min),
+                AllocationTracker.humanReadable(max));
+    }
+}
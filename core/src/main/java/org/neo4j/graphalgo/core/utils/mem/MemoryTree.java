@@ -0,0 +1,78 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.utils.mem;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The result of a {@link MemoryEstimation}, the memory usage of a component is the sum of its children.
+ */
+public final class MemoryTree {
+
+    private final String description;
+    private final MemoryRange memoryUsage;
+    private final List<MemoryTree> components;
+
+    MemoryTree(String description, MemoryRange memoryUsage, List<MemoryTree> components) {
+        this.description = description;
+        this.memoryUsage = memoryUsage;
+        this.components = Collections.unmodifiableList(components);
+    }
+
+    public static MemoryTree leaf(String description, MemoryRange memoryUsage) {
+        return new MemoryTree(description, memoryUsage, Collections.emptyList());
+    }
+
+    public String description() {
+        return description;
+    }
+
+    public MemoryRange memoryUsage() {
+        return memoryUsage;
+    }
+
+    public List<MemoryTree> components() {
+        return components;
+    }
+
+    /**
+     * @return one line per component with its description and memory usage, indented by its depth
+     */
+    public String render() {
+        StringBuilder sb = new StringBuilder();
+        render(sb, 0);
+        return sb.toString();
+    }
+
+    private void render(StringBuilder sb, int depth) {
+        for (int i = 0; i < depth; i++) {
+            sb.append("    ");
+        }
+        sb.append(description).append(": ").append(memoryUsage).append(System.lineSeparator());
+        for (MemoryTree component : components) {
+            component.render(sb, depth + 1);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return render();
+    }
+}
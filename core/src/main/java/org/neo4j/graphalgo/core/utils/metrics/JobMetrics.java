@@ -0,0 +1,294 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.utils.metrics;
+
+import com.carrotsearch.hppc.LongArrayList;
+import org.neo4j.graphalgo.core.utils.ProgressTimer;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The metrics of a single algorithm call, from loading the graph to writing the results.
+ * <p>
+ * Phases, iterations and tasks may be recorded from any thread. Once the run is
+ * {@link #close() closed}, it is added to the history and the job statistics of its
+ * {@link MetricsRegistry} and further records are ignored.
+ */
+public final class JobMetrics implements AutoCloseable {
+
+    public static final String LOAD = "load";
+    public static final String COMPUTE = "compute";
+    public static final String WRITE = "write";
+
+    /**
+     * Ignores everything, for algorithms that are not run by a procedure.
+     */
+    public static final JobMetrics NULL = new JobMetrics(null, -1L, "", AllocationTracker.EMPTY);
+
+    private final MetricsRegistry registry;
+    private final long id;
+    private final String job;
+    private final AllocationTracker tracker;
+    private final long startMillis;
+    private final Map<String, Long> phases = new LinkedHashMap<>();
+    private final LongArrayList iterationNanos = new LongArrayList();
+    private final Map<String, TaskTimes> threads = new ConcurrentHashMap<>();
+    private volatile long nodeCount;
+    private volatile long relationshipCount;
+    private volatile long endMillis = -1L;
+    private volatile long peakBytes;
+
+    JobMetrics(MetricsRegistry registry, long id, String job, AllocationTracker tracker) {
+        this.registry = registry;
+        this.id = id;
+        this.job = job;
+        this.tracker = tracker;
+        this.startMillis = System.currentTimeMillis();
+    }
+
+    public long id() {
+        return id;
+    }
+
+    public String job() {
+        return job;
+    }
+
+    public long startMillis() {
+        return startMillis;
+    }
+
+    /**
+     * @return the time the run was closed or -1 if it is still running
+     */
+    public long endMillis() {
+        return endMillis;
+    }
+
+    public boolean isRunning() {
+        return endMillis < 0L;
+    }
+
+    /**
+     * Record the duration of a phase, repeated phases add up.
+     */
+    public void phase(String phase, long millis) {
+        if (isActive()) {
+            synchronized (phases) {
+                phases.merge(phase, millis, Long::sum);
+            }
+        }
+    }
+
+    /**
+     * @return a timer that records the phase when it is stopped
+     */
+    public ProgressTimer timePhase(String phase) {
+        return ProgressTimer.start(millis -> phase(phase, millis));
+    }
+
+    /**
+     * Record the size of the loaded graph, used to compute the edge throughput of the phases.
+     * The relationship count may be {@link org.neo4j.graphalgo.api.Graph#RELATIONSHIP_COUNT_NOT_SUPPORTED}.
+     */
+    public void graph(long nodeCount, long relationshipCount) {
+        if (isActive()) {
+            this.nodeCount = nodeCount;
+            this.relationshipCount = relationshipCount;
+        }
+    }
+
+    /**
+     * Record the duration of the next iteration of an iterative algorithm.
+     */
+    public void iteration(long nanos) {
+        if (isActive()) {
+            synchronized (iterationNanos) {
+                iterationNanos.add(nanos);
+            }
+        }
+    }
+
+    /**
+     * Wraps the tasks to record how long each of them runs on which thread.
+     * Returns the tasks themselves if nothing is recorded.
+     */
+    @SuppressWarnings("unchecked")
+    public Collection<Runnable> timed(Collection<? extends Runnable> tasks) {
+        if (!isActive()) {
+            return (Collection<Runnable>) tasks;
+        }
+        List<Runnable> timed = new ArrayList<>(tasks.size());
+        for (Runnable task : tasks) {
+            timed.add(timed(task));
+        }
+        return timed;
+    }
+
+    /**
+     * Wraps the task to record how long it runs on which thread.
+     * Returns the task itself if nothing is recorded.
+     */
+    public Runnable timed(Runnable task) {
+        if (!isActive()) {
+            return task;
+        }
+        return () -> {
+            long start = System.nanoTime();
+            try {
+                task.run();
+            } finally {
+                taskFinished(Thread.currentThread().getName(), System.nanoTime() - start);
+            }
+        };
+    }
+
+    /**
+     * Record a task that ran for {@code nanos} on the given thread.
+     */
+    public void taskFinished(String thread, long nanos) {
+        if (isActive()) {
+            threads.computeIfAbsent(thread, ignored -> new TaskTimes()).add(nanos);
+        }
+    }
+
+    /**
+     * @return the recorded phases and their duration in milliseconds, in the order they were first recorded
+     */
+    public Map<String, Long> phases() {
+        synchronized (phases) {
+            return Collections.unmodifiableMap(new LinkedHashMap<>(phases));
+        }
+    }
+
+    /**
+     * @return the duration of the phase in milliseconds or -1 if it has not been recorded
+     */
+    public long phaseMillis(String phase) {
+        synchronized (phases) {
+            return phases.getOrDefault(phase, -1L);
+        }
+    }
+
+    public long nodeCount() {
+        return nodeCount;
+    }
+
+    public long relationshipCount() {
+        return relationshipCount;
+    }
+
+    /**
+     * @return the relationships per second that were loaded or processed during a phase, 0 if unknown
+     */
+    public double edgesPerSecond(String phase) {
+        long millis = phaseMillis(phase);
+        if (millis < 0L || relationshipCount <= 0L) {
+            return 0.0;
+        }
+        // an iterative algorithm processes every relationship once per iteration
+        long iterations = COMPUTE.equals(phase) ? Math.max(1, iterations()) : 1;
+        return relationshipCount * iterations * 1000.0 / Math.max(1L, millis);
+    }
+
+    public int iterations() {
+        synchronized (iterationNanos) {
+            return iterationNanos.size();
+        }
+    }
+
+    /**
+     * @return the duration of every iteration in milliseconds
+     */
+    public double[] iterationMillis() {
+        synchronized (iterationNanos) {
+            double[] millis = new double[iterationNanos.size()];
+            for (int i = 0; i < millis.length; i++) {
+                millis[i] = iterationNanos.get(i) / 1_000_000.0;
+            }
+            return millis;
+        }
+    }
+
+    /**
+     * @return the highest memory usage that the tracker of the run has seen
+     */
+    public long peakBytes() {
+        return isRunning() ? tracker.peak() : peakBytes;
+    }
+
+    /**
+     * @return the number of tasks and the time they ran by thread
+     */
+    public Map<String, TaskTimes> threads() {
+        return Collections.unmodifiableMap(threads);
+    }
+
+    /**
+     * Finish the run, closing it more than once has no effect.
+     */
+    @Override
+    public void close() {
+        if (!isActive()) {
+            return;
+        }
+        synchronized (this) {
+            if (endMillis >= 0L) {
+                return;
+            }
+            peakBytes = tracker.peak();
+            endMillis = System.currentTimeMillis();
+        }
+        registry.finish(this);
+    }
+
+    private boolean isActive() {
+        return registry != null && endMillis < 0L;
+    }
+
+    /**
+     * The tasks that ran on a thread.
+     */
+    public static final class TaskTimes {
+        private final AtomicLong tasks = new AtomicLong();
+        private final AtomicLong nanos = new AtomicLong();
+
+        private void add(long taskNanos) {
+            tasks.incrementAndGet();
+            nanos.addAndGet(taskNanos);
+        }
+
+        public long tasks() {
+            return tasks.get();
+        }
+
+        public long millis() {
+            return TimeUnit.NANOSECONDS.toMillis(nanos.get());
+        }
+    }
+}
@@ -0,0 +1,174 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.utils.metrics;
+
+/**
+ * Aggregated metrics of all finished runs of a procedure. The {@code last} values
+ * describe the most recently finished run.
+ */
+public final class JobStats implements JobStatsMBean {
+
+    private final String job;
+
+    private long runs;
+    private long totalLoadMillis;
+    private long totalComputeMillis;
+    private long totalWriteMillis;
+    private long maxComputeMillis;
+    private long maxPeakBytes;
+    private JobMetrics last;
+
+    JobStats(String job) {
+        this.job = job;
+    }
+
+    synchronized void add(JobMetrics run) {
+        runs++;
+        totalLoadMillis += Math.max(0L, run.phaseMillis(JobMetrics.LOAD));
+        totalComputeMillis += Math.max(0L, run.phaseMillis(JobMetrics.COMPUTE));
+        totalWriteMillis += Math.max(0L, run.phaseMillis(JobMetrics.WRITE));
+        maxComputeMillis = Math.max(maxComputeMillis, run.phaseMillis(JobMetrics.COMPUTE));
+        maxPeakBytes = Math.max(maxPeakBytes, run.peakBytes());
+        last = run;
+    }
+
+    @Override
+    public String getJob() {
+        return job;
+    }
+
+    @Override
+    public synchronized long getRuns() {
+        return runs;
+    }
+
+    @Override
+    public long getLastLoadMillis() {
+        return last().phaseMillis(JobMetrics.LOAD);
+    }
+
+    @Override
+    public long getLastComputeMillis() {
+        return last().phaseMillis(JobMetrics.COMPUTE);
+    }
+
+    @Override
+    public long getLastWriteMillis() {
+        return last().phaseMillis(JobMetrics.WRITE);
+    }
+
+    @Override
+    public synchronized long getTotalLoadMillis() {
+        return totalLoadMillis;
+    }
+
+    @Override
+    public synchronized long getTotalComputeMillis() {
+        return totalComputeMillis;
+    }
+
+    @Override
+    public synchronized long getTotalWriteMillis() {
+        return totalWriteMillis;
+    }
+
+    @Override
+    public synchronized long getMaxComputeMillis() {
+        return maxComputeMillis;
+    }
+
+    @Override
+    public long getLastNodeCount() {
+        return last().nodeCount();
+    }
+
+    @Override
+    public long getLastRelationshipCount() {
+        return last().relationshipCount();
+    }
+
+    @Override
+    public double getLastLoadEdgesPerSecond() {
+        return last().edgesPerSecond(JobMetrics.LOAD);
+    }
+
+    @Override
+    public double getLastComputeEdgesPerSecond() {
+        return last().edgesPerSecond(JobMetrics.COMPUTE);
+    }
+
+    @Override
+    public int getLastIterations() {
+        return last().iterations();
+    }
+
+    @Override
+    public double getLastMeanIterationMillis() {
+        double[] millis = last().iterationMillis();
+        double sum = 0.0;
+        for (double iteration : millis) {
+            sum += iteration;
+        }
+        return millis.length == 0 ? 0.0 : sum / millis.length;
+    }
+
+    @Override
+    public double getLastMaxIterationMillis() {
+        double max = 0.0;
+        for (double iteration : last().iterationMillis()) {
+            max = Math.max(max, iteration);
+        }
+        return max;
+    }
+
+    @Override
+    public long getLastPeakBytes() {
+        return last().peakBytes();
+    }
+
+    @Override
+    public synchronized long getMaxPeakBytes() {
+        return maxPeakBytes;
+    }
+
+    @Override
+    public int getLastThreads() {
+        return last().threads().size();
+    }
+
+    @Override
+    public long getLastMinThreadMillis() {
+        return last().threads().values().stream()
+                .mapToLong(JobMetrics.TaskTimes::millis)
+                .min()
+                .orElse(0L);
+    }
+
+    @Override
+    public long getLastMaxThreadMillis() {
+        return last().threads().values().stream()
+                .mapToLong(JobMetrics.TaskTimes::millis)
+                .max()
+                .orElse(0L);
+    }
+
+    private synchronized JobMetrics last() {
+        return last;
+    }
+}
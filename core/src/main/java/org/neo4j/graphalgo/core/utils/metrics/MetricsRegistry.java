@@ -0,0 +1,142 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.utils.metrics;
+
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Collects the {@link JobMetrics} of algorithm calls.
+ * <p>
+ * The registry keeps the running jobs, a bounded history of finished jobs and the
+ * {@link JobStats} of every procedure, which are also registered as JMX MBeans.
+ * The size of the history of the {@link #GLOBAL} registry is configured with the system property
+ * {@code neo4j.graphalgo.metrics.history}.
+ */
+public final class MetricsRegistry {
+
+    public static final String JMX_DOMAIN = "org.neo4j.graphalgo";
+
+    public static final MetricsRegistry GLOBAL = new MetricsRegistry(
+            Long.getLong("neo4j.graphalgo.metrics.history", 100L).intValue(),
+            true);
+
+    private final int historySize;
+    private final boolean registerMBeans;
+    private final AtomicLong ids = new AtomicLong();
+    private final Set<JobMetrics> running = ConcurrentHashMap.newKeySet();
+    private final Deque<JobMetrics> history = new ArrayDeque<>();
+    private final Map<String, JobStats> stats = new LinkedHashMap<>();
+
+    /**
+     * @param historySize    the number of finished jobs to keep
+     * @param registerMBeans true if the job statistics should be registered with the platform MBean server
+     */
+    public MetricsRegistry(int historySize, boolean registerMBeans) {
+        if (historySize < 0) {
+            throw new IllegalArgumentException("History size must not be negative, got " + historySize);
+        }
+        this.historySize = historySize;
+        this.registerMBeans = registerMBeans;
+    }
+
+    /**
+     * Start recording the metrics of a job, the job is finished when the returned metrics are closed.
+     *
+     * @param job     the name of the procedure
+     * @param tracker the tracker of the job, its peak is recorded as the peak memory usage
+     */
+    public JobMetrics start(String job, AllocationTracker tracker) {
+        JobMetrics metrics = new JobMetrics(this, ids.incrementAndGet(), job, tracker);
+        running.add(metrics);
+        return metrics;
+    }
+
+    /**
+     * @return the jobs that are still running
+     */
+    public List<JobMetrics> running() {
+        return new ArrayList<>(running);
+    }
+
+    /**
+     * @return the most recently finished jobs, oldest first
+     */
+    public synchronized List<JobMetrics> history() {
+        return new ArrayList<>(history);
+    }
+
+    /**
+     * @return the statistics of every job that has finished at least once
+     */
+    public synchronized Collection<JobStats> stats() {
+        return new ArrayList<>(stats.values());
+    }
+
+    void finish(JobMetrics metrics) {
+        running.remove(metrics);
+        JobStats jobStats;
+        boolean created = false;
+        synchronized (this) {
+            if (historySize > 0) {
+                if (history.size() == historySize) {
+                    history.removeFirst();
+                }
+                history.addLast(metrics);
+            }
+            jobStats = stats.get(metrics.job());
+            if (jobStats == null) {
+                jobStats = new JobStats(metrics.job());
+                stats.put(metrics.job(), jobStats);
+                created = true;
+            }
+            jobStats.add(metrics);
+        }
+        if (created && registerMBeans) {
+            register(jobStats);
+        }
+    }
+
+    private static void register(JobStats jobStats) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(
+                    JMX_DOMAIN + ":type=JobMetrics,name=" + ObjectName.quote(jobStats.getJob()));
+            if (!server.isRegistered(name)) {
+                server.registerMBean(jobStats, name);
+            }
+        } catch (JMException | SecurityException e) {
+            // the metrics are still available through the procedures
+        }
+    }
+}
@@ -36,6 +36,11 @@ public class AllocationTracker implements Supplier<String> {
             return 0L;
         }
 
+        @Override
+        public long peak() {
+            return 0L;
+        }
+
         @Override
         public String get() {
             return "";
@@ -55,9 +60,13 @@ public class AllocationTracker implements Supplier<String> {
     private static final String[] UNITS = new String[]{" Bytes", " KiB", " MiB", " GiB", " TiB", " PiB", " EiB", " ZiB", " YiB"};
 
     private final AtomicLong count = new AtomicLong();
+    private final AtomicLong peak = new AtomicLong();
 
     public void add(long delta) {
-        count.addAndGet(delta);
+        long tracked = count.addAndGet(delta);
+        if (tracked > peak.get()) {
+            peak.accumulateAndGet(tracked, Math::max);
+        }
     }
 
     public void remove(long delta) {
@@ -68,6 +77,13 @@ public class AllocationTracker implements Supplier<String> {
         return count.get();
     }
 
+    /**
+     * @return the highest number of bytes that have been tracked at the same time
+     */
+    public long peak() {
+        return peak.get();
+    }
+
     public String getUsageString() {
         return humanReadable(tracked());
     }
@@ -0,0 +1,436 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.utils.paged;
+
+import org.neo4j.graphalgo.core.utils.ParallelUtil;
+import org.neo4j.graphalgo.core.utils.TerminationFlag;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongToDoubleFunction;
+import java.util.function.LongToIntFunction;
+import java.util.function.LongUnaryOperator;
+
+/**
+ * Parallel bulk operations for the huge arrays.
+ * <p>
+ * The index range is split into up to {@code concurrency} consecutive partitions that are aligned
+ * to the pages of the paged arrays, so that no page is written by more than one task.
+ * Every partition is processed with a {@link HugeLongArray#cursor(HugeLongArray.Cursor, long, long) range cursor}
+ * on the {@code executor}, all partitions are guaranteed to be processed when a method returns.
+ * If the arrays are small, or the concurrency is 1, the work is done on the calling thread.
+ */
+public final class HugeArrays {
+
+    // the page size of the paged huge arrays
+    private static final long PARTITION_ALIGNMENT = 1L << 14;
+
+    /**
+     * Parallel version of {@link HugeLongArray#setAll(LongUnaryOperator)}.
+     */
+    public static void parallelSetAll(
+            HugeLongArray array,
+            LongUnaryOperator gen,
+            int concurrency,
+            ExecutorService executor) {
+        run(partitions(array.size(), concurrency), concurrency, executor, (partition, from, to) -> {
+            try (HugeLongArray.Cursor cursor = array.cursor(array.newCursor(), from, to)) {
+                while (cursor.next()) {
+                    long[] values = cursor.array;
+                    long base = cursor.base;
+                    for (int i = cursor.offset; i < cursor.limit; i++) {
+                        values[i] = gen.applyAsLong(base + i);
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Parallel version of {@link HugeIntArray#setAll(LongToIntFunction)}.
+     */
+    public static void parallelSetAll(
+            HugeIntArray array,
+            LongToIntFunction gen,
+            int concurrency,
+            ExecutorService executor) {
+        run(partitions(array.size(), concurrency), concurrency, executor, (partition, from, to) -> {
+            try (HugeIntArray.Cursor cursor = array.cursor(array.newCursor(), from, to)) {
+                while (cursor.next()) {
+                    int[] values = cursor.array;
+                    long base = cursor.base;
+                    for (int i = cursor.offset; i < cursor.limit; i++) {
+                        values[i] = gen.applyAsInt(base + i);
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Parallel version of {@link HugeByteArray#setAll(LongToIntFunction)}.
+     */
+    public static void parallelSetAll(
+            HugeByteArray array,
+            LongToIntFunction gen,
+            int concurrency,
+            ExecutorService executor) {
+        run(partitions(array.size(), concurrency), concurrency, executor, (partition, from, to) -> {
+            try (HugeByteArray.Cursor cursor = array.cursor(array.newCursor(), from, to)) {
+                while (cursor.next()) {
+                    byte[] values = cursor.array;
+                    long base = cursor.base;
+                    for (int i = cursor.offset; i < cursor.limit; i++) {
+                        values[i] = (byte) gen.applyAsInt(base + i);
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Parallel version of {@link HugeFloatArray#setAll(LongToDoubleFunction)}.
+     */
+    public static void parallelSetAll(
+            HugeFloatArray array,
+            LongToDoubleFunction gen,
+            int concurrency,
+            ExecutorService executor) {
+        run(partitions(array.size(), concurrency), concurrency, executor, (partition, from, to) -> {
+            try (HugeFloatArray.Cursor cursor = array.cursor(array.newCursor(), from, to)) {
+                while (cursor.next()) {
+                    float[] values = cursor.array;
+                    long base = cursor.base;
+                    for (int i = cursor.offset; i < cursor.limit; i++) {
+                        values[i] = (float) gen.applyAsDouble(base + i);
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Parallel version of {@link HugeLongArray#fill(long)}.
+     */
+    public static void parallelFill(HugeLongArray array, long value, int concurrency, ExecutorService executor) {
+        run(partitions(array.size(), concurrency), concurrency, executor,
+                (partition, from, to) -> fill(array, value, from, to));
+    }
+
+    /**
+     * Parallel version of {@link HugeIntArray#fill(int)}.
+     */
+    public static void parallelFill(HugeIntArray array, int value, int concurrency, ExecutorService executor) {
+        run(partitions(array.size(), concurrency), concurrency, executor,
+                (partition, from, to) -> fill(array, value, from, to));
+    }
+
+    /**
+     * Parallel version of {@link HugeByteArray#fill(byte)}.
+     */
+    public static void parallelFill(HugeByteArray array, byte value, int concurrency, ExecutorService executor) {
+        run(partitions(array.size(), concurrency), concurrency, executor,
+                (partition, from, to) -> fill(array, value, from, to));
+    }
+
+    /**
+     * Parallel version of {@link HugeFloatArray#fill(float)}.
+     */
+    public static void parallelFill(HugeFloatArray array, float value, int concurrency, ExecutorService executor) {
+        run(partitions(array.size(), concurrency), concurrency, executor,
+                (partition, from, to) -> fill(array, value, from, to));
+    }
+
+    /**
+     * Parallel version of {@link HugeLongArray#copyTo(HugeLongArray, long)} for the whole source.
+     * Values of the target beyond the size of the source are reset to {@code 0}.
+     */
+    public static void parallelCopy(
+            HugeLongArray source,
+            HugeLongArray target,
+            int concurrency,
+            ExecutorService executor) {
+        long length = Math.min(source.size(), target.size());
+        run(partitions(target.size(), concurrency), concurrency, executor, (partition, from, to) -> {
+            long end = Math.min(to, length);
+            if (from < end) {
+                try (HugeLongArray.Cursor src = source.cursor(source.newCursor(), from, end);
+                     HugeLongArray.Cursor dst = target.cursor(target.newCursor(), from, end)) {
+                    int dstOffset = 0;
+                    int dstLimit = 0;
+                    while (src.next()) {
+                        int srcOffset = src.offset;
+                        while (srcOffset < src.limit) {
+                            if (dstOffset == dstLimit) {
+                                dst.next();
+                                dstOffset = dst.offset;
+                                dstLimit = dst.limit;
+                            }
+                            int toCopy = Math.min(src.limit - srcOffset, dstLimit - dstOffset);
+                            System.arraycopy(src.array, srcOffset, dst.array, dstOffset, toCopy);
+                            srcOffset += toCopy;
+                            dstOffset += toCopy;
+                        }
+                    }
+                }
+            }
+            fill(target, 0L, Math.max(from, length), to);
+        });
+    }
+
+    /**
+     * Parallel version of {@link HugeIntArray#copyTo(HugeIntArray, long)} for the whole source.
+     * Values of the target beyond the size of the source are reset to {@code 0}.
+     */
+    public static void parallelCopy(
+            HugeIntArray source,
+            HugeIntArray target,
+            int concurrency,
+            ExecutorService executor) {
+        long length = Math.min(source.size(), target.size());
+        run(partitions(target.size(), concurrency), concurrency, executor, (partition, from, to) -> {
+            long end = Math.min(to, length);
+            if (from < end) {
+                try (HugeIntArray.Cursor src = source.cursor(source.newCursor(), from, end);
+                     HugeIntArray.Cursor dst = target.cursor(target.newCursor(), from, end)) {
+                    int dstOffset = 0;
+                    int dstLimit = 0;
+                    while (src.next()) {
+                        int srcOffset = src.offset;
+                        while (srcOffset < src.limit) {
+                            if (dstOffset == dstLimit) {
+                                dst.next();
+                                dstOffset = dst.offset;
+                                dstLimit = dst.limit;
+                            }
+                            int toCopy = Math.min(src.limit - srcOffset, dstLimit - dstOffset);
+                            System.arraycopy(src.array, srcOffset, dst.array, dstOffset, toCopy);
+                            srcOffset += toCopy;
+                            dstOffset += toCopy;
+                        }
+                    }
+                }
+            }
+            fill(target, 0, Math.max(from, length), to);
+        });
+    }
+
+    /**
+     * Parallel version of {@link HugeByteArray#copyTo(HugeByteArray, long)} for the whole source.
+     * Values of the target beyond the size of the source are reset to {@code 0}.
+     */
+    public static void parallelCopy(
+            HugeByteArray source,
+            HugeByteArray target,
+            int concurrency,
+            ExecutorService executor) {
+        long length = Math.min(source.size(), target.size());
+        run(partitions(target.size(), concurrency), concurrency, executor, (partition, from, to) -> {
+            long end = Math.min(to, length);
+            if (from < end) {
+                try (HugeByteArray.Cursor src = source.cursor(source.newCursor(), from, end);
+                     HugeByteArray.Cursor dst = target.cursor(target.newCursor(), from, end)) {
+                    int dstOffset = 0;
+                    int dstLimit = 0;
+                    while (src.next()) {
+                        int srcOffset = src.offset;
+                        while (srcOffset < src.limit) {
+                            if (dstOffset == dstLimit) {
+                                dst.next();
+                                dstOffset = dst.offset;
+                                dstLimit = dst.limit;
+                            }
+                            int toCopy = Math.min(src.limit - srcOffset, dstLimit - dstOffset);
+                            System.arraycopy(src.array, srcOffset, dst.array, dstOffset, toCopy);
+                            srcOffset += toCopy;
+                            dstOffset += toCopy;
+                        }
+                    }
+                }
+            }
+            fill(target, (byte) 0, Math.max(from, length), to);
+        });
+    }
+
+    /**
+     * Parallel version of {@link HugeFloatArray#copyTo(HugeFloatArray, long)} for the whole source.
+     * Values of the target beyond the size of the source are reset to {@code 0}.
+     */
+    public static void parallelCopy(
+            HugeFloatArray source,
+            HugeFloatArray target,
+            int concurrency,
+            ExecutorService executor) {
+        long length = Math.min(source.size(), target.size());
+        run(partitions(target.size(), concurrency), concurrency, executor, (partition, from, to) -> {
+            long end = Math.min(to, length);
+            if (from < end) {
+                try (HugeFloatArray.Cursor src = source.cursor(source.newCursor(), from, end);
+                     HugeFloatArray.Cursor dst = target.cursor(target.newCursor(), from, end)) {
+                    int dstOffset = 0;
+                    int dstLimit = 0;
+                    while (src.next()) {
+                        int srcOffset = src.offset;
+                        while (srcOffset < src.limit) {
+                            if (dstOffset == dstLimit) {
+                                dst.next();
+                                dstOffset = dst.offset;
+                                dstLimit = dst.limit;
+                            }
+                            int toCopy = Math.min(src.limit - srcOffset, dstLimit - dstOffset);
+                            System.arraycopy(src.array, srcOffset, dst.array, dstOffset, toCopy);
+                            srcOffset += toCopy;
+                            dstOffset += toCopy;
+                        }
+                    }
+                }
+            }
+            fill(target, 0f, Math.max(from, length), to);
+        });
+    }
+
+    /**
+     * Replaces every value with the sum of all values up to and including its index.
+     * <p>
+     * The partitions are summed up in parallel, the sums are turned into the start value of
+     * every partition on the calling thread and a second parallel pass accumulates the partitions.
+     *
+     * @return the sum of all values
+     */
+    public static long parallelPrefixSum(HugeLongArray array, int concurrency, ExecutorService executor) {
+        long[] bounds = partitions(array.size(), concurrency);
+        long[] sums = new long[bounds.length];
+        run(bounds, concurrency, executor, (partition, from, to) -> {
+            long sum = 0L;
+            try (HugeLongArray.Cursor cursor = array.cursor(array.newCursor(), from, to)) {
+                while (cursor.next()) {
+                    long[] values = cursor.array;
+                    for (int i = cursor.offset; i < cursor.limit; i++) {
+                        sum += values[i];
+                    }
+                }
+            }
+            sums[partition + 1] = sum;
+        });
+        for (int i = 1; i < sums.length; i++) {
+            sums[i] += sums[i - 1];
+        }
+        run(bounds, concurrency, executor, (partition, from, to) -> {
+            long sum = sums[partition];
+            try (HugeLongArray.Cursor cursor = array.cursor(array.newCursor(), from, to)) {
+                while (cursor.next()) {
+                    long[] values = cursor.array;
+                    for (int i = cursor.offset; i < cursor.limit; i++) {
+                        sum += values[i];
+                        values[i] = sum;
+                    }
+                }
+            }
+        });
+        return sums[sums.length - 1];
+    }
+
+    private static void fill(HugeLongArray array, long value, long from, long to) {
+        if (from < to) {
+            try (HugeLongArray.Cursor cursor = array.cursor(array.newCursor(), from, to)) {
+                while (cursor.next()) {
+                    Arrays.fill(cursor.array, cursor.offset, cursor.limit, value);
+                }
+            }
+        }
+    }
+
+    private static void fill(HugeIntArray array, int value, long from, long to) {
+        if (from < to) {
+            try (HugeIntArray.Cursor cursor = array.cursor(array.newCursor(), from, to)) {
+                while (cursor.next()) {
+                    Arrays.fill(cursor.array, cursor.offset, cursor.limit, value);
+                }
+            }
+        }
+    }
+
+    private static void fill(HugeByteArray array, byte value, long from, long to) {
+        if (from < to) {
+            try (HugeByteArray.Cursor cursor = array.cursor(array.newCursor(), from, to)) {
+                while (cursor.next()) {
+                    Arrays.fill(cursor.array, cursor.offset, cursor.limit, value);
+                }
+            }
+        }
+    }
+
+    private static void fill(HugeFloatArray array, float value, long from, long to) {
+        if (from < to) {
+            try (HugeFloatArray.Cursor cursor = array.cursor(array.newCursor(), from, to)) {
+                while (cursor.next()) {
+                    Arrays.fill(cursor.array, cursor.offset, cursor.limit, value);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the bounds of the partitions, partition {@code i} ranges from {@code bounds[i]} until {@code bounds[i + 1]}
+     */
+    static long[] partitions(long size, int concurrency) {
+        if (size <= 0L) {
+            return new long[]{0L};
+        }
+        long batchSize = ParallelUtil.threadSize(Math.max(1, concurrency), size);
+        batchSize = ((batchSize + PARTITION_ALIGNMENT - 1L) / PARTITION_ALIGNMENT) * PARTITION_ALIGNMENT;
+        int numPartitions = Math.toIntExact(ParallelUtil.threadSize(batchSize, size));
+        long[] bounds = new long[numPartitions + 1];
+        for (int i = 1; i < numPartitions; i++) {
+            bounds[i] = i * batchSize;
+        }
+        bounds[numPartitions] = size;
+        return bounds;
+    }
+
+    static void run(long[] bounds, int concurrency, ExecutorService executor, RangeTask task) {
+        List<Runnable> tasks = new ArrayList<>(bounds.length - 1);
+        for (int partition = 0; partition < bounds.length - 1; partition++) {
+            int p = partition;
+            long from = bounds[partition];
+            long to = bounds[partition + 1];
+            tasks.add(() -> task.run(p, from, to));
+        }
+        // every partition must be processed, wait for a free thread instead of dropping the task
+        ParallelUtil.runWithConcurrency(
+                concurrency,
+                tasks,
+                10L,
+                TimeUnit.MICROSECONDS,
+                TerminationFlag.RUNNING_TRUE,
+                executor);
+    }
+
+    @FunctionalInterface
+    interface RangeTask {
+        void run(int partition, long from, long to);
+    }
+
+    private HugeArrays() {
+        throw new UnsupportedOperationException("No instances");
+    }
+}
@@ -0,0 +1,172 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.utils.paged;
+
+import java.util.concurrent.ExecutorService;
+
+/**
+ * A thread-safe, long-indexable bit set of a fixed size.
+ * <p>
+ * The bits are stored in the words of a {@link PagedAtomicLongArray}, every modification is
+ * a CAS on the word that contains the bit. Reads and {@link #nextSetBit(long)} see the latest
+ * value of every word, but are not atomic across words.
+ */
+public final class HugeAtomicBitSet {
+
+    private static final int NUM_BITS_SHIFT = 6;
+
+    private final PagedAtomicLongArray words;
+    private final long numBits;
+    private final long numWords;
+
+    public static long estimateMemoryUsage(long size) {
+        return MemoryUsage.shallowSizeOfInstance(HugeAtomicBitSet.class) +
+                PagedAtomicLongArray.estimateMemoryUsage(wordsFor(size));
+    }
+
+    public static HugeAtomicBitSet newBitSet(long size, AllocationTracker tracker) {
+        long numWords = wordsFor(size);
+        tracker.add(MemoryUsage.shallowSizeOfInstance(HugeAtomicBitSet.class));
+        return new HugeAtomicBitSet(PagedAtomicLongArray.newArray(numWords, tracker), size, numWords);
+    }
+
+    private HugeAtomicBitSet(PagedAtomicLongArray words, long numBits, long numWords) {
+        this.words = words;
+        this.numBits = numBits;
+        this.numWords = numWords;
+    }
+
+    /**
+     * @return the state of the bit at the given index
+     */
+    public boolean get(long index) {
+        assert index < numBits;
+        long word = words.get(index >>> NUM_BITS_SHIFT);
+        return (word & (1L << index)) != 0L;
+    }
+
+    /**
+     * Sets the bit at the given index.
+     */
+    public void set(long index) {
+        trySet(index);
+    }
+
+    /**
+     * Sets the bit at the given index.
+     *
+     * @return true if this call has set the bit, false if it was already set
+     */
+    public boolean trySet(long index) {
+        assert index < numBits;
+        long wordIndex = index >>> NUM_BITS_SHIFT;
+        long mask = 1L << index;
+        while (true) {
+            long word = words.get(wordIndex);
+            if ((word & mask) != 0L) {
+                return false;
+            }
+            if (words.cas(wordIndex, word, word | mask)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Resets the bit at the given index.
+     */
+    public void clear(long index) {
+        assert index < numBits;
+        long wordIndex = index >>> NUM_BITS_SHIFT;
+        long mask = ~(1L << index);
+        while (true) {
+            long word = words.get(wordIndex);
+            if ((word & mask) == word || words.cas(wordIndex, word, word & mask)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Resets all bits. Must not be called while other threads are setting bits.
+     */
+    public void clear() {
+        for (long i = 0L; i < numWords; i++) {
+            words.set(i, 0L);
+        }
+    }
+
+    /**
+     * Resets all bits with up to {@code concurrency} tasks on the executor.
+     * Must not be called while other threads are setting bits.
+     */
+    public void clear(int concurrency, ExecutorService executor) {
+        HugeArrays.run(HugeArrays.partitions(numWords, concurrency), concurrency, executor, (partition, from, to) -> {
+            for (long i = from; i < to; i++) {
+                words.set(i, 0L);
+            }
+        });
+    }
+
+    /**
+     * @return the number of set bits
+     */
+    public long cardinality() {
+        long count = 0L;
+        for (long i = 0L; i < numWords; i++) {
+            count += Long.bitCount(words.get(i));
+        }
+        return count;
+    }
+
+    /**
+     * @return the index of the first set bit at or after the given index or {@code -1} if there is none
+     */
+    public long nextSetBit(long index) {
+        if (index >= numBits) {
+            return -1L;
+        }
+        long wordIndex = index >>> NUM_BITS_SHIFT;
+        long word = words.get(wordIndex) & (-1L << index);
+        while (true) {
+            if (word != 0L) {
+                return (wordIndex << NUM_BITS_SHIFT) + Long.numberOfTrailingZeros(word);
+            }
+            if (++wordIndex == numWords) {
+                return -1L;
+            }
+            word = words.get(wordIndex);
+        }
+    }
+
+    /**
+     * @return the number of bits in this set
+     */
+    public long size() {
+        return numBits;
+    }
+
+    public long release() {
+        return words.release();
+    }
+
+    private static long wordsFor(long size) {
+        return (size + Long.SIZE - 1L) >>> NUM_BITS_SHIFT;
+    }
+}
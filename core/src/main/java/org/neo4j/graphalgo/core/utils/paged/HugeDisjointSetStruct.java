@@ -0,0 +1,87 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.utils.paged;
+
+import com.carrotsearch.hppc.LongScatterSet;
+import org.neo4j.graphalgo.api.HugeIdMapping;
+import org.neo4j.graphalgo.core.utils.dss.DisjointSetStruct;
+import org.neo4j.graphalgo.core.write.PropertyTranslator;
+
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+/**
+ * Disjoint-set structure over long node ids.
+ *
+ * @see PagedDisjointSetStruct
+ * @see PagedAtomicDisjointSetStruct
+ */
+public interface HugeDisjointSetStruct {
+
+    /**
+     * Join the sets of both nodes.
+     */
+    void union(long p, long q);
+
+    /**
+     * Find the set id of the node, may compress the path to the root on the way.
+     */
+    long find(long p);
+
+    /**
+     * Find the set id of the node without modifying the structure.
+     */
+    long findNoOpt(long nodeId);
+
+    /**
+     * Number of nodes in the structure.
+     */
+    long capacity();
+
+    default boolean connected(long p, long q) {
+        return find(p) == find(q);
+    }
+
+    default int getSetCount() {
+        LongScatterSet set = new LongScatterSet();
+        long capacity = capacity();
+        for (long i = 0L; i < capacity; ++i) {
+            set.add(find(i));
+        }
+        return set.size();
+    }
+
+    default Stream<DisjointSetStruct.Result> resultStream(HugeIdMapping idMapping) {
+        return LongStream.range(HugeIdMapping.START_NODE_ID, idMapping.nodeCount())
+                .mapToObj(mappedId ->
+                        new DisjointSetStruct.Result(
+                                idMapping.toOriginalNodeId(mappedId),
+                                find(mappedId)));
+    }
+
+    final class Translator implements PropertyTranslator.OfLong<HugeDisjointSetStruct> {
+
+        public static final PropertyTranslator<HugeDisjointSetStruct> INSTANCE = new Translator();
+
+        @Override
+        public long toLong(final HugeDisjointSetStruct data, final long nodeId) {
+            return data.findNoOpt(nodeId);
+        }
+    }
+}
@@ -0,0 +1,658 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.utils.paged;
+
+import org.neo4j.graphalgo.core.write.PropertyTranslator;
+
+import java.util.Arrays;
+import java.util.function.LongToIntFunction;
+
+/**
+ * A long-indexable version of a primitive int array ({@code int[]}) that can contain more than 2 bn. elements.
+ * <p>
+ * It is implemented by paging of smaller int-arrays ({@code int[][]}) to support approx. 32k bn. elements.
+ * If the the provided size is small enough, an optimized view of a single {@code int[]} might be used.
+ * <p>
+ * <ul>
+ * <li>The array is of a fixed size and cannot grow or shrink dynamically.</li>
+ * <li>The array is not optimized for sparseness and has a large memory overhead if the values written to it are very sparse.</li>
+ * <li>The array does not support default values and returns the same default for unset values that a regular {@code int[]} does ({@code 0}).</li>
+ * </ul>
+ * <p>
+ * <h3>Basic Usage</h3>
+ * <pre>
+ * {@code}
+ * AllocationTracker tracker = ...;
+ * long arraySize = 42L;
+ * HugeIntArray array = HugeIntArray.newArray(arraySize, tracker);
+ * array.set(13L, 37);
+ * int value = array.get(13L);
+ * // value = 37
+ * {@code}
+ * </pre>
+ */
+public abstract class HugeIntArray {
+
+    /**
+     * @return the int value at the given index
+     * @throws ArrayIndexOutOfBoundsException if the index is not within {@link #size()}
+     */
+    abstract public int get(long index);
+
+    /**
+     * Sets the int value at the given index to the given value.
+     *
+     * @throws ArrayIndexOutOfBoundsException if the index is not within {@link #size()}
+     */
+    abstract public void set(long index, int value);
+
+    /**
+     * Computes the bit-wise OR ({@code |}) of the existing value and the provided value at the given index.
+     * If there was no previous value, the final result is set to the provided value ({@code x | 0 == x}).
+     *
+     * @throws ArrayIndexOutOfBoundsException if the index is not within {@link #size()}
+     */
+    abstract public void or(long index, final int value);
+
+    /**
+     * Computes the bit-wise AND ({@code &}) of the existing value and the provided value at the given index.
+     * If there was no previous value, the final result is set to the 0 ({@code x & 0 == 0}).
+     *
+     * @return the now current value after the operation
+     * @throws ArrayIndexOutOfBoundsException if the index is not within {@link #size()}
+     */
+    abstract public int and(long index, final int value);
+
+    /**
+     * Adds ({@code +}) the existing value and the provided value at the given index and stored the result into the given index.
+     * If there was no previous value, the final result is set to the provided value ({@code x + 0 == x}).
+     *
+     * @throws ArrayIndexOutOfBoundsException if the index is not within {@link #size()}
+     */
+    abstract public void addTo(long index, int value);
+
+    /**
+     * Set all elements using the provided generator function to compute each element.
+     * <p>
+     * The behavior is identical to {@link Arrays#setAll(long[], java.util.function.IntToLongFunction)}.
+     */
+    abstract public void setAll(LongToIntFunction gen);
+
+    /**
+     * Assigns the specified int value to each element.
+     * <p>
+     * The behavior is identical to {@link Arrays#fill(int[], int)}.
+     */
+    abstract public void fill(int value);
+
+    /**
+     * Copies the content of this array into the target array.
+     * <p>
+     * The behavior is identical to {@link System#arraycopy(Object, int, Object, int, int)}.
+     */
+    abstract public void copyTo(final HugeIntArray dest, long length);
+
+    /**
+     * Returns the length of this array.
+     * <p>
+     * If the size is greater than zero, the highest supported index is {@code size() - 1}
+     * <p>
+     * The behavior is identical to calling {@code array.length} on primitive arrays.
+     */
+    abstract public long size();
+
+    /**
+     * Destroys the data, allowing the underlying storage arrays to be collected as garbage.
+     * The array is unusable after calling this method and will throw {@link NullPointerException}s on virtually every method invocation.
+     * <p>
+     * Note that the data might not immediately collectible if there are still cursors alive that reference this array.
+     * You have to {@link Cursor#close()} every cursor instance as well.
+     * <p>
+     * The amount is not removed from the {@link AllocationTracker} that had been provided in the {@link #newArray(long, AllocationTracker) Constructor}.
+     *
+     * @return the amount of memory freed, in bytes.
+     */
+    abstract public long release();
+
+    /**
+     * Returns a new {@link Cursor} for this array. The cursor is not positioned and in an invalid state.
+     * You must call {@link Cursor#next()} first to position the cursor to a valid state.
+     * Obtaining a {@link Cursor} for an empty array (where {@link #size()} returns {@code 0}) is undefined and
+     * might result in a {@link NullPointerException} or another {@link RuntimeException}.
+     */
+    abstract public Cursor newCursor();
+
+    /**
+     * Resets the {@link Cursor} to range from index 0 until {@link #size()}.
+     * The returned cursor is not positioned and in an invalid state.
+     * You must call {@link Cursor#next()} first to position the cursor to a valid state.
+     * The returned cursor might be the reference-same ({@code ==}) one as the provided one.
+     * Resetting the {@link Cursor} of an empty array (where {@link #size()} returns {@code 0}) is undefined and
+     * might result in a {@link NullPointerException} or another {@link RuntimeException}.
+     */
+    abstract public Cursor cursor(Cursor cursor);
+
+    /**
+     * Resets the {@link Cursor} to range from index {@code from} (inclusive) until {@code to} (exclusive).
+     * The returned cursor is not positioned and in an invalid state.
+     * You must call {@link Cursor#next()} first to position the cursor to a valid state.
+     * The returned cursor might be the reference-same ({@code ==}) one as the provided one.
+     * For an empty range, the first call to {@link Cursor#next()} returns {@code false}.
+     *
+     * @throws ArrayIndexOutOfBoundsException if the range is not within {@link #size()}
+     */
+    abstract public Cursor cursor(Cursor cursor, long from, long to);
+
+    /**
+     * Creates a new array if the given size, tracking the memory requirements into the given {@link AllocationTracker}.
+     * The tracker is no longer referenced, as the arrays do not dynamically change their size.
+     */
+    public static HugeIntArray newArray(long size, AllocationTracker tracker) {
+        if (size <= SingleHugeIntArray.PAGE_SIZE) {
+            try {
+                return SingleHugeIntArray.of(size, tracker);
+            } catch (OutOfMemoryError ignored) {
+                // OOM is very likely because we just tried to create a single array that is too large
+                // in which case we're just going the paged way. If the OOM had any other reason, we're
+                // probably triggering it again in the construction of the paged array, where it will be thrown.
+            }
+        }
+        return PagedHugeIntArray.of(size, tracker);
+    }
+
+    /**
+     * Estimates the memory usage of an array of the given size, as tracked by {@link #newArray(long, AllocationTracker)}.
+     */
+    public static long estimateMemoryUsage(long size) {
+        long instance = MemoryUsage.shallowSizeOfInstance(HugeIntArray.class);
+        if (size <= SingleHugeIntArray.PAGE_SIZE) {
+            return instance + MemoryUsage.sizeOfIntArray((int) size);
+        }
+        int numPages = PageUtil.numPagesFor(size, PagedHugeIntArray.PAGE_SHIFT, (int) PagedHugeIntArray.PAGE_MASK);
+        long lastPage = MemoryUsage.sizeOfIntArray(PagedHugeIntArray.exclusiveIndexOfPage(size));
+        return instance +
+                MemoryUsage.sizeOfObjectArray(numPages) +
+                (numPages - 1) * MemoryUsage.sizeOfIntArray(PagedHugeIntArray.PAGE_SIZE) +
+                lastPage;
+    }
+
+    /* test-only */
+    static HugeIntArray newPagedArray(long size, AllocationTracker tracker) {
+        return PagedHugeIntArray.of(size, tracker);
+    }
+
+    /* test-only */
+    static HugeIntArray newSingleArray(int size, AllocationTracker tracker) {
+        return SingleHugeIntArray.of(size, tracker);
+    }
+
+    /**
+     * View of the underlying data, accessible as slices of {@code int[]} arrays.
+     * The values are from {@code array[offset]} (inclusive) until {@code array[limit]} (exclusive).
+     * The range might match complete array, but that isn't guaranteed.
+     * <p>
+     * The {@code limit} parameter does not have the same meaning as the {@code length} parameter that is used in many methods that can operate on array slices.
+     * The proper value would be {@code int length = limit - offset}.
+     */
+    public static abstract class Cursor implements AutoCloseable {
+
+        /**
+         * the base for the index to get the global index
+         */
+        public long base;
+        /**
+         * a slice of values currently being traversed
+         */
+        public int[] array;
+        /**
+         * the offset into the array
+         */
+        public int offset;
+        /**
+         * the limit of the array, exclusive – the first index not to be contained
+         */
+        public int limit;
+
+        Cursor() {
+        }
+
+        /**
+         * Try to load the next page and return the success of this load.
+         * Once the method returns {@code false}, this method will never return {@code true} again until the cursor is reset using {@link #cursor(Cursor)}.
+         * The cursor behavior is not defined and might be unusable and throw exceptions after this method returns {@code false}.
+         *
+         * @return true, iff the cursor is still valid on contains new data; false if there is no more data.
+         */
+        abstract public boolean next();
+
+        /**
+         * Releases the reference to the underlying array so that it might be garbage collected.
+         * The cursor can never be used again after calling this method, doing so results in undefined behavior.
+         */
+        @Override
+        abstract public void close();
+    }
+
+    /**
+     * A {@link PropertyTranslator} for instances of {@link HugeIntArray}s.
+     */
+    public static class Translator implements PropertyTranslator.OfInt<HugeIntArray> {
+
+        public static final Translator INSTANCE = new Translator();
+
+        @Override
+        public int toInt(final HugeIntArray data, final long nodeId) {
+            return data.get(nodeId);
+        }
+    }
+
+    private static final class SingleHugeIntArray extends HugeIntArray {
+
+        private static final int PAGE_SHIFT = 30;
+        private static final int PAGE_SIZE = 1 << PAGE_SHIFT;
+
+        private static HugeIntArray of(long size, AllocationTracker tracker) {
+            assert size <= PAGE_SIZE;
+            final int intSize = (int) size;
+            int[] page = new int[intSize];
+
+            tracker.add(MemoryUsage.shallowSizeOfInstance(HugeIntArray.class));
+            tracker.add(MemoryUsage.sizeOfIntArray(intSize));
+
+            return new SingleHugeIntArray(intSize, page);
+        }
+
+        private final int size;
+        private int[] page;
+
+        private SingleHugeIntArray(int size, int[] page) {
+            this.size = size;
+            this.page = page;
+        }
+
+        @Override
+        public int get(long index) {
+            assert index < size;
+            return page[(int) index];
+        }
+
+        @Override
+        public void set(long index, int value) {
+            assert index < size;
+            page[(int) index] = value;
+        }
+
+        @Override
+        public void or(long index, final int value) {
+            assert index < size;
+            page[(int) index] |= value;
+        }
+
+        @Override
+        public int and(long index, final int value) {
+            assert index < size;
+            return page[(int) index] &= value;
+        }
+
+        @Override
+        public void addTo(long index, int value) {
+            assert index < size;
+            page[(int) index] += value;
+        }
+
+        @Override
+        public void setAll(LongToIntFunction gen) {
+            for (int i = 0; i < size; i++) {
+                page[i] = gen.applyAsInt(i);
+            }
+        }
+
+        @Override
+        public void fill(int value) {
+            Arrays.fill(page, value);
+        }
+
+        @Override
+        public void copyTo(HugeIntArray dest, long length) {
+            if (length > size) {
+                length = size;
+            }
+            if (length > dest.size()) {
+                length = dest.size();
+            }
+            if (dest instanceof SingleHugeIntArray) {
+                SingleHugeIntArray dst = (SingleHugeIntArray) dest;
+                System.arraycopy(page, 0, dst.page, 0, (int) length);
+                Arrays.fill(dst.page, (int) length, dst.size, 0);
+            } else if (dest instanceof PagedHugeIntArray) {
+                PagedHugeIntArray dst = (PagedHugeIntArray) dest;
+                int start = 0;
+                int remaining = (int) length;
+                for (int[] dstPage : dst.pages) {
+                    int toCopy = Math.min(remaining, dstPage.length);
+                    if (toCopy == 0) {
+                        Arrays.fill(dstPage, 0);
+                    } else {
+                        System.arraycopy(page, start, dstPage, 0, toCopy);
+                        if (toCopy < dstPage.length) {
+                            Arrays.fill(dstPage, toCopy, dstPage.length, 0);
+                        }
+                        start += toCopy;
+                        remaining -= toCopy;
+                    }
+                }
+            }
+        }
+
+        @Override
+        public long size() {
+            return size;
+        }
+
+        @Override
+        public long release() {
+            if (page != null) {
+                page = null;
+                return MemoryUsage.sizeOfIntArray(size);
+            }
+            return 0L;
+        }
+
+        @Override
+        public Cursor newCursor() {
+            return new SingleCursor(page);
+        }
+
+        @Override
+        public Cursor cursor(final Cursor cursor) {
+            return cursor(cursor, 0L, size);
+        }
+
+        @Override
+        public Cursor cursor(final Cursor cursor, final long from, final long to) {
+            assert cursor instanceof SingleCursor;
+            PageUtil.checkRange(from, to, size);
+            ((SingleCursor) cursor).init((int) from, (int) to);
+            return cursor;
+        }
+
+        private static final class SingleCursor extends Cursor {
+
+            private boolean exhausted;
+
+            private SingleCursor(final int[] page) {
+                super();
+                this.array = page;
+                this.base = 0L;
+                this.limit = page.length;
+            }
+
+            private void init(int from, int to) {
+                offset = from;
+                limit = to;
+                exhausted = from >= to;
+            }
+
+            public final boolean next() {
+                if (exhausted) {
+                    return false;
+                }
+                exhausted = true;
+                return true;
+            }
+
+            @Override
+            public void close() {
+                array = null;
+                limit = 0;
+                exhausted = true;
+            }
+        }
+    }
+
+    public static final class PagedHugeIntArray extends HugeIntArray {
+
+        private static final int PAGE_SHIFT = 14;
+        private static final int PAGE_SIZE = 1 << PAGE_SHIFT;
+        private static final long PAGE_MASK = (long) (PAGE_SIZE - 1);
+
+        private static HugeIntArray of(long size, AllocationTracker tracker) {
+            int numPages = PageUtil.numPagesFor(size, PAGE_SHIFT, (int) PAGE_MASK);
+            int[][] pages = new int[numPages][];
+
+            long memoryUsed = MemoryUsage.sizeOfObjectArray(numPages);
+            final long pageBytes = MemoryUsage.sizeOfIntArray(PAGE_SIZE);
+            for (int i = 0; i < numPages - 1; i++) {
+                memoryUsed += pageBytes;
+                pages[i] = new int[PAGE_SIZE];
+            }
+            final int lastPageSize = exclusiveIndexOfPage(size);
+            pages[numPages - 1] = new int[lastPageSize];
+            memoryUsed += MemoryUsage.sizeOfIntArray(lastPageSize);
+
+            tracker.add(MemoryUsage.shallowSizeOfInstance(HugeIntArray.class));
+            tracker.add(memoryUsed);
+
+            return new PagedHugeIntArray(size, pages, memoryUsed);
+        }
+
+        private final long size;
+        private int[][] pages;
+        private final long memoryUsed;
+
+        private PagedHugeIntArray(long size, int[][] pages, long memoryUsed) {
+            this.size = size;
+            this.pages = pages;
+            this.memoryUsed = memoryUsed;
+        }
+
+        @Override
+        public int get(long index) {
+            assert index < size;
+            final int pageIndex = pageIndex(index);
+            final int indexInPage = indexInPage(index);
+            return pages[pageIndex][indexInPage];
+        }
+
+        @Override
+        public void set(long index, int value) {
+            assert index < size;
+            final int pageIndex = pageIndex(index);
+            final int indexInPage = indexInPage(index);
+            pages[pageIndex][indexInPage] = value;
+        }
+
+        @Override
+        public void or(long index, final int value) {
+            assert index < size;
+            final int pageIndex = pageIndex(index);
+            final int indexInPage = indexInPage(index);
+            pages[pageIndex][indexInPage] |= value;
+        }
+
+        @Override
+        public int and(long index, final int value) {
+            assert index < size;
+            final int pageIndex = pageIndex(index);
+            final int indexInPage = indexInPage(index);
+            return pages[pageIndex][indexInPage] &= value;
+        }
+
+        @Override
+        public void addTo(long index, int value) {
+            assert index < size;
+            final int pageIndex = pageIndex(index);
+            final int indexInPage = indexInPage(index);
+            pages[pageIndex][indexInPage] += value;
+        }
+
+        @Override
+        public void setAll(LongToIntFunction gen) {
+            for (int i = 0; i < pages.length; i++) {
+                final long t = ((long) i) << PAGE_SHIFT;
+                final int[] page = pages[i];
+                for (int j = 0; j < page.length; j++) {
+                    page[j] = gen.applyAsInt(t + j);
+                }
+            }
+        }
+
+        @Override
+        public void fill(int value) {
+            for (int[] page : pages) {
+                Arrays.fill(page, value);
+            }
+        }
+
+        @Override
+        public void copyTo(HugeIntArray dest, long length) {
+            if (length > size) {
+                length = size;
+            }
+            if (length > dest.size()) {
+                length = dest.size();
+            }
+            if (dest instanceof SingleHugeIntArray) {
+                SingleHugeIntArray dst = (SingleHugeIntArray) dest;
+                int start = 0;
+                int remaining = (int) length;
+                for (int[] page : pages) {
+                    int toCopy = Math.min(remaining, page.length);
+                    if (toCopy == 0) {
+                        break;
+                    }
+                    System.arraycopy(page, 0, dst.page, start, toCopy);
+                    start += toCopy;
+                    remaining -= toCopy;
+                }
+                Arrays.fill(dst.page, start, dst.size, 0);
+            } else if (dest instanceof PagedHugeIntArray) {
+                PagedHugeIntArray dst = (PagedHugeIntArray) dest;
+                int pageLen = Math.min(pages.length, dst.pages.length);
+                int lastPage = pageLen - 1;
+                long remaining = length;
+                for (int i = 0; i < lastPage; i++) {
+                    int[] page = pages[i];
+                    int[] dstPage = dst.pages[i];
+                    System.arraycopy(page, 0, dstPage, 0, page.length);
+                    remaining -= page.length;
+                }
+                if (remaining > 0) {
+                    System.arraycopy(pages[lastPage], 0, dst.pages[lastPage], 0, (int) remaining);
+                    Arrays.fill(dst.pages[lastPage], (int) remaining, dst.pages[lastPage].length, 0);
+                }
+                for (int i = pageLen; i < dst.pages.length; i++) {
+                    Arrays.fill(dst.pages[i], 0);
+                }
+            }
+        }
+
+        @Override
+        public long size() {
+            return size;
+        }
+
+        @Override
+        public long release() {
+            if (pages != null) {
+                pages = null;
+                return memoryUsed;
+            }
+            return 0L;
+        }
+
+        @Override
+        public Cursor newCursor() {
+            return new PagedCursor(pages);
+        }
+
+        @Override
+        public Cursor cursor(final Cursor cursor) {
+            return cursor(cursor, 0L, size);
+        }
+
+        @Override
+        public Cursor cursor(final Cursor cursor, final long from, final long to) {
+            assert cursor instanceof PagedCursor;
+            PageUtil.checkRange(from, to, size);
+            ((PagedCursor) cursor).init(from, to);
+            return cursor;
+        }
+
+        private static int pageIndex(long index) {
+            return (int) (index >>> PAGE_SHIFT);
+        }
+
+        private static int indexInPage(long index) {
+            return (int) (index & PAGE_MASK);
+        }
+
+        private static int exclusiveIndexOfPage(long index) {
+            return 1 + indexInPage(index - 1L);
+        }
+
+        private static final class PagedCursor extends Cursor {
+
+            private int[][] pages;
+            private int maxPage;
+
+            private int page;
+            private int fromPage;
+            private int fromOffset;
+            private int toLimit;
+
+            private PagedCursor(final int[][] pages) {
+                super();
+                this.pages = pages;
+            }
+
+            private void init(long from, long to) {
+                fromPage = pageIndex(from);
+                fromOffset = indexInPage(from);
+                maxPage = from < to ? pageIndex(to - 1L) : fromPage - 1;
+                toLimit = exclusiveIndexOfPage(to);
+                page = fromPage - 1;
+            }
+
+            public final boolean next() {
+                int current = ++page;
+                if (current > maxPage) {
+                    return false;
+                }
+                array = pages[current];
+                base = ((long) current) << PAGE_SHIFT;
+                offset = current == fromPage ? fromOffset : 0;
+                limit = current == maxPage ? toLimit : array.length;
+                return true;
+            }
+
+            @Override
+            public void close() {
+                array = null;
+                pages = null;
+                base = 0L;
+                offset = 0;
+                limit = 0;
+                maxPage = -1;
+                fromPage = -1;
+                page = -1;
+            }
+        }
+    }
+}
@@ -151,6 +151,17 @@ public abstract class HugeLongArray {
      */
     abstract public Cursor cursor(Cursor cursor);
 
+    /**
+     * Resets the {@link Cursor} to range from index {@code from} (inclusive) until {@code to} (exclusive).
+     * The returned cursor is not positioned and in an invalid state.
+     * You must call {@link Cursor#next()} first to position the cursor to a valid state.
+     * The returned cursor might be the reference-same ({@code ==}) one as the provided one.
+     * For an empty range, the first call to {@link Cursor#next()} returns {@code false}.
+     *
+     * @throws ArrayIndexOutOfBoundsException if the range is not within {@link #size()}
+     */
+    abstract public Cursor cursor(Cursor cursor, long from, long to);
+
     /**
      * Creates a new array if the given size, tracking the memory requirements into the given {@link AllocationTracker}.
      * The tracker is no longer referenced, as the arrays do not dynamically change their size.
@@ -168,6 +179,22 @@ public abstract class HugeLongArray {
         return PagedHugeLongArray.of(size, tracker);
     }
 
+    /**
+     * Estimates the memory usage of an array of the given size, as tracked by {@link #newArray(long, AllocationTracker)}.
+     */
+    public static long estimateMemoryUsage(long size) {
+        long instance = MemoryUsage.shallowSizeOfInstance(HugeLongArray.class);
+        if (size <= SingleHugeLongArray.PAGE_SIZE) {
+            return instance + MemoryUsage.sizeOfLongArray((int) size);
+        }
+        int numPages = PageUtil.numPagesFor(size, PagedHugeLongArray.PAGE_SHIFT, (int) PagedHugeLongArray.PAGE_MASK);
+        long lastPage = MemoryUsage.sizeOfLongArray(PagedHugeLongArray.exclusiveIndexOfPage(size));
+        return instance +
+                MemoryUsage.sizeOfObjectArray(numPages) +
+                (numPages - 1) * MemoryUsage.sizeOfLongArray(PagedHugeLongArray.PAGE_SIZE) +
+                lastPage;
+    }
+
     /* test-only */
     static HugeLongArray newPagedArray(long size, AllocationTracker tracker) {
         return PagedHugeLongArray.of(size, tracker);
@@ -199,7 +226,7 @@ public abstract class HugeLongArray {
         /**
          * the offset into the array
          */
-        public final int offset = 0;
+        public int offset;
         /**
          * the limit of the array, exclusive – the first index not to be contained
          */
@@ -321,7 +348,7 @@ public abstract class HugeLongArray {
                 for (long[] dstPage : dst.pages) {
                     int toCopy = Math.min(remaining, dstPage.length);
                     if (toCopy == 0) {
-                        Arrays.fill(page, 0L);
+                        Arrays.fill(dstPage, 0L);
                     } else {
                         System.arraycopy(page, start, dstPage, 0, toCopy);
                         if (toCopy < dstPage.length) {
@@ -355,8 +382,14 @@ public abstract class HugeLongArray {
 
         @Override
         public Cursor cursor(final Cursor cursor) {
+            return cursor(cursor, 0L, size);
+        }
+
+        @Override
+        public Cursor cursor(final Cursor cursor, final long from, final long to) {
             assert cursor instanceof SingleCursor;
-            ((SingleCursor) cursor).init();
+            PageUtil.checkRange(from, to, size);
+            ((SingleCursor) cursor).init((int) from, (int) to);
             return cursor;
         }
 
@@ -371,8 +404,10 @@ public abstract class HugeLongArray {
                 this.limit = page.length;
             }
 
-            private void init() {
-                exhausted = false;
+            private void init(int from, int to) {
+                offset = from;
+                limit = to;
+                exhausted = from >= to;
             }
 
             public final boolean next() {
@@ -408,7 +443,7 @@ public abstract class HugeLongArray {
                 memoryUsed += pageBytes;
                 pages[i] = new long[PAGE_SIZE];
             }
-            final int lastPageSize = indexInPage(size);
+            final int lastPageSize = exclusiveIndexOfPage(size);
             pages[numPages - 1] = new long[lastPageSize];
             memoryUsed += MemoryUsage.sizeOfLongArray(lastPageSize);
 
@@ -542,13 +577,19 @@ public abstract class HugeLongArray {
 
         @Override
         public Cursor newCursor() {
-            return new PagedCursor(size, pages);
+            return new PagedCursor(pages);
         }
 
         @Override
         public Cursor cursor(final Cursor cursor) {
+            return cursor(cursor, 0L, size);
+        }
+
+        @Override
+        public Cursor cursor(final Cursor cursor, final long from, final long to) {
             assert cursor instanceof PagedCursor;
-            ((PagedCursor) cursor).init();
+            PageUtil.checkRange(from, to, size);
+            ((PagedCursor) cursor).init(from, to);
             return cursor;
         }
 
@@ -560,41 +601,42 @@ public abstract class HugeLongArray {
             return (int) (index & PAGE_MASK);
         }
 
+        private static int exclusiveIndexOfPage(long index) {
+            return 1 + indexInPage(index - 1L);
+        }
+
         private static final class PagedCursor extends Cursor {
 
             private long[][] pages;
             private int maxPage;
-            private long capacity;
 
             private int page;
             private int fromPage;
+            private int fromOffset;
+            private int toLimit;
 
-            private PagedCursor(final long capacity, final long[][] pages) {
+            private PagedCursor(final long[][] pages) {
                 super();
-                this.capacity = capacity;
-                this.maxPage = pages.length - 1;
                 this.pages = pages;
             }
 
-            private void init() {
-                fromPage = 0;
-                array = pages[0];
-                base = 0L;
-                limit = (int) Math.min(PAGE_SIZE, capacity);
-                page = -1;
+            private void init(long from, long to) {
+                fromPage = pageIndex(from);
+                fromOffset = indexInPage(from);
+                maxPage = from < to ? pageIndex(to - 1L) : fromPage - 1;
+                toLimit = exclusiveIndexOfPage(to);
+                page = fromPage - 1;
             }
 
             public final boolean next() {
                 int current = ++page;
-                if (current == fromPage) {
-                    return true;
-                }
                 if (current > maxPage) {
                     return false;
                 }
-                base += PAGE_SIZE;
                 array = pages[current];
-                limit = array.length;
+                base = ((long) current) << PAGE_SHIFT;
+                offset = current == fromPage ? fromOffset : 0;
+                limit = current == maxPage ? toLimit : array.length;
                 return true;
             }
 
@@ -603,8 +645,8 @@ public abstract class HugeLongArray {
                 array = null;
                 pages = null;
                 base = 0L;
+                offset = 0;
                 limit = 0;
-                capacity = 0L;
                 maxPage = -1;
                 fromPage = -1;
                 page = -1;
@@ -195,6 +195,31 @@ public final class MemoryUsage {
         return alignObjectSize((long) BYTES_ARRAY_HEADER + (long) length * bytesPerElement);
     }
 
+    /**
+     * Returns the size of the buffers of an open addressing hash container of HPPC that is created
+     * for {@code expectedElements} elements or grew to hold them.
+     *
+     * @param bytesPerKey   the bytes of a key, e.g. {@code Long.BYTES}
+     * @param bytesPerValue the bytes of a value, 0 for sets
+     */
+    public static long sizeOfOpenHashContainer(
+            long expectedElements,
+            double loadFactor,
+            int bytesPerKey,
+            int bytesPerValue) {
+        long length = (long) Math.ceil(expectedElements / loadFactor);
+        if (length == expectedElements) {
+            length++;
+        }
+        length = Math.max(4L, nextHighestPowerOfTwo(length));
+        // one extra slot for the empty key
+        long keys = alignObjectSize((long) BYTES_ARRAY_HEADER + (length + 1L) * bytesPerKey);
+        long values = bytesPerValue > 0
+                ? alignObjectSize((long) BYTES_ARRAY_HEADER + (length + 1L) * bytesPerValue)
+                : 0L;
+        return keys + values;
+    }
+
     /**
      * Returns the shallow instance size in bytes an instance of the given class would occupy.
      * This works with all conventional classes and primitive types, but not with arrays
@@ -56,6 +56,16 @@ public final class PageUtil {
         return (int) (index & pageMask);
     }
 
+    static void checkRange(long from, long to, long size) {
+        if (from < 0L || from > to || to > size) {
+            throw new ArrayIndexOutOfBoundsException(String.format(
+                    "Range [%d, %d) is not within [0, %d)",
+                    from,
+                    to,
+                    size));
+        }
+    }
+
     private PageUtil() {
         throw new UnsupportedOperationException("No instances");
     }
@@ -0,0 +1,141 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.utils.paged;
+
+import org.neo4j.graphalgo.core.utils.mem.MemoryEstimation;
+import org.neo4j.graphalgo.core.utils.mem.MemoryEstimations;
+
+/**
+ * Lock-free disjoint-set structure that can be shared by all threads of a parallel union-find.
+ * <p>
+ * Every node starts as the root of its own set ({@code parent[i] == i}). A union links the root
+ * with the larger id to the root with the smaller id with a single CAS and retries if
+ * another thread has linked either root in the meantime. As links always point to smaller ids,
+ * no cycles can be formed and the set id is the smallest node id of the set.
+ * {@link #find(long)} uses path splitting, every visited node is CAS'ed to its grandparent.
+ * A failed CAS leaves a valid path and is not retried.
+ * <p>
+ * All threads share one structure, there are no per-thread copies and no merge phase.
+ */
+public final class PagedAtomicDisjointSetStruct implements HugeDisjointSetStruct {
+
+    private final PagedAtomicLongArray parent;
+    private final long capacity;
+
+    public static MemoryEstimation memoryEstimation() {
+        return MemoryEstimations.builder(PagedAtomicDisjointSetStruct.class)
+                .fixed("instance", MemoryUsage.shallowSizeOfInstance(PagedAtomicDisjointSetStruct.class))
+                .perNode("parent", PagedAtomicLongArray::estimateMemoryUsage)
+                .build();
+    }
+
+    public PagedAtomicDisjointSetStruct(long capacity, AllocationTracker tracker) {
+        this.parent = PagedAtomicLongArray.newArray(capacity, tracker);
+        this.capacity = capacity;
+        reset();
+    }
+
+    /**
+     * Make every node the root of its own set. Must not be called while other threads are using the structure.
+     */
+    public PagedAtomicDisjointSetStruct reset() {
+        for (long i = 0L; i < capacity; ++i) {
+            parent.set(i, i);
+        }
+        return this;
+    }
+
+    @Override
+    public long capacity() {
+        return capacity;
+    }
+
+    @Override
+    public long find(long p) {
+        long node = p;
+        while (true) {
+            long up = parent.get(node);
+            long upUp = parent.get(up);
+            if (up == upUp) {
+                return up;
+            }
+            parent.cas(node, up, upUp);
+            node = up;
+        }
+    }
+
+    @Override
+    public long findNoOpt(long nodeId) {
+        long p = nodeId;
+        long np;
+        while ((np = parent.get(p)) != p) {
+            p = np;
+        }
+        return p;
+    }
+
+    @Override
+    public void union(long p, long q) {
+        while (true) {
+            long pSet = find(p);
+            long qSet = find(q);
+            if (pSet == qSet) {
+                return;
+            }
+            // link by index, the larger root is attached to the smaller root
+            if (pSet < qSet) {
+                long tmp = pSet;
+                pSet = qSet;
+                qSet = tmp;
+            }
+            if (parent.cas(pSet, pSet, qSet)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Linearizable under concurrent unions: if the roots differ, the check is only conclusive
+     * while the first root is still a root.
+     */
+    @Override
+    public boolean connected(long p, long q) {
+        while (true) {
+            long pSet = find(p);
+            long qSet = find(q);
+            if (pSet == qSet) {
+                return true;
+            }
+            if (parent.get(pSet) == pSet) {
+                return false;
+            }
+        }
+    }
+
+    @Override
+    public int getSetCount() {
+        int count = 0;
+        for (long i = 0L; i < capacity; ++i) {
+            if (parent.get(i) == i) {
+                ++count;
+            }
+        }
+        return count;
+    }
+}
@@ -22,17 +22,27 @@ package org.neo4j.graphalgo.core.utils.paged;
 import com.carrotsearch.hppc.LongScatterSet;
 import org.neo4j.graphalgo.api.HugeIdMapping;
 import org.neo4j.graphalgo.core.utils.dss.DisjointSetStruct;
+import org.neo4j.graphalgo.core.utils.mem.MemoryEstimation;
+import org.neo4j.graphalgo.core.utils.mem.MemoryEstimations;
 import org.neo4j.graphalgo.core.write.PropertyTranslator;
 
 import java.util.stream.LongStream;
 import java.util.stream.Stream;
 
-public final class PagedDisjointSetStruct {
+public final class PagedDisjointSetStruct implements HugeDisjointSetStruct {
 
     private final HugeLongArray parent;
     private final HugeLongArray depth;
     private final long capacity;
 
+    public static MemoryEstimation memoryEstimation() {
+        return MemoryEstimations.builder(PagedDisjointSetStruct.class)
+                .fixed("instance", MemoryUsage.shallowSizeOfInstance(PagedDisjointSetStruct.class))
+                .perNode("parent", HugeLongArray::estimateMemoryUsage)
+                .perNode("depth", HugeLongArray::estimateMemoryUsage)
+                .build();
+    }
+
     public PagedDisjointSetStruct(long capacity, AllocationTracker tracker) {
         parent = HugeLongArray.newArray(capacity, tracker);
         depth = HugeLongArray.newArray(capacity, tracker);
@@ -44,10 +54,12 @@ public final class PagedDisjointSetStruct {
         return this;
     }
 
-    public boolean connected(long p, long q) {
-        return find(p) == find(q);
+    @Override
+    public long capacity() {
+        return capacity;
     }
 
+    @Override
     public long find(long p) {
         return findPC(p);
     }
@@ -64,6 +76,7 @@ public final class PagedDisjointSetStruct {
         return value;
     }
 
+    @Override
     public void union(long p, long q) {
         final long pSet = find(p);
         final long qSet = find(q);
@@ -107,6 +120,7 @@ public final class PagedDisjointSetStruct {
         return this;
     }
 
+    @Override
     public long findNoOpt(final long nodeId) {
         long p = nodeId;
         long np;
@@ -116,6 +130,7 @@ public final class PagedDisjointSetStruct {
         return p;
     }
 
+    @Override
     public int getSetCount() {
         LongScatterSet set = new LongScatterSet();
         for (long i = 0L; i < capacity; ++i) {
@@ -125,6 +140,7 @@ public final class PagedDisjointSetStruct {
         return set.size();
     }
 
+    @Override
     public Stream<DisjointSetStruct.Result> resultStream(HugeIdMapping idMapping) {
 
         return LongStream.range(HugeIdMapping.START_NODE_ID, idMapping.nodeCount())
@@ -18,6 +18,8 @@
  */
 package org.neo4j.graphalgo.core.utils.paged;
 
+import org.neo4j.graphalgo.core.utils.mem.MemoryRange;
+
 import java.util.Arrays;
 
 public final class SparseLongArray {
@@ -44,12 +46,39 @@ public final class SparseLongArray {
         return new SparseLongArray(capacity, pages, tracker);
     }
 
+    /**
+     * Estimates the memory usage of an array with the given capacity of which {@code entries} indices are set.
+     * Pages are only allocated on the first write, the usage is the lowest if the entries are dense
+     * and the highest if every entry is on its own page.
+     */
+    public static MemoryRange estimateMemoryUsage(long entries, long capacity) {
+        int numPages = PageUtil.numPagesFor(capacity, PAGE_SHIFT, (int) PAGE_MASK);
+        long base = MemoryUsage.shallowSizeOfInstance(SparseLongArray.class) + MemoryUsage.sizeOfObjectArray(numPages);
+        long minPages = PageUtil.numPagesFor(Math.min(entries, capacity), PAGE_SHIFT, (int) PAGE_MASK);
+        long maxPages = Math.min(numPages, entries);
+        return MemoryRange.of(
+                base + minPages * PAGE_SIZE_IN_BYTES,
+                base + Math.max(minPages, maxPages) * PAGE_SIZE_IN_BYTES);
+    }
+
     private SparseLongArray(long capacity, long[][] pages, AllocationTracker tracker) {
         this.capacity = capacity;
         this.pages = pages;
         this.tracker = tracker;
     }
 
+    /**
+     * The number of consecutive indices that share a page. Pages are allocated on the first write,
+     * so different threads may only write concurrently if they write to different pages.
+     */
+    public static long pageSize() {
+        return PAGE_SIZE;
+    }
+
+    public long capacity() {
+        return capacity;
+    }
+
     public long get(long index) {
         assert index < capacity;
         final int pageIndex = pageIndex(index);
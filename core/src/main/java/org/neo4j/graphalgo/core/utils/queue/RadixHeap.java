@@ -0,0 +1,161 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.utils.queue;
+
+import com.carrotsearch.hppc.IntArrayList;
+import com.carrotsearch.hppc.LongArrayList;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * A monotone min priority queue for ints with non-negative long keys.
+ * <p>
+ * The keys of added elements must not be smaller than the key of the last popped element,
+ * which holds for Dijkstra-like algorithms with non-negative integer or scaled weights.
+ * Elements are kept in buckets by the highest bit in which their key differs from the last
+ * popped key. Adding an element is constant time, every element moves to a lower bucket at most
+ * once per bit, so a pop is amortized O(log C) with C the largest difference between keys,
+ * and independent of the number of elements in the queue.
+ * <p>
+ * There is no decrease-key, adding an element again with a smaller key leaves the old entry
+ * in the queue. Callers must skip those stale entries when they are popped.
+ */
+public final class RadixHeap {
+
+    private static final int NUM_BUCKETS = Long.SIZE;
+
+    private final IntArrayList[] elements;
+    private final LongArrayList[] keys;
+    // smallest key per bucket, to find the next last key without scanning the bucket twice
+    private final long[] minKeys;
+    private long last;
+    private int size;
+
+    public RadixHeap() {
+        elements = new IntArrayList[NUM_BUCKETS];
+        keys = new LongArrayList[NUM_BUCKETS];
+        minKeys = new long[NUM_BUCKETS];
+        for (int i = 0; i < NUM_BUCKETS; i++) {
+            elements[i] = new IntArrayList();
+            keys[i] = new LongArrayList();
+        }
+        Arrays.fill(minKeys, Long.MAX_VALUE);
+    }
+
+    /**
+     * Adds an element with the given key in constant time.
+     *
+     * @throws IllegalArgumentException if the key is smaller than the key of the last popped element
+     */
+    public void add(int element, long key) {
+        if (key < last) {
+            throw new IllegalArgumentException(String.format(
+                    "Key %d is smaller than the last popped key %d, keys must be monotone",
+                    key,
+                    last));
+        }
+        put(element, key);
+        size++;
+    }
+
+    /**
+     * @return the smallest key in the queue
+     * @throws NoSuchElementException if the queue is empty
+     */
+    public long topKey() {
+        pull();
+        return last;
+    }
+
+    /**
+     * Removes and returns an element with the smallest key.
+     *
+     * @throws NoSuchElementException if the queue is empty
+     */
+    public int pop() {
+        pull();
+        size--;
+        IntArrayList top = elements[0];
+        keys[0].elementsCount--;
+        return top.buffer[--top.elementsCount];
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Removes all elements and resets the last popped key, so that the queue can be reused.
+     */
+    public void clear() {
+        for (int i = 0; i < NUM_BUCKETS; i++) {
+            elements[i].clear();
+            keys[i].clear();
+        }
+        Arrays.fill(minKeys, Long.MAX_VALUE);
+        last = 0L;
+        size = 0;
+    }
+
+    private void put(int element, long key) {
+        int bucket = bucket(key);
+        elements[bucket].add(element);
+        keys[bucket].add(key);
+        if (key < minKeys[bucket]) {
+            minKeys[bucket] = key;
+        }
+    }
+
+    /**
+     * Makes sure that the first bucket contains the elements with the smallest key by advancing
+     * the last key to the minimum of the first non-empty bucket and redistributing that bucket.
+     */
+    private void pull() {
+        if (size == 0) {
+            throw new NoSuchElementException("Queue is empty");
+        }
+        if (!elements[0].isEmpty()) {
+            return;
+        }
+        int bucket = 1;
+        while (elements[bucket].isEmpty()) {
+            bucket++;
+        }
+        last = minKeys[bucket];
+        IntArrayList bucketElements = elements[bucket];
+        LongArrayList bucketKeys = keys[bucket];
+        // all keys of the bucket share the bits above the bucket with the new last key,
+        // so they move to lower buckets
+        for (int i = 0; i < bucketElements.elementsCount; i++) {
+            put(bucketElements.buffer[i], bucketKeys.buffer[i]);
+        }
+        bucketElements.elementsCount = 0;
+        bucketKeys.elementsCount = 0;
+        minKeys[bucket] = Long.MAX_VALUE;
+    }
+
+    private int bucket(long key) {
+        return key == last ? 0 : Long.SIZE - Long.numberOfLeadingZeros(key ^ last);
+    }
+}
@@ -0,0 +1,175 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.utils.traverse;
+
+import org.neo4j.graphalgo.core.utils.ParallelUtil;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.HugeAtomicBitSet;
+import org.neo4j.graphalgo.core.utils.paged.HugeLongArray;
+import org.neo4j.graphalgo.core.utils.paged.MemoryUsage;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongConsumer;
+import java.util.function.Supplier;
+
+/**
+ * A set of node ids for BFS-style traversals that adapts its representation to its size.
+ * <p>
+ * Nodes can be added concurrently, every node is added only once. All nodes are set in a
+ * {@link HugeAtomicBitSet}, as long as the frontier is small they are also appended to a queue of ids.
+ * A sparse frontier is iterated and cleared through its queue, once it holds more nodes
+ * than the bit set has words it becomes dense and is iterated and cleared through the bit set.
+ * Both ways never cost more than a scan over all words of the bit set.
+ */
+public final class HugeFrontier {
+
+    private final long nodeCount;
+    private final long sparseLimit;
+    private final HugeAtomicBitSet nodes;
+    private final HugeLongArray queue;
+    private final AtomicLong size = new AtomicLong();
+
+    public static long estimateMemoryUsage(long nodeCount) {
+        return MemoryUsage.shallowSizeOfInstance(HugeFrontier.class) +
+                HugeAtomicBitSet.estimateMemoryUsage(nodeCount) +
+                HugeLongArray.estimateMemoryUsage(sparseLimit(nodeCount));
+    }
+
+    public HugeFrontier(long nodeCount, AllocationTracker tracker) {
+        this.nodeCount = nodeCount;
+        this.sparseLimit = sparseLimit(nodeCount);
+        this.nodes = HugeAtomicBitSet.newBitSet(nodeCount, tracker);
+        this.queue = HugeLongArray.newArray(sparseLimit, tracker);
+    }
+
+    /**
+     * Add the node to the frontier, thread-safe.
+     *
+     * @return true if the node has been added, false if it was already part of the frontier
+     */
+    public boolean add(long nodeId) {
+        if (!nodes.trySet(nodeId)) {
+            return false;
+        }
+        long index = size.getAndIncrement();
+        if (index < sparseLimit) {
+            queue.set(index, nodeId);
+        }
+        return true;
+    }
+
+    public boolean contains(long nodeId) {
+        return nodes.get(nodeId);
+    }
+
+    public long size() {
+        return size.get();
+    }
+
+    public boolean isEmpty() {
+        return size.get() == 0L;
+    }
+
+    /**
+     * @return true if the frontier is iterated through its bit set
+     */
+    public boolean isDense() {
+        return size.get() > sparseLimit;
+    }
+
+    /**
+     * Call the consumer for every node of the frontier, in queue order while sparse
+     * and in ascending order while dense.
+     */
+    public void forEach(LongConsumer consumer) {
+        if (isDense()) {
+            forEachSetBit(0L, nodeCount, consumer);
+        } else {
+            long size = this.size.get();
+            for (long i = 0L; i < size; i++) {
+                consumer.accept(queue.get(i));
+            }
+        }
+    }
+
+    /**
+     * Call the consumers for the nodes of the frontier in parallel. The frontier is split into
+     * partitions, every partition is processed by a task with a consumer of its own.
+     * Nodes must not be added to this frontier while it is iterated.
+     */
+    public void forEach(int concurrency, ExecutorService executor, Supplier<? extends LongConsumer> consumers) {
+        boolean dense = isDense();
+        long end = dense ? nodeCount : size.get();
+        if (end == 0L) {
+            return;
+        }
+        long batchSize = ParallelUtil.threadSize(Math.max(1, concurrency), end);
+        List<Runnable> tasks = new ArrayList<>();
+        for (long start = 0L; start < end; start += batchSize) {
+            long from = start;
+            long to = Math.min(end, start + batchSize);
+            LongConsumer consumer = consumers.get();
+            tasks.add(dense
+                    ? () -> forEachSetBit(from, to, consumer)
+                    : () -> {
+                        for (long i = from; i < to; i++) {
+                            consumer.accept(queue.get(i));
+                        }
+                    });
+        }
+        ParallelUtil.runWithConcurrency(concurrency, tasks, 10L, TimeUnit.MICROSECONDS, executor);
+    }
+
+    /**
+     * Remove all nodes from the frontier. A sparse frontier resets the bits of its queue, a dense
+     * frontier resets the whole bit set in parallel.
+     */
+    public void clear(int concurrency, ExecutorService executor) {
+        if (isDense()) {
+            nodes.clear(concurrency, executor);
+        } else {
+            long size = this.size.get();
+            for (long i = 0L; i < size; i++) {
+                nodes.clear(queue.get(i));
+            }
+        }
+        size.set(0L);
+    }
+
+    public void release() {
+        nodes.release();
+        queue.release();
+    }
+
+    private void forEachSetBit(long from, long to, LongConsumer consumer) {
+        long node = nodes.nextSetBit(from);
+        while (node != -1L && node < to) {
+            consumer.accept(node);
+            node = nodes.nextSetBit(node + 1L);
+        }
+    }
+
+    private static long sparseLimit(long nodeCount) {
+        return Math.max(1L, (nodeCount + Long.SIZE - 1L) / Long.SIZE);
+    }
+}
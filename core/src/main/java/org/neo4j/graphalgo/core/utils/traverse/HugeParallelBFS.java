@@ -0,0 +1,127 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.utils.traverse;
+
+import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.api.HugeRelationshipIterator;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.core.utils.paged.HugeAtomicBitSet;
+import org.neo4j.graphalgo.core.utils.paged.MemoryUsage;
+import org.neo4j.graphdb.Direction;
+
+import java.util.concurrent.ExecutorService;
+import java.util.function.LongConsumer;
+import java.util.function.LongPredicate;
+
+/**
+ * level synchronous parallel breadth first search for graphs with long node ids
+ * <p>
+ * Every level is expanded by up to {@code concurrency} tasks, each on its own copy of the
+ * relationship iterator. The nodes of the next level are collected in a {@link HugeFrontier},
+ * so small levels are iterated through their id queue and large levels through a bit set.
+ */
+public class HugeParallelBFS {
+
+    private final HugeGraph graph;
+    private final ExecutorService executor;
+    private final int concurrency;
+    private final HugeAtomicBitSet visited;
+    private HugeFrontier current;
+    private HugeFrontier next;
+    private int depth;
+
+    public static long estimateMemoryUsage(long nodeCount) {
+        return MemoryUsage.shallowSizeOfInstance(HugeParallelBFS.class) +
+                HugeAtomicBitSet.estimateMemoryUsage(nodeCount) +
+                2L * HugeFrontier.estimateMemoryUsage(nodeCount);
+    }
+
+    public HugeParallelBFS(HugeGraph graph, ExecutorService executor, int concurrency, AllocationTracker tracker) {
+        this.graph = graph;
+        this.executor = executor;
+        this.concurrency = concurrency;
+        long nodeCount = graph.nodeCount();
+        this.visited = HugeAtomicBitSet.newBitSet(nodeCount, tracker);
+        this.current = new HugeFrontier(nodeCount, tracker);
+        this.next = new HugeFrontier(nodeCount, tracker);
+    }
+
+    /**
+     * reset the visited nodes
+     *
+     * @return itself
+     */
+    public HugeParallelBFS reset() {
+        visited.clear(concurrency, executor);
+        current.clear(concurrency, executor);
+        next.clear(concurrency, executor);
+        depth = 0;
+        return this;
+    }
+
+    /**
+     * start bfs at startNodeId using the supplied direction. On each relationship the targetNode is tested
+     * using the predicate. If it succeeds the node is visited and expanded in the next level. Upon first
+     * arrival at a node the visitor is called with its node Id.
+     *
+     * NOTE: predicate and visitor must be thread safe
+     */
+    public HugeParallelBFS bfs(
+            long startNodeId,
+            Direction direction,
+            LongPredicate predicate,
+            LongConsumer visitor) {
+        if (!predicate.test(startNodeId) || !visited.trySet(startNodeId)) {
+            return this;
+        }
+        visitor.accept(startNodeId);
+        current.add(startNodeId);
+        while (!current.isEmpty()) {
+            current.forEach(concurrency, executor, () -> {
+                HugeRelationshipIterator iterator = graph.concurrentCopy();
+                return node -> iterator.forEachRelationship(node, direction, (sourceNodeId, targetNodeId) -> {
+                    if (predicate.test(targetNodeId) && visited.trySet(targetNodeId)) {
+                        visitor.accept(targetNodeId);
+                        next.add(targetNodeId);
+                    }
+                    return true;
+                });
+            });
+            current.clear(concurrency, executor);
+            HugeFrontier swap = current;
+            current = next;
+            next = swap;
+            depth++;
+        }
+        return this;
+    }
+
+    /**
+     * @return the number of expanded levels of the last traversal
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    public void release() {
+        visited.release();
+        current.release();
+        next.release();
+    }
+}
@@ -19,7 +19,9 @@
 package org.neo4j.graphalgo.algo;
 
 import org.junit.After;
+import org.junit.AfterClass;
 import org.junit.Before;
+import org.junit.BeforeClass;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
@@ -30,21 +32,32 @@ import org.neo4j.graphalgo.LoadGraphProc;
 import org.neo4j.graphalgo.PageRankProc;
 import org.neo4j.graphalgo.api.HugeGraph;
 import org.neo4j.graphalgo.core.heavyweight.HeavyGraph;
+import org.neo4j.graphalgo.core.huge.HugeGraphSnapshot;
 import org.neo4j.graphalgo.core.loading.LoadGraphFactory;
 import org.neo4j.graphalgo.core.neo4jview.GraphView;
 import org.neo4j.graphdb.QueryExecutionException;
 import org.neo4j.graphdb.Result;
+import org.neo4j.graphdb.factory.GraphDatabaseBuilder;
 import org.neo4j.internal.kernel.api.exceptions.KernelException;
 import org.neo4j.kernel.impl.proc.Procedures;
 import org.neo4j.test.rule.ImpermanentDatabaseRule;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.Map;
+import java.util.List;
 import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
+import static java.util.Collections.singletonList;
 import static java.util.Collections.singletonMap;
 import static org.junit.Assert.*;
+import static org.junit.Assume.assumeFalse;
+import static org.junit.Assume.assumeTrue;
 
 
 @RunWith(Parameterized.class)
@@ -75,8 +88,16 @@ public class LoadGraphProcIntegrationTest {
         );
     }
 
+    private static Path snapshots;
+
     @Rule
-    public ImpermanentDatabaseRule db = new ImpermanentDatabaseRule();
+    public ImpermanentDatabaseRule db = new ImpermanentDatabaseRule() {
+        @Override
+        protected void configure(GraphDatabaseBuilder builder) {
+            super.configure(builder);
+            builder.setConfig(HugeGraphSnapshot.DIRECTORY_SETTING, snapshots.toString());
+        }
+    };
 
     @Rule
     public ExpectedException exceptions = ExpectedException.none();
@@ -87,6 +108,16 @@ public class LoadGraphProcIntegrationTest {
         this.graph = graph;
     }
 
+    @BeforeClass
+    public static void setupSnapshots() throws IOException {
+        snapshots = Files.createTempDirectory("snapshots");
+    }
+
+    @AfterClass
+    public static void tearDownSnapshots() throws IOException {
+        Files.deleteIfExists(snapshots);
+    }
+
     @Before
     public void setup() throws KernelException {
         Procedures procedures = db.resolveDependency(Procedures.class);
@@ -99,6 +130,8 @@ public class LoadGraphProcIntegrationTest {
     @After
     public void tearDown() throws Exception {
         LoadGraphFactory.remove("foo");
+        LoadGraphFactory.remove("bar");
+        LoadGraphFactory.setMemoryBudget(LoadGraphFactory.UNLIMITED);
     }
 
     @Test
@@ -187,6 +220,120 @@ public class LoadGraphProcIntegrationTest {
         });
     }
 
+    @Test
+    public void infoShowsUsage() {
+        db.execute("CALL algo.graph.load('foo',null,null,{graph:$graph})", singletonMap("graph",graph)).close();
+        db.execute("CALL algo.pageRank(null,null,{graph:'foo',write:false})").close();
+
+        runQuery("CALL algo.graph.info($name)", singletonMap("name","foo"), row -> {
+            assertEquals(12, row.getNumber("nodes").intValue());
+            if (GraphView.TYPE.equals(graph)) {
+                assertEquals(-1, row.getNumber("relationships").intValue());
+            } else {
+                assertEquals(10, row.getNumber("relationships").intValue());
+                assertTrue(row.getNumber("bytes").longValue() > 0);
+            }
+            assertTrue(row.getNumber("hits").longValue() >= 1);
+            assertTrue(row.getNumber("lastAccess").longValue() >= row.getNumber("loadedAt").longValue());
+        });
+    }
+
+    @Test
+    public void listGraphs() {
+        db.execute("CALL algo.graph.load('foo',null,null,{graph:$graph})", singletonMap("graph",graph)).close();
+        db.execute("CALL algo.graph.load('bar',null,null,{graph:$graph})", singletonMap("graph",graph)).close();
+
+        List<Object> names = db.execute("CALL algo.graph.list() YIELD name RETURN name").columnAs("name").stream().collect(Collectors.toList());
+        assertEquals(Arrays.asList("foo", "bar"), names);
+    }
+
+    @Test
+    public void evictLeastRecentlyUsedGraph() {
+        assumeFalse(GraphView.TYPE.equals(graph));
+        db.execute("CALL algo.graph.load('foo',null,null,{graph:$graph})", singletonMap("graph",graph)).close();
+        db.execute("CALL algo.graph.load('bar',null,null,{graph:$graph})", singletonMap("graph",graph)).close();
+        db.execute("CALL algo.pageRank(null,null,{graph:'foo',write:false})").close();
+
+        long bytes = LoadGraphFactory.entry("foo").bytes;
+        runQuery("CALL algo.graph.budget($bytes)", singletonMap("bytes", bytes), row -> {
+            assertEquals(bytes, row.getNumber("budget").longValue());
+            assertEquals(bytes, row.getNumber("used").longValue());
+            assertEquals(1, row.getNumber("graphs").intValue());
+            assertEquals(singletonList("bar"), row.get("evicted"));
+        });
+        assertTrue(LoadGraphFactory.check("foo"));
+        assertFalse(LoadGraphFactory.check("bar"));
+
+        exceptions.expect(QueryExecutionException.class);
+        exceptions.expectMessage("exceeds the memory budget");
+        db.execute("CALL algo.graph.budget(1)").close();
+        db.execute("CALL algo.graph.load('bar',null,null,{graph:$graph})", singletonMap("graph",graph)).close();
+    }
+
+    @Test
+    public void saveAndRestoreGraph() throws IOException {
+        db.execute("CALL algo.graph.load('foo',null,null,{graph:$graph})", singletonMap("graph",graph)).close();
+
+        Path file = snapshots.resolve("graph.snapshot");
+        Map<String, Object> params = new HashMap<>();
+        params.put("name", "foo");
+        params.put("file", "graph.snapshot");
+        try {
+            if (!HugeGraph.TYPE.equals(graph)) {
+                exceptions.expect(QueryExecutionException.class);
+                exceptions.expectMessage("Only graphs of type huge can be saved");
+            }
+            runQuery("CALL algo.graph.save($name, $file)", params, row -> {
+                assertEquals("foo", row.getString("name"));
+                assertEquals(12, row.getNumber("nodes").intValue());
+                assertTrue(row.getNumber("bytes").longValue() > 0);
+            });
+            LoadGraphFactory.remove("foo");
+
+            runQuery("CALL algo.graph.restore($name, $file)", params, row -> {
+                assertEquals("foo", row.getString("name"));
+                assertEquals(12, row.getNumber("nodes").intValue());
+            });
+            runQuery("CALL algo.graph.info($name)", singletonMap("name","foo"), row -> {
+                assertEquals(HugeGraph.TYPE, row.getString("type"));
+                assertTrue(row.getBoolean("exists"));
+            });
+            runQuery("CALL algo.pageRank(null,null,{graph:$name,write:false})", singletonMap("name","foo"), row -> {
+                assertEquals(12, row.getNumber("nodes").intValue());
+            });
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void rejectSnapshotOutsideOfTheDirectory() throws IOException {
+        assumeTrue(HugeGraph.TYPE.equals(graph));
+        db.execute("CALL algo.graph.load('foo',null,null,{graph:$graph})", singletonMap("graph",graph)).close();
+
+        Path outside = Files.createTempFile("graph", ".snapshot");
+        try {
+            for (String file : Arrays.asList(
+                    outside.toString(),
+                    "../" + outside.getFileName(),
+                    "sub/../../" + outside.getFileName())) {
+                for (String query : Arrays.asList(
+                        "CALL algo.graph.save('foo', $file)",
+                        "CALL algo.graph.restore('bar', $file)")) {
+                    try {
+                        db.execute(query, singletonMap("file", file)).close();
+                        fail(query + " accepted " + file);
+                    } catch (QueryExecutionException e) {
+                        assertTrue(e.getMessage(), e.getMessage().contains("snapshot directory"));
+                    }
+                }
+            }
+            assertEquals(0L, Files.size(outside));
+        } finally {
+            Files.deleteIfExists(outside);
+        }
+    }
+
     private void runQuery(String query, Map<String, Object> params, Consumer<Result.ResultRow> check) {
         try (Result result = db.execute(query, params)) {
             result.accept(row -> {
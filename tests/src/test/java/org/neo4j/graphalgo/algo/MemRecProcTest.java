@@ -0,0 +1,90 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.algo;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.neo4j.graphalgo.MemRecProc;
+import org.neo4j.graphalgo.TestDatabaseCreator;
+import org.neo4j.graphdb.QueryExecutionException;
+import org.neo4j.internal.kernel.api.exceptions.KernelException;
+import org.neo4j.kernel.impl.proc.Procedures;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class MemRecProcTest {
+
+    private static GraphDatabaseAPI db;
+
+    @BeforeClass
+    public static void setUp() throws KernelException {
+        db = TestDatabaseCreator.createTestDatabase();
+        db.getDependencyResolver()
+                .resolveDependency(Procedures.class)
+                .registerProcedure(MemRecProc.class);
+        db.execute("UNWIND range(0, 999) AS i CREATE (:Node {id: i})").close();
+        db.execute("MATCH (n:Node) WITH collect(n) AS nodes UNWIND range(0, 998) AS i " +
+                "WITH nodes[i] AS a, nodes[i + 1] AS b CREATE (a)-[:REL {w: 1.0}]->(b)").close();
+    }
+
+    @AfterClass
+    public static void tearDown() {
+        db.shutdown();
+    }
+
+    @Test
+    public void testGraphOnly() {
+        Map<String, Object> row = memrec("", "{graph: 'huge'}");
+        assertEquals(1000L, row.get("nodeCount"));
+        assertEquals(999L, row.get("relationshipCount"));
+        assertTrue((long) row.get("bytesMin") > 0L);
+        assertTrue((String) row.get("treeView"), ((String) row.get("treeView")).startsWith("graph: "));
+    }
+
+    @Test
+    public void testAlgorithmsAddToTheGraph() {
+        for (String graph : new String[]{"heavy", "huge"}) {
+            String config = "{graph: '" + graph + "', concurrency: 4}";
+            Map<String, Object> graphOnly = memrec("", config);
+            for (String algo : new String[]{"pageRank", "unionFind", "louvain", "labelPropagation"}) {
+                if (algo.equals("labelPropagation") && graph.equals("huge")) {
+                    continue;
+                }
+                Map<String, Object> row = memrec(algo, config);
+                assertTrue(algo, (long) row.get("bytesMin") > (long) graphOnly.get("bytesMin"));
+                assertTrue(algo, (long) row.get("bytesMax") >= (long) row.get("bytesMin"));
+                assertTrue((String) row.get("treeView"), ((String) row.get("treeView")).startsWith(algo + ": "));
+            }
+        }
+    }
+
+    @Test(expected = QueryExecutionException.class)
+    public void testUnknownAlgorithm() {
+        memrec("unknown", "{}");
+    }
+
+    private Map<String, Object> memrec(String algo, String config) {
+        return db.execute("CALL algo.memrec('Node', 'REL', '" + algo + "', " + config + ")").next();
+    }
+}
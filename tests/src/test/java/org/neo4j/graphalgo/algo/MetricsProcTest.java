@@ -0,0 +1,92 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.algo;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.neo4j.graphalgo.MetricsProc;
+import org.neo4j.graphalgo.PageRankProc;
+import org.neo4j.graphalgo.TestDatabaseCreator;
+import org.neo4j.graphdb.Result;
+import org.neo4j.internal.kernel.api.exceptions.KernelException;
+import org.neo4j.kernel.impl.proc.Procedures;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+public class MetricsProcTest {
+
+    private static GraphDatabaseAPI db;
+
+    @BeforeClass
+    public static void setUp() throws KernelException {
+        db = TestDatabaseCreator.createTestDatabase();
+        Procedures procedures = db.getDependencyResolver().resolveDependency(Procedures.class);
+        procedures.registerProcedure(MetricsProc.class);
+        procedures.registerProcedure(PageRankProc.class);
+        db.execute("UNWIND range(0, 99) AS i CREATE (:Node {id: i})").close();
+        db.execute("MATCH (n:Node) WITH collect(n) AS nodes UNWIND range(0, 99) AS i " +
+                "WITH nodes[i] AS a, nodes[(i + 1) % 100] AS b CREATE (a)-[:REL]->(b)").close();
+    }
+
+    @AfterClass
+    public static void tearDown() {
+        db.shutdown();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testPageRankIsRecorded() {
+        db.execute("CALL algo.pageRank('Node', 'REL', {graph: 'huge', iterations: 5, concurrency: 2, write: true})").close();
+
+        boolean found = false;
+        try (Result result = db.execute("CALL algo.metrics() YIELD job, runs, lastIterations, lastPeakBytes WHERE job = 'algo.pageRank' " +
+                "RETURN runs, lastIterations, lastPeakBytes")) {
+            while (result.hasNext()) {
+                Map<String, Object> row = result.next();
+                assertTrue((long) row.get("runs") >= 1L);
+                assertEquals(5L, row.get("lastIterations"));
+                assertTrue((long) row.get("lastPeakBytes") > 0L);
+                found = true;
+            }
+        }
+        assertTrue(found);
+
+        try (Result result = db.execute("CALL algo.metrics.runs() YIELD job, phases, iterationMillis, relationshipCount " +
+                "WHERE job = 'algo.pageRank' RETURN phases, iterationMillis, relationshipCount")) {
+            // the runs are listed oldest first, other tests may have run the procedure before
+            Map<String, Object> row = null;
+            while (result.hasNext()) {
+                row = result.next();
+            }
+            assertNotNull(row);
+            Map<String, Object> phases = (Map<String, Object>) row.get("phases");
+            assertTrue(phases.toString(), phases.keySet().containsAll(Arrays.asList("load", "compute", "write")));
+            assertEquals(5, ((List<Object>) row.get("iterationMillis")).size());
+            assertEquals(100L, row.get("relationshipCount"));
+        }
+    }
+}
@@ -0,0 +1,113 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.neo4j.graphalgo.PropertyMapping;
+import org.neo4j.graphalgo.TestDatabaseCreator;
+import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.core.huge.HugeGraphFactory;
+import org.neo4j.graphalgo.core.utils.Pools;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+
+import java.util.Arrays;
+import java.util.HashSet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class HugeNodePropertyStoreTest {
+
+    private static GraphDatabaseService db;
+
+    private static long id1;
+    private static long id2;
+    private static long id3;
+
+    @BeforeClass
+    public static void setUp() {
+        db = TestDatabaseCreator.createTestDatabase();
+
+        db.execute("CREATE (n1:Node {x: 1.5, y: 10}), (n2:Node {x: 2}), (n3:Node {y: 30, z: 'foo'}) RETURN id(n1) AS id1, id(n2) AS id2, id(n3) AS id3").accept(row -> {
+            id1 = row.getNumber("id1").longValue();
+            id2 = row.getNumber("id2").longValue();
+            id3 = row.getNumber("id3").longValue();
+            return true;
+        });
+    }
+
+    @AfterClass
+    public static void tearDown() {
+        db.shutdown();
+    }
+
+    @Test
+    public void testLoadsDoubleAndLongColumns() {
+        HugeGraph graph = load();
+        HugeNodePropertyStore store = graph.nodePropertyStore();
+
+        assertEquals(1.5, store.doubleColumn("x").get(graph.toHugeMappedNodeId(id1)), 0.0);
+        assertEquals(2.0, store.doubleColumn("x").get(graph.toHugeMappedNodeId(id2)), 0.0);
+        assertEquals(-1.0, store.doubleColumn("x").get(graph.toHugeMappedNodeId(id3)), 0.0);
+
+        assertEquals(10L, store.longColumn("y").get(graph.toHugeMappedNodeId(id1)));
+        assertEquals(5L, store.longColumn("y").get(graph.toHugeMappedNodeId(id2)));
+        assertEquals(30L, store.longColumn("y").get(graph.toHugeMappedNodeId(id3)));
+
+        assertNull(store.longColumn("x"));
+        assertNull(store.doubleColumn("y"));
+    }
+
+    @Test
+    public void testMissingPropertiesFallBackToDefault() {
+        HugeGraph graph = load();
+
+        assertNull(graph.nodePropertyStore().doubleColumn("missing"));
+        assertEquals(42.0, graph.nodeProperties("missing").get(graph.toHugeMappedNodeId(id1)), 0.0);
+        assertEquals(42.0, graph.nodePropertyStore().doubleValue("missing", graph.toHugeMappedNodeId(id2)), 0.0);
+    }
+
+    @Test
+    public void testNodePropertiesView() {
+        HugeGraph graph = load();
+
+        assertEquals(new HashSet<>(Arrays.asList("x", "y", "missing")), graph.availableNodeProperties());
+        assertEquals(30.0, graph.nodeProperties("y").get((int) graph.toHugeMappedNodeId(id3)), 0.0);
+        assertNull(graph.nodeProperties("z"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testFailsOnUnloadedProperty() {
+        load().nodePropertyStore().doubleValue("z", 0L);
+    }
+
+    private HugeGraph load() {
+        return (HugeGraph) new GraphLoader((GraphDatabaseAPI) db, Pools.DEFAULT)
+                .withLabel("Node")
+                .withAnyRelationshipType()
+                .withOptionalNodeProperties(
+                        PropertyMapping.of("x", "x", -1.0),
+                        PropertyMapping.ofLong("y", "y", 5L),
+                        PropertyMapping.of("missing", "missing", 42.0))
+                .load(HugeGraphFactory.class);
+    }
+}
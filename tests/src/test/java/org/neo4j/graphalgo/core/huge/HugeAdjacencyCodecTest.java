@@ -0,0 +1,172 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.huge;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.neo4j.graphalgo.TestDatabaseCreator;
+import org.neo4j.graphalgo.api.AdjacencyCodec;
+import org.neo4j.graphalgo.api.AdjacencyStorage;
+import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.api.HugeWeightedRelationshipConsumer;
+import org.neo4j.graphalgo.core.GraphLoader;
+import org.neo4j.graphalgo.core.utils.Pools;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphdb.Direction;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class HugeAdjacencyCodecTest {
+
+    private static GraphDatabaseService db;
+
+    @BeforeClass
+    public static void setUp() {
+        db = TestDatabaseCreator.createTestDatabase();
+        db.execute("UNWIND range(0, 1999) AS i CREATE (:Node {id: i})").close();
+        // a few hubs with several blocks of targets and some nodes with a few distant targets
+        db.execute("MATCH (n:Node) WITH collect(n) AS nodes " +
+                "UNWIND range(0, 29999) AS i " +
+                "WITH nodes[CASE WHEN i % 2 = 0 THEN i % 5 ELSE (i * 7919) % 2000 END] AS a, " +
+                "nodes[(i * 104729) % 1999] AS b " +
+                "CREATE (a)-[:REL {w: (a.id * 31 + b.id) % 13}]->(b)").close();
+    }
+
+    @AfterClass
+    public static void tearDown() {
+        db.shutdown();
+    }
+
+    @Test
+    public void testBlockRoundTrip() {
+        Random random = new Random(42L);
+        for (int run = 0; run < 1000; run++) {
+            int length = 1 + random.nextInt(AdjacencyCompression.CHUNK_SIZE);
+            long[] values = new long[length];
+            int width = 1 + random.nextInt(40);
+            for (int i = 0; i < length; i++) {
+                // mostly narrow values with a few wide exceptions
+                values[i] = 1L + (random.nextInt(8) == 0
+                        ? random.nextLong() >>> (2 + random.nextInt(61))
+                        : random.nextLong() >>> (Long.SIZE - width));
+            }
+            int bits = PForEncoding.bestBits(values, 0, length, new int[Long.SIZE + 1]);
+            int size = PForEncoding.encodedSize(values, 0, length, bits);
+            byte[] encoded = new byte[3 + size + PForEncoding.PADDING];
+            assertEquals(3 + size, PForEncoding.encode(values, 0, length, bits, encoded, 3));
+
+            long[] expected = new long[length];
+            long value = 42L;
+            for (int i = 0; i < length; i++) {
+                expected[i] = value += values[i];
+            }
+            long[] decoded = new long[length];
+            assertEquals(3 + size, PForDecoding.decodeDeltaBlock(42L, encoded, 3, length, decoded));
+            assertArrayEquals(expected, decoded);
+
+            ByteBuffer buffer = ByteBuffer.wrap(encoded).order(ByteOrder.LITTLE_ENDIAN);
+            decoded = new long[length];
+            assertEquals(3 + size, PForDecoding.decodeDeltaBlock(42L, buffer, 3, length, decoded));
+            assertArrayEquals(expected, decoded);
+        }
+    }
+
+    @Test
+    public void testPForGraphEqualsVarLongGraph() {
+        for (AdjacencyStorage storage : new AdjacencyStorage[]{AdjacencyStorage.HEAP, AdjacencyStorage.DIRECT}) {
+            for (boolean inline : new boolean[]{false, true}) {
+                for (boolean skipIndex : new boolean[]{false, true}) {
+                    HugeGraph expected = load(AdjacencyCodec.VARLONG, storage, inline, skipIndex);
+                    HugeGraph actual = load(AdjacencyCodec.PFOR, storage, inline, skipIndex);
+                    assertSameGraph(expected, actual);
+                    expected.release();
+                    actual.release();
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testSnapshotKeepsCodec() throws IOException {
+        HugeGraph expected = load(AdjacencyCodec.PFOR, AdjacencyStorage.HEAP, false, true);
+        Path file = Files.createTempFile("pfor", ".snapshot");
+        try {
+            HugeGraphSnapshot.write(expected, file);
+            HugeGraphImpl actual = (HugeGraphImpl) HugeGraphSnapshot.read(file, AllocationTracker.EMPTY);
+            assertEquals(AdjacencyCodec.PFOR, actual.adjacency(Direction.OUTGOING).codec());
+            assertSameGraph(expected, actual);
+            actual.release();
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static void assertSameGraph(HugeGraph expected, HugeGraph actual) {
+        assertEquals(expected.relationshipCount(), actual.relationshipCount());
+        for (long node = 0L; node < expected.nodeCount(); node++) {
+            for (Direction direction : new Direction[]{Direction.OUTGOING, Direction.INCOMING}) {
+                int degree = expected.degree(node, direction);
+                assertEquals(degree, actual.degree(node, direction));
+                List<String> relationships = relationships(expected, node, direction);
+                assertEquals(relationships, relationships(actual, node, direction));
+                for (int index = 0; index < degree; index += 17) {
+                    long target = expected.getTarget(node, index, direction);
+                    assertEquals(target, actual.getTarget(node, index, direction));
+                    assertTrue(actual.exists(node, target, direction));
+                }
+            }
+        }
+    }
+
+    private static List<String> relationships(HugeGraph graph, long node, Direction direction) {
+        List<String> relationships = new ArrayList<>();
+        graph.forEachRelationship(node, direction, (HugeWeightedRelationshipConsumer) (s, t, w) -> {
+            relationships.add(s + " " + t + " " + w);
+            return true;
+        });
+        return relationships;
+    }
+
+    private HugeGraph load(AdjacencyCodec codec, AdjacencyStorage storage, boolean inline, boolean skipIndex) {
+        return (HugeGraph) new GraphLoader((GraphDatabaseAPI) db, Pools.DEFAULT)
+                .withLabel("Node")
+                .withRelationshipType("REL")
+                .withDirection(Direction.BOTH)
+                .withRelationshipWeightsFromProperty("w", 0.0)
+                .withInlineRelationshipWeights(inline)
+                .withAdjacencySkipIndex(skipIndex)
+                .withAdjacencyStorage(storage)
+                .withAdjacencyCodec(codec)
+                .load(HugeGraphFactory.class);
+    }
+}
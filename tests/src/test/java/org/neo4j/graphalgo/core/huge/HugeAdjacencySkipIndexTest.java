@@ -0,0 +1,120 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.huge;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.core.GraphLoader;
+import org.neo4j.graphalgo.core.utils.Pools;
+import org.neo4j.graphdb.Direction;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.RelationshipType;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+import org.neo4j.test.TestGraphDatabaseFactory;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Compares point lookups on a high degree node between graphs
+ * loaded with and without the adjacency skip index.
+ */
+public final class HugeAdjacencySkipIndexTest {
+
+    private static final int NODES = 1000;
+    private static final int RELS_FROM_HUB = 700;
+
+    private static GraphDatabaseAPI db;
+
+    @BeforeClass
+    public static void setupGraph() {
+        db = (GraphDatabaseAPI) new TestGraphDatabaseFactory().newImpermanentDatabase();
+        RelationshipType type = RelationshipType.withName("TYPE");
+        Random random = new Random(42L);
+        try (Transaction tx = db.beginTx()) {
+            Node[] nodes = new Node[NODES];
+            for (int i = 0; i < NODES; i++) {
+                nodes[i] = db.createNode();
+            }
+            for (int i = 0; i < RELS_FROM_HUB; i++) {
+                Node target = nodes[1 + random.nextInt(NODES - 1)];
+                nodes[0].createRelationshipTo(target, type)
+                        .setProperty("weight", (double) target.getId());
+            }
+            tx.success();
+        }
+    }
+
+    @AfterClass
+    public static void tearDown() {
+        if (db != null) db.shutdown();
+    }
+
+    @Test
+    public void shouldFindSameRelationshipsWithSkipIndex() {
+        testLookups(false);
+    }
+
+    @Test
+    public void shouldFindSameRelationshipsWithSkipIndexAndInlineWeights() {
+        testLookups(true);
+    }
+
+    private void testLookups(boolean inlineWeights) {
+        HugeGraph expected = load(false, inlineWeights);
+        HugeGraph actual = load(true, inlineWeights);
+
+        for (Direction direction : new Direction[]{Direction.OUTGOING, Direction.INCOMING, Direction.BOTH}) {
+            int degree = expected.degree(0L, direction);
+            assertEquals(degree, actual.degree(0L, direction));
+            for (int i = 0; i <= degree; i++) {
+                assertEquals(
+                        expected.getTarget(0L, i, direction),
+                        actual.getTarget(0L, i, direction));
+            }
+            for (long target = 0; target < NODES; target++) {
+                assertEquals(
+                        "exists(0, " + target + ", " + direction + ")",
+                        expected.exists(0L, target, direction),
+                        actual.exists(0L, target, direction));
+            }
+        }
+
+        for (long target = 0; target < NODES; target++) {
+            assertEquals(
+                    expected.weightOf(0L, target),
+                    actual.weightOf(0L, target),
+                    0.0);
+        }
+    }
+
+    private HugeGraph load(boolean skipIndex, boolean inlineWeights) {
+        return (HugeGraph) new GraphLoader(db)
+                .withRelationshipWeightsFromProperty("weight", 0.0)
+                .withInlineRelationshipWeights(inlineWeights)
+                .withAdjacencySkipIndex(skipIndex)
+                .withDirection(Direction.BOTH)
+                .withExecutorService(Pools.DEFAULT)
+                .load(HugeGraphFactory.class);
+    }
+}
@@ -0,0 +1,201 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.huge;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.neo4j.graphalgo.api.AdjacencyStorage;
+import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.core.GraphLoader;
+import org.neo4j.graphalgo.core.utils.Pools;
+import org.neo4j.graphdb.Direction;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.RelationshipType;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+import org.neo4j.test.TestGraphDatabaseFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * Loads the same graph into every off-heap adjacency storage and compares it against the heap storage.
+ */
+@RunWith(Parameterized.class)
+public final class HugeAdjacencyStorageTest {
+
+    private static final int NODES = 2000;
+    private static final int RELS_PER_NODE = 10;
+
+    @Parameterized.Parameters(name = "{0}")
+    public static Collection<Object[]> data() {
+        return Arrays.<Object[]>asList(
+                new Object[]{AdjacencyStorage.DIRECT},
+                new Object[]{AdjacencyStorage.MAPPED}
+        );
+    }
+
+    private static GraphDatabaseAPI db;
+
+    private final AdjacencyStorage storage;
+
+    public HugeAdjacencyStorageTest(AdjacencyStorage storage) {
+        this.storage = storage;
+    }
+
+    @BeforeClass
+    public static void setupGraph() {
+        db = (GraphDatabaseAPI) new TestGraphDatabaseFactory().newImpermanentDatabase();
+        RelationshipType type = RelationshipType.withName("TYPE");
+        Random random = new Random(42L);
+        try (Transaction tx = db.beginTx()) {
+            Node[] nodes = new Node[NODES];
+            for (int i = 0; i < NODES; i++) {
+                nodes[i] = db.createNode();
+            }
+            for (Node source : nodes) {
+                for (int i = 0; i < RELS_PER_NODE; i++) {
+                    Node target = nodes[random.nextInt(NODES)];
+                    source.createRelationshipTo(target, type).setProperty("weight", random.nextDouble());
+                }
+            }
+            tx.success();
+        }
+    }
+
+    @AfterClass
+    public static void tearDown() {
+        if (db != null) db.shutdown();
+    }
+
+    @Test
+    public void shouldLoadSameAdjacency() {
+        HugeGraph expected = load(AdjacencyStorage.HEAP, false);
+        HugeGraph actual = load(storage, false);
+        assertSameGraph(expected, actual);
+    }
+
+    @Test
+    public void shouldLoadSameAdjacencyWithInlineWeightsAndSkipIndex() {
+        HugeGraph expected = load(AdjacencyStorage.HEAP, true);
+        HugeGraph actual = load(storage, true);
+        assertSameGraph(expected, actual);
+
+        for (long node = 0; node < NODES; node++) {
+            long source = node;
+            actual.forEachRelationship(source, Direction.OUTGOING, (long s, long t, double weight) -> {
+                assertEquals(expected.weightOf(s, t), weight, 0.0);
+                assertEquals(expected.exists(s, t, Direction.OUTGOING), actual.exists(s, t, Direction.OUTGOING));
+                return true;
+            });
+        }
+    }
+
+    @Test
+    public void shouldDeleteTheStorageOfAFailedImport() throws IOException {
+        GraphDatabaseAPI brokenDb = (GraphDatabaseAPI) new TestGraphDatabaseFactory().newImpermanentDatabase();
+        Path directory = Files.createTempDirectory("adjacency").toRealPath();
+        try {
+            try (Transaction tx = brokenDb.beginTx()) {
+                brokenDb.createNode().createRelationshipTo(brokenDb.createNode(), RelationshipType.withName("TYPE"))
+                        .setProperty("weight", "not a number");
+                tx.success();
+            }
+            try {
+                new GraphLoader(brokenDb)
+                        .withRelationshipWeightsFromProperty("weight", 0.0)
+                        .withAdjacencyStorage(storage, directory)
+                        .withDirection(Direction.BOTH)
+                        .load(HugeGraphFactory.class);
+                fail("a non numeric weight should fail the import");
+            } catch (IllegalArgumentException expected) {
+            }
+            assertEquals(0L, openOrExistingFiles(directory));
+        } finally {
+            brokenDb.shutdown();
+            Files.deleteIfExists(directory);
+        }
+    }
+
+    private static long openOrExistingFiles(Path directory) throws IOException {
+        long files;
+        try (Stream<Path> list = Files.list(directory)) {
+            files = list.count();
+        }
+        // on unix, the file is unlinked right after it has been opened, only procfs still lists the open channel
+        Path descriptors = Paths.get("/proc/self/fd");
+        if (Files.isDirectory(descriptors)) {
+            try (Stream<Path> list = Files.list(descriptors)) {
+                files += list.filter(descriptor -> {
+                    try {
+                        return Files.readSymbolicLink(descriptor).startsWith(directory);
+                    } catch (IOException e) {
+                        return false;
+                    }
+                }).count();
+            }
+        }
+        return files;
+    }
+
+    private void assertSameGraph(HugeGraph expected, HugeGraph actual) {
+        assertEquals(expected.nodeCount(), actual.nodeCount());
+        for (long node = 0; node < NODES; node++) {
+            for (Direction direction : new Direction[]{Direction.OUTGOING, Direction.INCOMING}) {
+                assertEquals(expected.degree(node, direction), actual.degree(node, direction));
+                assertEquals(targets(expected, node, direction), targets(actual, node, direction));
+            }
+        }
+    }
+
+    private static List<Long> targets(HugeGraph graph, long node, Direction direction) {
+        List<Long> targets = new ArrayList<>();
+        graph.forEachRelationship(node, direction, (long s, long t) -> {
+            targets.add(t);
+            return true;
+        });
+        return targets;
+    }
+
+    private HugeGraph load(AdjacencyStorage storage, boolean inlineWeightsAndSkipIndex) {
+        return (HugeGraph) new GraphLoader(db)
+                .withRelationshipWeightsFromProperty("weight", 0.0)
+                .withInlineRelationshipWeights(inlineWeightsAndSkipIndex)
+                .withAdjacencySkipIndex(inlineWeightsAndSkipIndex)
+                .withAdjacencyStorage(storage)
+                .withDirection(Direction.BOTH)
+                .withExecutorService(Pools.DEFAULT)
+                .withBatchSize(100)
+                .load(HugeGraphFactory.class);
+    }
+}
@@ -0,0 +1,109 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.huge;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.neo4j.graphalgo.TestDatabaseCreator;
+import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.api.HugeWeightedRelationshipConsumer;
+import org.neo4j.graphalgo.core.GraphLoader;
+import org.neo4j.graphalgo.core.utils.Pools;
+import org.neo4j.graphdb.Direction;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class HugeAdjacencyTransposeTest {
+
+    private static GraphDatabaseService db;
+
+    @BeforeClass
+    public static void setUp() {
+        db = TestDatabaseCreator.createTestDatabase();
+        db.execute("UNWIND range(0, 999) AS i CREATE (:Node {id: i})").close();
+        // hubs with a high in-degree, parallel relationships and self references,
+        // parallel relationships have the same weight as the loader keeps any one of them
+        db.execute("MATCH (n:Node) WITH collect(n) AS nodes " +
+                "UNWIND range(0, 19999) AS i " +
+                "WITH nodes[(i * 7919) % 1000] AS a, nodes[CASE WHEN i % 5 = 0 THEN i % 3 ELSE (i * 104729) % 997 END] AS b, i " +
+                "CREATE (a)-[:REL {w: (a.id * 31 + b.id) % 13}]->(b)").close();
+    }
+
+    @AfterClass
+    public static void tearDown() {
+        db.shutdown();
+    }
+
+    @Test
+    public void testTransposedIncomingEqualsLoadedIncoming() {
+        for (Direction direction : new Direction[]{Direction.INCOMING, Direction.BOTH}) {
+            for (boolean inline : new boolean[]{false, true}) {
+                for (int concurrency : new int[]{1, 4}) {
+                    HugeGraph expected = load(direction, inline, false, concurrency);
+                    HugeGraph actual = load(direction, inline, true, concurrency);
+
+                    assertEquals(expected.relationshipCount(), actual.relationshipCount());
+                    for (long node = 0L; node < expected.nodeCount(); node++) {
+                        assertEquals(expected.degree(node, direction), actual.degree(node, direction));
+                        assertEquals(relationships(expected, node, Direction.INCOMING), relationships(actual, node, Direction.INCOMING));
+                        if (direction == Direction.BOTH) {
+                            assertEquals(relationships(expected, node, Direction.OUTGOING), relationships(actual, node, Direction.OUTGOING));
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testOutgoingIsReleasedForIncomingOnly() {
+        HugeGraphImpl graph = (HugeGraphImpl) load(Direction.INCOMING, false, true, 4);
+        assertNull(graph.adjacency(Direction.OUTGOING));
+        assertNull(graph.offsets(Direction.OUTGOING));
+    }
+
+    private static List<String> relationships(HugeGraph graph, long node, Direction direction) {
+        List<String> relationships = new ArrayList<>();
+        graph.forEachRelationship(node, direction, (HugeWeightedRelationshipConsumer) (s, t, w) -> {
+            relationships.add(s + " " + t + " " + w);
+            return true;
+        });
+        return relationships;
+    }
+
+    private HugeGraph load(Direction direction, boolean inline, boolean transpose, int concurrency) {
+        return (HugeGraph) new GraphLoader((GraphDatabaseAPI) db, Pools.DEFAULT)
+                .withConcurrency(concurrency)
+                .withLabel("Node")
+                .withRelationshipType("REL")
+                .withDirection(direction)
+                .withRelationshipWeightsFromProperty("w", 0.0)
+                .withInlineRelationshipWeights(inline)
+                .withAdjacencySkipIndex(inline)
+                .withTransposedIncoming(transpose)
+                .load(HugeGraphFactory.class);
+    }
+}
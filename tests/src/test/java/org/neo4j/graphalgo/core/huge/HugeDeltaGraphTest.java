@@ -0,0 +1,293 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.huge;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.neo4j.graphalgo.TestDatabaseCreator;
+import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.core.GraphLoader;
+import org.neo4j.graphalgo.core.utils.Pools;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphdb.Direction;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+public class HugeDeltaGraphTest {
+
+    private GraphDatabaseAPI db;
+    private HugeDeltaGraph graph;
+
+    @Before
+    public void setUp() {
+        db = TestDatabaseCreator.createTestDatabase();
+        db.execute("CREATE (a:Node {name:'a'})-[:TYPE {w:1}]->(b:Node {name:'b'})-[:TYPE {w:2}]->(c:Node {name:'c'}) " +
+                "CREATE (c)-[:TYPE {w:3}]->(a) " +
+                "CREATE (a)-[:OTHER {w:4}]->(c)").close();
+        graph = (HugeDeltaGraph) loader().withIncrementalUpdates(true, 0L).load(HugeGraphFactory.class);
+    }
+
+    @After
+    public void tearDown() {
+        graph.release();
+        db.shutdown();
+    }
+
+    @Test
+    public void testAddsRelationships() {
+        db.execute("MATCH (a {name:'a'}), (b {name:'b'}) CREATE (b)-[:TYPE {w:5}]->(a)").close();
+        db.execute("MATCH (a {name:'a'}), (b {name:'b'}) CREATE (b)-[:OTHER {w:6}]->(a)").close();
+
+        assertEquals(4, graph.relationshipCount());
+        assertEquals(2, graph.degree(id("b"), Direction.OUTGOING));
+        assertEquals(2, graph.degree(id("a"), Direction.INCOMING));
+        assertTrue(graph.exists(id("b"), id("a"), Direction.OUTGOING));
+        assertEquals(5.0, graph.weightOf(id("b"), id("a")), 0.0);
+        // one change for each loaded direction
+        assertEquals(2, graph.pendingChanges());
+        assertEquals(reload(), relationships(graph));
+    }
+
+    @Test
+    public void testDeletesRelationships() {
+        db.execute("MATCH (:Node {name:'b'})-[r:TYPE]->() DELETE r").close();
+
+        assertEquals(2, graph.relationshipCount());
+        assertEquals(0, graph.degree(id("b"), Direction.OUTGOING));
+        assertFalse(graph.exists(id("b"), id("c"), Direction.OUTGOING));
+        assertFalse(graph.exists(id("c"), id("b"), Direction.INCOMING));
+        assertEquals(reload(), relationships(graph));
+    }
+
+    @Test
+    public void testKeepsParallelRelationships() {
+        db.execute("MATCH (a {name:'a'})-[r:TYPE]->(b) CREATE (a)-[:TYPE {w:1}]->(b)").close();
+        db.execute("MATCH (a {name:'a'})-[r:TYPE]->(b) WITH r LIMIT 1 DELETE r").close();
+
+        assertTrue(graph.exists(id("a"), id("b"), Direction.OUTGOING));
+        assertEquals(reload(), relationships(graph));
+    }
+
+    @Test
+    public void testUpdatesWeights() {
+        db.execute("MATCH ({name:'c'})-[r:TYPE]->() SET r.w = 42").close();
+
+        assertEquals(42.0, graph.weightOf(id("c"), id("a")), 0.0);
+        assertEquals(reload(), relationships(graph));
+    }
+
+    @Test
+    public void testAddsAndDeletesNodes() {
+        db.execute("MATCH (a {name:'a'}) CREATE (a)-[:TYPE {w:7}]->(:Node {name:'d'})").close();
+        assertEquals(4, graph.nodeCount());
+        assertEquals(reload(), relationships(graph));
+
+        long b = original("b");
+        db.execute("MATCH (n {name:'b'}) DETACH DELETE n").close();
+        assertFalse(graph.contains(b));
+        assertEquals(reload(), relationships(graph));
+
+        db.execute("MATCH (n {name:'c'}) REMOVE n:Node").close();
+        assertFalse(graph.contains(original("c")));
+        assertEquals(reload(), relationships(graph));
+
+        db.execute("MATCH (n {name:'c'}) SET n:Node").close();
+        assertTrue(graph.contains(original("c")));
+        assertEquals(reload(), relationships(graph));
+    }
+
+    @Test
+    public void testReAddedNodeHasNoRelationships() {
+        HugeGraphImpl base = (HugeGraphImpl) loader().load(HugeGraphFactory.class);
+        HugeDeltaGraph.Overlay overlay = new HugeDeltaGraph.Overlay(base, new HugeDeltaGraph.Pins(base), false, 0.0);
+        long b = original("b");
+        overlay.deleteNode(b);
+        overlay.addNode(b);
+
+        long node = overlay.toMappedNodeId(b);
+        long a = overlay.toMappedNodeId(original("a"));
+        long c = overlay.toMappedNodeId(original("c"));
+        assertEquals(0, overlay.degree(node, Direction.BOTH));
+        assertEquals(0, overlay.degree(a, Direction.OUTGOING));
+        assertEquals(0, overlay.degree(c, Direction.INCOMING));
+        assertFalse(overlay.exists(a, node, Direction.OUTGOING, false));
+        assertFalse(overlay.exists(node, c, Direction.OUTGOING, false));
+        base.release();
+    }
+
+    @Test
+    public void testSnapshotIsNotAffectedByLaterCommits() {
+        db.execute("MATCH (a {name:'a'}), (b {name:'b'}) CREATE (b)-[:TYPE {w:5}]->(a)").close();
+        HugeGraph snapshot = graph.snapshot();
+        Set<String> before = relationships(snapshot);
+
+        db.execute("MATCH (n {name:'b'}) DETACH DELETE n").close();
+        db.execute("CREATE (:Node {name:'e'})").close();
+
+        assertEquals(before, relationships(snapshot));
+        assertEquals(3, snapshot.nodeCount());
+    }
+
+    @Test
+    public void testSnapshotCompactsNewNodesInTheBackground() throws InterruptedException {
+        db.execute("MATCH (a {name:'a'}), (b {name:'b'}) CREATE (b)-[:TYPE {w:5}]->(a)").close();
+        Set<String> beforeNodeChanges = reload();
+        db.execute("MATCH (a {name:'a'}) CREATE (a)-[:TYPE {w:7}]->(:Node {name:'d'})").close();
+        db.execute("MATCH (n {name:'b'}) DETACH DELETE n").close();
+
+        HugeGraph snapshot = graph.snapshot();
+
+        assertEquals(3, snapshot.nodeCount());
+        assertEquals(beforeNodeChanges, relationships(snapshot));
+
+        awaitCompaction();
+        HugeGraph compacted = graph.snapshot();
+
+        assertEquals(3, compacted.nodeCount());
+        assertEquals(reload(), relationships(compacted));
+        assertEquals(beforeNodeChanges, relationships(snapshot));
+        snapshot.release();
+        compacted.release();
+    }
+
+    @Test
+    public void testReleasesReplacedGraphWithTheLastSnapshot() {
+        graph.release();
+        AllocationTracker tracker = AllocationTracker.create();
+        graph = (HugeDeltaGraph) loader()
+                .withAllocationTracker(tracker)
+                .withIncrementalUpdates(true, 0L)
+                .load(HugeGraphFactory.class);
+        HugeGraph snapshot = graph.snapshot();
+        Set<String> before = relationships(snapshot);
+
+        db.execute("MATCH (a {name:'a'}), (b {name:'b'}) CREATE (b)-[:TYPE {w:5}]->(a)").close();
+        graph.compact();
+        long withBothGraphs = tracker.tracked();
+
+        assertEquals(before, relationships(snapshot));
+        snapshot.release();
+        assertTrue(tracker.tracked() < withBothGraphs);
+        assertEquals(reload(), relationships(graph));
+    }
+
+    @Test
+    public void testCompaction() {
+        db.execute("MATCH (a {name:'a'}), (b {name:'b'}) CREATE (b)-[:TYPE {w:5}]->(a)").close();
+        db.execute("MATCH ({name:'c'})-[r:TYPE]->() DELETE r").close();
+        db.execute("MATCH (a {name:'a'}) CREATE (a)-[:TYPE {w:7}]->(:Node {name:'d'})").close();
+
+        graph.compact();
+
+        assertEquals(0, graph.pendingChanges());
+        assertEquals(reload(), relationships(graph));
+        assertNotNull(graph.intersection());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testIntersectionRequiresCompaction() {
+        db.execute("MATCH (a {name:'a'}), (b {name:'b'}) CREATE (b)-[:TYPE {w:5}]->(a)").close();
+        graph.intersection();
+    }
+
+    @Test
+    public void testCompactsAfterThreshold() throws InterruptedException {
+        graph.release();
+        graph = (HugeDeltaGraph) loader().withIncrementalUpdates(true, 2L).load(HugeGraphFactory.class);
+
+        db.execute("MATCH (a {name:'a'}), (b {name:'b'}) CREATE (b)-[:TYPE {w:5}]->(a)").close();
+
+        awaitCompaction();
+        assertEquals(0, graph.pendingChanges());
+        assertEquals(reload(), relationships(graph));
+    }
+
+    @Test
+    public void testReleaseStopsUpdates() {
+        graph.release();
+        graph = (HugeDeltaGraph) loader().withIncrementalUpdates(true, 0L).load(HugeGraphFactory.class);
+        HugeDeltaGraph released = (HugeDeltaGraph) loader().withIncrementalUpdates(true, 0L).load(HugeGraphFactory.class);
+        released.release();
+
+        db.execute("MATCH (a {name:'a'}), (b {name:'b'}) CREATE (b)-[:TYPE {w:5}]->(a)").close();
+
+        assertEquals(2, graph.pendingChanges());
+        assertEquals(0, released.pendingChanges());
+    }
+
+    private void awaitCompaction() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000L;
+        while (graph.pendingChanges() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10L);
+        }
+    }
+
+    private GraphLoader loader() {
+        return new GraphLoader(db, Pools.DEFAULT)
+                .withLabel("Node")
+                .withRelationshipType("TYPE")
+                .withRelationshipWeightsFromProperty("w", 0.0)
+                .withDirection(Direction.BOTH);
+    }
+
+    private Set<String> reload() {
+        return relationships((HugeGraph) loader().load(HugeGraphFactory.class));
+    }
+
+    private long original(String name) {
+        return db.execute("MATCH (n {name:$name}) RETURN id(n) AS id", Collections.singletonMap("name", name))
+                .<Long>columnAs("id")
+                .next();
+    }
+
+    private long id(String name) {
+        return graph.toHugeMappedNodeId(original(name));
+    }
+
+    private static Set<String> relationships(HugeGraph graph) {
+        Set<String> relationships = new TreeSet<>();
+        graph.forEachNode((long node) -> {
+            if (!graph.contains(graph.toOriginalNodeId(node))) {
+                return true;
+            }
+            for (Direction direction : new Direction[]{Direction.OUTGOING, Direction.INCOMING}) {
+                graph.forEachRelationship(node, direction, (s, t, w) -> {
+                    relationships.add(String.format(
+                            "%s %d %d %.1f",
+                            direction,
+                            graph.toOriginalNodeId(s),
+                            graph.toOriginalNodeId(t),
+                            w));
+                    return true;
+                });
+            }
+            return true;
+        });
+        return relationships;
+    }
+}
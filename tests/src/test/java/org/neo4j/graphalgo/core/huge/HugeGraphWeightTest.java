@@ -64,6 +64,26 @@ public final class HugeGraphWeightTest {
         });
     }
 
+    @Test
+    public void shouldLoadCorrectInlineWeights() throws Exception {
+        mkDb(WEIGHT_BATCH_SIZE << 1, 2);
+        HugeGraph graph = loadGraph(db, true);
+
+        graph.forEachNode((long node) -> {
+            graph.forEachRelationship(node, Direction.OUTGOING, (long src, long tgt, double weight) -> {
+                int fakeId = ((int) src << 16) | (int) tgt & 0xFFFF;
+                assertEquals(
+                        "Wrong weight for (" + src + ")->(" + tgt + ")",
+                        fakeId, (long) weight);
+                assertEquals(
+                        "Wrong weight for (" + src + ")->(" + tgt + ")",
+                        fakeId, (long) graph.weightOf(src, tgt));
+                return true;
+            });
+            return true;
+        });
+    }
+
     @Test(timeout = 10000)
     public void shouldLoadMoreWeights() throws Exception {
         mkDb(WEIGHT_BATCH_SIZE, 4);
@@ -106,8 +126,13 @@ public final class HugeGraphWeightTest {
     }
 
     private HugeGraph loadGraph(final GraphDatabaseAPI db) {
+        return loadGraph(db, false);
+    }
+
+    private HugeGraph loadGraph(final GraphDatabaseAPI db, boolean inlineWeights) {
         return (HugeGraph) new GraphLoader(db)
                 .withRelationshipWeightsFromProperty("weight", 0)
+                .withInlineRelationshipWeights(inlineWeights)
                 .withDirection(Direction.OUTGOING)
                 .withExecutorService(Pools.DEFAULT)
                 .withBatchSize(BATCH_SIZE)
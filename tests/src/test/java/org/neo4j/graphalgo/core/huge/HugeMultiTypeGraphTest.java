@@ -0,0 +1,174 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.huge;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.neo4j.graphalgo.TestDatabaseCreator;
+import org.neo4j.graphalgo.api.Graph;
+import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.core.GraphLoader;
+import org.neo4j.graphalgo.core.loading.LoadGraphFactory;
+import org.neo4j.graphalgo.core.utils.Pools;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphdb.Direction;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class HugeMultiTypeGraphTest {
+
+    private static GraphDatabaseService db;
+
+    private static long id1;
+    private static long id2;
+    private static long id3;
+
+    @BeforeClass
+    public static void setUp() {
+        db = TestDatabaseCreator.createTestDatabase();
+
+        db.execute("CREATE (n1)-[:A {w:1}]->(n2)-[:A {w:2}]->(n3) CREATE (n1)-[:B {w:3}]->(n3) CREATE (n3)-[:C {w:4}]->(n1) RETURN id(n1) AS id1, id(n2) AS id2, id(n3) AS id3").accept(row -> {
+            id1 = row.getNumber("id1").longValue();
+            id2 = row.getNumber("id2").longValue();
+            id3 = row.getNumber("id3").longValue();
+            return true;
+        });
+    }
+
+    @AfterClass
+    public static void tearDown() {
+        db.shutdown();
+        LoadGraphFactory.remove("multi");
+    }
+
+    @Test
+    public void testSplitsRelationshipTypes() {
+        HugeMultiTypeGraph graph = load("A|B|C");
+
+        assertArrayEquals(new String[]{"A", "B", "C"}, graph.relationshipTypes());
+        assertEquals(3, graph.nodeCount());
+        assertEquals(2, graph.degree(graph.toHugeMappedNodeId(id1), Direction.OUTGOING));
+        assertEquals(1, graph.degree(graph.toHugeMappedNodeId(id3), Direction.OUTGOING));
+        assertEquals(10, totalWeight(graph));
+
+        HugeGraph a = graph.forRelationshipTypes("A");
+        assertEquals(1, a.degree(graph.toHugeMappedNodeId(id1), Direction.OUTGOING));
+        assertEquals(1, a.degree(graph.toHugeMappedNodeId(id2), Direction.OUTGOING));
+        assertEquals(0, a.degree(graph.toHugeMappedNodeId(id3), Direction.OUTGOING));
+        assertEquals(3, totalWeight(a));
+
+        HugeGraph bc = graph.forRelationshipTypes("B|C");
+        assertEquals(1, bc.degree(graph.toHugeMappedNodeId(id1), Direction.OUTGOING));
+        assertEquals(0, bc.degree(graph.toHugeMappedNodeId(id2), Direction.OUTGOING));
+        assertEquals(1, bc.degree(graph.toHugeMappedNodeId(id3), Direction.OUTGOING));
+        assertEquals(7, totalWeight(bc));
+        assertEquals(3.0, bc.weightOf(graph.toHugeMappedNodeId(id1), graph.toHugeMappedNodeId(id3)), 0.01);
+        assertTrue(bc.exists(graph.toHugeMappedNodeId(id3), graph.toHugeMappedNodeId(id1), Direction.OUTGOING));
+
+        assertSame(graph, graph.forRelationshipTypes(""));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testFailsOnUnloadedType() {
+        load("A|B").forRelationshipTypes("C");
+    }
+
+    @Test
+    public void testSelectsTypesFromNamedGraph() {
+        LoadGraphFactory.set("multi", load("A|B|C"));
+
+        Graph graph = new GraphLoader((GraphDatabaseAPI) db, Pools.DEFAULT)
+                .withName("multi")
+                .withRelationshipType("A")
+                .load(LoadGraphFactory.class);
+        assertEquals(3, totalWeight((HugeGraph) graph));
+
+        graph = new GraphLoader((GraphDatabaseAPI) db, Pools.DEFAULT)
+                .withName("multi")
+                .load(LoadGraphFactory.class);
+        assertEquals(10, totalWeight((HugeGraph) graph));
+    }
+
+    @Test
+    public void testEvictedGraphIsReleasedWithItsLastHolder() {
+        AllocationTracker tracker = AllocationTracker.create();
+        HugeMultiTypeGraph loaded = (HugeMultiTypeGraph) new GraphLoader((GraphDatabaseAPI) db, Pools.DEFAULT)
+                .withAllocationTracker(tracker)
+                .withRelationshipWeightsFromProperty("w", 0)
+                .withRelationshipType("A|B|C")
+                .withSplitRelationshipTypes(true)
+                .withDirection(Direction.OUTGOING)
+                .load(HugeGraphFactory.class);
+        long loadedBytes = tracker.tracked();
+        LoadGraphFactory.set("held", loaded, loadedBytes);
+
+        Graph all = new GraphLoader((GraphDatabaseAPI) db, Pools.DEFAULT)
+                .withName("held")
+                .load(LoadGraphFactory.class);
+        Graph typeA = new GraphLoader((GraphDatabaseAPI) db, Pools.DEFAULT)
+                .withName("held")
+                .withRelationshipType("A")
+                .load(LoadGraphFactory.class);
+        try {
+            assertTrue(LoadGraphFactory.setMemoryBudget(0L).contains("held"));
+        } finally {
+            LoadGraphFactory.setMemoryBudget(LoadGraphFactory.UNLIMITED);
+        }
+        assertFalse(LoadGraphFactory.check("held"));
+
+        assertEquals(10, totalWeight((HugeGraph) all));
+        all.release();
+        all.release();
+        assertEquals(loadedBytes, tracker.tracked());
+        assertEquals(3, totalWeight((HugeGraph) typeA));
+
+        typeA.release();
+        assertTrue(tracker.tracked() < loadedBytes);
+    }
+
+    private HugeMultiTypeGraph load(String types) {
+        return (HugeMultiTypeGraph) new GraphLoader((GraphDatabaseAPI) db, Pools.DEFAULT)
+                .withRelationshipWeightsFromProperty("w", 0)
+                .withRelationshipType(types)
+                .withSplitRelationshipTypes(true)
+                .withDirection(Direction.OUTGOING)
+                .load(HugeGraphFactory.class);
+    }
+
+    private static int totalWeight(HugeGraph graph) {
+        AtomicInteger total = new AtomicInteger();
+        graph.forEachNode((long n) -> {
+            graph.forEachRelationship(n, Direction.OUTGOING, (s, t, w) -> {
+                total.addAndGet((int) w);
+                return true;
+            });
+            return true;
+        });
+        return total.get();
+    }
+}
@@ -0,0 +1,176 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.huge;
+
+import com.carrotsearch.hppc.DoubleArrayList;
+import com.carrotsearch.hppc.LongArrayList;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.neo4j.graphalgo.TestDatabaseCreator;
+import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.api.HugeNeighbourCursor;
+import org.neo4j.graphalgo.api.HugeWeightedRelationshipConsumer;
+import org.neo4j.graphalgo.core.GraphLoader;
+import org.neo4j.graphalgo.core.utils.Pools;
+import org.neo4j.graphdb.Direction;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class HugeNeighbourBatchTest {
+
+    private static final Direction[] DIRECTIONS = {Direction.OUTGOING, Direction.INCOMING, Direction.BOTH};
+
+    private static GraphDatabaseService db;
+
+    @BeforeClass
+    public static void setUp() {
+        db = TestDatabaseCreator.createTestDatabase();
+        // a few hubs with more neighbours than a decompression block
+        db.execute("UNWIND range(0, 499) AS i CREATE (:Node {id: i})").close();
+        db.execute("MATCH (a:Node), (b:Node) WHERE a.id <> b.id AND " +
+                "((a.id % 50 = 0 AND b.id % 3 = 0) OR (a.id + 2 * b.id) % 97 = 0) " +
+                "CREATE (a)-[:A {w: a.id + b.id}]->(b)").close();
+        db.execute("MATCH (a:Node), (b:Node) WHERE (a.id * 7 + b.id) % 211 = 0 " +
+                "CREATE (a)-[:B {w: a.id * b.id}]->(b)").close();
+    }
+
+    @AfterClass
+    public static void tearDown() {
+        db.shutdown();
+    }
+
+    @Test
+    public void testBatchesMatchRelationships() {
+        for (boolean inline : new boolean[]{false, true}) {
+            for (boolean skipIndex : new boolean[]{false, true}) {
+                HugeGraph graph = (HugeGraph) loader("A")
+                        .withInlineRelationshipWeights(inline)
+                        .withAdjacencySkipIndex(skipIndex)
+                        .load(HugeGraphFactory.class);
+                assertBatchesMatch(graph);
+            }
+        }
+    }
+
+    @Test
+    public void testBatchesOfDeltaGraphWithPendingChanges() {
+        HugeDeltaGraph graph = (HugeDeltaGraph) loader("A")
+                .withIncrementalUpdates(true, 0L)
+                .load(HugeGraphFactory.class);
+        assertBatchesMatch(graph);
+        try {
+            db.execute("MATCH (a:Node {id: 0}), (b:Node) WHERE b.id % 5 = 1 CREATE (a)-[:A {w: 1}]->(b)").close();
+            db.execute("MATCH (:Node {id: 50})-[r:A]->(b) WHERE b.id % 2 = 0 DELETE r").close();
+            assertTrue(graph.pendingChanges() > 0L);
+            assertBatchesMatch(graph);
+        } finally {
+            graph.release();
+        }
+    }
+
+    @Test
+    public void testBatchesOfMultiTypeGraph() {
+        HugeMultiTypeGraph graph = (HugeMultiTypeGraph) loader("A|B")
+                .withSplitRelationshipTypes(true)
+                .load(HugeGraphFactory.class);
+        assertBatchesMatch(graph);
+        assertBatchesMatch(graph.forRelationshipTypes("B"));
+    }
+
+    private static GraphLoader loader(String types) {
+        return new GraphLoader((GraphDatabaseAPI) db, Pools.DEFAULT)
+                .withLabel("Node")
+                .withRelationshipType(types)
+                .withRelationshipWeightsFromProperty("w", 0.0)
+                .withDirection(Direction.BOTH);
+    }
+
+    private static void assertBatchesMatch(HugeGraph graph) {
+        for (int batchSize : new int[]{1, 7, 64, 1000}) {
+            long[] targets = new long[batchSize];
+            double[] weights = new double[batchSize];
+            for (Direction direction : DIRECTIONS) {
+                for (long node = 0L; node < graph.nodeCount(); node++) {
+                    LongArrayList expectedTargets = new LongArrayList();
+                    DoubleArrayList expectedWeights = new DoubleArrayList();
+                    expected(graph, node, direction, expectedTargets, expectedWeights);
+
+                    LongArrayList actualTargets = new LongArrayList();
+                    HugeNeighbourCursor cursor = graph.neighbours(node, direction);
+                    int read;
+                    while ((read = cursor.nextBatch(targets)) > 0) {
+                        assertTrue(read <= batchSize);
+                        actualTargets.add(targets, 0, read);
+                    }
+                    assertArrayEquals(expectedTargets.toArray(), actualTargets.toArray());
+
+                    actualTargets.clear();
+                    DoubleArrayList actualWeights = new DoubleArrayList();
+                    cursor = graph.neighbours(node, direction);
+                    while ((read = cursor.nextBatch(targets, weights)) > 0) {
+                        actualTargets.add(targets, 0, read);
+                        actualWeights.add(weights, 0, read);
+                    }
+                    assertArrayEquals(expectedTargets.toArray(), actualTargets.toArray());
+                    assertArrayEquals(expectedWeights.toArray(), actualWeights.toArray(), 0.0);
+                }
+            }
+        }
+    }
+
+    /**
+     * The relationships of each direction sorted by target, outgoing before incoming.
+     */
+    private static void expected(
+            HugeGraph graph,
+            long node,
+            Direction direction,
+            LongArrayList targets,
+            DoubleArrayList weights) {
+        for (Direction d : new Direction[]{Direction.OUTGOING, Direction.INCOMING}) {
+            if (direction != Direction.BOTH && direction != d) {
+                continue;
+            }
+            LongArrayList segment = new LongArrayList();
+            DoubleArrayList segmentWeights = new DoubleArrayList();
+            graph.forEachRelationship(node, d, (HugeWeightedRelationshipConsumer) (s, t, w) -> {
+                segment.add(t);
+                segmentWeights.add(w);
+                return true;
+            });
+            assertEquals(graph.degree(node, d), segment.size());
+            Integer[] order = new Integer[segment.size()];
+            for (int i = 0; i < order.length; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> Long.compare(segment.get(a), segment.get(b)));
+            for (int i : order) {
+                targets.add(segment.get(i));
+                weights.add(segmentWeights.get(i));
+            }
+        }
+    }
+}
@@ -0,0 +1,179 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.huge;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.neo4j.graphalgo.PropertyMapping;
+import org.neo4j.graphalgo.TestDatabaseCreator;
+import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.api.HugeWeightedRelationshipConsumer;
+import org.neo4j.graphalgo.api.NodeOrder;
+import org.neo4j.graphalgo.core.GraphLoader;
+import org.neo4j.graphalgo.core.utils.Pools;
+import org.neo4j.graphdb.Direction;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class HugeNodeOrderingTest {
+
+    private static GraphDatabaseService db;
+
+    @BeforeClass
+    public static void setUp() {
+        db = TestDatabaseCreator.createTestDatabase();
+        db.execute("UNWIND range(0, 199) AS i CREATE (:Node {id: i, value: i * 2})").close();
+        // four interleaved clusters that are connected by a chain through all nodes
+        db.execute("MATCH (a:Node), (b:Node) " +
+                "WHERE a.id < 180 AND b.id < 180 AND a.id <> b.id AND a.id % 4 = b.id % 4 AND (a.id * b.id * 31 + a.id * 7 + b.id * 3) % 3 = 0 " +
+                "CREATE (a)-[:REL {w: a.id + b.id}]->(b)").close();
+        db.execute("MATCH (a:Node), (b:Node) WHERE b.id = a.id + 1 AND a.id < 190 " +
+                "CREATE (a)-[:REL {w: 1}]->(b)").close();
+        db.execute("MATCH (a:Node), (b:Node) WHERE a.id % 20 = 3 AND b.id = a.id + 7 " +
+                "CREATE (a)-[:OTHER {w: 5}]->(b)").close();
+    }
+
+    @AfterClass
+    public static void tearDown() {
+        db.shutdown();
+    }
+
+    @Test
+    public void testReorderedGraphsHaveTheSameRelationships() {
+        for (NodeOrder order : NodeOrder.values()) {
+            for (boolean inlineWeights : new boolean[]{false, true}) {
+                Set<String> expected = relationships(load(NodeOrder.NONE, inlineWeights), Direction.BOTH);
+                Set<String> actual = relationships(load(order, inlineWeights), Direction.BOTH);
+                assertEquals(order + " inlineWeights=" + inlineWeights, expected, actual);
+            }
+        }
+    }
+
+    @Test
+    public void testReorderedUndirectedGraphs() {
+        for (NodeOrder order : NodeOrder.values()) {
+            Set<String> expected = relationships(load(NodeOrder.NONE, false).asUndirected(true), Direction.OUTGOING);
+            Set<String> actual = relationships(load(order, false).asUndirected(true), Direction.OUTGOING);
+            assertEquals(order.toString(), expected, actual);
+        }
+    }
+
+    @Test
+    public void testReorderedSplitRelationshipTypes() {
+        for (NodeOrder order : NodeOrder.values()) {
+            HugeMultiTypeGraph expected = (HugeMultiTypeGraph) load(NodeOrder.NONE, false)
+                    .withRelationshipType("REL|OTHER")
+                    .withSplitRelationshipTypes(true)
+                    .load(HugeGraphFactory.class);
+            HugeMultiTypeGraph actual = (HugeMultiTypeGraph) load(order, false)
+                    .withRelationshipType("REL|OTHER")
+                    .withSplitRelationshipTypes(true)
+                    .load(HugeGraphFactory.class);
+            assertEquals(
+                    order.toString(),
+                    relationships(expected, Direction.BOTH),
+                    relationships(actual, Direction.BOTH));
+            assertEquals(
+                    order.toString(),
+                    relationships(expected.forRelationshipTypes("OTHER"), Direction.BOTH),
+                    relationships(actual.forRelationshipTypes("OTHER"), Direction.BOTH));
+        }
+    }
+
+    @Test
+    public void testDegreeOrder() {
+        HugeGraph graph = (HugeGraph) load(NodeOrder.DEGREE, false).load(HugeGraphFactory.class);
+        for (long node = 1L; node < graph.nodeCount(); node++) {
+            assertTrue(graph.degree(node - 1, Direction.BOTH) >= graph.degree(node, Direction.BOTH));
+        }
+    }
+
+    @Test
+    public void testBfsOrderVisitsNeighboursInOneBatch() {
+        HugeGraph graph = (HugeGraph) load(NodeOrder.BFS, false).load(HugeGraphFactory.class);
+        long hub = 0L;
+        // the neighbours of the start node are numbered right after it
+        int degree = graph.degree(hub, Direction.BOTH);
+        graph.forEachRelationship(hub, Direction.BOTH, (source, target) -> {
+            assertTrue(target <= degree);
+            return true;
+        });
+    }
+
+    @Test
+    public void testCommunityOrderKeepsClustersTogether() {
+        HugeGraph graph = (HugeGraph) load(NodeOrder.COMMUNITY, false).load(HugeGraphFactory.class);
+        int changes = 0;
+        long previousCluster = -1L;
+        for (long node = 0L; node < graph.nodeCount(); node++) {
+            long id = (long) graph.nodeProperties("id").get(node);
+            if (id < 180L) {
+                if (previousCluster != -1L && previousCluster != id % 4) {
+                    changes++;
+                }
+                previousCluster = id % 4;
+            }
+        }
+        // the scan order changes the cluster with every node
+        assertTrue("nodes of the clusters are interleaved: " + changes, changes < 45);
+    }
+
+    private GraphLoader load(NodeOrder order, boolean inlineWeights) {
+        return new GraphLoader((GraphDatabaseAPI) db, Pools.DEFAULT)
+                .withLabel("Node")
+                .withRelationshipType("REL")
+                .withRelationshipWeightsFromProperty("w", 0.0)
+                .withInlineRelationshipWeights(inlineWeights)
+                .withOptionalNodeProperties(PropertyMapping.of("id", "id", -1.0), PropertyMapping.of("value", "value", 0.0))
+                .withDirection(Direction.BOTH)
+                .withNodeOrder(order);
+    }
+
+    private static Set<String> relationships(GraphLoader loader, Direction direction) {
+        return relationships((HugeGraph) loader.load(HugeGraphFactory.class), direction);
+    }
+
+    private static Set<String> relationships(HugeGraph graph, Direction loadedDirection) {
+        Set<String> relationships = new TreeSet<>();
+        graph.forEachNode((long node) -> {
+            long original = graph.toOriginalNodeId(node);
+            assertEquals(node, graph.toHugeMappedNodeId(original));
+            relationships.add(original + " id=" + graph.nodeProperties("id").get(node) +
+                    " value=" + graph.nodeProperties("value").get(node));
+            Direction[] directions = loadedDirection == Direction.BOTH
+                    ? new Direction[]{Direction.OUTGOING, Direction.INCOMING}
+                    : new Direction[]{loadedDirection};
+            for (Direction direction : directions) {
+                graph.forEachRelationship(node, direction, (HugeWeightedRelationshipConsumer) (s, t, w) -> {
+                    relationships.add(direction + " " + original + " " + graph.toOriginalNodeId(t) + " " + w);
+                    return true;
+                });
+            }
+            return true;
+        });
+        return relationships;
+    }
+}
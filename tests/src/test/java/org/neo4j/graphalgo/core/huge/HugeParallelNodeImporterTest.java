@@ -0,0 +1,116 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.huge;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.neo4j.graphalgo.PropertyMapping;
+import org.neo4j.graphalgo.TestDatabaseCreator;
+import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.core.GraphLoader;
+import org.neo4j.graphalgo.core.utils.Pools;
+import org.neo4j.graphalgo.core.utils.paged.SparseLongArray;
+import org.neo4j.graphdb.Direction;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.internal.kernel.api.Read;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class HugeParallelNodeImporterTest {
+
+    private static GraphDatabaseService db;
+
+    @BeforeClass
+    public static void setUp() {
+        db = TestDatabaseCreator.createTestDatabase();
+        // spans several pages of the id space, with gaps of deleted nodes and nodes without the label
+        db.execute("UNWIND range(0, 19999) AS i CREATE (n:Node {id: i}) " +
+                "WITH n, i WHERE i % 3 = 0 SET n.value = i * 2 " +
+                "WITH n, i WHERE i % 7 = 0 REMOVE n:Node SET n:Other").close();
+        db.execute("MATCH (n) WHERE n.id >= 5000 AND n.id < 9500 DETACH DELETE n").close();
+        db.execute("MATCH (n:Node) WITH n ORDER BY n.id WITH collect(n) AS nodes " +
+                "UNWIND range(1, size(nodes) - 1) AS i WITH nodes[i - 1] AS a, nodes[i] AS b " +
+                "CREATE (a)-[:REL]->(b)").close();
+    }
+
+    @AfterClass
+    public static void tearDown() {
+        db.shutdown();
+    }
+
+    @Test
+    public void testPartitionsAreAlignedToPages() {
+        long pageSize = SparseLongArray.pageSize();
+        for (long allNodesCount : new long[]{pageSize + 1, 100_000L, 123_456_789L, 10_000_000_000L}) {
+            long partitionSize = HugeParallelNodeImporter.partitionSize(allNodesCount, 8);
+            assertEquals(0L, partitionSize % pageSize);
+            assertTrue(partitionSize > 0L);
+        }
+    }
+
+    @Test
+    public void testOnlyScansTheIdSpaceForUnselectiveLabels() {
+        long allNodesCount = 100_000L;
+        assertTrue(HugeParallelNodeImporter.canRunInParallel(allNodesCount, allNodesCount, Read.ANY_LABEL));
+        assertTrue(HugeParallelNodeImporter.canRunInParallel(80_000L, allNodesCount, 1));
+        assertFalse(HugeParallelNodeImporter.canRunInParallel(1_000L, allNodesCount, 1));
+        assertFalse(HugeParallelNodeImporter.canRunInParallel(10L, 10L, Read.ANY_LABEL));
+    }
+
+    @Test
+    public void testParallelScanMatchesSequentialScan() {
+        for (String label : new String[]{"Node", "Other", null}) {
+            HugeGraph expected = load(label, 1);
+            HugeGraph actual = load(label, 4);
+
+            assertEquals(expected.nodeCount(), actual.nodeCount());
+            assertEquals(expected.relationshipCount(), actual.relationshipCount());
+            for (long node = 0L; node < expected.nodeCount(); node++) {
+                long original = expected.toOriginalNodeId(node);
+                assertEquals(original, actual.toOriginalNodeId(node));
+                assertEquals(node, actual.toHugeMappedNodeId(original));
+                assertEquals(
+                        expected.nodeProperties("value").get(node),
+                        actual.nodeProperties("value").get(node),
+                        0.0);
+                assertEquals(
+                        expected.nodeProperties("id").get(node),
+                        actual.nodeProperties("id").get(node),
+                        0.0);
+                assertEquals(expected.degree(node, Direction.OUTGOING), actual.degree(node, Direction.OUTGOING));
+            }
+        }
+    }
+
+    private HugeGraph load(String label, int concurrency) {
+        return (HugeGraph) new GraphLoader((GraphDatabaseAPI) db, Pools.DEFAULT)
+                .withConcurrency(concurrency)
+                .withOptionalLabel(label)
+                .withRelationshipType("REL")
+                .withDirection(Direction.OUTGOING)
+                .withOptionalNodeProperties(
+                        PropertyMapping.of("value", "value", -1.0),
+                        PropertyMapping.ofLong("id", "id", -1L))
+                .load(HugeGraphFactory.class);
+    }
+}
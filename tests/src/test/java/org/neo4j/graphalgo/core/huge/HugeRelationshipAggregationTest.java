@@ -0,0 +1,167 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.huge;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.neo4j.graphalgo.TestDatabaseCreator;
+import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.api.HugeWeightedRelationshipConsumer;
+import org.neo4j.graphalgo.api.RelationshipAggregation;
+import org.neo4j.graphalgo.core.GraphLoader;
+import org.neo4j.graphdb.Direction;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+
+import static org.junit.Assert.assertEquals;
+
+public class HugeRelationshipAggregationTest {
+
+    private static GraphDatabaseService db;
+
+    private static long a;
+    private static long b;
+    private static long c;
+
+    @BeforeClass
+    public static void setUp() {
+        db = TestDatabaseCreator.createTestDatabase();
+        db.execute("CREATE (a:Node), (b:Node), (c:Node) " +
+                "CREATE (a)-[:REL {w: 1}]->(b), (a)-[:REL {w: 2}]->(b), (a)-[:REL {w: 6}]->(b) " +
+                "CREATE (b)-[:REL {w: 4}]->(a), (a)-[:REL {w: 5}]->(c) " +
+                "RETURN id(a) AS a, id(b) AS b, id(c) AS c").accept(row -> {
+            a = row.getNumber("a").longValue();
+            b = row.getNumber("b").longValue();
+            c = row.getNumber("c").longValue();
+            return true;
+        });
+    }
+
+    @AfterClass
+    public static void tearDown() {
+        db.shutdown();
+    }
+
+    @Test
+    public void testParallelRelationshipsAreCollapsed() {
+        for (RelationshipAggregation aggregation : RelationshipAggregation.values()) {
+            for (boolean inline : new boolean[]{false, true}) {
+                HugeGraph graph = load(loader(aggregation, inline).withDirection(Direction.BOTH));
+                assertEquals(3, graph.relationshipCount());
+                assertEquals(2, graph.degree(graph.toHugeMappedNodeId(a), Direction.OUTGOING));
+                assertEquals(1, graph.degree(graph.toHugeMappedNodeId(b), Direction.INCOMING));
+            }
+        }
+    }
+
+    @Test
+    public void testAggregateOutgoing() {
+        double[] expected = {9.0, 1.0, 6.0, 3.0};
+        RelationshipAggregation[] aggregations = {
+                RelationshipAggregation.SUM,
+                RelationshipAggregation.MIN,
+                RelationshipAggregation.MAX,
+                RelationshipAggregation.COUNT};
+        for (int i = 0; i < aggregations.length; i++) {
+            for (boolean inline : new boolean[]{false, true}) {
+                HugeGraph graph = load(loader(aggregations[i], inline).withDirection(Direction.OUTGOING));
+                assertEquals(expected[i], weight(graph, a, b, Direction.OUTGOING), 0.0);
+                assertEquals(expected[i], graph.weightOf(graph.toHugeMappedNodeId(a), graph.toHugeMappedNodeId(b)), 0.0);
+                assertEquals(i == 3 ? 1.0 : 5.0, weight(graph, a, c, Direction.OUTGOING), 0.0);
+            }
+        }
+    }
+
+    @Test
+    public void testAggregateIncomingAndBoth() {
+        for (Direction direction : new Direction[]{Direction.INCOMING, Direction.BOTH}) {
+            for (boolean inline : new boolean[]{false, true}) {
+                HugeGraph graph = load(loader(RelationshipAggregation.SUM, inline).withDirection(direction));
+                assertEquals(9.0, weight(graph, b, a, Direction.INCOMING), 0.0);
+                assertEquals(4.0, weight(graph, a, b, Direction.INCOMING), 0.0);
+            }
+        }
+    }
+
+    @Test
+    public void testAggregateUndirected() {
+        for (boolean inline : new boolean[]{false, true}) {
+            HugeGraph graph = load(loader(RelationshipAggregation.MAX, inline).asUndirected(true));
+            assertEquals(2, graph.degree(graph.toHugeMappedNodeId(a), Direction.OUTGOING));
+            assertEquals(6.0, weight(graph, a, b, Direction.OUTGOING), 0.0);
+            assertEquals(6.0, weight(graph, b, a, Direction.OUTGOING), 0.0);
+
+            graph = load(loader(RelationshipAggregation.COUNT, inline).asUndirected(true));
+            assertEquals(4.0, weight(graph, a, b, Direction.OUTGOING), 0.0);
+            assertEquals(4.0, weight(graph, b, a, Direction.OUTGOING), 0.0);
+            assertEquals(1.0, weight(graph, c, a, Direction.OUTGOING), 0.0);
+        }
+    }
+
+    @Test
+    public void testCountWithoutWeightProperty() {
+        HugeGraph graph = load(new GraphLoader((GraphDatabaseAPI) db)
+                .withLabel("Node")
+                .withRelationshipType("REL")
+                .withDirection(Direction.OUTGOING)
+                .withRelationshipAggregation(RelationshipAggregation.COUNT));
+        assertEquals(3.0, weight(graph, a, b, Direction.OUTGOING), 0.0);
+        assertEquals(1.0, weight(graph, b, a, Direction.OUTGOING), 0.0);
+    }
+
+    @Test
+    public void testAccumulateWeightsSumsUp() {
+        HugeGraph graph = load(new GraphLoader((GraphDatabaseAPI) db)
+                .withLabel("Node")
+                .withRelationshipType("REL")
+                .withDirection(Direction.OUTGOING)
+                .withRelationshipWeightsFromProperty("w", 0.0)
+                .withAccumulateWeights(true));
+        assertEquals(9.0, weight(graph, a, b, Direction.OUTGOING), 0.0);
+    }
+
+    private GraphLoader loader(RelationshipAggregation aggregation, boolean inline) {
+        return new GraphLoader((GraphDatabaseAPI) db)
+                .withLabel("Node")
+                .withRelationshipType("REL")
+                .withRelationshipWeightsFromProperty("w", 0.0)
+                .withInlineRelationshipWeights(inline)
+                .withRelationshipAggregation(aggregation);
+    }
+
+    private static HugeGraph load(GraphLoader loader) {
+        return (HugeGraph) loader.load(HugeGraphFactory.class);
+    }
+
+    private static double weight(HugeGraph graph, long source, long target, Direction direction) {
+        long mappedTarget = graph.toHugeMappedNodeId(target);
+        double[] weight = {Double.NaN};
+        graph.forEachRelationship(
+                graph.toHugeMappedNodeId(source),
+                direction,
+                (HugeWeightedRelationshipConsumer) (s, t, w) -> {
+                    if (t == mappedTarget) {
+                        weight[0] = w;
+                    }
+                    return true;
+                });
+        return weight[0];
+    }
+}
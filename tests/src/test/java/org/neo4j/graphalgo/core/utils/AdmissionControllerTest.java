@@ -0,0 +1,162 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.utils;
+
+import org.junit.Test;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class AdmissionControllerTest {
+
+    private final AdmissionController controller = new AdmissionController(4, 1000L);
+
+    @Test
+    public void testConcurrencyIsReducedToBudget() {
+        try (AdmissionController.Reservation reservation = reserve(64, 100L, 0L)) {
+            assertEquals(4, reservation.concurrency());
+            assertEquals(4, controller.reservedThreads());
+            assertEquals(100L, controller.reservedBytes());
+            assertEquals(1, controller.reservations().size());
+        }
+        assertEquals(0, controller.reservedThreads());
+        assertEquals(0L, controller.reservedBytes());
+        assertTrue(controller.reservations().isEmpty());
+    }
+
+    @Test
+    public void testUnlimitedControllerAdmitsEveryJob() {
+        AdmissionController unlimited = AdmissionController.unlimited();
+        assertFalse(unlimited.isLimited());
+        AllocationTracker tracker = AllocationTracker.EMPTY;
+        try (AdmissionController.Reservation first =
+                     unlimited.reserve("first", 1024, Long.MAX_VALUE, tracker, 0L, TerminationFlag.RUNNING_TRUE);
+             AdmissionController.Reservation second =
+                     unlimited.reserve("second", 1024, Long.MAX_VALUE, tracker, 0L, TerminationFlag.RUNNING_TRUE)) {
+            assertEquals(1024, first.concurrency());
+            assertEquals(1024, second.concurrency());
+            assertEquals(2, unlimited.reservations().size());
+        }
+        assertTrue(unlimited.reservations().isEmpty());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testRejectsJobsLargerThanTheBudget() {
+        reserve(1, 1001L, 1000L);
+    }
+
+    @Test
+    public void testRejectsJobsWithoutTimeoutIfBudgetIsExhausted() {
+        try (AdmissionController.Reservation ignored = reserve(3, 600L, 0L)) {
+            assertRejected(2, 100L);
+            assertRejected(1, 500L);
+            // fits into the remaining budget
+            reserve(1, 400L, 0L).close();
+        }
+    }
+
+    @Test
+    public void testTrackedBytesAboveEstimateAreReserved() {
+        AllocationTracker tracker = AllocationTracker.create();
+        try (AdmissionController.Reservation reservation =
+                     controller.reserve("job", 1, 100L, tracker, 0L, TerminationFlag.RUNNING_TRUE)) {
+            tracker.add(800L);
+            assertEquals(800L, reservation.reservedBytes());
+            assertEquals(800L, controller.reservedBytes());
+            assertRejected(1, 300L);
+        }
+    }
+
+    @Test
+    public void testWaitingJobIsAdmittedOnRelease() throws Exception {
+        AdmissionController.Reservation first = reserve(4, 100L, 0L);
+        CompletableFuture<AdmissionController.Reservation> second =
+                CompletableFuture.supplyAsync(() -> reserve(2, 100L, 10_000L));
+        awaitWaiting(1L);
+        assertFalse(second.isDone());
+
+        first.close();
+        AdmissionController.Reservation reservation = second.get(10L, TimeUnit.SECONDS);
+        assertEquals(2, reservation.concurrency());
+        assertEquals(0L, controller.waitingJobs());
+        reservation.close();
+    }
+
+    @Test
+    public void testTimedOutJobDoesNotBlockLaterJobs() throws Exception {
+        AdmissionController.Reservation first = reserve(4, 100L, 0L);
+        CompletableFuture<AdmissionController.Reservation> timingOut =
+                CompletableFuture.supplyAsync(() -> reserve(1, 100L, 50L));
+        CompletableFuture<AdmissionController.Reservation> waiting =
+                CompletableFuture.supplyAsync(() -> reserve(1, 100L, 10_000L));
+        try {
+            timingOut.get(10L, TimeUnit.SECONDS);
+            fail("expected the job to time out");
+        } catch (Exception e) {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+
+        first.close();
+        waiting.get(10L, TimeUnit.SECONDS).close();
+        assertEquals(0L, controller.waitingJobs());
+    }
+
+    @Test
+    public void testTerminatedJobStopsWaiting() {
+        try (AdmissionController.Reservation ignored = reserve(4, 100L, 0L)) {
+            controller.reserve("job", 1, 100L, AllocationTracker.EMPTY, 10_000L, () -> false);
+            fail("expected the job to be terminated");
+        } catch (IllegalStateException e) {
+            assertTrue(e.getMessage().contains("terminated"));
+        }
+        assertEquals(0L, controller.waitingJobs());
+    }
+
+    private AdmissionController.Reservation reserve(int concurrency, long bytes, long timeout) {
+        return controller.reserve(
+                "job",
+                concurrency,
+                bytes,
+                AllocationTracker.EMPTY,
+                timeout,
+                TerminationFlag.RUNNING_TRUE);
+    }
+
+    private void assertRejected(int concurrency, long bytes) {
+        try {
+            reserve(concurrency, bytes, 0L).close();
+            fail("expected the job to be rejected");
+        } catch (IllegalStateException expected) {
+        }
+    }
+
+    private void awaitWaiting(long jobs) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000L;
+        while (controller.waitingJobs() < jobs && System.currentTimeMillis() < deadline) {
+            Thread.sleep(1L);
+        }
+        assertEquals(jobs, controller.waitingJobs());
+    }
+}
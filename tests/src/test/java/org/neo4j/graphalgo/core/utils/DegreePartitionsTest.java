@@ -0,0 +1,159 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.utils;
+
+import org.junit.Test;
+import org.neo4j.graphalgo.api.HugeDegrees;
+import org.neo4j.graphdb.Direction;
+
+import java.util.BitSet;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class DegreePartitionsTest {
+
+    private static final int NODE_COUNT = 10_000;
+
+    @Test
+    public void testPartitionsCoverAllNodes() {
+        HugeDegrees degrees = powerLaw(42L);
+        for (boolean workStealing : new boolean[]{false, true}) {
+            DegreePartitions partitions = ParallelUtil.hugeDegreePartitions(
+                    NODE_COUNT,
+                    degrees,
+                    Direction.OUTGOING,
+                    4,
+                    workStealing);
+            long expectedStart = 0L;
+            for (int partition = 0; partition < partitions.size(); partition++) {
+                assertEquals(expectedStart, partitions.start(partition));
+                assertTrue(partitions.end(partition) > partitions.start(partition));
+                expectedStart = partitions.end(partition);
+            }
+            assertEquals(NODE_COUNT, expectedStart);
+        }
+    }
+
+    @Test
+    public void testStaticPartitionsAreBalancedByRelationships() {
+        HugeDegrees degrees = powerLaw(1337L);
+        int concurrency = 8;
+        DegreePartitions partitions = ParallelUtil.hugeDegreePartitions(
+                NODE_COUNT,
+                degrees,
+                Direction.OUTGOING,
+                concurrency,
+                false);
+        assertTrue(partitions.size() <= concurrency);
+
+        long total = 0L;
+        long max = 0L;
+        long maxNodeWeight = 0L;
+        for (int partition = 0; partition < partitions.size(); partition++) {
+            long weight = 0L;
+            for (long node = partitions.start(partition); node < partitions.end(partition); node++) {
+                long nodeWeight = degrees.degree(node, Direction.OUTGOING) + 1L;
+                weight += nodeWeight;
+                maxNodeWeight = Math.max(maxNodeWeight, nodeWeight);
+            }
+            total += weight;
+            max = Math.max(max, weight);
+        }
+        // no partition exceeds its share by more than a single node
+        assertTrue(max <= ParallelUtil.threadSize(concurrency, total) + maxNodeWeight);
+    }
+
+    @Test
+    public void testHubGetsItsOwnPartition() {
+        HugeDegrees degrees = (node, direction) -> node == 500L ? 1_000_000 : 1;
+        DegreePartitions partitions = ParallelUtil.hugeDegreePartitions(
+                1000L,
+                degrees,
+                Direction.OUTGOING,
+                4,
+                false);
+        boolean found = false;
+        for (int partition = 0; partition < partitions.size(); partition++) {
+            if (partitions.end(partition) == 501L) {
+                found = true;
+            }
+        }
+        assertTrue(found);
+        assertEquals(2, partitions.size());
+    }
+
+    @Test
+    public void testWorkStealingPartitionsShrinkTowardsTheEnd() {
+        HugeDegrees degrees = (node, direction) -> 9;
+        DegreePartitions partitions = ParallelUtil.hugeDegreePartitions(
+                NODE_COUNT,
+                degrees,
+                Direction.OUTGOING,
+                4,
+                true);
+        assertTrue(partitions.size() > 4);
+        long first = partitions.end(0) - partitions.start(0);
+        int last = partitions.size() - 1;
+        assertTrue(first > partitions.end(last) - partitions.start(last));
+        assertEquals(NODE_COUNT / 4, first);
+    }
+
+    @Test
+    public void testClaimHandsOutEveryPartitionOnce() throws Exception {
+        DegreePartitions partitions = ParallelUtil.hugeDegreePartitions(
+                NODE_COUNT,
+                powerLaw(7L),
+                Direction.OUTGOING,
+                4,
+                true);
+        for (int round = 0; round < 2; round++) {
+            BitSet claimed = new BitSet();
+            Thread[] threads = new Thread[4];
+            for (int i = 0; i < threads.length; i++) {
+                threads[i] = new Thread(() -> {
+                    int partition;
+                    while ((partition = partitions.claim()) != -1) {
+                        synchronized (claimed) {
+                            assertTrue(!claimed.get(partition));
+                            claimed.set(partition);
+                        }
+                    }
+                });
+                threads[i].start();
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            assertEquals(partitions.size(), claimed.cardinality());
+            assertEquals(-1, partitions.claim());
+            partitions.reset();
+        }
+    }
+
+    private static HugeDegrees powerLaw(long seed) {
+        Random random = new Random(seed);
+        int[] degrees = new int[NODE_COUNT];
+        for (int i = 0; i < NODE_COUNT; i++) {
+            degrees[i] = (int) Math.min(100_000, Math.pow(random.nextDouble(), -1.5));
+        }
+        return (node, direction) -> degrees[(int) node];
+    }
+}
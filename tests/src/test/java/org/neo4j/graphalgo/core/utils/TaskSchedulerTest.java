@@ -0,0 +1,166 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.utils;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class TaskSchedulerTest {
+
+    private TaskScheduler scheduler;
+
+    @Before
+    public void setUp() {
+        scheduler = new TaskScheduler(2, 4, "test");
+    }
+
+    @After
+    public void tearDown() throws InterruptedException {
+        scheduler.shutdownNow();
+        scheduler.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    @Test(timeout = 10_000)
+    public void testNestedParallelCallsDoNotDeadlock() {
+        AtomicInteger leaves = new AtomicInteger();
+        List<Runnable> outer = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            outer.add(() -> ParallelUtil.runWithConcurrency(
+                    2,
+                    tasks(16, leaves::incrementAndGet),
+                    scheduler));
+        }
+        ParallelUtil.runWithConcurrency(4, outer, scheduler);
+        assertEquals(8 * 16, leaves.get());
+    }
+
+    @Test(timeout = 10_000)
+    public void testConcurrentCallersRunAllTasks() throws InterruptedException {
+        AtomicInteger executed = new AtomicInteger();
+        Thread[] callers = new Thread[8];
+        for (int i = 0; i < callers.length; i++) {
+            callers[i] = new Thread(() -> ParallelUtil.runWithConcurrency(
+                    4,
+                    tasks(500, executed::incrementAndGet),
+                    scheduler));
+            callers[i].start();
+        }
+        for (Thread caller : callers) {
+            caller.join();
+        }
+        assertEquals(8 * 500, executed.get());
+    }
+
+    @Test(timeout = 10_000)
+    public void testGroupRespectsConcurrency() {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        TaskScheduler wide = new TaskScheduler(8, 64, "wide");
+        try {
+            ParallelUtil.runWithConcurrency(2, tasks(64, () -> {
+                int current = running.incrementAndGet();
+                maxRunning.accumulateAndGet(current, Math::max);
+                sleep(1L);
+                running.decrementAndGet();
+            }), wide);
+        } finally {
+            wide.shutdownNow();
+        }
+        assertTrue(maxRunning.get() <= 2);
+    }
+
+    @Test(timeout = 10_000)
+    public void testErrorsArePropagated() {
+        AtomicInteger executed = new AtomicInteger();
+        List<Runnable> tasks = tasks(10, executed::incrementAndGet);
+        tasks.add(() -> {
+            throw new IllegalStateException("failed task");
+        });
+        try {
+            ParallelUtil.runWithConcurrency(2, tasks, scheduler);
+            fail("the error of the task was swallowed");
+        } catch (IllegalStateException e) {
+            assertEquals("failed task", e.getMessage());
+        }
+        assertEquals(10, executed.get());
+    }
+
+    @Test
+    public void testAvailableThreadsAreBoundByTheParallelism() {
+        assertEquals(2, ParallelUtil.availableThreads(scheduler, 4));
+        assertEquals(1, ParallelUtil.availableThreads(scheduler, 1));
+    }
+
+    @Test(timeout = 10_000)
+    public void testStopsForkingOnTermination() {
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicInteger executed = new AtomicInteger();
+        ParallelUtil.runWithConcurrency(2, tasks(1000, () -> {
+            if (executed.incrementAndGet() == 10) {
+                running.set(false);
+            }
+        }), running::get, scheduler);
+        assertTrue(executed.get() < 1000);
+    }
+
+    @Test(timeout = 10_000)
+    public void testExternalSubmitsAreThrottledButComplete() throws Exception {
+        AtomicInteger executed = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            futures.add(scheduler.submit(() -> {
+                sleep(0L);
+                executed.incrementAndGet();
+            }));
+            assertTrue(scheduler.getQueuedSubmissionCount() <= 4 + 1);
+        }
+        ParallelUtil.awaitTermination(futures);
+        assertEquals(200, executed.get());
+        assertEquals(Collections.emptyList(), scheduler.shutdownNow());
+    }
+
+    private static List<Runnable> tasks(int count, Runnable task) {
+        List<Runnable> tasks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            tasks.add(task);
+        }
+        return tasks;
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
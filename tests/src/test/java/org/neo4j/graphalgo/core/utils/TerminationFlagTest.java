@@ -0,0 +1,97 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.utils;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.neo4j.graphalgo.TestDatabaseCreator;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.kernel.api.KernelTransaction;
+import org.neo4j.kernel.api.exceptions.Status;
+import org.neo4j.kernel.impl.core.ThreadToStatementContextBridge;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TerminationFlagTest {
+
+    private static GraphDatabaseAPI db;
+    private static ThreadToStatementContextBridge bridge;
+
+    @BeforeClass
+    public static void setup() {
+        db = TestDatabaseCreator.createTestDatabase();
+        bridge = db.getDependencyResolver().resolveDependency(ThreadToStatementContextBridge.class);
+    }
+
+    @AfterClass
+    public static void tearDown() {
+        if (db != null) db.shutdown();
+    }
+
+    @Test
+    public void testStopsAtDeadline() throws Exception {
+        try (Transaction tx = db.beginTx()) {
+            TerminationFlagImpl flag = new TerminationFlagImpl(transaction())
+                    .withCheckInterval(0)
+                    .withMaxRuntime(50);
+            assertTrue(flag.running());
+            assertFalse(flag.deadlineExceeded());
+            Thread.sleep(100);
+            assertFalse(flag.running());
+            assertTrue(flag.deadlineExceeded());
+        }
+    }
+
+    @Test
+    public void testNoDeadline() throws Exception {
+        try (Transaction tx = db.beginTx()) {
+            TerminationFlag flag = TerminationFlag.wrap(transaction(), 0);
+            Thread.sleep(50);
+            assertTrue(flag.running());
+            assertFalse(flag.deadlineExceeded());
+        }
+    }
+
+    @Test
+    public void testStopsWithinMillisecondsWhenTerminated() throws Exception {
+        try (Transaction tx = db.beginTx()) {
+            KernelTransaction transaction = transaction();
+            TerminationFlag flag = TerminationFlag.wrap(transaction, 60_000);
+            assertTrue(flag.running());
+            transaction.markForTermination(Status.Transaction.Terminated);
+            Thread.sleep(50);
+            assertFalse(flag.running());
+            assertFalse(flag.deadlineExceeded());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsNegativeMaxRuntime() {
+        try (Transaction tx = db.beginTx()) {
+            TerminationFlag.wrap(transaction(), -1);
+        }
+    }
+
+    private static KernelTransaction transaction() {
+        return bridge.getKernelTransactionBoundToThisThread(true);
+    }
+}
@@ -0,0 +1,105 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.utils.container;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class PersistentLongMapTest {
+
+    @Test
+    public void testPutGetRemove() {
+        PersistentLongMap<String> map = PersistentLongMap.empty();
+        assertTrue(map.isEmpty());
+        map = map.put(42L, "a").put(42L + (1L << 40), "b").put(-1L, "c");
+        assertEquals(3, map.size());
+        assertEquals("a", map.get(42L));
+        assertEquals("b", map.get(42L + (1L << 40)));
+        assertEquals("c", map.get(-1L));
+        assertNull(map.get(43L));
+        assertEquals("d", map.getOrDefault(43L, "d"));
+
+        map = map.remove(42L);
+        assertEquals(2, map.size());
+        assertFalse(map.containsKey(42L));
+        assertEquals("b", map.get(42L + (1L << 40)));
+        assertSame(map, map.remove(42L));
+        assertTrue(map.remove(-1L).remove(42L + (1L << 40)).isEmpty());
+    }
+
+    @Test
+    public void testOldVersionsAreNotModified() {
+        PersistentLongMap<Long> map = PersistentLongMap.empty();
+        List<PersistentLongMap<Long>> versions = new ArrayList<>();
+        for (long key = 0L; key < 1000L; key++) {
+            versions.add(map);
+            map = map.put(key, key);
+        }
+        for (int version = 0; version < versions.size(); version++) {
+            PersistentLongMap<Long> old = versions.get(version);
+            assertEquals(version, old.size());
+            assertEquals(version > 0, old.containsKey(version - 1));
+            assertFalse(old.containsKey(version));
+        }
+        PersistentLongMap<Long> removed = map.remove(500L).put(1L, 2L);
+        assertEquals(Long.valueOf(500L), map.get(500L));
+        assertEquals(Long.valueOf(1L), map.get(1L));
+        assertFalse(removed.containsKey(500L));
+        assertEquals(Long.valueOf(2L), removed.get(1L));
+    }
+
+    @Test
+    public void testMatchesHashMap() {
+        Random random = new Random(42L);
+        Map<Long, Integer> expected = new HashMap<>();
+        PersistentLongMap<Integer> map = PersistentLongMap.empty();
+        for (int i = 0; i < 100_000; i++) {
+            // dense, sparse and colliding keys
+            long key = random.nextBoolean()
+                    ? random.nextInt(2048)
+                    : (long) random.nextInt(64) << random.nextInt(58);
+            if (random.nextInt(3) == 0) {
+                expected.remove(key);
+                map = map.remove(key);
+            } else {
+                expected.put(key, i);
+                map = map.put(key, i);
+            }
+            assertEquals(expected.size(), map.size());
+        }
+        for (Map.Entry<Long, Integer> entry : expected.entrySet()) {
+            assertEquals(entry.getValue(), map.get(entry.getKey()));
+        }
+        for (Long key : expected.keySet()) {
+            map = map.remove(key);
+        }
+        assertTrue(map.isEmpty());
+    }
+}
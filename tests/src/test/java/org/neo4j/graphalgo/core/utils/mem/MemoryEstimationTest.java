@@ -0,0 +1,140 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.utils.mem;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.neo4j.graphalgo.TestDatabaseCreator;
+import org.neo4j.graphalgo.api.GraphFactory;
+import org.neo4j.graphalgo.core.GraphDimensions;
+import org.neo4j.graphalgo.core.GraphLoader;
+import org.neo4j.graphalgo.core.heavyweight.HeavyGraphFactory;
+import org.neo4j.graphalgo.core.huge.HugeGraphFactory;
+import org.neo4j.graphalgo.core.utils.Pools;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class MemoryEstimationTest {
+
+    private static GraphDatabaseService db;
+
+    @BeforeClass
+    public static void setUp() {
+        db = TestDatabaseCreator.createTestDatabase();
+        db.execute("UNWIND range(0, 9999) AS i CREATE (:Node {id: i})").close();
+        db.execute("MATCH (n:Node) WITH collect(n) AS nodes UNWIND range(0, 9999) AS i " +
+                "WITH i, nodes[i] AS a, nodes[(i * 7 + 3) % 10000] AS b, nodes[(i + 1) % 10000] AS c " +
+                "CREATE (a)-[:REL {w: i % 10}]->(b), (a)-[:REL {w: i % 10}]->(c)").close();
+    }
+
+    @AfterClass
+    public static void tearDown() {
+        db.shutdown();
+    }
+
+    @Test
+    public void testMemoryRange() {
+        assertEquals(MemoryRange.of(3L, 7L), MemoryRange.of(1L, 2L).add(MemoryRange.of(2L, 5L)));
+        assertEquals(MemoryRange.of(4L, 8L), MemoryRange.of(2L, 4L).times(2L));
+        assertEquals(MemoryRange.of(1L, 5L), MemoryRange.of(1L, 2L).union(MemoryRange.of(2L, 5L)));
+        assertTrue(MemoryRange.empty().isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMemoryRangeMinMustNotExceedMax() {
+        MemoryRange.of(2L, 1L);
+    }
+
+    @Test
+    public void testCompositeSumsItsComponents() {
+        MemoryEstimation estimation = MemoryEstimations.builder("root")
+                .fixed("fixed", 10L)
+                .perThread("per thread", nodeCount -> nodeCount)
+                .copies("copies", MemoryEstimations.builder("copy").fixed("instance", 3L).build(), 1, c -> c + 1)
+                .build();
+        GraphDimensions dimensions = new GraphLoader((GraphDatabaseAPI) db).withLabel("Node").dimensions();
+        MemoryTree tree = estimation.apply(dimensions, 4);
+
+        assertEquals(MemoryRange.of(10L + 4 * 10_000L + 3L, 10L + 4 * 10_000L + 15L), tree.memoryUsage());
+        assertEquals(3, tree.components().size());
+        assertTrue(tree.render().startsWith("root: "));
+        assertTrue(tree.render().contains("\n    fixed: 10 Bytes"));
+    }
+
+    @Test
+    public void testHugeGraphEstimationCoversTrackedMemory() {
+        for (boolean weighted : new boolean[]{false, true}) {
+            AllocationTracker tracker = AllocationTracker.create();
+            GraphLoader loader = new GraphLoader((GraphDatabaseAPI) db, Pools.DEFAULT)
+                    .withLabel("Node")
+                    .withRelationshipType("REL")
+                    .withAllocationTracker(tracker);
+            if (weighted) {
+                loader.withRelationshipWeightsFromProperty("w", 1.0);
+            }
+            GraphFactory factory = loader.build(HugeGraphFactory.class);
+            MemoryRange estimate = factory.memoryEstimation()
+                    .apply(factory.dimensions(), 1)
+                    .memoryUsage();
+            factory.build();
+
+            // the tracker does not count the instances and the initial buffers of the weight maps
+            if (!weighted) {
+                assertTrue(estimate + " vs " + tracker.tracked(), estimate.min() <= tracker.tracked() + 1024L);
+            }
+            assertTrue(estimate + " vs " + tracker.tracked(), estimate.max() >= tracker.tracked());
+        }
+    }
+
+    @Test
+    public void testEstimatesGraphAndAlgorithm() {
+        GraphFactory factory = new GraphLoader((GraphDatabaseAPI) db, Pools.DEFAULT)
+                .withLabel("Node")
+                .withRelationshipType("REL")
+                .build(HugeGraphFactory.class);
+        MemoryRange graph = factory.memoryEstimation().apply(factory.dimensions(), 4).memoryUsage();
+        MemoryEstimation algorithm = MemoryEstimations.builder("algorithm")
+                .perThread("per thread", nodeCount -> nodeCount)
+                .build();
+
+        MemoryTree tree = factory.estimateMemoryUsage("job", algorithm, 4);
+
+        assertEquals(graph.add(MemoryRange.of(4 * 10_000L)), tree.memoryUsage());
+        assertEquals(2, tree.components().size());
+        assertEquals(graph, factory.estimateMemoryUsage("graph", null, 4).memoryUsage());
+    }
+
+    @Test
+    public void testHeavyGraphEstimation() {
+        GraphFactory factory = new GraphLoader((GraphDatabaseAPI) db, Pools.DEFAULT)
+                .withLabel("Node")
+                .withRelationshipType("REL")
+                .build(HeavyGraphFactory.class);
+        MemoryTree tree = factory.memoryEstimation().apply(factory.dimensions(), 1);
+
+        // almost 20000 relationships that take at least 4 bytes per target
+        assertTrue(tree.render(), tree.memoryUsage().min() > 19_000L * Integer.BYTES);
+        assertTrue(tree.render(), tree.memoryUsage().min() <= tree.memoryUsage().max());
+    }
+}
@@ -0,0 +1,141 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.utils.metrics;
+
+import org.junit.Test;
+import org.neo4j.graphalgo.core.utils.ParallelUtil;
+import org.neo4j.graphalgo.core.utils.Pools;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class MetricsRegistryTest {
+
+    @Test
+    public void testRecordsPhasesAndThroughput() {
+        MetricsRegistry registry = new MetricsRegistry(10, false);
+        AllocationTracker tracker = AllocationTracker.create();
+        try (JobMetrics metrics = registry.start("job", tracker)) {
+            metrics.graph(100L, 1000L);
+            metrics.phase(JobMetrics.LOAD, 500L);
+            metrics.phase(JobMetrics.COMPUTE, 100L);
+            metrics.phase(JobMetrics.COMPUTE, 100L);
+            metrics.iteration(2_000_000L);
+            metrics.iteration(4_000_000L);
+            tracker.add(1024L);
+            tracker.remove(1000L);
+            assertEquals(1, registry.running().size());
+        }
+
+        assertTrue(registry.running().isEmpty());
+        JobMetrics run = registry.history().get(0);
+        assertFalse(run.isRunning());
+        assertEquals(500L, run.phaseMillis(JobMetrics.LOAD));
+        assertEquals(200L, run.phaseMillis(JobMetrics.COMPUTE));
+        assertEquals(-1L, run.phaseMillis(JobMetrics.WRITE));
+        assertEquals(2000.0, run.edgesPerSecond(JobMetrics.LOAD), 1e-9);
+        // two iterations over 1000 relationships in 200ms
+        assertEquals(10000.0, run.edgesPerSecond(JobMetrics.COMPUTE), 1e-9);
+        assertArrayEquals(new double[]{2.0, 4.0}, run.iterationMillis(), 1e-9);
+        assertEquals(1024L, run.peakBytes());
+    }
+
+    @Test
+    public void testAggregatesRunsOfTheSameJob() {
+        MetricsRegistry registry = new MetricsRegistry(10, false);
+        for (long compute : new long[]{10L, 30L, 20L}) {
+            try (JobMetrics metrics = registry.start("job", AllocationTracker.EMPTY)) {
+                metrics.phase(JobMetrics.COMPUTE, compute);
+            }
+        }
+
+        JobStats stats = registry.stats().iterator().next();
+        assertEquals("job", stats.getJob());
+        assertEquals(3L, stats.getRuns());
+        assertEquals(60L, stats.getTotalComputeMillis());
+        assertEquals(30L, stats.getMaxComputeMillis());
+        assertEquals(20L, stats.getLastComputeMillis());
+    }
+
+    @Test
+    public void testHistoryIsBounded() {
+        MetricsRegistry registry = new MetricsRegistry(2, false);
+        for (int i = 0; i < 5; i++) {
+            registry.start("job" + i, AllocationTracker.EMPTY).close();
+        }
+        List<JobMetrics> history = registry.history();
+        assertEquals(2, history.size());
+        assertEquals("job3", history.get(0).job());
+        assertEquals("job4", history.get(1).job());
+        assertEquals(5, registry.stats().size());
+    }
+
+    @Test
+    public void testClosedAndNullMetricsIgnoreRecords() {
+        MetricsRegistry registry = new MetricsRegistry(10, false);
+        JobMetrics metrics = registry.start("job", AllocationTracker.EMPTY);
+        metrics.close();
+        metrics.phase(JobMetrics.LOAD, 10L);
+        metrics.close();
+        assertEquals(-1L, metrics.phaseMillis(JobMetrics.LOAD));
+        assertEquals(1L, registry.stats().iterator().next().getRuns());
+
+        JobMetrics.NULL.iteration(10L);
+        JobMetrics.NULL.close();
+        assertEquals(0, JobMetrics.NULL.iterations());
+        List<Runnable> tasks = new ArrayList<>();
+        assertTrue(tasks == JobMetrics.NULL.timed(tasks));
+    }
+
+    @Test
+    public void testTimedTasksRecordThreads() {
+        MetricsRegistry registry = new MetricsRegistry(10, false);
+        try (JobMetrics metrics = registry.start("job", AllocationTracker.EMPTY)) {
+            List<Runnable> tasks = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                tasks.add(() -> {
+                });
+            }
+            ParallelUtil.runWithConcurrency(4, metrics.timed(tasks), Pools.DEFAULT);
+            long taskCount = metrics.threads().values().stream().mapToLong(JobMetrics.TaskTimes::tasks).sum();
+            assertEquals(8L, taskCount);
+        }
+    }
+
+    @Test
+    public void testRegistersMBean() throws Exception {
+        MetricsRegistry registry = new MetricsRegistry(10, true);
+        try (JobMetrics metrics = registry.start("algo.test.mbean", AllocationTracker.EMPTY)) {
+            metrics.phase(JobMetrics.WRITE, 42L);
+        }
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName("org.neo4j.graphalgo:type=JobMetrics,name=" + ObjectName.quote("algo.test.mbean"));
+        assertEquals(1L, server.getAttribute(name, "Runs"));
+        assertEquals(42L, server.getAttribute(name, "LastWriteMillis"));
+    }
+}
@@ -0,0 +1,191 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.utils.paged;
+
+import org.junit.Test;
+import org.neo4j.graphalgo.core.utils.Pools;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class HugeArraysTest {
+
+    private static final int PS = 16384;
+    private static final int CONCURRENCY = 4;
+
+    // single arrays and paged arrays with a partial and a full last page
+    private static final int[] SIZES = {0, 1, 42, PS, 3 * PS, 5 * PS + 1337};
+
+    @Test
+    public void testPartitionsAreAlignedToPages() {
+        for (long size : new long[]{1L, PS, 10L * PS + 1, 1L << 40}) {
+            long[] bounds = HugeArrays.partitions(size, 8);
+            assertEquals(0L, bounds[0]);
+            assertEquals(size, bounds[bounds.length - 1]);
+            for (int i = 1; i < bounds.length - 1; i++) {
+                assertEquals(0L, bounds[i] % PS);
+            }
+        }
+        assertArrayEquals(new long[]{0L}, HugeArrays.partitions(0L, 8));
+    }
+
+    @Test
+    public void testLongArrays() {
+        for (int size : SIZES) {
+            for (HugeLongArray array : longArrays(size)) {
+                HugeArrays.parallelSetAll(array, i -> i, CONCURRENCY, Pools.DEFAULT);
+                for (long i = 0; i < size; i++) {
+                    assertEquals(i, array.get(i));
+                }
+
+                long total = HugeArrays.parallelPrefixSum(array, CONCURRENCY, Pools.DEFAULT);
+                assertEquals((long) size * (size - 1L) / 2L, total);
+                for (long i = 0; i < size; i++) {
+                    assertEquals(i * (i + 1L) / 2L, array.get(i));
+                }
+
+                for (HugeLongArray target : longArrays(size + 100)) {
+                    HugeArrays.parallelFill(target, 42L, CONCURRENCY, Pools.DEFAULT);
+                    HugeArrays.parallelCopy(array, target, CONCURRENCY, Pools.DEFAULT);
+                    for (long i = 0; i < size; i++) {
+                        assertEquals(array.get(i), target.get(i));
+                    }
+                    for (long i = size; i < size + 100; i++) {
+                        assertEquals(0L, target.get(i));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testIntArrays() {
+        for (int size : SIZES) {
+            for (HugeIntArray array : new HugeIntArray[]{
+                    HugeIntArray.newSingleArray(Math.max(1, size), AllocationTracker.EMPTY),
+                    HugeIntArray.newPagedArray(Math.max(1, size), AllocationTracker.EMPTY)}) {
+                long length = array.size();
+                HugeArrays.parallelSetAll(array, i -> (int) (i * 3), CONCURRENCY, Pools.DEFAULT);
+                array.or(0, 1);
+                array.addTo(0, 1);
+                assertEquals(2, array.get(0));
+                for (long i = 1; i < length; i++) {
+                    assertEquals(i * 3, array.get(i));
+                }
+
+                HugeIntArray target = HugeIntArray.newArray(length, AllocationTracker.EMPTY);
+                HugeArrays.parallelCopy(array, target, CONCURRENCY, Pools.DEFAULT);
+                assertSum(array, target);
+
+                HugeArrays.parallelFill(array, 7, CONCURRENCY, Pools.DEFAULT);
+                assertEquals(7 * length, sum(array));
+            }
+        }
+    }
+
+    @Test
+    public void testByteAndFloatArrays() {
+        for (int size : SIZES) {
+            HugeByteArray bytes = HugeByteArray.newPagedArray(Math.max(1, size), AllocationTracker.EMPTY);
+            HugeFloatArray floats = HugeFloatArray.newPagedArray(Math.max(1, size), AllocationTracker.EMPTY);
+            long length = bytes.size();
+
+            HugeArrays.parallelSetAll(bytes, i -> (int) i, CONCURRENCY, Pools.DEFAULT);
+            HugeArrays.parallelSetAll(floats, i -> i / 2.0, CONCURRENCY, Pools.DEFAULT);
+            for (long i = 0; i < length; i++) {
+                assertEquals((byte) i, bytes.get(i));
+                assertEquals(i / 2.0f, floats.get(i), 0.0f);
+            }
+
+            HugeByteArray byteCopy = HugeByteArray.newSingleArray((int) length, AllocationTracker.EMPTY);
+            HugeFloatArray floatCopy = HugeFloatArray.newSingleArray((int) length, AllocationTracker.EMPTY);
+            HugeArrays.parallelCopy(bytes, byteCopy, CONCURRENCY, Pools.DEFAULT);
+            HugeArrays.parallelCopy(floats, floatCopy, CONCURRENCY, Pools.DEFAULT);
+            for (long i = 0; i < length; i++) {
+                assertEquals(bytes.get(i), byteCopy.get(i));
+                assertEquals(floats.get(i), floatCopy.get(i), 0.0f);
+            }
+
+            HugeArrays.parallelFill(bytes, (byte) 3, CONCURRENCY, Pools.DEFAULT);
+            HugeArrays.parallelFill(floats, 0.5f, CONCURRENCY, Pools.DEFAULT);
+            assertEquals((byte) 3, bytes.get(length - 1));
+            assertEquals(0.5f, floats.get(length - 1), 0.0f);
+        }
+    }
+
+    @Test
+    public void testRangeCursors() {
+        HugeIntArray array = HugeIntArray.newPagedArray(3 * PS, AllocationTracker.EMPTY);
+        array.setAll(i -> (int) i);
+        long[][] ranges = {{0, 0}, {5, 5}, {PS - 1, PS + 1}, {10, 3 * PS}, {PS, 2 * PS}, {0, 3 * PS}};
+        for (long[] range : ranges) {
+            long expected = 0L;
+            for (long i = range[0]; i < range[1]; i++) {
+                expected += i;
+            }
+            long actual = 0L;
+            HugeIntArray.Cursor cursor = array.cursor(array.newCursor(), range[0], range[1]);
+            while (cursor.next()) {
+                for (int i = cursor.offset; i < cursor.limit; i++) {
+                    assertEquals(cursor.base + i, cursor.array[i]);
+                    actual += cursor.array[i];
+                }
+            }
+            assertEquals(expected, actual);
+        }
+    }
+
+    @Test(expected = ArrayIndexOutOfBoundsException.class)
+    public void testRangeCursorOutOfBounds() {
+        HugeLongArray array = HugeLongArray.newArray(10, AllocationTracker.EMPTY);
+        array.cursor(array.newCursor(), 5, 11);
+    }
+
+    @Test
+    public void testMemoryIsTracked() {
+        for (long size : new long[]{42L, 3L * PS, 3L * PS + 1}) {
+            AllocationTracker tracker = AllocationTracker.create();
+            HugeIntArray.newArray(size, tracker);
+            assertEquals(HugeIntArray.estimateMemoryUsage(size), tracker.tracked());
+        }
+    }
+
+    private static HugeLongArray[] longArrays(int size) {
+        if (size == 0) {
+            return new HugeLongArray[]{HugeLongArray.newSingleArray(size, AllocationTracker.EMPTY)};
+        }
+        return new HugeLongArray[]{
+                HugeLongArray.newSingleArray(size, AllocationTracker.EMPTY),
+                HugeLongArray.newPagedArray(size, AllocationTracker.EMPTY)
+        };
+    }
+
+    private static void assertSum(HugeIntArray expected, HugeIntArray actual) {
+        assertEquals(expected.size(), actual.size());
+        assertEquals(sum(expected), sum(actual));
+    }
+
+    private static long sum(HugeIntArray array) {
+        long sum = 0L;
+        for (long i = 0; i < array.size(); i++) {
+            sum += array.get(i);
+        }
+        return sum;
+    }
+}
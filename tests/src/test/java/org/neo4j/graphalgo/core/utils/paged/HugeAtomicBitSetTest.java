@@ -0,0 +1,108 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.utils.paged;
+
+import org.junit.Test;
+import org.neo4j.graphalgo.core.utils.ParallelUtil;
+import org.neo4j.graphalgo.core.utils.Pools;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class HugeAtomicBitSetTest {
+
+    // a single page and several pages of words with a partial last word
+    private static final long[] SIZES = {0L, 1L, 64L, 1337L, 3L * 16384L * 64L + 42L};
+
+    @Test
+    public void testTrySet() {
+        HugeAtomicBitSet bitSet = HugeAtomicBitSet.newBitSet(1337L, AllocationTracker.EMPTY);
+        assertFalse(bitSet.get(42L));
+        assertTrue(bitSet.trySet(42L));
+        assertFalse(bitSet.trySet(42L));
+        assertTrue(bitSet.get(42L));
+        assertFalse(bitSet.get(41L));
+        assertFalse(bitSet.get(43L));
+        bitSet.clear(42L);
+        assertFalse(bitSet.get(42L));
+        assertTrue(bitSet.trySet(42L));
+    }
+
+    @Test
+    public void testConcurrentTrySetSucceedsOnce() {
+        long size = 100_000L;
+        HugeAtomicBitSet bitSet = HugeAtomicBitSet.newBitSet(size, AllocationTracker.EMPTY);
+        AtomicLong successes = new AtomicLong();
+        List<Runnable> tasks = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            tasks.add(() -> {
+                for (long i = 0L; i < size; i++) {
+                    if (bitSet.trySet(i)) {
+                        successes.incrementAndGet();
+                    }
+                }
+            });
+        }
+        ParallelUtil.run(tasks, Pools.DEFAULT);
+        assertEquals(size, successes.get());
+        assertEquals(size, bitSet.cardinality());
+    }
+
+    @Test
+    public void testNextSetBitAndCardinality() {
+        for (long size : SIZES) {
+            HugeAtomicBitSet bitSet = HugeAtomicBitSet.newBitSet(size, AllocationTracker.EMPTY);
+            assertEquals(-1L, bitSet.nextSetBit(0L));
+            long expected = 0L;
+            for (long i = 0L; i < size; i += 7L) {
+                bitSet.set(i);
+                expected++;
+            }
+            assertEquals(size, bitSet.size());
+            assertEquals(expected, bitSet.cardinality());
+
+            long count = 0L;
+            long previous = -1L;
+            for (long i = bitSet.nextSetBit(0L); i != -1L; i = bitSet.nextSetBit(i + 1L)) {
+                assertEquals(previous + (previous == -1L ? 1L : 7L), i);
+                previous = i;
+                count++;
+            }
+            assertEquals(expected, count);
+        }
+    }
+
+    @Test
+    public void testParallelClear() {
+        for (long size : SIZES) {
+            HugeAtomicBitSet bitSet = HugeAtomicBitSet.newBitSet(size, AllocationTracker.EMPTY);
+            for (long i = 0L; i < size; i += 3L) {
+                bitSet.set(i);
+            }
+            bitSet.clear(4, Pools.DEFAULT);
+            assertEquals(0L, bitSet.cardinality());
+            assertEquals(-1L, bitSet.nextSetBit(0L));
+        }
+    }
+}
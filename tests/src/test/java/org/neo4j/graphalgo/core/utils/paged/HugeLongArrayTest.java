@@ -283,11 +283,42 @@ public final class HugeLongArrayTest extends RandomizedTest {
         assertTrue(cursor.next());
         assertEquals(0, cursor.offset);
         assertEquals(pageEnd, cursor.base);
-        assertEquals(size & (PS - 1), cursor.limit);
+        assertEquals(((size - 1) & (PS - 1)) + 1, cursor.limit);
 
         assertFalse(cursor.next());
     }
 
+    @Test
+    public void shouldHaveRangeCursor() {
+        int size = between(100_000, 200_000);
+        testArray(size, array -> {
+            array.setAll(i -> i);
+            long from = between(0, size);
+            long to = between((int) from, size);
+
+            long actual = 0L;
+            long count = 0L;
+            final HugeLongArray.Cursor cursor = array.cursor(array.newCursor(), from, to);
+            while (cursor.next()) {
+                for (int i = cursor.offset; i < cursor.limit; i++) {
+                    assertEquals(cursor.base + i, cursor.array[i]);
+                    actual += cursor.array[i];
+                    count++;
+                }
+            }
+
+            assertEquals(to - from, count);
+            assertEquals((to * (to - 1L) - from * (from - 1L)) / 2L, actual);
+        });
+    }
+
+    @Test
+    public void shouldFillLastPageOfPageAlignedArray() {
+        HugeLongArray array = HugeLongArray.newPagedArray(2 * PS, AllocationTracker.EMPTY);
+        array.fill(42L);
+        assertEquals(42L, array.get(2 * PS - 1));
+    }
+
     @Test
     public void shouldHaveCursor() {
         int size = between(100_000, 200_000);
@@ -0,0 +1,94 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.utils.paged;
+
+import org.junit.Test;
+import org.neo4j.graphalgo.core.utils.ParallelUtil;
+import org.neo4j.graphalgo.core.utils.Pools;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PagedAtomicDisjointSetStructTest {
+
+    @Test
+    public void testUnionUsesSmallestIdAsSetId() {
+        PagedAtomicDisjointSetStruct struct = new PagedAtomicDisjointSetStruct(8, AllocationTracker.EMPTY);
+        assertEquals(8, struct.getSetCount());
+
+        struct.union(5, 3);
+        struct.union(7, 5);
+        struct.union(1, 2);
+        assertTrue(struct.connected(3, 7));
+        assertFalse(struct.connected(1, 7));
+        assertEquals(3L, struct.find(7));
+        assertEquals(3L, struct.findNoOpt(5));
+        assertEquals(1L, struct.find(2));
+        assertEquals(0L, struct.find(0));
+        assertEquals(5, struct.getSetCount());
+
+        struct.union(7, 2);
+        assertEquals(1L, struct.find(5));
+        assertEquals(4, struct.getSetCount());
+
+        struct.reset();
+        assertEquals(8, struct.getSetCount());
+    }
+
+    @Test
+    public void testConcurrentUnionsMatchSequentialUnions() {
+        int nodeCount = 100_000;
+        int threads = 8;
+        Random random = new Random(42L);
+        long[][] edges = new long[threads][];
+        PagedDisjointSetStruct expected = new PagedDisjointSetStruct(nodeCount, AllocationTracker.EMPTY).reset();
+        for (int t = 0; t < threads; t++) {
+            edges[t] = new long[2 * nodeCount / 10];
+            for (int i = 0; i < edges[t].length; i += 2) {
+                edges[t][i] = random.nextInt(nodeCount);
+                edges[t][i + 1] = random.nextInt(nodeCount);
+                expected.union(edges[t][i], edges[t][i + 1]);
+            }
+        }
+
+        PagedAtomicDisjointSetStruct actual = new PagedAtomicDisjointSetStruct(nodeCount, AllocationTracker.EMPTY);
+        List<Runnable> tasks = new ArrayList<>();
+        for (long[] batch : edges) {
+            tasks.add(() -> {
+                for (int i = 0; i < batch.length; i += 2) {
+                    actual.union(batch[i], batch[i + 1]);
+                }
+            });
+        }
+        ParallelUtil.run(tasks, Pools.DEFAULT);
+
+        assertEquals(expected.getSetCount(), actual.getSetCount());
+        for (long node = 0L; node < nodeCount; node++) {
+            long root = expected.find(node);
+            assertTrue(actual.connected(node, root));
+            assertTrue(actual.find(node) <= node);
+            assertEquals(actual.find(node), actual.find(actual.find(node)));
+        }
+    }
+}
@@ -0,0 +1,110 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.utils.queue;
+
+import org.junit.Test;
+
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public final class RadixHeapTest {
+
+    @Test
+    public void testPopsInKeyOrder() {
+        RadixHeap heap = new RadixHeap();
+        heap.add(1, 42L);
+        heap.add(2, 7L);
+        heap.add(3, 1L << 40);
+        heap.add(4, 7L);
+        heap.add(5, 0L);
+        assertEquals(5, heap.size());
+
+        assertEquals(0L, heap.topKey());
+        assertEquals(5, heap.pop());
+        assertEquals(7L, heap.topKey());
+        int first = heap.pop();
+        int second = heap.pop();
+        assertEquals(6, first + second);
+        assertEquals(42L, heap.topKey());
+        assertEquals(1, heap.pop());
+        assertEquals(1L << 40, heap.topKey());
+        assertEquals(3, heap.pop());
+        assertTrue(heap.isEmpty());
+    }
+
+    @Test
+    public void testMatchesBinaryHeapForMonotoneKeys() {
+        Random random = new Random(42L);
+        RadixHeap heap = new RadixHeap();
+        PriorityQueue<Long> expected = new PriorityQueue<>();
+        for (int round = 0; round < 3; round++) {
+            long last = 0L;
+            for (int i = 0; i < 10_000; i++) {
+                if (expected.isEmpty() || random.nextInt(3) != 0) {
+                    long key = last + random.nextInt(1 << random.nextInt(20));
+                    heap.add((int) key, key);
+                    expected.add(key);
+                } else {
+                    long key = heap.topKey();
+                    assertEquals((long) expected.poll(), key);
+                    assertEquals((int) key, heap.pop());
+                    last = key;
+                }
+                assertEquals(expected.size(), heap.size());
+            }
+            while (!expected.isEmpty()) {
+                assertEquals((long) expected.peek(), heap.topKey());
+                assertEquals((int) (long) expected.poll(), heap.pop());
+            }
+            assertTrue(heap.isEmpty());
+            heap.clear();
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsKeysBelowLastPoppedKey() {
+        RadixHeap heap = new RadixHeap();
+        heap.add(0, 10L);
+        heap.pop();
+        heap.add(1, 9L);
+    }
+
+    @Test
+    public void testClearResetsLastKey() {
+        RadixHeap heap = new RadixHeap();
+        heap.add(0, 10L);
+        heap.add(1, 20L);
+        heap.pop();
+        heap.clear();
+        assertTrue(heap.isEmpty());
+        heap.add(2, 0L);
+        assertFalse(heap.isEmpty());
+        assertEquals(2, heap.pop());
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void testPopOnEmptyHeap() {
+        new RadixHeap().pop();
+    }
+}
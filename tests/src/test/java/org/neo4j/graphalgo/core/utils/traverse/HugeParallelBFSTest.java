@@ -0,0 +1,180 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.core.utils.traverse;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.neo4j.graphalgo.TestDatabaseCreator;
+import org.neo4j.graphalgo.api.HugeGraph;
+import org.neo4j.graphalgo.core.GraphLoader;
+import org.neo4j.graphalgo.core.huge.HugeGraphFactory;
+import org.neo4j.graphalgo.core.utils.Pools;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphdb.Direction;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+
+import java.util.ArrayDeque;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongPredicate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class HugeParallelBFSTest {
+
+    private static GraphDatabaseAPI db;
+    private static HugeGraph graph;
+
+    @BeforeClass
+    public static void setUp() {
+        db = TestDatabaseCreator.createTestDatabase();
+        // a hub whose level is dense, followed by a long chain of sparse levels and an unreachable rest
+        db.execute("UNWIND range(0, 9999) AS i CREATE (:Node {id: i})").close();
+        db.execute("MATCH (hub:Node {id: 0}), (n:Node) WHERE n.id > 0 AND n.id <= 5000 " +
+                "CREATE (hub)-[:REL]->(n)").close();
+        db.execute("MATCH (a:Node), (b:Node) WHERE a.id >= 5000 AND a.id < 5300 AND b.id = a.id + 1 " +
+                "CREATE (a)-[:REL]->(b)").close();
+        graph = (HugeGraph) new GraphLoader(db, Pools.DEFAULT)
+                .withLabel("Node")
+                .withRelationshipType("REL")
+                .withDirection(Direction.OUTGOING)
+                .load(HugeGraphFactory.class);
+    }
+
+    @AfterClass
+    public static void tearDown() {
+        db.shutdown();
+    }
+
+    @Test
+    public void testFrontierSwitchesToDense() {
+        long nodeCount = 10_000L;
+        HugeFrontier frontier = new HugeFrontier(nodeCount, AllocationTracker.EMPTY);
+        BitSet expected = new BitSet();
+        for (long node = 3L; node < nodeCount; node += 17L) {
+            assertTrue(frontier.add(node));
+            assertFalse(frontier.add(node));
+            assertTrue(frontier.contains(node));
+            expected.set((int) node);
+            assertEquals(frontier.size() > (nodeCount + 63L) / 64L, frontier.isDense());
+        }
+        assertTrue(frontier.isDense());
+        assertEquals(expected, collect(frontier));
+
+        frontier.clear(4, Pools.DEFAULT);
+        assertTrue(frontier.isEmpty());
+        assertFalse(frontier.contains(3L));
+
+        frontier.add(42L);
+        frontier.add(7L);
+        assertFalse(frontier.isDense());
+        BitSet sparse = new BitSet();
+        sparse.set(7);
+        sparse.set(42);
+        assertEquals(sparse, collect(frontier));
+        frontier.clear(4, Pools.DEFAULT);
+        assertFalse(frontier.contains(42L));
+    }
+
+    @Test
+    public void testTraverseMatchesSequentialBfs() {
+        long start = graph.toHugeMappedNodeId(nodeId(0));
+        int[] expectedDepth = {0};
+        BitSet expected = sequentialBfs(start, n -> true, expectedDepth);
+
+        HugeParallelBFS traverse = new HugeParallelBFS(graph, Pools.DEFAULT, 4, AllocationTracker.EMPTY);
+        for (int i = 0; i < 3; i++) {
+            BitSet actual = new BitSet();
+            AtomicLong visits = new AtomicLong();
+            traverse.reset().bfs(start, Direction.OUTGOING, n -> true, node -> {
+                visits.incrementAndGet();
+                synchronized (actual) {
+                    actual.set(Math.toIntExact(node));
+                }
+            });
+            assertEquals(expected, actual);
+            assertEquals(expected.cardinality(), visits.get());
+            assertEquals(expectedDepth[0], traverse.getDepth());
+        }
+        traverse.release();
+    }
+
+    @Test
+    public void testTraverseWithPredicate() {
+        long start = graph.toHugeMappedNodeId(nodeId(0));
+        long cut = graph.toHugeMappedNodeId(nodeId(5100));
+        int[] depth = {0};
+        BitSet expected = sequentialBfs(start, n -> n != cut, depth);
+
+        ConcurrentHashMap<Long, Boolean> actual = new ConcurrentHashMap<>();
+        new HugeParallelBFS(graph, Pools.DEFAULT, 4, AllocationTracker.EMPTY)
+                .bfs(start, Direction.OUTGOING, n -> n != cut, node -> actual.put(node, true));
+
+        assertEquals(expected.cardinality(), actual.size());
+        actual.keySet().forEach(node -> assertTrue(expected.get(Math.toIntExact(node))));
+    }
+
+    private static BitSet collect(HugeFrontier frontier) {
+        BitSet sequential = new BitSet();
+        frontier.forEach(node -> sequential.set(Math.toIntExact(node)));
+        BitSet parallel = new BitSet();
+        frontier.forEach(4, Pools.DEFAULT, () -> node -> {
+            synchronized (parallel) {
+                parallel.set(Math.toIntExact(node));
+            }
+        });
+        assertEquals(sequential, parallel);
+        return sequential;
+    }
+
+    private static BitSet sequentialBfs(long start, LongPredicate predicate, int[] depth) {
+        BitSet visited = new BitSet();
+        Deque<Long> level = new ArrayDeque<>();
+        visited.set(Math.toIntExact(start));
+        level.add(start);
+        while (!level.isEmpty()) {
+            Deque<Long> next = new ArrayDeque<>();
+            for (long node : level) {
+                graph.forEachRelationship(node, Direction.OUTGOING, (s, t) -> {
+                    if (predicate.test(t) && !visited.get(Math.toIntExact(t))) {
+                        visited.set(Math.toIntExact(t));
+                        next.add(t);
+                    }
+                    return true;
+                });
+            }
+            level = next;
+            depth[0]++;
+        }
+        return visited;
+    }
+
+    private static long nodeId(int id) {
+        return db.execute("MATCH (n:Node {id: $id}) RETURN id(n) AS id",
+                Collections.singletonMap("id", id))
+                .<Long>columnAs("id")
+                .next();
+    }
+}
@@ -0,0 +1,178 @@
+/**
+ * Copyright (c) 2017 "Neo4j, Inc." <http://neo4j.com>
+ *
+ * This file is part of Neo4j Graph Algorithms <http://github.com/neo4j-contrib/neo4j-graph-algorithms>.
+ *
+ * Neo4j Graph Algorithms is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.graphalgo.impl;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.neo4j.graphalgo.PropertyMapping;
+import org.neo4j.graphalgo.TestDatabaseCreator;
+import org.neo4j.graphalgo.TestProgressLogger;
+import org.neo4j.graphalgo.core.GraphLoader;
+import org.neo4j.graphalgo.core.heavyweight.HeavyGraph;
+import org.neo4j.graphalgo.core.heavyweight.HeavyGraphFactory;
+import org.neo4j.graphalgo.core.utils.Pools;
+import org.neo4j.graphalgo.core.utils.TerminationFlag;
+import org.neo4j.graphalgo.core.utils.paged.AllocationTracker;
+import org.neo4j.graphalgo.impl.louvain.Louvain;
+import org.neo4j.graphalgo.impl.pagerank.PageRankAlgorithm;
+import org.neo4j.graphdb.Direction;
+import org.neo4j.graphdb.Label;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.RelationshipType;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.LongStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Algorithms return a valid partial result once their runtime budget is used up.
+ */
+public class MaxRuntimeTest {
+
+    private static final int NODE_COUNT = 20_000;
+    private static final RelationshipType TYPE = RelationshipType.withName("TYPE");
+
+    private static GraphDatabaseAPI db;
+    private static HeavyGraph graph;
+
+    @BeforeClass
+    public static void setup() {
+        db = TestDatabaseCreator.createTestDatabase();
+        // cliques of ten nodes that are connected in a ring
+        try (Transaction tx = db.beginTx()) {
+            Node[] nodes = new Node[NODE_COUNT];
+            for (int i = 0; i < NODE_COUNT; i++) {
+                nodes[i] = db.createNode(Label.label("Node"));
+                nodes[i].setProperty("id", i);
+            }
+            for (int i = 0; i < NODE_COUNT; i++) {
+                for (int j = i + 1; j < (i / 10 + 1) * 10; j++) {
+                    nodes[i].createRelationshipTo(nodes[j], TYPE);
+                }
+                if (i % 10 == 0) {
+                    nodes[i].createRelationshipTo(nodes[(i + 10) % NODE_COUNT], TYPE);
+                }
+            }
+            tx.success();
+        }
+        graph = (HeavyGraph) new GraphLoader(db, Pools.DEFAULT)
+                .withLabel("Node")
+                .withRelationshipType("TYPE")
+                .withDirection(Direction.BOTH)
+                .asUndirected(true)
+                .withOptionalRelationshipWeightsFromProperty("weight", 1.0)
+                .withOptionalNodeProperties(
+                        PropertyMapping.of(LabelPropagation.PARTITION_TYPE, "id", 0.0),
+                        PropertyMapping.of(LabelPropagation.WEIGHT_TYPE, "weight", 1.0))
+                .load(HeavyGraphFactory.class);
+    }
+
+    @AfterClass
+    public static void tearDown() {
+        if (db != null) db.shutdown();
+    }
+
+    @Test
+    public void testLabelPropagationReturnsInitialLabelsWhenExpired() {
+        LabelPropagation lp = new LabelPropagation(graph, 1000, 4, Pools.DEFAULT)
+                .withTerminationFlag(new Budget(0))
+                .compute(Direction.OUTGOING, 10);
+        assertEquals(0L, lp.ranIterations());
+        assertFalse(lp.didConverge());
+        assertTrue(lp.deadlineExceeded());
+        assertEquals(NODE_COUNT, lp.labels().length);
+    }
+
+    @Test
+    public void testLabelPropagationStopsEarly() {
+        LabelPropagation lp = new LabelPropagation(graph, 1000, 4, Pools.DEFAULT)
+                .withTerminationFlag(new Budget(1))
+                .compute(Direction.OUTGOING, 100_000);
+        assertEquals(1L, lp.ranIterations());
+        assertFalse(lp.didConverge());
+        int[] labels = lp.labels();
+        for (int label : labels) {
+            assertTrue(label >= 0 && label < NODE_COUNT);
+        }
+    }
+
+    @Test
+    public void testLouvainReturnsSingletonsWhenExpired() {
+        Louvain louvain = new Louvain(graph, Pools.DEFAULT, 4, AllocationTracker.EMPTY)
+                .withProgressLogger(TestProgressLogger.INSTANCE)
+                .withTerminationFlag(new Budget(0))
+                .compute(10, 10);
+        assertEquals(0, louvain.getLevel());
+        int[] communities = louvain.getCommunityIds();
+        for (int node = 0; node < NODE_COUNT; node++) {
+            assertEquals(node, communities[node]);
+        }
+    }
+
+    @Test
+    public void testLouvainKeepsFirstLevel() {
+        Louvain louvain = new Louvain(graph, Pools.DEFAULT, 1, AllocationTracker.EMPTY)
+                .withProgressLogger(TestProgressLogger.INSTANCE)
+                .withTerminationFlag(new Budget(2))
+                .compute(10, 10);
+        assertEquals(1, louvain.getLevel());
+        assertTrue(louvain.getCommunityCount() < NODE_COUNT);
+        int[] communities = louvain.getCommunityIds();
+        for (int node = 0; node < NODE_COUNT; node++) {
+            assertTrue(communities[node] < louvain.getCommunityCount());
+        }
+        assertEquals(1, louvain.getDendrogram().length);
+    }
+
+    @Test
+    public void testPageRankReportsCompletedIterations() {
+        PageRankAlgorithm pageRank = PageRankAlgorithm.of(graph, 0.85, LongStream.empty());
+        pageRank.algorithm().withTerminationFlag(new Budget(3));
+        pageRank.compute(20);
+        assertEquals(3, pageRank.ranIterations());
+        assertTrue(pageRank.result().score(0) > 0.0);
+    }
+
+    /**
+     * stops running after the given number of checks, like an expired deadline
+     */
+    private static final class Budget implements TerminationFlag {
+        private final AtomicInteger checks;
+
+        private Budget(int checks) {
+            this.checks = new AtomicInteger(checks);
+        }
+
+        @Override
+        public boolean running() {
+            return checks.getAndDecrement() > 0;
+        }
+
+        @Override
+        public boolean deadlineExceeded() {
+            return checks.get() < 0;
+        }
+    }
+}
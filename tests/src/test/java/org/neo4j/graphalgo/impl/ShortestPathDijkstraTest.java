@@ -222,6 +222,39 @@ public final class ShortestPathDijkstraTest {
         assertEquals(expected.weight, shortestPathDijkstra.getTotalCost(), 0.1);
     }
 
+    @Test
+    public void test599WithRadixHeap() {
+        Label label = Label.label("Label599");
+        RelationshipType type = RelationshipType.withName("TYPE599");
+        ShortestPath expected = expected(
+                label, type,
+                "id", "1", "id", "2", "id", "5",
+                "id", "6", "id", "3", "id", "4");
+
+        Graph graph = new GraphLoader(DB)
+                .withLabel(label)
+                .withRelationshipType(type)
+                .withRelationshipWeightsFromProperty("cost", Double.MAX_VALUE)
+                .withDirection(Direction.OUTGOING)
+                .load(graphImpl);
+
+        ShortestPathDijkstra shortestPathDijkstra = new ShortestPathDijkstra(graph).withRadixHeap(10);
+        for (int i = 0; i < 2; i++) {
+            shortestPathDijkstra.compute(
+                    expected.nodeIds[0],
+                    expected.nodeIds[expected.nodeIds.length - 1],
+                    Direction.OUTGOING
+            );
+            long[] path = Arrays
+                    .stream(shortestPathDijkstra.getFinalPath().toArray())
+                    .mapToLong(graph::toOriginalNodeId)
+                    .toArray();
+
+            assertArrayEquals(expected.nodeIds, path);
+            assertEquals(expected.weight, shortestPathDijkstra.getTotalCost(), 1e-9);
+        }
+    }
+
     @Test
     public void testResultStream() {
         final Label label = Label.label("Label1");
@@ -127,6 +127,27 @@ public final class ShortestPathsTest {
         assertEquals(Double.POSITIVE_INFINITY, sp.get(graph.toMappedNodeId(outstanding)),0.1);
     }
 
+    @Test
+    public void testPathsWithRadixHeap() throws Exception {
+
+        final IntDoubleMap expected = new ShortestPaths(graph)
+                .compute(head)
+                .getShortestPaths();
+
+        final ShortestPaths sssp = new ShortestPaths(graph).withRadixHeap(1);
+        for (int i = 0; i < 2; i++) {
+            final IntDoubleMap sp = sssp.compute(head)
+                    .getShortestPaths();
+
+            assertEquals(8, sp.get(graph.toMappedNodeId(tail)), 0.1);
+            assertEquals(Double.POSITIVE_INFINITY, sp.get(graph.toMappedNodeId(outstanding)), 0.1);
+            graph.forEachNode(node -> {
+                assertEquals(expected.get(node), sp.get(node), 0.0);
+                return true;
+            });
+        }
+    }
+
     public static Node getNode(String name) {
         final Node[] node = new Node[1];
         api.execute("MATCH (n:Node) WHERE n.name = '" + name + "' RETURN n").accept(row -> {
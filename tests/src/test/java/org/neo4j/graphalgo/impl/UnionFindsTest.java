@@ -124,6 +124,11 @@ public class UnionFindsTest {
         test(UnionFindAlgo.FJ_MERGE);
     }
 
+    @Test
+    public void testShared() {
+        test(UnionFindAlgo.SHARED);
+    }
+
 
     private void test(UnionFindAlgo uf) {
         DSSResult result = run(uf);